@@ -42,6 +42,9 @@ public class CassandraConfiguration {
     public static final int DEFAULT_BLOB_PART_SIZE = 100 * 1024;
     public static final int DEFAULT_ATTACHMENT_V2_MIGRATION_READ_TIMEOUT = toIntExact(TimeUnit.HOURS.toMillis(1));
     public static final int DEFAULT_MESSAGE_ATTACHMENT_ID_MIGRATION_READ_TIMEOUT = toIntExact(TimeUnit.HOURS.toMillis(1));
+    public static final int DEFAULT_UID_RANGE_SIZE = 1;
+    public static final int DEFAULT_MODSEQ_RANGE_SIZE = 1;
+    public static final boolean DEFAULT_RANGE_SINGLE_WRITER = false;
     public static final CassandraConfiguration DEFAULT_CONFIGURATION = builder().build();
 
     public static class Builder {
@@ -57,6 +60,9 @@ public class CassandraConfiguration {
         private Optional<Integer> blobPartSize = Optional.empty();
         private Optional<Integer> attachmentV2MigrationReadTimeout = Optional.empty();
         private Optional<Integer> messageAttachmentIdsReadTimeout = Optional.empty();
+        private Optional<Integer> uidRangeSize = Optional.empty();
+        private Optional<Integer> modSeqRangeSize = Optional.empty();
+        private Optional<Boolean> rangeSingleWriter = Optional.empty();
 
         public Builder messageReadChunkSize(int value) {
             Preconditions.checkArgument(value > 0, "messageReadChunkSize needs to be strictly positive");
@@ -130,6 +136,23 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder uidRangeSize(int value) {
+            Preconditions.checkArgument(value > 0, "uidRangeSize needs to be strictly positive");
+            this.uidRangeSize = Optional.of(value);
+            return this;
+        }
+
+        public Builder modSeqRangeSize(int value) {
+            Preconditions.checkArgument(value > 0, "modSeqRangeSize needs to be strictly positive");
+            this.modSeqRangeSize = Optional.of(value);
+            return this;
+        }
+
+        public Builder rangeSingleWriter(boolean value) {
+            this.rangeSingleWriter = Optional.of(value);
+            return this;
+        }
+
         public Builder messageReadChunkSize(Optional<Integer> value) {
             value.ifPresent(this::messageReadChunkSize);
             return this;
@@ -190,7 +213,28 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder uidRangeSize(Optional<Integer> value) {
+            value.ifPresent(this::uidRangeSize);
+            return this;
+        }
+
+        public Builder modSeqRangeSize(Optional<Integer> value) {
+            value.ifPresent(this::modSeqRangeSize);
+            return this;
+        }
+
+        public Builder rangeSingleWriter(Optional<Boolean> value) {
+            value.ifPresent(this::rangeSingleWriter);
+            return this;
+        }
+
         public CassandraConfiguration build() {
+            int uidRangeSize = this.uidRangeSize.orElse(DEFAULT_UID_RANGE_SIZE);
+            int modSeqRangeSize = this.modSeqRangeSize.orElse(DEFAULT_MODSEQ_RANGE_SIZE);
+            boolean rangeSingleWriter = this.rangeSingleWriter.orElse(DEFAULT_RANGE_SINGLE_WRITER);
+            // Ranges are handed out from memory: values of a mailbox only keep increasing if a single node writes it
+            Preconditions.checkState(rangeSingleWriter || (uidRangeSize == 1 && modSeqRangeSize == 1),
+                "uidRangeSize and modSeqRangeSize greater than 1 require rangeSingleWriter");
             return new CassandraConfiguration(aclMaxRetry.orElse(DEFAULT_ACL_MAX_RETRY),
                 messageReadChunkSize.orElse(DEFAULT_MESSAGE_CHUNK_SIZE_ON_READ),
                 expungeChunkSize.orElse(DEFAULT_EXPUNGE_BATCH_SIZE),
@@ -202,7 +246,10 @@ public class CassandraConfiguration {
                 fetchNextPageInAdvanceRow.orElse(DEFAULT_FETCH_NEXT_PAGE_ADVANCE_IN_ROW),
                 blobPartSize.orElse(DEFAULT_BLOB_PART_SIZE),
                 attachmentV2MigrationReadTimeout.orElse(DEFAULT_ATTACHMENT_V2_MIGRATION_READ_TIMEOUT),
-                messageAttachmentIdsReadTimeout.orElse(DEFAULT_MESSAGE_ATTACHMENT_ID_MIGRATION_READ_TIMEOUT));
+                messageAttachmentIdsReadTimeout.orElse(DEFAULT_MESSAGE_ATTACHMENT_ID_MIGRATION_READ_TIMEOUT),
+                uidRangeSize,
+                modSeqRangeSize,
+                rangeSingleWriter);
         }
     }
 
@@ -222,12 +269,16 @@ public class CassandraConfiguration {
     private final int blobPartSize;
     private final int attachmentV2MigrationReadTimeout;
     private final int messageAttachmentIdsReadTimeout;
+    private final int uidRangeSize;
+    private final int modSeqRangeSize;
+    private final boolean rangeSingleWriter;
 
     @VisibleForTesting
     CassandraConfiguration(int aclMaxRetry, int messageReadChunkSize, int expungeChunkSize,
                            int flagsUpdateChunkSize, int flagsUpdateMessageIdMaxRetry, int flagsUpdateMessageMaxRetry,
                            int modSeqMaxRetry, int uidMaxRetry, int fetchNextPageInAdvanceRow,
-                           int blobPartSize, final int attachmentV2MigrationReadTimeout, int messageAttachmentIdsReadTimeout) {
+                           int blobPartSize, final int attachmentV2MigrationReadTimeout, int messageAttachmentIdsReadTimeout,
+                           int uidRangeSize, int modSeqRangeSize, boolean rangeSingleWriter) {
         this.aclMaxRetry = aclMaxRetry;
         this.messageReadChunkSize = messageReadChunkSize;
         this.expungeChunkSize = expungeChunkSize;
@@ -240,6 +291,9 @@ public class CassandraConfiguration {
         this.blobPartSize = blobPartSize;
         this.attachmentV2MigrationReadTimeout = attachmentV2MigrationReadTimeout;
         this.messageAttachmentIdsReadTimeout = messageAttachmentIdsReadTimeout;
+        this.uidRangeSize = uidRangeSize;
+        this.modSeqRangeSize = modSeqRangeSize;
+        this.rangeSingleWriter = rangeSingleWriter;
     }
 
     public int getBlobPartSize() {
@@ -290,6 +344,18 @@ public class CassandraConfiguration {
         return messageAttachmentIdsReadTimeout;
     }
 
+    public int getUidRangeSize() {
+        return uidRangeSize;
+    }
+
+    public int getModSeqRangeSize() {
+        return modSeqRangeSize;
+    }
+
+    public boolean isRangeSingleWriter() {
+        return rangeSingleWriter;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof CassandraConfiguration) {
@@ -306,7 +372,10 @@ public class CassandraConfiguration {
                 && Objects.equals(this.fetchNextPageInAdvanceRow, that.fetchNextPageInAdvanceRow)
                 && Objects.equals(this.blobPartSize, that.blobPartSize)
                 && Objects.equals(this.attachmentV2MigrationReadTimeout, that.attachmentV2MigrationReadTimeout)
-                && Objects.equals(this.messageAttachmentIdsReadTimeout, that.messageAttachmentIdsReadTimeout);
+                && Objects.equals(this.messageAttachmentIdsReadTimeout, that.messageAttachmentIdsReadTimeout)
+                && Objects.equals(this.uidRangeSize, that.uidRangeSize)
+                && Objects.equals(this.modSeqRangeSize, that.modSeqRangeSize)
+                && Objects.equals(this.rangeSingleWriter, that.rangeSingleWriter);
         }
         return false;
     }
@@ -315,7 +384,8 @@ public class CassandraConfiguration {
     public final int hashCode() {
         return Objects.hash(aclMaxRetry, messageReadChunkSize, expungeChunkSize, flagsUpdateMessageIdMaxRetry,
             flagsUpdateMessageMaxRetry, modSeqMaxRetry, uidMaxRetry, fetchNextPageInAdvanceRow, flagsUpdateChunkSize,
-            blobPartSize, attachmentV2MigrationReadTimeout, messageAttachmentIdsReadTimeout);
+            blobPartSize, attachmentV2MigrationReadTimeout, messageAttachmentIdsReadTimeout, uidRangeSize, modSeqRangeSize,
+            rangeSingleWriter);
     }
 
     @Override
@@ -333,6 +403,9 @@ public class CassandraConfiguration {
             .add("blobPartSize", blobPartSize)
             .add("attachmentV2MigrationReadTimeout", attachmentV2MigrationReadTimeout)
             .add("messageAttachmentIdsReadTimeout", messageAttachmentIdsReadTimeout)
+            .add("uidRangeSize", uidRangeSize)
+            .add("modSeqRangeSize", modSeqRangeSize)
+            .add("rangeSingleWriter", rangeSingleWriter)
             .toString();
     }
 }
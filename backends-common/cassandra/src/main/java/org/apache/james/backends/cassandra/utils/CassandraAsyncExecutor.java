@@ -19,11 +19,13 @@
 
 package org.apache.james.backends.cassandra.utils;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
@@ -56,6 +58,22 @@ public class CassandraAsyncExecutor {
             .thenAccept(result -> { });
     }
 
+    /**
+     * Executes the given statements as a single UNLOGGED batch. Callers are responsible for only batching
+     * statements targeting the same partition, and for keeping the batch reasonably small.
+     */
+    public CompletableFuture<Void> executeVoidUnloggedBatch(Collection<? extends Statement> statements) {
+        if (statements.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (statements.size() == 1) {
+            return executeVoid(statements.iterator().next());
+        }
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batch.addAll(statements);
+        return executeVoid(batch);
+    }
+
     public CompletableFuture<Optional<Row>> executeSingleRow(Statement statement) {
         return execute(statement)
             .thenApply(ResultSet::one)
@@ -199,6 +199,63 @@ public class CassandraConfigurationTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    public void uidRangeSizeShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .uidRangeSize(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void uidRangeSizeShouldThrowOnZero() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .uidRangeSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void modSeqRangeSizeShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .modSeqRangeSize(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void modSeqRangeSizeShouldThrowOnZero() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .modSeqRangeSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void buildShouldThrowWhenUidRangeSizeIsGreaterThanOneWithoutSingleWriter() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .uidRangeSize(2)
+                .build())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void buildShouldThrowWhenModSeqRangeSizeIsGreaterThanOneWithoutSingleWriter() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .modSeqRangeSize(2)
+                .rangeSingleWriter(false)
+                .build())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void buildShouldAcceptRangeSizesGreaterThanOneWithSingleWriter() {
+        CassandraConfiguration configuration = CassandraConfiguration.builder()
+            .uidRangeSize(2)
+            .modSeqRangeSize(3)
+            .rangeSingleWriter(true)
+            .build();
+
+        softly.assertThat(configuration.getUidRangeSize()).isEqualTo(2);
+        softly.assertThat(configuration.getModSeqRangeSize()).isEqualTo(3);
+    }
+
     @Test
     public void builderShouldCreateTheRightObject() {
         int aclMaxRetry = 1;
@@ -213,6 +270,9 @@ public class CassandraConfigurationTest {
         int blobPartSize = 10;
         int attachmentV2MigrationReadTimeout = 11;
         int messageAttachmentIdReadTimeout = 12;
+        int uidRangeSize = 13;
+        int modSeqRangeSize = 14;
+        boolean rangeSingleWriter = true;
 
         CassandraConfiguration configuration = CassandraConfiguration.builder()
             .aclMaxRetry(aclMaxRetry)
@@ -227,6 +287,9 @@ public class CassandraConfigurationTest {
             .blobPartSize(blobPartSize)
             .attachmentV2MigrationReadTimeout(attachmentV2MigrationReadTimeout)
             .messageAttachmentIdsReadTimeout(messageAttachmentIdReadTimeout)
+            .uidRangeSize(uidRangeSize)
+            .modSeqRangeSize(modSeqRangeSize)
+            .rangeSingleWriter(rangeSingleWriter)
             .build();
 
         softly.assertThat(configuration.getAclMaxRetry()).isEqualTo(aclMaxRetry);
@@ -241,6 +304,9 @@ public class CassandraConfigurationTest {
         softly.assertThat(configuration.getBlobPartSize()).isEqualTo(blobPartSize);
         softly.assertThat(configuration.getAttachmentV2MigrationReadTimeout()).isEqualTo(attachmentV2MigrationReadTimeout);
         softly.assertThat(configuration.getMessageAttachmentIdsReadTimeout()).isEqualTo(messageAttachmentIdReadTimeout);
+        softly.assertThat(configuration.getUidRangeSize()).isEqualTo(uidRangeSize);
+        softly.assertThat(configuration.getModSeqRangeSize()).isEqualTo(modSeqRangeSize);
+        softly.assertThat(configuration.isRangeSingleWriter()).isEqualTo(rangeSingleWriter);
     }
 
 }
@@ -0,0 +1,148 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+public class BulkIndexingConfiguration {
+    public static final int DEFAULT_BULK_SIZE = 100;
+    public static final Duration DEFAULT_FLUSH_DELAY = Duration.ofMillis(100);
+    public static final int DEFAULT_BUFFER_SIZE = 10000;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofMillis(100);
+
+    public static final BulkIndexingConfiguration DEFAULT = builder().build();
+
+    public static class Builder {
+        private Optional<Integer> bulkSize;
+        private Optional<Duration> flushDelay;
+        private Optional<Integer> bufferSize;
+        private Optional<Integer> maxRetries;
+        private Optional<Duration> retryDelay;
+
+        private Builder() {
+            bulkSize = Optional.empty();
+            flushDelay = Optional.empty();
+            bufferSize = Optional.empty();
+            maxRetries = Optional.empty();
+            retryDelay = Optional.empty();
+        }
+
+        public Builder bulkSize(int bulkSize) {
+            Preconditions.checkArgument(bulkSize > 0, "'bulkSize' needs to be strictly positive");
+            this.bulkSize = Optional.of(bulkSize);
+            return this;
+        }
+
+        public Builder flushDelay(Duration flushDelay) {
+            Preconditions.checkArgument(!flushDelay.isNegative(), "'flushDelay' can not be negative");
+            this.flushDelay = Optional.of(flushDelay);
+            return this;
+        }
+
+        public Builder bufferSize(int bufferSize) {
+            Preconditions.checkArgument(bufferSize > 0, "'bufferSize' needs to be strictly positive");
+            this.bufferSize = Optional.of(bufferSize);
+            return this;
+        }
+
+        public Builder maxRetries(int maxRetries) {
+            Preconditions.checkArgument(maxRetries >= 0, "'maxRetries' can not be negative");
+            this.maxRetries = Optional.of(maxRetries);
+            return this;
+        }
+
+        public Builder retryDelay(Duration retryDelay) {
+            Preconditions.checkArgument(!retryDelay.isNegative(), "'retryDelay' can not be negative");
+            this.retryDelay = Optional.of(retryDelay);
+            return this;
+        }
+
+        public BulkIndexingConfiguration build() {
+            return new BulkIndexingConfiguration(
+                bulkSize.orElse(DEFAULT_BULK_SIZE),
+                flushDelay.orElse(DEFAULT_FLUSH_DELAY),
+                bufferSize.orElse(DEFAULT_BUFFER_SIZE),
+                maxRetries.orElse(DEFAULT_MAX_RETRIES),
+                retryDelay.orElse(DEFAULT_RETRY_DELAY));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final int bulkSize;
+    private final Duration flushDelay;
+    private final int bufferSize;
+    private final int maxRetries;
+    private final Duration retryDelay;
+
+    private BulkIndexingConfiguration(int bulkSize, Duration flushDelay, int bufferSize, int maxRetries, Duration retryDelay) {
+        this.bulkSize = bulkSize;
+        this.flushDelay = flushDelay;
+        this.bufferSize = bufferSize;
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+    }
+
+    public int getBulkSize() {
+        return bulkSize;
+    }
+
+    public Duration getFlushDelay() {
+        return flushDelay;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof BulkIndexingConfiguration) {
+            BulkIndexingConfiguration that = (BulkIndexingConfiguration) o;
+
+            return Objects.equals(this.bulkSize, that.bulkSize)
+                && Objects.equals(this.bufferSize, that.bufferSize)
+                && Objects.equals(this.maxRetries, that.maxRetries)
+                && Objects.equals(this.flushDelay, that.flushDelay)
+                && Objects.equals(this.retryDelay, that.retryDelay);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(bulkSize, flushDelay, bufferSize, maxRetries, retryDelay);
+    }
+}
@@ -0,0 +1,97 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.elasticsearch.common.Strings;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+public class BulkOperation {
+
+    public enum Type {
+        INDEX,
+        UPDATE,
+        DELETE
+    }
+
+    public static BulkOperation index(String id, String content) {
+        Preconditions.checkArgument(content != null, "content should be provided");
+        return new BulkOperation(Type.INDEX, id, Optional.of(content));
+    }
+
+    public static BulkOperation update(ElasticSearchIndexer.UpdatedRepresentation updatedRepresentation) {
+        return new BulkOperation(Type.UPDATE, updatedRepresentation.getId(), Optional.of(updatedRepresentation.getUpdatedDocumentPart()));
+    }
+
+    public static BulkOperation delete(String id) {
+        return new BulkOperation(Type.DELETE, id, Optional.empty());
+    }
+
+    private final Type type;
+    private final String id;
+    private final Optional<String> content;
+
+    private BulkOperation(Type type, String id, Optional<String> content) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(id), "id should be provided");
+        this.type = type;
+        this.id = id;
+        this.content = content;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Optional<String> getContent() {
+        return content;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof BulkOperation) {
+            BulkOperation other = (BulkOperation) o;
+            return Objects.equals(type, other.type)
+                && Objects.equals(id, other.id)
+                && Objects.equals(content, other.content);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(type, id, content);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("type", type)
+            .add("id", id)
+            .toString();
+    }
+}
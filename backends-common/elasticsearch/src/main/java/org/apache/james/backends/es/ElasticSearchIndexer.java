@@ -144,6 +144,34 @@ public class ElasticSearchIndexer {
         }
     }
     
+    public BulkResponse executeBulk(List<BulkOperation> operations) {
+        Preconditions.checkArgument(!operations.isEmpty(), "At least one operation should be provided");
+        BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
+        operations.forEach(operation -> addToBulk(bulkRequestBuilder, operation));
+        return bulkRequestBuilder.get();
+    }
+
+    private void addToBulk(BulkRequestBuilder bulkRequestBuilder, BulkOperation operation) {
+        switch (operation.getType()) {
+            case INDEX:
+                bulkRequestBuilder.add(
+                    client.prepareIndex(aliasName.getValue(), typeName.getValue(), operation.getId())
+                        .setSource(operation.getContent().get()));
+                return;
+            case UPDATE:
+                bulkRequestBuilder.add(
+                    client.prepareUpdate(aliasName.getValue(), typeName.getValue(), operation.getId())
+                        .setDoc(operation.getContent().get()));
+                return;
+            case DELETE:
+                bulkRequestBuilder.add(
+                    client.prepareDelete(aliasName.getValue(), typeName.getValue(), operation.getId()));
+                return;
+            default:
+                throw new IllegalArgumentException("Unsupported bulk operation type " + operation.getType());
+        }
+    }
+
     public void deleteAllMatchingQuery(QueryBuilder queryBuilder) {
         deleteByQueryPerformer.perform(queryBuilder);
     }
@@ -0,0 +1,246 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Buffers indexing operations and submits them to ElasticSearch as bulk requests.
+ *
+ * Submitted operations are put in a bounded buffer, so that submitters only block when ElasticSearch can not keep up.
+ * A single consumer groups them in bulk requests of at most {@link BulkIndexingConfiguration#getBulkSize()} operations,
+ * waiting at most {@link BulkIndexingConfiguration#getFlushDelay()} after the first one for others to come.
+ *
+ * Bulk requests are executed one at a time. Operations failing for a transient reason (rejection, server error) are
+ * retried with an exponential backoff before the next bulk request is sent, together with the following operations of
+ * the same bulk request targeting the same document. Hence operations on a given document are applied in submission
+ * order.
+ */
+public class ElasticSearchIndexingPipeline {
+    public static final String QUEUE_DEPTH_METRIC_NAME = "elasticSearchIndexingQueueDepth";
+    public static final String BULK_METRIC_NAME = "elasticSearchIndexingBulk";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchIndexingPipeline.class);
+    private static final long STOP_TIMEOUT_IN_SECONDS = 10;
+
+    private static class Entry {
+        static Entry operation(BulkOperation operation) {
+            return new Entry(Optional.of(operation), Optional.empty());
+        }
+
+        static Entry barrier(CompletableFuture<Void> barrier) {
+            return new Entry(Optional.empty(), Optional.of(barrier));
+        }
+
+        private final Optional<BulkOperation> operation;
+        private final Optional<CompletableFuture<Void>> barrier;
+
+        private Entry(Optional<BulkOperation> operation, Optional<CompletableFuture<Void>> barrier) {
+            this.operation = operation;
+            this.barrier = barrier;
+        }
+    }
+
+    private final ElasticSearchIndexer indexer;
+    private final MetricFactory metricFactory;
+    private final BulkIndexingConfiguration configuration;
+    private final BlockingQueue<Entry> buffer;
+    private final ExecutorService consumer;
+
+    @Inject
+    public ElasticSearchIndexingPipeline(ElasticSearchIndexer indexer, MetricFactory metricFactory, BulkIndexingConfiguration configuration) {
+        this.indexer = indexer;
+        this.metricFactory = metricFactory;
+        this.configuration = configuration;
+        this.buffer = new LinkedBlockingQueue<>(configuration.getBufferSize());
+        this.consumer = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("elasticsearch-indexing-%d").build());
+
+        metricFactory.gauge(QUEUE_DEPTH_METRIC_NAME, buffer::size);
+        consumer.execute(this::consume);
+    }
+
+    public void submit(BulkOperation operation) {
+        enqueue(Entry.operation(operation));
+    }
+
+    public void submit(List<BulkOperation> operations) {
+        operations.forEach(this::submit);
+    }
+
+    /**
+     * @return a future completed once all the operations submitted before this call are executed
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> barrier = new CompletableFuture<>();
+        enqueue(Entry.barrier(barrier));
+        return barrier;
+    }
+
+    @PreDestroy
+    public void stop() {
+        try {
+            flush().get(STOP_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.warn("{} indexing operations were not executed before shutdown", buffer.size());
+        } catch (Exception e) {
+            LOGGER.warn("Error while flushing indexing operations before shutdown", e);
+        } finally {
+            consumer.shutdownNow();
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        try {
+            buffer.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while submitting indexing operation", e);
+        }
+    }
+
+    private void consume() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                process(nextEntries());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.error("Unexpected error while executing indexing operations", e);
+            }
+        }
+    }
+
+    private List<Entry> nextEntries() throws InterruptedException {
+        List<Entry> entries = new ArrayList<>();
+        Entry first = buffer.take();
+        entries.add(first);
+        long deadline = System.nanoTime() + configuration.getFlushDelay().toNanos();
+        int operationCount = first.operation.isPresent() ? 1 : 0;
+        while (first.operation.isPresent() && operationCount < configuration.getBulkSize()) {
+            Entry next = buffer.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            entries.add(next);
+            if (next.barrier.isPresent()) {
+                break;
+            }
+            operationCount++;
+        }
+        return entries;
+    }
+
+    private void process(List<Entry> entries) throws InterruptedException {
+        List<BulkOperation> operations = entries.stream()
+            .flatMap(entry -> entry.operation.map(Stream::of).orElse(Stream.empty()))
+            .collect(Collectors.toList());
+        try {
+            if (!operations.isEmpty()) {
+                executeWithRetries(operations);
+            }
+        } finally {
+            entries.forEach(entry -> entry.barrier.ifPresent(barrier -> barrier.complete(null)));
+        }
+    }
+
+    private void executeWithRetries(List<BulkOperation> operations) throws InterruptedException {
+        List<BulkOperation> pendingOperations = operations;
+        for (int retry = 0; retry <= configuration.getMaxRetries(); retry++) {
+            if (retry > 0) {
+                Thread.sleep(configuration.getRetryDelay().toMillis() << (retry - 1));
+            }
+            pendingOperations = execute(pendingOperations);
+            if (pendingOperations.isEmpty()) {
+                return;
+            }
+        }
+        LOGGER.error("Giving up indexing operations after {} retries: {}", configuration.getMaxRetries(), pendingOperations);
+    }
+
+    private List<BulkOperation> execute(List<BulkOperation> operations) {
+        TimeMetric timeMetric = metricFactory.timer(BULK_METRIC_NAME);
+        try {
+            return operationsToRetry(operations, indexer.executeBulk(operations));
+        } catch (Exception e) {
+            LOGGER.warn("Error while executing a bulk of {} indexing operations", operations.size(), e);
+            return operations;
+        } finally {
+            timeMetric.stopAndPublish();
+        }
+    }
+
+    private List<BulkOperation> operationsToRetry(List<BulkOperation> operations, BulkResponse bulkResponse) {
+        if (!bulkResponse.hasFailures()) {
+            return ImmutableList.of();
+        }
+        BulkItemResponse[] items = bulkResponse.getItems();
+        Set<String> idsToRetry = new HashSet<>();
+        ImmutableList.Builder<BulkOperation> operationsToRetry = ImmutableList.builder();
+        for (int position = 0; position < items.length; position++) {
+            BulkOperation operation = operations.get(position);
+            BulkItemResponse item = items[position];
+            if (item.isFailed()) {
+                if (isTransient(item.getFailure())) {
+                    idsToRetry.add(operation.getId());
+                } else {
+                    LOGGER.warn("Could not execute indexing operation {}: {}", operation, item.getFailureMessage());
+                }
+            }
+            if (idsToRetry.contains(operation.getId())) {
+                operationsToRetry.add(operation);
+            }
+        }
+        return operationsToRetry.build();
+    }
+
+    private boolean isTransient(BulkItemResponse.Failure failure) {
+        RestStatus status = failure.getStatus();
+        return status == RestStatus.TOO_MANY_REQUESTS
+            || status.getStatus() >= RestStatus.INTERNAL_SERVER_ERROR.getStatus();
+    }
+}
@@ -0,0 +1,113 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es.search;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import org.apache.james.util.streams.Iterators;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Iterates over search results by pages, relying on from / size rather than on a scroll.
+ *
+ * Unlike {@link ScrollIterable}, no search context is kept open on the cluster and a page is only requested once the
+ * previous one was consumed, which suits searches where only the first results are needed. The supplied
+ * {@link SearchRequestBuilder} needs a total sort order for pages to be consistent.
+ *
+ * ElasticSearch refuses from / size requests beyond its maximum result window: iteration stops there, which can be
+ * detected with {@link PaginatedSearchIterator#hasReachedMaxResultWindow()}.
+ */
+public class PaginatedSearchIterable implements Iterable<SearchResponse> {
+
+    public static final int DEFAULT_MAX_RESULT_WINDOW = 10000;
+
+    private final SearchRequestBuilder searchRequestBuilder;
+    private final int pageSize;
+    private final int maxResultWindow;
+
+    public PaginatedSearchIterable(SearchRequestBuilder searchRequestBuilder, int pageSize) {
+        this(searchRequestBuilder, pageSize, DEFAULT_MAX_RESULT_WINDOW);
+    }
+
+    public PaginatedSearchIterable(SearchRequestBuilder searchRequestBuilder, int pageSize, int maxResultWindow) {
+        Preconditions.checkArgument(pageSize > 0, "pageSize should be strictly positive");
+        Preconditions.checkArgument(maxResultWindow > 0, "maxResultWindow should be strictly positive");
+        this.searchRequestBuilder = searchRequestBuilder;
+        this.pageSize = pageSize;
+        this.maxResultWindow = maxResultWindow;
+    }
+
+    @Override
+    public PaginatedSearchIterator iterator() {
+        return new PaginatedSearchIterator(searchRequestBuilder, pageSize, maxResultWindow);
+    }
+
+    public Stream<SearchResponse> stream() {
+        return Iterators.toStream(iterator());
+    }
+
+    public static class PaginatedSearchIterator implements Iterator<SearchResponse> {
+
+        private final SearchRequestBuilder searchRequestBuilder;
+        private final int pageSize;
+        private final int maxResultWindow;
+        private int from;
+        private boolean lastPageFull;
+
+        public PaginatedSearchIterator(SearchRequestBuilder searchRequestBuilder, int pageSize, int maxResultWindow) {
+            this.searchRequestBuilder = searchRequestBuilder;
+            this.pageSize = pageSize;
+            this.maxResultWindow = maxResultWindow;
+            this.from = 0;
+            this.lastPageFull = true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return lastPageFull && !hasReachedMaxResultWindow();
+        }
+
+        @Override
+        public SearchResponse next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int size = Math.min(pageSize, maxResultWindow - from);
+            SearchResponse result = searchRequestBuilder
+                .setFrom(from)
+                .setSize(size)
+                .get();
+            int hitCount = result.getHits().getHits().length;
+            from += hitCount;
+            lastPageFull = hitCount == size;
+            return result;
+        }
+
+        public boolean hasReachedMaxResultWindow() {
+            return from >= maxResultWindow;
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.backends.es.utils.TestingClientProvider;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.node.Node;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+public class ElasticSearchIndexingPipelineTest {
+
+    private static final int MINIMUM_BATCH_SIZE = 1;
+    private static final IndexName INDEX_NAME = new IndexName("index_name");
+    private static final AliasName ALIAS_NAME = new AliasName("alias_name");
+    private static final TypeName TYPE_NAME = new TypeName("type_name");
+    private static final String CONTENT = "{\"message\": \"trying out Elasticsearch\"}";
+    private static final String UPDATED_CONTENT = "{\"message\": \"mastering out Elasticsearch\"}";
+
+    private TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private EmbeddedElasticSearch embeddedElasticSearch = new EmbeddedElasticSearch(temporaryFolder, INDEX_NAME);
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule(temporaryFolder).around(embeddedElasticSearch);
+
+    private Node node;
+    private List<Integer> bulkSizes;
+    private AtomicInteger failuresToSimulate;
+    private ElasticSearchIndexingPipeline testee;
+
+    @Before
+    public void setup() {
+        node = embeddedElasticSearch.getNode();
+        TestingClientProvider clientProvider = new TestingClientProvider(node);
+        new IndexCreationFactory()
+            .useIndex(INDEX_NAME)
+            .addAlias(ALIAS_NAME)
+            .createIndexAndAliases(clientProvider.get());
+        DeleteByQueryPerformer deleteByQueryPerformer = new DeleteByQueryPerformer(clientProvider.get(),
+            Executors.newSingleThreadExecutor(),
+            MINIMUM_BATCH_SIZE,
+            ALIAS_NAME,
+            TYPE_NAME);
+        bulkSizes = new CopyOnWriteArrayList<>();
+        failuresToSimulate = new AtomicInteger(0);
+        ElasticSearchIndexer indexer = new ElasticSearchIndexer(clientProvider.get(), deleteByQueryPerformer, ALIAS_NAME, TYPE_NAME) {
+            @Override
+            public BulkResponse executeBulk(List<BulkOperation> operations) {
+                bulkSizes.add(operations.size());
+                if (failuresToSimulate.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                    throw new RuntimeException("Simulated failure");
+                }
+                return super.executeBulk(operations);
+            }
+        };
+        testee = new ElasticSearchIndexingPipeline(indexer, new NoopMetricFactory(),
+            BulkIndexingConfiguration.builder()
+                .bulkSize(3)
+                .flushDelay(Duration.ofSeconds(10))
+                .retryDelay(Duration.ofMillis(10))
+                .build());
+    }
+
+    @After
+    public void tearDown() {
+        testee.stop();
+    }
+
+    @Test
+    public void submittedOperationsShouldBeIndexedWhenFlushed() throws Exception {
+        testee.submit(BulkOperation.index("1", CONTENT));
+
+        testee.flush().get(1, TimeUnit.MINUTES);
+        embeddedElasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("trying")).isEqualTo(1);
+    }
+
+    @Test
+    public void operationsShouldBeGroupedByBulkSize() throws Exception {
+        testee.submit(ImmutableList.of(
+            BulkOperation.index("1", CONTENT),
+            BulkOperation.index("2", CONTENT),
+            BulkOperation.index("3", CONTENT),
+            BulkOperation.index("4", CONTENT)));
+
+        testee.flush().get(1, TimeUnit.MINUTES);
+
+        assertThat(bulkSizes).containsExactly(3, 1);
+    }
+
+    @Test
+    public void operationsOnTheSameDocumentShouldBeAppliedInSubmissionOrder() throws Exception {
+        testee.submit(ImmutableList.of(
+            BulkOperation.index("1", CONTENT),
+            BulkOperation.update(new ElasticSearchIndexer.UpdatedRepresentation("1", UPDATED_CONTENT)),
+            BulkOperation.index("2", CONTENT),
+            BulkOperation.delete("2")));
+
+        testee.flush().get(1, TimeUnit.MINUTES);
+        embeddedElasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("trying")).isEqualTo(0);
+        assertThat(countMatching("mastering")).isEqualTo(1);
+    }
+
+    @Test
+    public void failedBulksShouldBeRetried() throws Exception {
+        failuresToSimulate.set(2);
+
+        testee.submit(BulkOperation.index("1", CONTENT));
+
+        testee.flush().get(1, TimeUnit.MINUTES);
+        embeddedElasticSearch.awaitForElasticSearch();
+
+        assertThat(bulkSizes).containsExactly(1, 1, 1);
+        assertThat(countMatching("trying")).isEqualTo(1);
+    }
+
+    @Test
+    public void flushShouldCompleteWhenNoOperation() throws Exception {
+        testee.flush().get(1, TimeUnit.MINUTES);
+
+        assertThat(bulkSizes).isEmpty();
+    }
+
+    private long countMatching(String word) {
+        try (Client client = node.client()) {
+            SearchResponse searchResponse = client.prepareSearch(INDEX_NAME.getValue())
+                .setTypes(TYPE_NAME.getValue())
+                .setQuery(QueryBuilders.matchQuery("message", word))
+                .get();
+            return searchResponse.getHits().getTotalHits();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.james.backends.es.AliasName;
+import org.apache.james.backends.es.ClientProvider;
+import org.apache.james.backends.es.EmbeddedElasticSearch;
+import org.apache.james.backends.es.IndexCreationFactory;
+import org.apache.james.backends.es.IndexName;
+import org.apache.james.backends.es.NodeMappingFactory;
+import org.apache.james.backends.es.TypeName;
+import org.apache.james.backends.es.utils.TestingClientProvider;
+import org.apache.james.util.streams.Iterators;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TemporaryFolder;
+
+public class PaginatedSearchIterableTest {
+
+    public static final int SIZE = 2;
+    public static final String MESSAGE = "message";
+    public static final IndexName INDEX_NAME = new IndexName("index");
+    public static final AliasName ALIAS_NAME = new AliasName("alias");
+    public static final TypeName TYPE_NAME = new TypeName("messages");
+
+    private TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private EmbeddedElasticSearch embeddedElasticSearch = new EmbeddedElasticSearch(temporaryFolder, INDEX_NAME);
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule(temporaryFolder).around(embeddedElasticSearch);
+
+    private ClientProvider clientProvider;
+
+    @Before
+    public void setUp() throws Exception {
+        clientProvider = new TestingClientProvider(embeddedElasticSearch.getNode());
+        new IndexCreationFactory()
+            .useIndex(INDEX_NAME)
+            .addAlias(ALIAS_NAME)
+            .createIndexAndAliases(clientProvider.get());
+        embeddedElasticSearch.awaitForElasticSearch();
+        NodeMappingFactory.applyMapping(clientProvider.get(), INDEX_NAME, TYPE_NAME, getMappingsSources());
+    }
+
+    private XContentBuilder getMappingsSources() throws IOException {
+        return jsonBuilder()
+            .startObject()
+                .startObject(TYPE_NAME.getValue())
+                    .startObject(NodeMappingFactory.PROPERTIES)
+                        .startObject(MESSAGE)
+                            .field(NodeMappingFactory.TYPE, NodeMappingFactory.STRING)
+                        .endObject()
+                    .endObject()
+                .endObject()
+            .endObject();
+    }
+
+    @Test
+    public void paginatedSearchIterableShouldWorkWhenEmpty() {
+        try (Client client = clientProvider.get()) {
+            assertThat(new PaginatedSearchIterable(searchRequestBuilder(client), SIZE)).isEmpty();
+        }
+    }
+
+    @Test
+    public void paginatedSearchIterableShouldWorkWhenOneElement() {
+        try (Client client = clientProvider.get()) {
+            index(client, "1");
+
+            assertThat(convertToIdList(new PaginatedSearchIterable(searchRequestBuilder(client), SIZE)))
+                .containsExactly("1");
+        }
+    }
+
+    @Test
+    public void paginatedSearchIterableShouldWorkWhenSizeElement() {
+        try (Client client = clientProvider.get()) {
+            index(client, "1", "2");
+
+            assertThat(convertToIdList(new PaginatedSearchIterable(searchRequestBuilder(client), SIZE)))
+                .containsExactly("1", "2");
+        }
+    }
+
+    @Test
+    public void paginatedSearchIterableShouldWorkWhenMoreThanSizeElement() {
+        try (Client client = clientProvider.get()) {
+            index(client, "1", "2", "3");
+
+            assertThat(convertToIdList(new PaginatedSearchIterable(searchRequestBuilder(client), SIZE)))
+                .containsExactly("1", "2", "3");
+        }
+    }
+
+    @Test
+    public void paginatedSearchIterableShouldNotRequestMorePagesThanConsumed() {
+        try (Client client = clientProvider.get()) {
+            index(client, "1", "2", "3");
+
+            PaginatedSearchIterable.PaginatedSearchIterator iterator = new PaginatedSearchIterable(searchRequestBuilder(client), SIZE).iterator();
+
+            assertThat(Arrays.stream(iterator.next().getHits().getHits()).map(SearchHit::getId))
+                .containsExactly("1", "2");
+            assertThat(iterator.hasNext()).isTrue();
+        }
+    }
+
+    @Test
+    public void paginatedSearchIterableShouldStopAtMaxResultWindow() {
+        try (Client client = clientProvider.get()) {
+            index(client, "1", "2", "3");
+            int maxResultWindow = 2;
+
+            PaginatedSearchIterable.PaginatedSearchIterator iterator = new PaginatedSearchIterable(searchRequestBuilder(client), SIZE, maxResultWindow).iterator();
+
+            assertThat(Iterators.toStream(iterator)
+                    .flatMap(searchResponse -> Arrays.stream(searchResponse.getHits().getHits()))
+                    .map(SearchHit::getId))
+                .containsExactly("1", "2");
+            assertThat(iterator.hasReachedMaxResultWindow()).isTrue();
+        }
+    }
+
+    private void index(Client client, String... ids) {
+        Arrays.stream(ids)
+            .forEach(id -> client.prepareIndex(INDEX_NAME.getValue(), TYPE_NAME.getValue(), id)
+                .setSource(MESSAGE, "Sample message")
+                .get());
+        embeddedElasticSearch.awaitForElasticSearch();
+    }
+
+    private SearchRequestBuilder searchRequestBuilder(Client client) {
+        return client.prepareSearch(INDEX_NAME.getValue())
+            .setTypes(TYPE_NAME.getValue())
+            .setQuery(matchAllQuery())
+            .addSort(SortBuilders.fieldSort("_uid"));
+    }
+
+    private List<String> convertToIdList(PaginatedSearchIterable paginatedSearchIterable) {
+        return paginatedSearchIterable.stream()
+            .flatMap(searchResponse -> Arrays.stream(searchResponse.getHits().getHits()))
+            .map(SearchHit::getId)
+            .collect(Collectors.toList());
+    }
+}
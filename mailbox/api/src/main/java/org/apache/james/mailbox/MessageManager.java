@@ -268,6 +268,23 @@ public interface MessageManager {
      */
     MessageResultIterator getMessages(MessageRange set, FetchGroup fetchGroup, MailboxSession mailboxSession) throws MailboxException;
 
+    /**
+     * Gets messages in the given range whose mod-sequence is strictly greater than the given one, as needed by the
+     * CONDSTORE <code>CHANGEDSINCE</code> FETCH modifier. The same batching rules than
+     * {@link #getMessages(MessageRange, FetchGroup, MailboxSession)} apply.
+     *
+     * @param set
+     * @param changedSince
+     *            mod-sequence the returned messages were modified after
+     * @param fetchGroup
+     *            data to fetch
+     * @param mailboxSession
+     *            not null
+     * @return MessageResult with the fields defined by FetchGroup
+     * @throws MailboxException
+     */
+    MessageResultIterator getMessagesChangedSince(MessageRange set, long changedSince, FetchGroup fetchGroup, MailboxSession mailboxSession) throws MailboxException;
+
 
     /**
      * Gets the id of the referenced mailbox
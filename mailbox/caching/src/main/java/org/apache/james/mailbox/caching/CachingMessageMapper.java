@@ -55,6 +55,15 @@ public class CachingMessageMapper implements MessageMapper {
         return underlying.findInMailbox(mailbox, set, type, limit);
     }
 
+    @Override
+    public Iterator<MailboxMessage> findInMailboxChangedSince(Mailbox mailbox,
+                                                              MessageRange set,
+                                                              long modSeq,
+                                                              org.apache.james.mailbox.store.mail.MessageMapper.FetchType type,
+                                                              int limit) throws MailboxException {
+        return underlying.findInMailboxChangedSince(mailbox, set, modSeq, type, limit);
+    }
+
     @Override
     public Map<MessageUid, MessageMetaData> expungeMarkedForDeletionInMailbox(
             Mailbox mailbox, MessageRange set) throws MailboxException {
@@ -128,6 +137,12 @@ public class CachingMessageMapper implements MessageMapper {
         return underlying.copy(mailbox, original);
     }
 
+    @Override
+    public List<MessageMetaData> copy(Mailbox mailbox, List<MailboxMessage> originals) throws MailboxException {
+        invalidateMetadata(mailbox);
+        return underlying.copy(mailbox, originals);
+    }
+
     @Override
     public Optional<MessageUid> getLastUid(Mailbox mailbox) throws MailboxException {
         return cache.getLastUid(mailbox, underlying);
@@ -46,6 +46,8 @@ import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdMapper;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdToImapUidDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageMapper;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageModSeqDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageModSeqIndexStatus;
 import org.apache.james.mailbox.cassandra.mail.CassandraModSeqProvider;
 import org.apache.james.mailbox.cassandra.mail.CassandraUidProvider;
 import org.apache.james.mailbox.cassandra.mail.CassandraUserMailboxRightsDAO;
@@ -85,6 +87,8 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
     private final CassandraAttachmentDAO attachmentDAO;
     private final CassandraAttachmentDAOV2 attachmentDAOV2;
     private final CassandraDeletedMessageDAO deletedMessageDAO;
+    private final CassandraMessageModSeqDAO messageModSeqDAO;
+    private final CassandraMessageModSeqIndexStatus modSeqIndexStatus;
     private final ObjectStore objectStore;
     private final CassandraAttachmentMessageIdDAO attachmentMessageIdDAO;
     private final CassandraAttachmentOwnerDAO ownerDAO;
@@ -100,7 +104,7 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
                                                 CassandraMailboxCounterDAO mailboxCounterDAO, CassandraMailboxRecentsDAO mailboxRecentsDAO, CassandraMailboxDAO mailboxDAO,
                                                 CassandraMailboxPathDAO mailboxPathDAO, CassandraFirstUnseenDAO firstUnseenDAO, CassandraApplicableFlagDAO applicableFlagDAO,
                                                 CassandraAttachmentDAO attachmentDAO, CassandraAttachmentDAOV2 attachmentDAOV2, CassandraDeletedMessageDAO deletedMessageDAO,
-                                                ObjectStore objectStore, CassandraAttachmentMessageIdDAO attachmentMessageIdDAO,
+                                                CassandraMessageModSeqDAO messageModSeqDAO, CassandraMessageModSeqIndexStatus modSeqIndexStatus, ObjectStore objectStore, CassandraAttachmentMessageIdDAO attachmentMessageIdDAO,
                                                 CassandraAttachmentOwnerDAO ownerDAO, CassandraACLMapper aclMapper,
                                                 CassandraUserMailboxRightsDAO userMailboxRightsDAO,
                                                 CassandraUtils cassandraUtils, CassandraConfiguration cassandraConfiguration) {
@@ -118,6 +122,8 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
         this.attachmentDAO = attachmentDAO;
         this.attachmentDAOV2 = attachmentDAOV2;
         this.deletedMessageDAO = deletedMessageDAO;
+        this.messageModSeqDAO = messageModSeqDAO;
+        this.modSeqIndexStatus = modSeqIndexStatus;
         this.applicableFlagDAO = applicableFlagDAO;
         this.objectStore = objectStore;
         this.attachmentMessageIdDAO = attachmentMessageIdDAO;
@@ -131,7 +137,8 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
             mailboxCounterDAO,
             firstUnseenDAO,
             applicableFlagDAO,
-            deletedMessageDAO);
+            deletedMessageDAO,
+            messageModSeqDAO);
     }
 
     @Override
@@ -150,6 +157,8 @@ public class CassandraMailboxSessionMapperFactory extends MailboxSessionMapperFa
                                           indexTableHandler,
                                           firstUnseenDAO,
                                           deletedMessageDAO,
+                                          messageModSeqDAO,
+                                          modSeqIndexStatus,
                                           cassandraConfiguration);
     }
 
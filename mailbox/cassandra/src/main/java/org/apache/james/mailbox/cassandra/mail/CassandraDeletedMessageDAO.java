@@ -30,6 +30,7 @@ import static org.apache.james.mailbox.cassandra.table.CassandraDeletedMessageTa
 import static org.apache.james.mailbox.cassandra.table.CassandraDeletedMessageTable.TABLE_NAME;
 import static org.apache.james.mailbox.cassandra.table.CassandraDeletedMessageTable.UID;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
@@ -41,9 +42,11 @@ import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.model.MessageRange;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 
 public class CassandraDeletedMessageDAO {
@@ -119,16 +122,29 @@ public class CassandraDeletedMessageDAO {
     }
 
     public CompletableFuture<Void> addDeleted(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(
-            addStatement.bind()
-                .setUUID(MAILBOX_ID, cassandraId.asUuid())
-                .setLong(UID, uid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bindWithUid(cassandraId, uid, addStatement));
+    }
+
+    public CompletableFuture<Void> addDeleted(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bindWithUid(cassandraId, uid, addStatement))
+            .collect(Guavate.toImmutableList()));
     }
 
     public CompletableFuture<Void> removeDeleted(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
+        return cassandraAsyncExecutor.executeVoid(bindWithUid(cassandraId, uid, deleteStatement));
+    }
+
+    public CompletableFuture<Void> removeDeleted(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bindWithUid(cassandraId, uid, deleteStatement))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindWithUid(CassandraId cassandraId, MessageUid uid, PreparedStatement statement) {
+        return statement.bind()
             .setUUID(MAILBOX_ID, cassandraId.asUuid())
-            .setLong(UID, uid.asLong()));
+            .setLong(UID, uid.asLong());
     }
 
     public CompletableFuture<Stream<MessageUid>> retrieveDeletedMessage(CassandraId cassandraId, MessageRange range) {
@@ -29,6 +29,7 @@ import static org.apache.james.mailbox.cassandra.table.CassandraFirstUnseenTable
 import static org.apache.james.mailbox.cassandra.table.CassandraFirstUnseenTable.TABLE_NAME;
 import static org.apache.james.mailbox.cassandra.table.CassandraFirstUnseenTable.UID;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -38,8 +39,10 @@ import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 
 public class CassandraFirstUnseenDAO {
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
@@ -77,16 +80,29 @@ public class CassandraFirstUnseenDAO {
     }
 
     public CompletableFuture<Void> addUnread(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(
-            addStatement.bind()
-                .setUUID(MAILBOX_ID, cassandraId.asUuid())
-                .setLong(UID, uid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bindWithUid(cassandraId, uid, addStatement));
+    }
+
+    public CompletableFuture<Void> addUnread(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bindWithUid(cassandraId, uid, addStatement))
+            .collect(Guavate.toImmutableList()));
     }
 
     public CompletableFuture<Void> removeUnread(CassandraId cassandraId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
+        return cassandraAsyncExecutor.executeVoid(bindWithUid(cassandraId, uid, deleteStatement));
+    }
+
+    public CompletableFuture<Void> removeUnread(CassandraId cassandraId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bindWithUid(cassandraId, uid, deleteStatement))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindWithUid(CassandraId cassandraId, MessageUid uid, PreparedStatement statement) {
+        return statement.bind()
             .setUUID(MAILBOX_ID, cassandraId.asUuid())
-            .setLong(UID, uid.asLong()));
+            .setLong(UID, uid.asLong());
     }
 
     public CompletableFuture<Optional<MessageUid>> retrieveFirstUnread(CassandraId cassandraId) {
@@ -19,7 +19,10 @@
 
 package org.apache.james.mailbox.cassandra.mail;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 import javax.inject.Inject;
 import javax.mail.Flags;
@@ -29,7 +32,10 @@ import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.util.streams.Iterators;
 
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 public class CassandraIndexTableHandler {
@@ -39,130 +45,146 @@ public class CassandraIndexTableHandler {
     private final CassandraFirstUnseenDAO firstUnseenDAO;
     private final CassandraApplicableFlagDAO applicableFlagDAO;
     private final CassandraDeletedMessageDAO deletedMessageDAO;
+    private final CassandraMessageModSeqDAO messageModSeqDAO;
 
     @Inject
     public CassandraIndexTableHandler(CassandraMailboxRecentsDAO mailboxRecentDAO,
                                       CassandraMailboxCounterDAO mailboxCounterDAO,
                                       CassandraFirstUnseenDAO firstUnseenDAO,
                                       CassandraApplicableFlagDAO applicableFlagDAO,
-                                      CassandraDeletedMessageDAO deletedMessageDAO) {
+                                      CassandraDeletedMessageDAO deletedMessageDAO,
+                                      CassandraMessageModSeqDAO messageModSeqDAO) {
         this.mailboxRecentDAO = mailboxRecentDAO;
         this.mailboxCounterDAO = mailboxCounterDAO;
         this.firstUnseenDAO = firstUnseenDAO;
         this.applicableFlagDAO = applicableFlagDAO;
         this.deletedMessageDAO = deletedMessageDAO;
+        this.messageModSeqDAO = messageModSeqDAO;
     }
 
     public CompletableFuture<Void> updateIndexOnDelete(ComposedMessageIdWithMetaData composedMessageIdWithMetaData, CassandraId mailboxId) {
-        MessageUid uid = composedMessageIdWithMetaData.getComposedMessageId().getUid();
+        return updateIndexOnDelete(ImmutableList.of(composedMessageIdWithMetaData), mailboxId);
+    }
+
+    /**
+     * Coalesces the index updates of several deletions from a mailbox: one counters update, and one UNLOGGED batch
+     * per (mailbox partitioned) index table.
+     */
+    public CompletableFuture<Void> updateIndexOnDelete(Collection<ComposedMessageIdWithMetaData> composedMessageIdsWithMetaData, CassandraId mailboxId) {
+        ImmutableList<MessageUid> uids = composedMessageIdsWithMetaData.stream()
+            .map(composedMessageIdWithMetaData -> composedMessageIdWithMetaData.getComposedMessageId().getUid())
+            .collect(Guavate.toImmutableList());
+        ImmutableList<MessageUid> unseenUids = composedMessageIdsWithMetaData.stream()
+            .filter(composedMessageIdWithMetaData -> !composedMessageIdWithMetaData.getFlags().contains(Flags.Flag.SEEN))
+            .map(composedMessageIdWithMetaData -> composedMessageIdWithMetaData.getComposedMessageId().getUid())
+            .collect(Guavate.toImmutableList());
+
         return CompletableFuture.allOf(
-            updateFirstUnseenOnDelete(mailboxId, composedMessageIdWithMetaData.getFlags(), composedMessageIdWithMetaData.getComposedMessageId().getUid()),
-            mailboxRecentDAO.removeFromRecent(mailboxId, composedMessageIdWithMetaData.getComposedMessageId().getUid()),
-            mailboxCounterDAO.decrementCount(mailboxId),
-            deletedMessageDAO.removeDeleted(mailboxId, uid),
-            decrementUnseenOnDelete(mailboxId, composedMessageIdWithMetaData.getFlags()));
+            firstUnseenDAO.removeUnread(mailboxId, unseenUids),
+            mailboxRecentDAO.removeFromRecent(mailboxId, uids),
+            mailboxCounterDAO.addToCounters(mailboxId, -uids.size(), -unseenUids.size()),
+            deletedMessageDAO.removeDeleted(mailboxId, uids),
+            messageModSeqDAO.delete(mailboxId, composedMessageIdsWithMetaData.stream()
+                .map(composedMessageIdWithMetaData -> new CassandraMessageModSeqDAO.Entry(composedMessageIdWithMetaData.getModSeq(),
+                    composedMessageIdWithMetaData.getComposedMessageId().getUid()))
+                .collect(Guavate.toImmutableList())));
     }
 
     public CompletableFuture<Void> updateIndexOnAdd(MailboxMessage message, CassandraId mailboxId) {
-        Flags flags = message.createFlags();
+        return updateIndexOnAdd(ImmutableList.of(message), mailboxId);
+    }
+
+    /**
+     * Coalesces the index updates of several additions to a mailbox: one counters update, one applicable flags update,
+     * and one UNLOGGED batch per (mailbox partitioned) index table.
+     */
+    public CompletableFuture<Void> updateIndexOnAdd(Collection<MailboxMessage> messages, CassandraId mailboxId) {
+        ImmutableList<MessageUid> unseenUids = uidsMatching(messages, flags -> !flags.contains(Flags.Flag.SEEN));
 
         return CompletableFuture.allOf(
-            checkDeletedOnAdd(mailboxId, message.createFlags(), message.getUid()),
-            updateFirstUnseenOnAdd(mailboxId, message.createFlags(), message.getUid()),
-            addRecentOnSave(mailboxId, message),
-            incrementUnseenOnSave(mailboxId, flags),
-            mailboxCounterDAO.incrementCount(mailboxId),
-            applicableFlagDAO.updateApplicableFlags(mailboxId, ImmutableSet.copyOf(flags.getUserFlags())));
+            deletedMessageDAO.addDeleted(mailboxId, uidsMatching(messages, flags -> flags.contains(Flags.Flag.DELETED))),
+            firstUnseenDAO.addUnread(mailboxId, unseenUids),
+            mailboxRecentDAO.addToRecent(mailboxId, uidsMatching(messages, flags -> flags.contains(Flags.Flag.RECENT))),
+            mailboxCounterDAO.addToCounters(mailboxId, messages.size(), unseenUids.size()),
+            messageModSeqDAO.insert(mailboxId, messages.stream()
+                .map(message -> new CassandraMessageModSeqDAO.Entry(message.getModSeq(), message.getUid()))
+                .collect(Guavate.toImmutableList())),
+            applicableFlagDAO.updateApplicableFlags(mailboxId, messages.stream()
+                .flatMap(message -> Arrays.stream(message.createFlags().getUserFlags()))
+                .collect(Guavate.toImmutableSet())));
     }
 
-    public CompletableFuture<Void> updateIndexOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
-        return CompletableFuture.allOf(manageUnseenMessageCountsOnFlagsUpdate(mailboxId, updatedFlags),
-                                       manageRecentOnFlagsUpdate(mailboxId, updatedFlags),
-                                       updateFirstUnseenOnFlagsUpdate(mailboxId, updatedFlags),
-                                       applicableFlagDAO.updateApplicableFlags(mailboxId, ImmutableSet.copyOf(updatedFlags.userFlagIterator())),
-                                       updateDeletedOnFlagsUpdate(mailboxId, updatedFlags));
+    private ImmutableList<MessageUid> uidsMatching(Collection<MailboxMessage> messages, Predicate<Flags> predicate) {
+        return messages.stream()
+            .filter(message -> predicate.test(message.createFlags()))
+            .map(MailboxMessage::getUid)
+            .collect(Guavate.toImmutableList());
     }
 
-    private CompletableFuture<Void> updateDeletedOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
-        if (updatedFlags.isModifiedToSet(Flags.Flag.DELETED)) {
-            return deletedMessageDAO.addDeleted(mailboxId, updatedFlags.getUid());
-        } else if (updatedFlags.isModifiedToUnset(Flags.Flag.DELETED)) {
-            return deletedMessageDAO.removeDeleted(mailboxId, updatedFlags.getUid());
-        } else {
-            return CompletableFuture.completedFuture(null);
-        }
+    public CompletableFuture<Void> updateIndexOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
+        return updateIndexOnFlagsUpdate(mailboxId, ImmutableList.of(updatedFlags));
     }
 
-    private CompletableFuture<Void> decrementUnseenOnDelete(CassandraId mailboxId, Flags flags) {
-        if (flags.contains(Flags.Flag.SEEN)) {
-            return CompletableFuture.completedFuture(null);
-        }
-        return mailboxCounterDAO.decrementUnseen(mailboxId);
+    /**
+     * Updates the indexes of a mailbox for several flags updates at once: one unseen counter delta, one applicable
+     * flags update, and one UNLOGGED batch per (mailbox partitioned) index table.
+     */
+    public CompletableFuture<Void> updateIndexOnFlagsUpdate(CassandraId mailboxId, Collection<UpdatedFlags> updatedFlags) {
+        return CompletableFuture.allOf(manageUnseenMessageCountsOnFlagsUpdate(mailboxId, updatedFlags),
+                                       manageRecentOnFlagsUpdate(mailboxId, updatedFlags),
+                                       updateFirstUnseenOnFlagsUpdate(mailboxId, updatedFlags),
+                                       applicableFlagDAO.updateApplicableFlags(mailboxId, userFlags(updatedFlags)),
+                                       updateDeletedOnFlagsUpdate(mailboxId, updatedFlags),
+                                       messageModSeqDAO.insert(mailboxId, modSeqEntries(updatedFlags)));
     }
 
-    private CompletableFuture<Void> incrementUnseenOnSave(CassandraId mailboxId, Flags flags) {
-        if (flags.contains(Flags.Flag.SEEN)) {
-            return CompletableFuture.completedFuture(null);
-        }
-        return mailboxCounterDAO.incrementUnseen(mailboxId);
+    private ImmutableSet<String> userFlags(Collection<UpdatedFlags> updatedFlags) {
+        return updatedFlags.stream()
+            .flatMap(flags -> Iterators.toStream(flags.userFlagIterator()))
+            .collect(Guavate.toImmutableSet());
     }
 
-    private CompletableFuture<Void> addRecentOnSave(CassandraId mailboxId, MailboxMessage message) {
-        if (message.createFlags().contains(Flags.Flag.RECENT)) {
-            return mailboxRecentDAO.addToRecent(mailboxId, message.getUid());
-        }
-        return CompletableFuture.completedFuture(null);
+    private ImmutableList<CassandraMessageModSeqDAO.Entry> modSeqEntries(Collection<UpdatedFlags> updatedFlags) {
+        return updatedFlags.stream()
+            .map(flags -> new CassandraMessageModSeqDAO.Entry(flags.getModSeq(), flags.getUid()))
+            .collect(Guavate.toImmutableList());
     }
 
-    private CompletableFuture<Void> manageUnseenMessageCountsOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
-        if (updatedFlags.isModifiedToUnset(Flags.Flag.SEEN)) {
-            return mailboxCounterDAO.incrementUnseen(mailboxId);
-        }
-        if (updatedFlags.isModifiedToSet(Flags.Flag.SEEN)) {
-            return mailboxCounterDAO.decrementUnseen(mailboxId);
-        }
-        return CompletableFuture.completedFuture(null);
+    private ImmutableList<MessageUid> uidsModifiedToSet(Collection<UpdatedFlags> updatedFlags, Flags.Flag flag) {
+        return updatedFlags.stream()
+            .filter(flags -> flags.isModifiedToSet(flag))
+            .map(UpdatedFlags::getUid)
+            .collect(Guavate.toImmutableList());
     }
 
-    private CompletableFuture<Void> manageRecentOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
-        if (updatedFlags.isModifiedToUnset(Flags.Flag.RECENT)) {
-            return mailboxRecentDAO.removeFromRecent(mailboxId, updatedFlags.getUid());
-        }
-        if (updatedFlags.isModifiedToSet(Flags.Flag.RECENT)) {
-            return mailboxRecentDAO.addToRecent(mailboxId, updatedFlags.getUid());
-        }
-        return CompletableFuture.completedFuture(null);
+    private ImmutableList<MessageUid> uidsModifiedToUnset(Collection<UpdatedFlags> updatedFlags, Flags.Flag flag) {
+        return updatedFlags.stream()
+            .filter(flags -> flags.isModifiedToUnset(flag))
+            .map(UpdatedFlags::getUid)
+            .collect(Guavate.toImmutableList());
     }
 
-    private CompletableFuture<Void> updateFirstUnseenOnAdd(CassandraId mailboxId, Flags flags, MessageUid uid) {
-        if (flags.contains(Flags.Flag.SEEN)) {
-            return CompletableFuture.completedFuture(null);
-        }
-        return firstUnseenDAO.addUnread(mailboxId, uid);
+    private CompletableFuture<Void> updateDeletedOnFlagsUpdate(CassandraId mailboxId, Collection<UpdatedFlags> updatedFlags) {
+        return CompletableFuture.allOf(
+            deletedMessageDAO.addDeleted(mailboxId, uidsModifiedToSet(updatedFlags, Flags.Flag.DELETED)),
+            deletedMessageDAO.removeDeleted(mailboxId, uidsModifiedToUnset(updatedFlags, Flags.Flag.DELETED)));
     }
 
-    private CompletableFuture<Void> checkDeletedOnAdd(CassandraId mailboxId, Flags flags, MessageUid uid) {
-        if (flags.contains(Flags.Flag.DELETED)) {
-            return deletedMessageDAO.addDeleted(mailboxId, uid);
-        }
-
-        return CompletableFuture.completedFuture(null);
+    private CompletableFuture<Void> manageUnseenMessageCountsOnFlagsUpdate(CassandraId mailboxId, Collection<UpdatedFlags> updatedFlags) {
+        long delta = uidsModifiedToUnset(updatedFlags, Flags.Flag.SEEN).size()
+            - uidsModifiedToSet(updatedFlags, Flags.Flag.SEEN).size();
+        return mailboxCounterDAO.addToUnseen(mailboxId, delta);
     }
 
-    private CompletableFuture<Void> updateFirstUnseenOnDelete(CassandraId mailboxId, Flags flags, MessageUid uid) {
-        if (flags.contains(Flags.Flag.SEEN)) {
-            return CompletableFuture.completedFuture(null);
-        }
-        return firstUnseenDAO.removeUnread(mailboxId, uid);
+    private CompletableFuture<Void> manageRecentOnFlagsUpdate(CassandraId mailboxId, Collection<UpdatedFlags> updatedFlags) {
+        return CompletableFuture.allOf(
+            mailboxRecentDAO.removeFromRecent(mailboxId, uidsModifiedToUnset(updatedFlags, Flags.Flag.RECENT)),
+            mailboxRecentDAO.addToRecent(mailboxId, uidsModifiedToSet(updatedFlags, Flags.Flag.RECENT)));
     }
 
-    private CompletableFuture<Void> updateFirstUnseenOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
-        if (updatedFlags.isModifiedToUnset(Flags.Flag.SEEN)) {
-            return firstUnseenDAO.addUnread(mailboxId, updatedFlags.getUid());
-        }
-        if (updatedFlags.isModifiedToSet(Flags.Flag.SEEN)) {
-            return firstUnseenDAO.removeUnread(mailboxId, updatedFlags.getUid());
-        }
-        return CompletableFuture.completedFuture(null);
+    private CompletableFuture<Void> updateFirstUnseenOnFlagsUpdate(CassandraId mailboxId, Collection<UpdatedFlags> updatedFlags) {
+        return CompletableFuture.allOf(
+            firstUnseenDAO.addUnread(mailboxId, uidsModifiedToUnset(updatedFlags, Flags.Flag.SEEN)),
+            firstUnseenDAO.removeUnread(mailboxId, uidsModifiedToSet(updatedFlags, Flags.Flag.SEEN)));
     }
 }
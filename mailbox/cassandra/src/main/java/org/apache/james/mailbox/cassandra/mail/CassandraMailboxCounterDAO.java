@@ -28,6 +28,8 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 
@@ -45,12 +47,33 @@ import com.datastax.driver.core.querybuilder.Assignment;
 
 public class CassandraMailboxCounterDAO {
 
+    /**
+     * Deltas received for a mailbox while a counters update of this mailbox is in flight.
+     */
+    private static class PendingDeltas {
+        private long countDelta;
+        private long unseenDelta;
+        private Optional<CompletableFuture<Void>> written = Optional.empty();
+
+        private CompletableFuture<Void> add(long countDelta, long unseenDelta) {
+            this.countDelta += countDelta;
+            this.unseenDelta += unseenDelta;
+            if (!written.isPresent()) {
+                written = Optional.of(new CompletableFuture<>());
+            }
+            return written.get();
+        }
+    }
+
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement readStatement;
     private final PreparedStatement incrementUnseenCountStatement;
     private final PreparedStatement incrementMessageCountStatement;
     private final PreparedStatement decrementUnseenCountStatement;
     private final PreparedStatement decrementMessageCountStatement;
+    private final PreparedStatement addToUnseenCountStatement;
+    private final PreparedStatement addToCountersStatement;
+    private final ConcurrentHashMap<CassandraId, PendingDeltas> countersUpdatesInFlight;
 
     @Inject
     public CassandraMailboxCounterDAO(Session session) {
@@ -60,6 +83,9 @@ public class CassandraMailboxCounterDAO {
         incrementUnseenCountStatement = updateMailboxStatement(session, incr(CassandraMailboxCountersTable.UNSEEN));
         decrementMessageCountStatement = updateMailboxStatement(session, decr(CassandraMailboxCountersTable.COUNT));
         decrementUnseenCountStatement = updateMailboxStatement(session, decr(CassandraMailboxCountersTable.UNSEEN));
+        addToUnseenCountStatement = updateMailboxStatement(session, incr(CassandraMailboxCountersTable.UNSEEN, bindMarker(CassandraMailboxCountersTable.UNSEEN)));
+        addToCountersStatement = createAddToCountersStatement(session);
+        countersUpdatesInFlight = new ConcurrentHashMap<>();
     }
 
     private PreparedStatement createReadStatement(Session session) {
@@ -69,6 +95,14 @@ public class CassandraMailboxCounterDAO {
                 .where(eq(CassandraMailboxCountersTable.MAILBOX_ID, bindMarker(CassandraMailboxCountersTable.MAILBOX_ID))));
     }
 
+    private PreparedStatement createAddToCountersStatement(Session session) {
+        return session.prepare(
+            update(CassandraMailboxCountersTable.TABLE_NAME)
+                .with(incr(CassandraMailboxCountersTable.COUNT, bindMarker(CassandraMailboxCountersTable.COUNT)))
+                .and(incr(CassandraMailboxCountersTable.UNSEEN, bindMarker(CassandraMailboxCountersTable.UNSEEN)))
+                .where(eq(CassandraMailboxCountersTable.MAILBOX_ID, bindMarker(CassandraMailboxCountersTable.MAILBOX_ID))));
+    }
+
     private PreparedStatement updateMailboxStatement(Session session, Assignment operation) {
         return session.prepare(
             update(CassandraMailboxCountersTable.TABLE_NAME)
@@ -120,6 +154,82 @@ public class CassandraMailboxCounterDAO {
         return cassandraAsyncExecutor.executeVoid(bindWithMailbox(mailboxId, incrementUnseenCountStatement));
     }
 
+    /**
+     * Applies a single, possibly negative, delta to the unseen counter. Allows bulk updates to issue one counter
+     * update per mailbox instead of one per message.
+     */
+    public CompletableFuture<Void> addToUnseen(CassandraId mailboxId, long delta) {
+        if (delta == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return cassandraAsyncExecutor.executeVoid(bindWithMailbox(mailboxId, addToUnseenCountStatement)
+            .setLong(CassandraMailboxCountersTable.UNSEEN, delta));
+    }
+
+    /**
+     * Applies possibly negative deltas to both the message count and the unseen count, as a single update.
+     * <p>
+     * At most one such update per mailbox is in flight: deltas received meanwhile, for instance from concurrent
+     * deliveries to the same mailbox, are summed and written as one update once it completes. The returned future
+     * completes only when the update carrying these deltas is written, hence counters read after it reflect them.
+     * Nothing is buffered beyond the in flight update, so an uncontended mailbox sees no added latency.
+     */
+    public CompletableFuture<Void> addToCounters(CassandraId mailboxId, long countDelta, long unseenDelta) {
+        if (countDelta == 0 && unseenDelta == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        AtomicReference<CompletableFuture<Void>> coalesced = new AtomicReference<>();
+        countersUpdatesInFlight.compute(mailboxId, (id, pendingDeltas) -> {
+            if (pendingDeltas == null) {
+                return new PendingDeltas();
+            }
+            coalesced.set(pendingDeltas.add(countDelta, unseenDelta));
+            return pendingDeltas;
+        });
+        if (coalesced.get() != null) {
+            return coalesced.get();
+        }
+        return writeCounters(mailboxId, countDelta, unseenDelta);
+    }
+
+    private CompletableFuture<Void> writeCounters(CassandraId mailboxId, long countDelta, long unseenDelta) {
+        CompletableFuture<Void> write = executeAddToCounters(mailboxId, countDelta, unseenDelta);
+        write.whenComplete((any, error) -> writePendingDeltas(mailboxId));
+        return write;
+    }
+
+    private CompletableFuture<Void> executeAddToCounters(CassandraId mailboxId, long countDelta, long unseenDelta) {
+        if (countDelta == 0 && unseenDelta == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return cassandraAsyncExecutor.executeVoid(bindWithMailbox(mailboxId, addToCountersStatement)
+            .setLong(CassandraMailboxCountersTable.COUNT, countDelta)
+            .setLong(CassandraMailboxCountersTable.UNSEEN, unseenDelta));
+    }
+
+    private void writePendingDeltas(CassandraId mailboxId) {
+        AtomicReference<PendingDeltas> next = new AtomicReference<>();
+        countersUpdatesInFlight.computeIfPresent(mailboxId, (id, pendingDeltas) -> {
+            if (!pendingDeltas.written.isPresent()) {
+                return null;
+            }
+            next.set(pendingDeltas);
+            return new PendingDeltas();
+        });
+        PendingDeltas pendingDeltas = next.get();
+        if (pendingDeltas != null) {
+            CompletableFuture<Void> written = pendingDeltas.written.get();
+            writeCounters(mailboxId, pendingDeltas.countDelta, pendingDeltas.unseenDelta)
+                .whenComplete((any, error) -> {
+                    if (error != null) {
+                        written.completeExceptionally(error);
+                    } else {
+                        written.complete(null);
+                    }
+                });
+        }
+    }
+
     private BoundStatement bindWithMailbox(CassandraId mailboxId, PreparedStatement statement) {
         return statement.bind()
             .setUUID(CassandraMailboxCountersTable.MAILBOX_ID, mailboxId.asUuid());
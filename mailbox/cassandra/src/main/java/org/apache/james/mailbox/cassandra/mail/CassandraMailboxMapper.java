@@ -44,9 +44,11 @@ import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxACL.Right;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.store.mail.AsyncMailboxMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
+import org.apache.james.mailbox.store.mail.utils.AsyncMapperUtils;
 import org.apache.james.util.CompletableFutureUtil;
 import org.apache.james.util.FluentFutureStream;
 import org.apache.james.util.OptionalUtils;
@@ -58,7 +60,7 @@ import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
 
-public class CassandraMailboxMapper implements MailboxMapper {
+public class CassandraMailboxMapper implements MailboxMapper, AsyncMailboxMapper {
 
     public static final String WILDCARD = "%";
     public static final String VALUES_MAY_NOT_BE_LARGER_THAN_64_K = "Index expression values may not be larger than 64K";
@@ -88,34 +90,48 @@ public class CassandraMailboxMapper implements MailboxMapper {
 
     @Override
     public Mailbox findMailboxByPath(MailboxPath path) throws MailboxException {
-        try {
-            return mailboxPathDAO.retrieveId(path)
-                .thenCompose(cassandraIdOptional ->
-                    cassandraIdOptional
-                        .map(CassandraMailboxPathDAO.CassandraIdAndPath::getCassandraId)
-                        .map(this::retrieveMailbox)
-                        .orElse(CompletableFuture.completedFuture(Optional.empty())))
-                .join()
-                .orElseThrow(() -> new MailboxNotFoundException(path));
-        } catch (CompletionException e) {
-            if (e.getCause() instanceof InvalidQueryException) {
-                String errorMessage = e.getCause().getMessage();
-                if (StringUtils.containsIgnoreCase(errorMessage, VALUES_MAY_NOT_BE_LARGER_THAN_64_K) 
-                        || StringUtils.containsIgnoreCase(errorMessage, CLUSTERING_COLUMNS_IS_TOO_LONG)) {
-                    throw new TooLongMailboxNameException("too long mailbox name");
-                }
-                throw new MailboxException("It has error with cassandra storage", e.getCause());
+        return AsyncMapperUtils.join(findMailboxByPathAsync(path))
+            .orElseThrow(() -> new MailboxNotFoundException(path));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Mailbox>> findMailboxByPathAsync(MailboxPath path) {
+        return mailboxPathDAO.retrieveId(path)
+            .thenCompose(cassandraIdOptional ->
+                cassandraIdOptional
+                    .map(CassandraMailboxPathDAO.CassandraIdAndPath::getCassandraId)
+                    .map(this::retrieveMailbox)
+                    .orElse(CompletableFuture.completedFuture(Optional.empty())))
+            .<Optional<Mailbox>>thenApply(mailbox -> mailbox.map(Mailbox.class::cast))
+            .exceptionally(e -> {
+                throw new CompletionException(asMailboxException(e));
+            });
+    }
+
+    private Throwable asMailboxException(Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof InvalidQueryException) {
+            String errorMessage = cause.getMessage();
+            if (StringUtils.containsIgnoreCase(errorMessage, VALUES_MAY_NOT_BE_LARGER_THAN_64_K)
+                    || StringUtils.containsIgnoreCase(errorMessage, CLUSTERING_COLUMNS_IS_TOO_LONG)) {
+                return new TooLongMailboxNameException("too long mailbox name");
             }
-            throw e;
+            return new MailboxException("It has error with cassandra storage", cause);
         }
+        return cause;
     }
 
     @Override
     public Mailbox findMailboxById(MailboxId id) throws MailboxException {
+        return AsyncMapperUtils.join(findMailboxByIdAsync(id))
+            .orElseThrow(() -> new MailboxNotFoundException(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Mailbox>> findMailboxByIdAsync(MailboxId id) {
         CassandraId mailboxId = (CassandraId) id;
         return retrieveMailbox(mailboxId)
-            .join()
-            .orElseThrow(() -> new MailboxNotFoundException(id));
+            .thenApply(mailbox -> mailbox.map(Mailbox.class::cast));
     }
 
     private CompletableFuture<Optional<SimpleMailbox>> retrieveMailbox(CassandraId mailboxId) {
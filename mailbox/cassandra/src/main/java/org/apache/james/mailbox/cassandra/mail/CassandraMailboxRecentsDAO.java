@@ -25,6 +25,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
@@ -39,6 +40,7 @@ import org.apache.james.mailbox.cassandra.table.CassandraMailboxRecentsTable;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 
 public class CassandraMailboxRecentsDAO {
@@ -98,14 +100,27 @@ public class CassandraMailboxRecentsDAO {
     }
 
     public CompletableFuture<Void> removeFromRecent(CassandraId mailboxId, MessageUid messageUid) {
-        return cassandraAsyncExecutor.executeVoid(deleteStatement.bind()
-            .setUUID(CassandraMailboxRecentsTable.MAILBOX_ID, mailboxId.asUuid())
-            .setLong(CassandraMailboxRecentsTable.RECENT_MESSAGE_UID, messageUid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bindWithUid(mailboxId, messageUid, deleteStatement));
+    }
+
+    public CompletableFuture<Void> removeFromRecent(CassandraId mailboxId, Collection<MessageUid> messageUids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(messageUids.stream()
+            .map(messageUid -> bindWithUid(mailboxId, messageUid, deleteStatement))
+            .collect(Guavate.toImmutableList()));
     }
 
     public CompletableFuture<Void> addToRecent(CassandraId mailboxId, MessageUid messageUid) {
-        return cassandraAsyncExecutor.executeVoid(addStatement.bind()
-            .setUUID(CassandraMailboxRecentsTable.MAILBOX_ID, mailboxId.asUuid())
-            .setLong(CassandraMailboxRecentsTable.RECENT_MESSAGE_UID, messageUid.asLong()));
+        return cassandraAsyncExecutor.executeVoid(bindWithUid(mailboxId, messageUid, addStatement));
+    }
+
+    public CompletableFuture<Void> addToRecent(CassandraId mailboxId, Collection<MessageUid> messageUids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(messageUids.stream()
+            .map(messageUid -> bindWithUid(mailboxId, messageUid, addStatement))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindWithUid(CassandraId mailboxId, MessageUid messageUid, PreparedStatement statement) {
+        return bindWithMailbox(mailboxId, statement)
+            .setLong(CassandraMailboxRecentsTable.RECENT_MESSAGE_UID, messageUid.asLong());
     }
 }
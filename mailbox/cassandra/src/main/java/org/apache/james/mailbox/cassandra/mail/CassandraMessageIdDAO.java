@@ -42,6 +42,7 @@ import static org.apache.james.mailbox.cassandra.table.Flag.USER;
 import static org.apache.james.mailbox.cassandra.table.Flag.USER_FLAGS;
 import static org.apache.james.mailbox.cassandra.table.MessageIdToImapUid.MOD_SEQ;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
@@ -59,12 +60,15 @@ import org.apache.james.mailbox.cassandra.ids.CassandraMessageId.Factory;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.util.streams.Limit;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 
@@ -72,6 +76,7 @@ public class CassandraMessageIdDAO {
 
     private static final String IMAP_UID_GTE = IMAP_UID + "_GTE";
     private static final String IMAP_UID_LTE = IMAP_UID + "_LTE";
+    private static final String LIMIT = "LIMIT";
 
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final Factory messageIdFactory;
@@ -81,6 +86,7 @@ public class CassandraMessageIdDAO {
     private final PreparedStatement selectAllUids;
     private final PreparedStatement selectUidGte;
     private final PreparedStatement selectUidRange;
+    private final PreparedStatement selectAllMessages;
     private CassandraUtils cassandraUtils;
     private final PreparedStatement update;
 
@@ -95,6 +101,7 @@ public class CassandraMessageIdDAO {
         this.selectAllUids = prepareSelectAllUids(session);
         this.selectUidGte = prepareSelectUidGte(session);
         this.selectUidRange = prepareSelectUidRange(session);
+        this.selectAllMessages = prepareSelectAllMessages(session);
         this.cassandraUtils = cassandraUtils;
     }
 
@@ -103,6 +110,11 @@ public class CassandraMessageIdDAO {
         this(session, messageIdFactory, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
+    private PreparedStatement prepareSelectAllMessages(Session session) {
+        return session.prepare(select(FIELDS)
+                .from(TABLE_NAME));
+    }
+
     private PreparedStatement prepareDelete(Session session) {
         return session.prepare(QueryBuilder.delete()
                 .from(TABLE_NAME)
@@ -151,14 +163,16 @@ public class CassandraMessageIdDAO {
     private PreparedStatement prepareSelectAllUids(Session session) {
         return session.prepare(select(FIELDS)
                 .from(TABLE_NAME)
-                .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+                .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+                .limit(bindMarker(LIMIT)));
     }
 
     private PreparedStatement prepareSelectUidGte(Session session) {
         return session.prepare(select(FIELDS)
                 .from(TABLE_NAME)
                 .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
-                .and(gte(IMAP_UID, bindMarker(IMAP_UID))));
+                .and(gte(IMAP_UID, bindMarker(IMAP_UID)))
+                .limit(bindMarker(LIMIT)));
     }
 
     private PreparedStatement prepareSelectUidRange(Session session) {
@@ -166,19 +180,47 @@ public class CassandraMessageIdDAO {
                 .from(TABLE_NAME)
                 .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
                 .and(gte(IMAP_UID, bindMarker(IMAP_UID_GTE)))
-                .and(lte(IMAP_UID, bindMarker(IMAP_UID_LTE))));
+                .and(lte(IMAP_UID, bindMarker(IMAP_UID_LTE)))
+                .limit(bindMarker(LIMIT)));
     }
 
     public CompletableFuture<Void> delete(CassandraId mailboxId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeVoid(delete.bind()
+        return cassandraAsyncExecutor.executeVoid(bindDelete(mailboxId, uid));
+    }
+
+    /**
+     * Deletes several messages of a mailbox as one UNLOGGED batch, all of them living in the same partition.
+     */
+    public CompletableFuture<Void> delete(CassandraId mailboxId, Collection<MessageUid> uids) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(uids.stream()
+            .map(uid -> bindDelete(mailboxId, uid))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindDelete(CassandraId mailboxId, MessageUid uid) {
+        return delete.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
-                .setLong(IMAP_UID, uid.asLong()));
+                .setLong(IMAP_UID, uid.asLong());
     }
 
     public CompletableFuture<Void> insert(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return cassandraAsyncExecutor.executeVoid(bindInsert(composedMessageIdWithMetaData));
+    }
+
+    /**
+     * Inserts several messages as one UNLOGGED batch.
+     * All the given messages are expected to belong to the same mailbox, hence to the same partition.
+     */
+    public CompletableFuture<Void> insert(Collection<ComposedMessageIdWithMetaData> composedMessageIdsWithMetaData) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(composedMessageIdsWithMetaData.stream()
+            .map(this::bindInsert)
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindInsert(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
         ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
         Flags flags = composedMessageIdWithMetaData.getFlags();
-        return cassandraAsyncExecutor.executeVoid(insert.bind()
+        return insert.bind()
                 .setUUID(MAILBOX_ID, ((CassandraId) composedMessageId.getMailboxId()).asUuid())
                 .setLong(IMAP_UID, composedMessageId.getUid().asLong())
                 .setUUID(MESSAGE_ID, ((CassandraMessageId) composedMessageId.getMessageId()).get())
@@ -190,13 +232,27 @@ public class CassandraMessageIdDAO {
                 .setBool(RECENT, flags.contains(Flag.RECENT))
                 .setBool(SEEN, flags.contains(Flag.SEEN))
                 .setBool(USER, flags.contains(Flag.USER))
-                .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags())));
+                .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags()));
     }
 
     public CompletableFuture<Void> updateMetadata(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return cassandraAsyncExecutor.executeVoid(bindUpdate(composedMessageIdWithMetaData));
+    }
+
+    /**
+     * Updates the metadata of several messages as one UNLOGGED batch.
+     * All the given messages are expected to belong to the same mailbox, hence to the same partition.
+     */
+    public CompletableFuture<Void> updateMetadata(Collection<ComposedMessageIdWithMetaData> composedMessageIdsWithMetaData) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(composedMessageIdsWithMetaData.stream()
+            .map(this::bindUpdate)
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindUpdate(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
         ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
         Flags flags = composedMessageIdWithMetaData.getFlags();
-        return cassandraAsyncExecutor.executeVoid(update.bind()
+        return update.bind()
                 .setLong(MOD_SEQ, composedMessageIdWithMetaData.getModSeq())
                 .setBool(ANSWERED, flags.contains(Flag.ANSWERED))
                 .setBool(DELETED, flags.contains(Flag.DELETED))
@@ -207,7 +263,7 @@ public class CassandraMessageIdDAO {
                 .setBool(USER, flags.contains(Flag.USER))
                 .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags()))
                 .setUUID(MAILBOX_ID, ((CassandraId) composedMessageId.getMailboxId()).asUuid())
-                .setLong(IMAP_UID, composedMessageId.getUid().asLong()));
+                .setLong(IMAP_UID, composedMessageId.getUid().asLong());
     }
 
     public CompletableFuture<Optional<ComposedMessageIdWithMetaData>> retrieve(CassandraId mailboxId, MessageUid uid) {
@@ -228,35 +284,54 @@ public class CassandraMessageIdDAO {
     }
 
     public CompletableFuture<Stream<ComposedMessageIdWithMetaData>> retrieveMessages(CassandraId mailboxId, MessageRange set) {
+        return retrieveMessages(mailboxId, set, Limit.unlimited());
+    }
+
+    /**
+     * Rows are returned by ascending UID, the limit being applied by Cassandra. The returned stream is lazy: further
+     * pages are only fetched as it gets consumed.
+     */
+    public CompletableFuture<Stream<ComposedMessageIdWithMetaData>> retrieveMessages(CassandraId mailboxId, MessageRange set, Limit limit) {
+        int rowLimit = limit.getLimit().orElse(Integer.MAX_VALUE);
         switch (set.getType()) {
         case ALL:
-            return toMessageIds(selectAll(mailboxId));
+            return toMessageIds(selectAll(mailboxId, rowLimit));
         case FROM:
-            return toMessageIds(selectFrom(mailboxId, set.getUidFrom()));
+            return toMessageIds(selectFrom(mailboxId, set.getUidFrom(), rowLimit));
         case RANGE:
-            return toMessageIds(selectRange(mailboxId, set.getUidFrom(), set.getUidTo()));
+            return toMessageIds(selectRange(mailboxId, set.getUidFrom(), set.getUidTo(), rowLimit));
         case ONE:
             return toMessageIds(selectOneRow(mailboxId, set.getUidFrom()));
         }
         throw new UnsupportedOperationException();
     }
 
-    private CompletableFuture<ResultSet> selectAll(CassandraId mailboxId) {
+    /**
+     * Full table scan, to be used by migrations only.
+     */
+    public CompletableFuture<Stream<ComposedMessageIdWithMetaData>> retrieveAllMessages() {
+        return toMessageIds(cassandraAsyncExecutor.execute(selectAllMessages.bind()));
+    }
+
+    private CompletableFuture<ResultSet> selectAll(CassandraId mailboxId, int limit) {
         return cassandraAsyncExecutor.execute(selectAllUids.bind()
-                .setUUID(MAILBOX_ID, mailboxId.asUuid()));
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setInt(LIMIT, limit));
     }
 
-    private CompletableFuture<ResultSet> selectFrom(CassandraId mailboxId, MessageUid uid) {
+    private CompletableFuture<ResultSet> selectFrom(CassandraId mailboxId, MessageUid uid, int limit) {
         return cassandraAsyncExecutor.execute(selectUidGte.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
-                .setLong(IMAP_UID, uid.asLong()));
+                .setLong(IMAP_UID, uid.asLong())
+                .setInt(LIMIT, limit));
     }
 
-    private CompletableFuture<ResultSet> selectRange(CassandraId mailboxId, MessageUid from, MessageUid to) {
+    private CompletableFuture<ResultSet> selectRange(CassandraId mailboxId, MessageUid from, MessageUid to, int limit) {
         return cassandraAsyncExecutor.execute(selectUidRange.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
                 .setLong(IMAP_UID_GTE, from.asLong())
-                .setLong(IMAP_UID_LTE, to.asLong()));
+                .setLong(IMAP_UID_LTE, to.asLong())
+                .setInt(LIMIT, limit));
     }
 
     private CompletableFuture<Stream<ComposedMessageIdWithMetaData>> toMessageIds(CompletableFuture<ResultSet> completableFuture) {
@@ -25,7 +25,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.mail.Flags;
@@ -39,6 +43,7 @@ import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
 import org.apache.james.mailbox.cassandra.mail.utils.FlagsUpdateStageResult;
+import org.apache.james.mailbox.cassandra.mail.utils.PrefetchingIterator;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
@@ -48,10 +53,13 @@ import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.store.FlagsUpdateCalculator;
 import org.apache.james.mailbox.store.SimpleMessageMetaData;
+import org.apache.james.mailbox.store.mail.AsyncMessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
+import org.apache.james.mailbox.store.mail.utils.AsyncMapperUtils;
+import org.apache.james.util.CompletableFutureUtil;
 import org.apache.james.util.FluentFutureStream;
 import org.apache.james.util.OptionalUtils;
 import org.apache.james.util.streams.JamesCollectors;
@@ -59,16 +67,17 @@ import org.apache.james.util.streams.Limit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 
-public class CassandraMessageMapper implements MessageMapper {
+public class CassandraMessageMapper implements MessageMapper, AsyncMessageMapper {
     public static final MailboxCounters INITIAL_COUNTERS =  MailboxCounters.builder()
         .count(0L)
         .unseen(0L)
         .build();
     public static final Logger LOGGER = LoggerFactory.getLogger(CassandraMessageMapper.class);
+    private static final int PREFETCHED_MESSAGE_BATCHES = 2;
 
     private final CassandraModSeqProvider modSeqProvider;
     private final MailboxSession mailboxSession;
@@ -83,6 +92,8 @@ public class CassandraMessageMapper implements MessageMapper {
     private final CassandraFirstUnseenDAO firstUnseenDAO;
     private final AttachmentLoader attachmentLoader;
     private final CassandraDeletedMessageDAO deletedMessageDAO;
+    private final CassandraMessageModSeqDAO messageModSeqDAO;
+    private final CassandraMessageModSeqIndexStatus modSeqIndexStatus;
     private final CassandraConfiguration cassandraConfiguration;
 
     public CassandraMessageMapper(CassandraUidProvider uidProvider, CassandraModSeqProvider modSeqProvider,
@@ -91,7 +102,8 @@ public class CassandraMessageMapper implements MessageMapper {
                                   CassandraMessageIdToImapUidDAO imapUidDAO, CassandraMailboxCounterDAO mailboxCounterDAO,
                                   CassandraMailboxRecentsDAO mailboxRecentDAO, CassandraApplicableFlagDAO applicableFlagDAO,
                                   CassandraIndexTableHandler indexTableHandler, CassandraFirstUnseenDAO firstUnseenDAO,
-                                  CassandraDeletedMessageDAO deletedMessageDAO, CassandraConfiguration cassandraConfiguration) {
+                                  CassandraDeletedMessageDAO deletedMessageDAO, CassandraMessageModSeqDAO messageModSeqDAO,
+                                  CassandraMessageModSeqIndexStatus modSeqIndexStatus, CassandraConfiguration cassandraConfiguration) {
         this.uidProvider = uidProvider;
         this.modSeqProvider = modSeqProvider;
         this.mailboxSession = mailboxSession;
@@ -105,6 +117,8 @@ public class CassandraMessageMapper implements MessageMapper {
         this.attachmentLoader = new AttachmentLoader(attachmentMapper);
         this.applicableFlagDAO = applicableFlagDAO;
         this.deletedMessageDAO = deletedMessageDAO;
+        this.messageModSeqDAO = messageModSeqDAO;
+        this.modSeqIndexStatus = modSeqIndexStatus;
         this.cassandraConfiguration = cassandraConfiguration;
     }
 
@@ -133,9 +147,13 @@ public class CassandraMessageMapper implements MessageMapper {
 
     @Override
     public MailboxCounters getMailboxCounters(Mailbox mailbox) throws MailboxException {
+        return AsyncMapperUtils.join(getMailboxCountersAsync(mailbox));
+    }
+
+    @Override
+    public CompletableFuture<MailboxCounters> getMailboxCountersAsync(Mailbox mailbox) {
         return mailboxCounterDAO.retrieveMailboxCounters(mailbox)
-            .join()
-            .orElse(INITIAL_COUNTERS);
+            .thenApply(counters -> counters.orElse(INITIAL_COUNTERS));
     }
 
     @Override
@@ -164,17 +182,105 @@ public class CassandraMessageMapper implements MessageMapper {
     @Override
     public Iterator<MailboxMessage> findInMailbox(Mailbox mailbox, MessageRange messageRange, FetchType ftype, int max) throws MailboxException {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
-        return retrieveMessages(retrieveMessageIds(mailboxId, messageRange), ftype, Limit.from(max))
-            .join()
-            .map(SimpleMailboxMessage -> (MailboxMessage) SimpleMailboxMessage)
-            .sorted(Comparator.comparing(MailboxMessage::getUid))
-            .iterator();
+        return retrieveMessagesByBatches(
+            messageIdDAO.retrieveMessages(mailboxId, messageRange, Limit.from(max))
+                .join()
+                .sequential()
+                .iterator(),
+            ftype);
     }
 
-    private List<ComposedMessageIdWithMetaData> retrieveMessageIds(CassandraId mailboxId, MessageRange messageRange) {
-        return messageIdDAO.retrieveMessages(mailboxId, messageRange)
+    /**
+     * Unlike {@link #findInMailbox(Mailbox, MessageRange, FetchType, int)}, which lazily streams the messages, the
+     * whole result is gathered. Batches are still read one after the other to bound the load put on Cassandra.
+     */
+    @Override
+    public CompletableFuture<List<MailboxMessage>> findInMailboxAsync(Mailbox mailbox, MessageRange messageRange, FetchType ftype, int max) {
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        return messageIdDAO.retrieveMessages(mailboxId, messageRange, Limit.from(max))
+            .thenCompose(messageIds -> CompletableFutureUtil.chainAll(
+                messageIds.collect(JamesCollectors.chunker(cassandraConfiguration.getMessageReadChunkSize())),
+                messageIdChunk -> retrieveMessages(ImmutableList.copyOf(messageIdChunk), ftype, Limit.unlimited())))
+            .thenApply(batches -> batches
+                .flatMap(Function.identity())
+                .map(simpleMailboxMessage -> (MailboxMessage) simpleMailboxMessage)
+                .sorted(Comparator.comparing(MailboxMessage::getUid))
+                .collect(Guavate.toImmutableList()));
+    }
+
+    /**
+     * Until the messageModSeq index is complete, messages are filtered as in {@link MessageMapper}.
+     *
+     * Otherwise the index entries of the range are ordered by UID, and their metadata is checked chunk by chunk, only
+     * until the limit is reached.
+     */
+    @Override
+    public Iterator<MailboxMessage> findInMailboxChangedSince(Mailbox mailbox, MessageRange set, long modSeq, FetchType type, int limit) throws MailboxException {
+        if (!modSeqIndexStatus.isIndexed()) {
+            return MessageMapper.super.findInMailboxChangedSince(mailbox, set, modSeq, type, limit);
+        }
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        Collection<CassandraMessageModSeqDAO.Entry> entries = latestEntriesByUid(mailboxId, set, modSeq);
+        Iterator<ComposedMessageIdWithMetaData> changedMessageIds = Iterators.filter(
+            Iterators.concat(Iterators.transform(
+                Iterators.partition(entries.iterator(), cassandraConfiguration.getMessageReadChunkSize()),
+                entryChunk -> FluentFutureStream.ofOptionals(entryChunk.stream()
+                        .map(entry -> retrieveUpToDateMetadata(mailboxId, entry)))
+                    .join()
+                    .iterator())),
+            metadata -> metadata.getModSeq() > modSeq);
+
+        return retrieveMessagesByBatches(
+            Limit.from(limit).getLimit()
+                .map(max -> Iterators.limit(changedMessageIds, max))
+                .orElse(changedMessageIds),
+            type);
+    }
+
+    /**
+     * A message modified several times since the given mod-sequence has several entries: only the latest one is kept,
+     * the other ones being outdated are removed.
+     */
+    private Collection<CassandraMessageModSeqDAO.Entry> latestEntriesByUid(CassandraId mailboxId, MessageRange set, long modSeq) {
+        TreeMap<MessageUid, CassandraMessageModSeqDAO.Entry> latestEntries = new TreeMap<>();
+        ImmutableList.Builder<CassandraMessageModSeqDAO.Entry> outdatedEntries = ImmutableList.builder();
+        messageModSeqDAO.retrieveChangedSince(mailboxId, modSeq)
             .join()
-            .collect(Guavate.toImmutableList());
+            .filter(entry -> set.includes(entry.getUid()))
+            .forEach(entry -> Optional.ofNullable(latestEntries.put(entry.getUid(), entry))
+                .ifPresent(outdatedEntries::add));
+        ImmutableList<CassandraMessageModSeqDAO.Entry> outdated = outdatedEntries.build();
+        if (!outdated.isEmpty()) {
+            messageModSeqDAO.delete(mailboxId, outdated).join();
+        }
+        return latestEntries.values();
+    }
+
+    /**
+     * Index entries are written after the message metadata they refer to. An entry whose message is gone, or whose
+     * message was modified again since, is thus outdated and gets removed.
+     */
+    private CompletableFuture<Optional<ComposedMessageIdWithMetaData>> retrieveUpToDateMetadata(CassandraId mailboxId, CassandraMessageModSeqDAO.Entry entry) {
+        return messageIdDAO.retrieve(mailboxId, entry.getUid())
+            .thenCompose(metadata -> {
+                if (metadata.isPresent() && metadata.get().getModSeq() <= entry.getModSeq()) {
+                    return CompletableFuture.completedFuture(metadata);
+                }
+                return messageModSeqDAO.delete(mailboxId, entry.getModSeq(), entry.getUid())
+                    .thenApply(any -> Optional.<ComposedMessageIdWithMetaData>empty());
+            });
+    }
+
+    private Iterator<MailboxMessage> retrieveMessagesByBatches(Iterator<ComposedMessageIdWithMetaData> messageIds, FetchType ftype) {
+        Iterator<List<ComposedMessageIdWithMetaData>> messageIdBatches = Iterators.partition(messageIds,
+            cassandraConfiguration.getMessageReadChunkSize());
+
+        return new PrefetchingIterator<>(messageIdBatches,
+            messageIds -> retrieveMessages(messageIds, ftype, Limit.unlimited())
+                .thenApply(messages -> messages
+                    .map(SimpleMailboxMessage -> (MailboxMessage) SimpleMailboxMessage)
+                    .sorted(Comparator.comparing(MailboxMessage::getUid))),
+            PREFETCHED_MESSAGE_BATCHES);
     }
 
     private CompletableFuture<Stream<SimpleMailboxMessage>> retrieveMessages(List<ComposedMessageIdWithMetaData> messageIds, FetchType fetchType, Limit limit) {
@@ -216,12 +322,14 @@ public class CassandraMessageMapper implements MessageMapper {
     private CompletableFuture<Stream<SimpleMailboxMessage>> expungeUidChunk(CassandraId mailboxId, Collection<MessageUid> uidChunk) {
         return FluentFutureStream.ofOptionals(
                 uidChunk.stream().map(uid -> retrieveComposedId(mailboxId, uid)))
-            .performOnAll(this::deleteUsingMailboxId)
-            .thenFlatCompose(idWithMetadata -> messageDAO.retrieveMessages(ImmutableList.of(idWithMetadata), FetchType.Metadata, Limit.unlimited()))
-            .filter(CassandraMessageDAO.MessageResult::isFound)
-            .map(CassandraMessageDAO.MessageResult::message)
-            .map(pair -> pair.getKey().toMailboxMessage(ImmutableList.of()))
-            .completableFuture();
+            .completableFuture()
+            .thenApply(stream -> stream.collect(Guavate.toImmutableList()))
+            .thenCompose(idsWithMetadata -> deleteUsingMailboxId(mailboxId, idsWithMetadata)
+                .thenCompose(any -> FluentFutureStream.of(messageDAO.retrieveMessages(idsWithMetadata, FetchType.Metadata, Limit.unlimited()))
+                    .filter(CassandraMessageDAO.MessageResult::isFound)
+                    .map(CassandraMessageDAO.MessageResult::message)
+                    .map(pair -> pair.getKey().toMailboxMessage(ImmutableList.of()))
+                    .completableFuture()));
     }
 
     private CompletableFuture<Optional<ComposedMessageIdWithMetaData>> retrieveComposedId(CassandraId mailboxId, MessageUid uid) {
@@ -240,6 +348,47 @@ public class CassandraMessageMapper implements MessageMapper {
         return messageMetaData;
     }
 
+    /**
+     * Moves the messages in bulk: they are first copied with {@link #copy(Mailbox, List)}, then their source entries
+     * are removed, one UNLOGGED batch per source mailbox.
+     */
+    @Override
+    public List<MessageMetaData> move(Mailbox destinationMailbox, List<MailboxMessage> originals) throws MailboxException {
+        List<ComposedMessageIdWithMetaData> sources = originals.stream()
+            .map(MailboxMessage::getComposedMessageIdWithMetaData)
+            .collect(Guavate.toImmutableList());
+
+        List<MessageMetaData> messageMetaData = copy(destinationMailbox, originals);
+        deleteUsingMailboxId(sources).join();
+
+        return messageMetaData;
+    }
+
+    private CompletableFuture<Void> deleteUsingMailboxId(List<ComposedMessageIdWithMetaData> composedMessageIdsWithMetaData) {
+        Map<CassandraId, List<ComposedMessageIdWithMetaData>> idsByMailbox = composedMessageIdsWithMetaData.stream()
+            .collect(Collectors.groupingBy(composedMessageIdWithMetaData -> (CassandraId) composedMessageIdWithMetaData.getComposedMessageId().getMailboxId()));
+
+        return FluentFutureStream.of(idsByMailbox.entrySet().stream()
+                .map(entry -> deleteUsingMailboxId(entry.getKey(), entry.getValue())))
+            .completableFuture()
+            .thenAccept(any -> { });
+    }
+
+    private CompletableFuture<Void> deleteUsingMailboxId(CassandraId mailboxId, List<ComposedMessageIdWithMetaData> composedMessageIdsWithMetaData) {
+        List<MessageUid> uids = composedMessageIdsWithMetaData.stream()
+            .map(composedMessageIdWithMetaData -> composedMessageIdWithMetaData.getComposedMessageId().getUid())
+            .collect(Guavate.toImmutableList());
+
+        return CompletableFuture.allOf(
+                FluentFutureStream.of(composedMessageIdsWithMetaData.stream()
+                    .map(composedMessageIdWithMetaData -> imapUidDAO.delete(
+                        (CassandraMessageId) composedMessageIdWithMetaData.getComposedMessageId().getMessageId(),
+                        mailboxId)))
+                    .completableFuture(),
+                messageIdDAO.delete(mailboxId, uids))
+            .thenCompose(voidValue -> indexTableHandler.updateIndexOnDelete(composedMessageIdsWithMetaData, mailboxId));
+    }
+
     @Override
     public void endRequest() {
         // Do nothing
@@ -252,88 +401,112 @@ public class CassandraMessageMapper implements MessageMapper {
 
     @Override
     public MessageMetaData add(Mailbox mailbox, MailboxMessage message) throws MailboxException {
+        return AsyncMapperUtils.join(addAsync(mailbox, message));
+    }
+
+    @Override
+    public CompletableFuture<MessageMetaData> addAsync(Mailbox mailbox, MailboxMessage message) {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
 
-        save(mailbox, addUidAndModseq(message, mailboxId))
+        return addUidAndModseq(message, mailboxId)
+            .thenCompose(messageWithUid -> save(mailbox, messageWithUid))
             .thenCompose(voidValue -> indexTableHandler.updateIndexOnAdd(message, mailboxId))
-            .join();
-        return new SimpleMessageMetaData(message);
+            .thenApply(voidValue -> new SimpleMessageMetaData(message));
+    }
+
+    private CompletableFuture<MailboxMessage> addUidAndModseq(MailboxMessage message, CassandraId mailboxId) {
+        return CompletableFutureUtil.combine(
+            uidProvider.nextUid(mailboxId),
+            modSeqProvider.nextModSeq(mailboxId),
+            (uid, modSeq) -> {
+                message.setUid(uid.orElseThrow(() -> new CompletionException(
+                    new MailboxException("Can not find a UID to save " + message.getMessageId() + " in " + mailboxId))));
+                message.setModSeq(modSeq.orElseThrow(() -> new CompletionException(
+                    new MailboxException("Can not find a MODSEQ to save " + message.getMessageId() + " in " + mailboxId))));
+                return message;
+            });
     }
 
-    private MailboxMessage addUidAndModseq(MailboxMessage message, CassandraId mailboxId) throws MailboxException {
-        CompletableFuture<Optional<MessageUid>> uidFuture = uidProvider.nextUid(mailboxId);
-        CompletableFuture<Optional<Long>> modseqFuture = modSeqProvider.nextModSeq(mailboxId);
-        CompletableFuture.allOf(uidFuture, modseqFuture).join();
-
-        message.setUid(uidFuture.join()
-            .orElseThrow(() -> new MailboxException("Can not find a UID to save " + message.getMessageId() + " in " + mailboxId)));
-        message.setModSeq(modseqFuture.join()
-            .orElseThrow(() -> new MailboxException("Can not find a MODSEQ to save " + message.getMessageId() + " in " + mailboxId)));
-
-        return message;
+    @Override
+    public Iterator<UpdatedFlags> updateFlags(Mailbox mailbox, FlagsUpdateCalculator flagUpdateCalculator, MessageRange range) throws MailboxException {
+        return AsyncMapperUtils.join(updateFlagsAsync(mailbox, flagUpdateCalculator, range))
+            .iterator();
     }
 
     @Override
-    public Iterator<UpdatedFlags> updateFlags(Mailbox mailbox, FlagsUpdateCalculator flagUpdateCalculator, MessageRange range) throws MailboxException {
+    public CompletableFuture<List<UpdatedFlags>> updateFlagsAsync(Mailbox mailbox, FlagsUpdateCalculator flagUpdateCalculator, MessageRange range) {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
 
-        Stream<ComposedMessageIdWithMetaData> toBeUpdated = messageIdDAO.retrieveMessages(mailboxId, range).join();
-
-        FlagsUpdateStageResult firstResult = runUpdateStage(mailboxId, toBeUpdated, flagUpdateCalculator);
-        FlagsUpdateStageResult finalResult = handleUpdatesStagedRetry(mailboxId, flagUpdateCalculator, firstResult);
-        if (finalResult.containsFailedResults()) {
-            LOGGER.error("Can not update following UIDs {} for mailbox {}", finalResult.getFailed(), mailboxId.asUuid());
-        }
-        return finalResult.getSucceeded().iterator();
+        return messageIdDAO.retrieveMessages(mailboxId, range)
+            .thenCompose(toBeUpdated -> runUpdateStage(mailboxId, toBeUpdated, flagUpdateCalculator))
+            .thenCompose(firstResult -> handleUpdatesStagedRetry(mailboxId, flagUpdateCalculator, firstResult, 0))
+            .thenApply(finalResult -> {
+                if (finalResult.containsFailedResults()) {
+                    LOGGER.error("Can not update following UIDs {} for mailbox {}", finalResult.getFailed(), mailboxId.asUuid());
+                }
+                return finalResult.getSucceeded();
+            });
     }
 
-    private FlagsUpdateStageResult handleUpdatesStagedRetry(CassandraId mailboxId, FlagsUpdateCalculator flagUpdateCalculator, FlagsUpdateStageResult firstResult) {
-        FlagsUpdateStageResult globalResult = firstResult;
-        int retryCount = 0;
-        while (retryCount < cassandraConfiguration.getFlagsUpdateMessageMaxRetry() && globalResult.containsFailedResults()) {
-            retryCount++;
-            FlagsUpdateStageResult stageResult = retryUpdatesStage(mailboxId, flagUpdateCalculator, globalResult.getFailed());
-            globalResult = globalResult.keepSucceded().merge(stageResult);
+    private CompletableFuture<FlagsUpdateStageResult> handleUpdatesStagedRetry(CassandraId mailboxId, FlagsUpdateCalculator flagUpdateCalculator, FlagsUpdateStageResult globalResult, int retryCount) {
+        if (retryCount >= cassandraConfiguration.getFlagsUpdateMessageMaxRetry() || !globalResult.containsFailedResults()) {
+            return CompletableFuture.completedFuture(globalResult);
         }
-        return globalResult;
+        return retryUpdatesStage(mailboxId, flagUpdateCalculator, globalResult.getFailed())
+            .thenCompose(stageResult -> handleUpdatesStagedRetry(mailboxId, flagUpdateCalculator,
+                globalResult.keepSucceded().merge(stageResult), retryCount + 1));
     }
 
-    private FlagsUpdateStageResult retryUpdatesStage(CassandraId mailboxId, FlagsUpdateCalculator flagsUpdateCalculator, List<MessageUid> failed) {
-        Stream<ComposedMessageIdWithMetaData> idsFailed = FluentFutureStream.ofOptionals(
-            failed.stream().map(uid -> messageIdDAO.retrieve(mailboxId, uid)))
-            .join();
-
-        return runUpdateStage(mailboxId, idsFailed, flagsUpdateCalculator);
+    private CompletableFuture<FlagsUpdateStageResult> retryUpdatesStage(CassandraId mailboxId, FlagsUpdateCalculator flagsUpdateCalculator, List<MessageUid> failed) {
+        return FluentFutureStream.ofOptionals(
+                failed.stream().map(uid -> messageIdDAO.retrieve(mailboxId, uid)))
+            .completableFuture()
+            .thenCompose(idsFailed -> runUpdateStage(mailboxId, idsFailed, flagsUpdateCalculator));
     }
 
-    private FlagsUpdateStageResult runUpdateStage(CassandraId mailboxId, Stream<ComposedMessageIdWithMetaData> toBeUpdated, FlagsUpdateCalculator flagsUpdateCalculator) {
-        Long newModSeq = modSeqProvider.nextModSeq(mailboxId).join().orElseThrow(() -> new RuntimeException("ModSeq generation failed for mailbox " + mailboxId.asUuid()));
-
-        return toBeUpdated.collect(JamesCollectors.chunker(cassandraConfiguration.getFlagsUpdateChunkSize()))
-            .map(uidChunk -> performUpdatesForChunk(mailboxId, flagsUpdateCalculator, newModSeq, uidChunk))
-            .map(CompletableFuture::join)
-            .reduce(FlagsUpdateStageResult.none(), FlagsUpdateStageResult::merge);
+    private CompletableFuture<FlagsUpdateStageResult> runUpdateStage(CassandraId mailboxId, Stream<ComposedMessageIdWithMetaData> toBeUpdated, FlagsUpdateCalculator flagsUpdateCalculator) {
+        return modSeqProvider.nextModSeq(mailboxId)
+            .thenApply(modSeq -> modSeq.orElseThrow(() -> new RuntimeException("ModSeq generation failed for mailbox " + mailboxId.asUuid())))
+            .thenCompose(newModSeq -> CompletableFutureUtil.chainAll(
+                    toBeUpdated.collect(JamesCollectors.chunker(cassandraConfiguration.getFlagsUpdateChunkSize())),
+                    uidChunk -> performUpdatesForChunk(mailboxId, flagsUpdateCalculator, newModSeq, uidChunk)))
+            .thenApply(results -> results.reduce(FlagsUpdateStageResult.none(), FlagsUpdateStageResult::merge));
     }
 
     private CompletableFuture<FlagsUpdateStageResult> performUpdatesForChunk(CassandraId mailboxId, FlagsUpdateCalculator flagsUpdateCalculator, Long newModSeq, Collection<ComposedMessageIdWithMetaData> uidChunk) {
+        Map<MessageUid, ComposedMessageId> composedMessageIds = uidChunk.stream()
+            .map(ComposedMessageIdWithMetaData::getComposedMessageId)
+            .collect(Guavate.toImmutableMap(ComposedMessageId::getUid, Function.identity()));
         Stream<CompletableFuture<FlagsUpdateStageResult>> updateMetaDataFuture =
             uidChunk.stream().map(oldMetadata -> tryFlagsUpdate(flagsUpdateCalculator, newModSeq, oldMetadata));
 
         return FluentFutureStream.of(updateMetaDataFuture)
             .reduce(FlagsUpdateStageResult.none(), FlagsUpdateStageResult::merge)
+            .thenCompose(result -> updateMessageIdTableForUpdatesResult(composedMessageIds, result))
             .thenCompose(result -> updateIndexesForUpdatesResult(mailboxId, result));
     }
 
+    private CompletableFuture<FlagsUpdateStageResult> updateMessageIdTableForUpdatesResult(Map<MessageUid, ComposedMessageId> composedMessageIds, FlagsUpdateStageResult result) {
+        List<ComposedMessageIdWithMetaData> newMetadata = result.getSucceeded().stream()
+            .filter(UpdatedFlags::flagsChanged)
+            .map(updatedFlags -> ComposedMessageIdWithMetaData.builder()
+                .composedMessageId(composedMessageIds.get(updatedFlags.getUid()))
+                .modSeq(updatedFlags.getModSeq())
+                .flags(updatedFlags.getNewFlags())
+                .build())
+            .collect(Guavate.toImmutableList());
+
+        return messageIdDAO.updateMetadata(newMetadata)
+            .thenApply(any -> result);
+    }
+
     private CompletableFuture<FlagsUpdateStageResult> updateIndexesForUpdatesResult(CassandraId mailboxId, FlagsUpdateStageResult result) {
-        return FluentFutureStream.of(
-            result.getSucceeded().stream()
-                .map(Throwing
-                    .function((UpdatedFlags updatedFlags) -> indexTableHandler.updateIndexOnFlagsUpdate(mailboxId, updatedFlags))
-                    .fallbackTo(failedindex -> {
-                        LOGGER.error("Could not update flag indexes for mailboxId {} UID {}. This will lead to inconsistencies across Cassandra tables", mailboxId, failedindex.getUid());
-                        return CompletableFuture.completedFuture(null);
-                    })))
-            .completableFuture()
+        return indexTableHandler.updateIndexOnFlagsUpdate(mailboxId, result.getSucceeded())
+            .exceptionally(e -> {
+                LOGGER.error("Could not update flag indexes for mailboxId {} UIDs {}. This will lead to inconsistencies across Cassandra tables",
+                    mailboxId, result.getSucceeded().stream().map(UpdatedFlags::getUid).collect(Guavate.toImmutableList()), e);
+                return null;
+            })
             .thenApply(any -> result);
     }
 
@@ -348,6 +521,60 @@ public class CassandraMessageMapper implements MessageMapper {
         return setInMailbox(mailbox, original);
     }
 
+    /**
+     * Copies the messages in bulk: a single UID range and a single mod-sequence are reserved for all of them, and their
+     * messageIdTable entries are written as one UNLOGGED batch, the target mailbox being their partition.
+     */
+    @Override
+    public List<MessageMetaData> copy(Mailbox mailbox, List<MailboxMessage> originals) throws MailboxException {
+        if (originals.isEmpty()) {
+            return ImmutableList.of();
+        }
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        originals.forEach(original -> original.setFlags(new FlagsBuilder().add(original.createFlags()).add(Flag.RECENT).build()));
+
+        addUidsAndModseq(originals, mailboxId);
+        insertIds(originals, mailboxId)
+            .thenCompose(voidValue -> indexTableHandler.updateIndexOnAdd(originals, mailboxId))
+            .join();
+
+        return originals.stream()
+            .map(SimpleMessageMetaData::new)
+            .collect(Guavate.toImmutableList());
+    }
+
+    private void addUidsAndModseq(List<MailboxMessage> messages, CassandraId mailboxId) throws MailboxException {
+        CompletableFuture<Optional<List<MessageUid>>> uidsFuture = uidProvider.nextUids(mailboxId, messages.size());
+        CompletableFuture<Optional<Long>> modseqFuture = modSeqProvider.nextModSeq(mailboxId);
+        CompletableFuture.allOf(uidsFuture, modseqFuture).join();
+
+        List<MessageUid> uids = uidsFuture.join()
+            .orElseThrow(() -> new MailboxException("Can not find UIDs to save " + messages.size() + " messages in " + mailboxId));
+        long modSeq = modseqFuture.join()
+            .orElseThrow(() -> new MailboxException("Can not find a MODSEQ to save " + messages.size() + " messages in " + mailboxId));
+
+        for (int i = 0; i < messages.size(); i++) {
+            messages.get(i).setUid(uids.get(i));
+            messages.get(i).setModSeq(modSeq);
+        }
+    }
+
+    private CompletableFuture<Void> insertIds(List<MailboxMessage> messages, CassandraId mailboxId) {
+        List<ComposedMessageIdWithMetaData> composedMessageIdsWithMetaData = messages.stream()
+            .map(message -> ComposedMessageIdWithMetaData.builder()
+                .composedMessageId(new ComposedMessageId(mailboxId, message.getMessageId(), message.getUid()))
+                .flags(message.createFlags())
+                .modSeq(message.getModSeq())
+                .build())
+            .collect(Guavate.toImmutableList());
+
+        return CompletableFuture.allOf(
+            messageIdDAO.insert(composedMessageIdsWithMetaData),
+            FluentFutureStream.of(composedMessageIdsWithMetaData.stream()
+                    .map(imapUidDAO::insert))
+                .completableFuture());
+    }
+
     @Override
     public Optional<MessageUid> getLastUid(Mailbox mailbox) throws MailboxException {
         return uidProvider.lastUid(mailboxSession, mailbox);
@@ -365,13 +592,13 @@ public class CassandraMessageMapper implements MessageMapper {
     private MessageMetaData setInMailbox(Mailbox mailbox, MailboxMessage message) throws MailboxException {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
 
-        insertIds(addUidAndModseq(message, mailboxId), mailboxId)
-                .thenCompose(voidValue -> indexTableHandler.updateIndexOnAdd(message, mailboxId))
-                .join();
+        AsyncMapperUtils.join(addUidAndModseq(message, mailboxId)
+            .thenCompose(messageWithUid -> insertIds(messageWithUid, mailboxId))
+            .thenCompose(voidValue -> indexTableHandler.updateIndexOnAdd(message, mailboxId)));
         return new SimpleMessageMetaData(message);
     }
 
-    private CompletableFuture<Void> save(Mailbox mailbox, MailboxMessage message) throws MailboxException {
+    private CompletableFuture<Void> save(Mailbox mailbox, MailboxMessage message) {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
         return messageDAO.save(message)
             .thenCompose(aVoid -> insertIds(message, mailboxId));
@@ -420,17 +647,17 @@ public class CassandraMessageMapper implements MessageMapper {
         return oldFlags.equals(newFlags);
     }
 
+    /**
+     * This conditional update, one per message, is what serializes concurrent flags updates: imapUidTable is
+     * partitioned by message id, so it can not be batched with other messages. Replacing it by a plain write checked
+     * by reading it back would lose updates when two writers both read their own value before the other one writes.
+     */
     private CompletableFuture<Boolean> updateFlags(ComposedMessageIdWithMetaData oldMetadata, Flags newFlags, long newModSeq) {
         ComposedMessageIdWithMetaData newMetadata = ComposedMessageIdWithMetaData.builder()
                 .composedMessageId(oldMetadata.getComposedMessageId())
                 .modSeq(newModSeq)
                 .flags(newFlags)
                 .build();
-        return imapUidDAO.updateMetadata(newMetadata, oldMetadata.getModSeq())
-            .thenCompose(success -> Optional.of(success)
-                .filter(b -> b)
-                .map((Boolean any) -> messageIdDAO.updateMetadata(newMetadata)
-                    .thenApply(v -> success))
-                .orElse(CompletableFuture.completedFuture(success)));
+        return imapUidDAO.updateMetadata(newMetadata, oldMetadata.getModSeq());
     }
 }
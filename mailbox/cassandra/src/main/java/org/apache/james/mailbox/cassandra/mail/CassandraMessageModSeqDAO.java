@@ -0,0 +1,188 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.IMAP_UID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageModSeqTable.MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageModSeqTable.TABLE_NAME;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Indexes the UIDs of a mailbox by the mod-sequence of their last modification.
+ *
+ * Entries are only ever added upon modification: an entry whose mod-sequence is lower than the current mod-sequence
+ * of its message is outdated, and is expected to be removed by readers.
+ */
+public class CassandraMessageModSeqDAO {
+
+    public static class Entry {
+        private final long modSeq;
+        private final MessageUid uid;
+
+        public Entry(long modSeq, MessageUid uid) {
+            this.modSeq = modSeq;
+            this.uid = uid;
+        }
+
+        public long getModSeq() {
+            return modSeq;
+        }
+
+        public MessageUid getUid() {
+            return uid;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Entry) {
+                Entry other = (Entry) o;
+                return Objects.equals(this.modSeq, other.modSeq)
+                    && Objects.equals(this.uid, other.uid);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(modSeq, uid);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("modSeq", modSeq)
+                .add("uid", uid)
+                .toString();
+        }
+    }
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final CassandraUtils cassandraUtils;
+    private final PreparedStatement insertStatement;
+    private final PreparedStatement deleteStatement;
+    private final PreparedStatement selectChangedSinceStatement;
+
+    @Inject
+    public CassandraMessageModSeqDAO(Session session, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.cassandraUtils = cassandraUtils;
+        this.insertStatement = prepareInsertStatement(session);
+        this.deleteStatement = prepareDeleteStatement(session);
+        this.selectChangedSinceStatement = prepareSelectChangedSinceStatement(session);
+    }
+
+    @VisibleForTesting
+    public CassandraMessageModSeqDAO(Session session) {
+        this(session, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    }
+
+    private PreparedStatement prepareInsertStatement(Session session) {
+        return session.prepare(insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(MOD_SEQ, bindMarker(MOD_SEQ))
+            .value(IMAP_UID, bindMarker(IMAP_UID)));
+    }
+
+    private PreparedStatement prepareDeleteStatement(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(eq(MOD_SEQ, bindMarker(MOD_SEQ)))
+            .and(eq(IMAP_UID, bindMarker(IMAP_UID))));
+    }
+
+    private PreparedStatement prepareSelectChangedSinceStatement(Session session) {
+        return session.prepare(select(MOD_SEQ, IMAP_UID)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(gt(MOD_SEQ, bindMarker(MOD_SEQ))));
+    }
+
+    public CompletableFuture<Void> insert(CassandraId mailboxId, long modSeq, MessageUid uid) {
+        return cassandraAsyncExecutor.executeVoid(bindInsert(mailboxId, new Entry(modSeq, uid)));
+    }
+
+    public CompletableFuture<Void> insert(CassandraId mailboxId, Collection<Entry> entries) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(entries.stream()
+            .map(entry -> bindInsert(mailboxId, entry))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindInsert(CassandraId mailboxId, Entry entry) {
+        return insertStatement.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(MOD_SEQ, entry.getModSeq())
+            .setLong(IMAP_UID, entry.getUid().asLong());
+    }
+
+    public CompletableFuture<Void> delete(CassandraId mailboxId, long modSeq, MessageUid uid) {
+        return cassandraAsyncExecutor.executeVoid(bindDelete(mailboxId, new Entry(modSeq, uid)));
+    }
+
+    public CompletableFuture<Void> delete(CassandraId mailboxId, Collection<Entry> entries) {
+        return cassandraAsyncExecutor.executeVoidUnloggedBatch(entries.stream()
+            .map(entry -> bindDelete(mailboxId, entry))
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private BoundStatement bindDelete(CassandraId mailboxId, Entry entry) {
+        return deleteStatement.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(MOD_SEQ, entry.getModSeq())
+            .setLong(IMAP_UID, entry.getUid().asLong());
+    }
+
+    /**
+     * @return the entries of this mailbox strictly greater than the given mod-sequence, by ascending mod-sequence.
+     * Outdated entries are included.
+     */
+    public CompletableFuture<Stream<Entry>> retrieveChangedSince(CassandraId mailboxId, long modSeq) {
+        return cassandraAsyncExecutor.execute(selectChangedSinceStatement.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(MOD_SEQ, modSeq))
+            .thenApply(resultSet -> cassandraUtils.convertToStream(resultSet)
+                .map(row -> new Entry(row.getLong(MOD_SEQ), MessageUid.of(row.getLong(IMAP_UID)))));
+    }
+}
@@ -0,0 +1,72 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
+import org.apache.james.backends.cassandra.versions.SchemaVersion;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Tells whether the messageModSeq index can be trusted.
+ *
+ * Entries are only written for modifications performed since the table exists. Older messages are indexed by the
+ * migration to {@link #INDEXED_VERSION}, and are missing from the index until it ran. Schema versions never decrease,
+ * hence once reached, this is not checked again.
+ */
+public class CassandraMessageModSeqIndexStatus {
+    public static final SchemaVersion INDEXED_VERSION = new SchemaVersion(6);
+
+    @VisibleForTesting
+    public static CassandraMessageModSeqIndexStatus indexed() {
+        return new CassandraMessageModSeqIndexStatus(null, true);
+    }
+
+    private final CassandraSchemaVersionDAO schemaVersionDAO;
+    private final AtomicBoolean indexed;
+
+    @Inject
+    public CassandraMessageModSeqIndexStatus(CassandraSchemaVersionDAO schemaVersionDAO) {
+        this(schemaVersionDAO, false);
+    }
+
+    private CassandraMessageModSeqIndexStatus(CassandraSchemaVersionDAO schemaVersionDAO, boolean indexed) {
+        this.schemaVersionDAO = schemaVersionDAO;
+        this.indexed = new AtomicBoolean(indexed);
+    }
+
+    public boolean isIndexed() {
+        if (indexed.get()) {
+            return true;
+        }
+        boolean schemaIndexed = schemaVersionDAO.getCurrentSchemaVersion()
+            .join()
+            .map(version -> version.isAfterOrEquals(INDEXED_VERSION))
+            .orElse(false);
+        if (schemaIndexed) {
+            indexed.set(true);
+        }
+        return schemaIndexed;
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.backends.cassandra.utils.FunctionRunnerWithRetry;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.utils.ReservedRangeAllocator;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.store.mail.ModSeqProvider;
@@ -82,6 +83,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
 
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final FunctionRunnerWithRetry runner;
+    private final int rangeSize;
+    private final ReservedRangeAllocator rangeAllocator;
     private final PreparedStatement select;
     private final PreparedStatement update;
     private final PreparedStatement insert;
@@ -90,6 +93,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
     public CassandraModSeqProvider(Session session, CassandraConfiguration cassandraConfiguration) {
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
         this.runner = new FunctionRunnerWithRetry(cassandraConfiguration.getModSeqMaxRetry());
+        this.rangeSize = cassandraConfiguration.getModSeqRangeSize();
+        this.rangeAllocator = new ReservedRangeAllocator(this::reserveModSeqs, rangeSize);
         this.insert = prepareInsert(session);
         this.update = prepareUpdate(session);
         this.select = prepareSelect(session);
@@ -138,12 +143,17 @@ public class CassandraModSeqProvider implements ModSeqProvider {
 
     @Override
     public long highestModSeq(MailboxSession mailboxSession, Mailbox mailbox) throws MailboxException {
-        return unbox(() -> findHighestModSeq((CassandraId) mailbox.getMailboxId()).join().getValue());
+        return highestModSeq(mailboxSession, mailbox.getMailboxId());
     }
 
     @Override
     public long highestModSeq(MailboxSession mailboxSession, MailboxId mailboxId) throws MailboxException {
-        return unbox(() -> findHighestModSeq((CassandraId) mailboxId).join().getValue());
+        CassandraId cassandraId = (CassandraId) mailboxId;
+        long persistedModSeq = unbox(() -> findHighestModSeq(cassandraId).join().getValue());
+        if (rangeSize == 1) {
+            return persistedModSeq;
+        }
+        return rangeAllocator.lastAllocated(cassandraId, persistedModSeq);
     }
 
     private CompletableFuture<ModSeq> findHighestModSeq(CassandraId mailboxId) {
@@ -154,8 +164,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
                 .orElse(FIRST_MODSEQ));
     }
 
-    private CompletableFuture<Optional<ModSeq>> tryInsertModSeq(CassandraId mailboxId, ModSeq modSeq) {
-        ModSeq nextModSeq = modSeq.next();
+    private CompletableFuture<Optional<ModSeq>> tryInsertModSeq(CassandraId mailboxId, ModSeq modSeq, long count) {
+        ModSeq nextModSeq = modSeq.add(count);
         return cassandraAsyncExecutor.executeReturnApplied(
             insert.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
@@ -163,8 +173,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
             .thenApply(success -> successToModSeq(nextModSeq, success));
     }
 
-    private CompletableFuture<Optional<ModSeq>> tryUpdateModSeq(CassandraId mailboxId, ModSeq modSeq) {
-        ModSeq nextModSeq = modSeq.next();
+    private CompletableFuture<Optional<ModSeq>> tryUpdateModSeq(CassandraId mailboxId, ModSeq modSeq, long count) {
+        ModSeq nextModSeq = modSeq.add(count);
         return cassandraAsyncExecutor.executeReturnApplied(
             update.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
@@ -181,25 +191,32 @@ public class CassandraModSeqProvider implements ModSeqProvider {
     }
     
     public CompletableFuture<Optional<Long>> nextModSeq(CassandraId mailboxId) {
+        if (rangeSize == 1) {
+            return reserveModSeqs(mailboxId, 1);
+        }
+        return rangeAllocator.next(mailboxId);
+    }
+
+    private CompletableFuture<Optional<Long>> reserveModSeqs(CassandraId mailboxId, long count) {
         return findHighestModSeq(mailboxId)
             .thenCompose(modSeq -> {
                 if (modSeq.isFirst()) {
-                    return tryInsertModSeq(mailboxId, FIRST_MODSEQ);
+                    return tryInsertModSeq(mailboxId, FIRST_MODSEQ, count);
                 }
-                return tryUpdateModSeq(mailboxId, modSeq);
+                return tryUpdateModSeq(mailboxId, modSeq, count);
             }).thenCompose(firstInsert -> {
                     if (firstInsert.isPresent()) {
                         return CompletableFuture.completedFuture(firstInsert);
                     }
-                    return handleRetries(mailboxId);
+                    return handleRetries(mailboxId, count);
                 })
             .thenApply(optional -> optional.map(ModSeq::getValue));
     }
 
-    private CompletableFuture<Optional<ModSeq>> handleRetries(CassandraId mailboxId) {
+    private CompletableFuture<Optional<ModSeq>> handleRetries(CassandraId mailboxId, long count) {
         return runner.executeAsyncAndRetrieveObject(
             () -> findHighestModSeq(mailboxId)
-                .thenCompose(newModSeq -> tryUpdateModSeq(mailboxId, newModSeq)));
+                .thenCompose(newModSeq -> tryUpdateModSeq(mailboxId, newModSeq, count)));
     }
 
     private static class ModSeq {
@@ -209,8 +226,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
             this.value = value;
         }
         
-        public ModSeq next() {
-            return new ModSeq(value + 1);
+        public ModSeq add(long count) {
+            return new ModSeq(value + count);
         }
         
         public long getValue() {
@@ -29,8 +29,10 @@ import static org.apache.james.mailbox.cassandra.table.CassandraMessageUidTable.
 import static org.apache.james.mailbox.cassandra.table.CassandraMessageUidTable.NEXT_UID;
 import static org.apache.james.mailbox.cassandra.table.CassandraMessageUidTable.TABLE_NAME;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
 
 import javax.inject.Inject;
 
@@ -40,6 +42,7 @@ import org.apache.james.backends.cassandra.utils.FunctionRunnerWithRetry;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.utils.ReservedRangeAllocator;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.store.mail.UidProvider;
@@ -47,13 +50,18 @@ import org.apache.james.mailbox.store.mail.model.Mailbox;
 
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 
 public class CassandraUidProvider implements UidProvider {
     private static final String CONDITION = "Condition";
+    private static final long NO_UID = 0L;
 
     private final CassandraAsyncExecutor executor;
     private final FunctionRunnerWithRetry runner;
+    private final int rangeSize;
+    private final ReservedRangeAllocator rangeAllocator;
     private final PreparedStatement insertStatement;
     private final PreparedStatement updateStatement;
     private final PreparedStatement selectStatement;
@@ -62,6 +70,8 @@ public class CassandraUidProvider implements UidProvider {
     public CassandraUidProvider(Session session, CassandraConfiguration cassandraConfiguration) {
         this.executor = new CassandraAsyncExecutor(session);
         this.runner = new FunctionRunnerWithRetry(cassandraConfiguration.getUidMaxRetry());
+        this.rangeSize = cassandraConfiguration.getUidRangeSize();
+        this.rangeAllocator = new ReservedRangeAllocator(this::reserveUids, rangeSize);
         this.selectStatement = prepareSelect(session);
         this.updateStatement = prepareUpdate(session);
         this.insertStatement = prepareInsert(session);
@@ -87,7 +97,7 @@ public class CassandraUidProvider implements UidProvider {
 
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
-            .value(NEXT_UID, MessageUid.MIN_VALUE.asLong())
+            .value(NEXT_UID, bindMarker(NEXT_UID))
             .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
             .ifNotExists());
     }
@@ -106,12 +116,40 @@ public class CassandraUidProvider implements UidProvider {
     }
 
     public CompletableFuture<Optional<MessageUid>> nextUid(CassandraId cassandraId) {
+        if (rangeSize == 1) {
+            return reserveUids(cassandraId, 1)
+                .thenApply(optional -> optional.map(MessageUid::of));
+        }
+        return rangeAllocator.next(cassandraId)
+            .thenApply(optional -> optional.map(MessageUid::of));
+    }
+
+    /**
+     * Reserves count consecutive UIDs at once, for bulk operations.
+     *
+     * @return the reserved UIDs, in ascending order
+     */
+    public CompletableFuture<Optional<List<MessageUid>>> nextUids(CassandraId cassandraId, int count) {
+        Preconditions.checkArgument(count > 0, "count needs to be strictly positive");
+        CompletableFuture<Optional<Long>> highestUid;
+        if (rangeSize == 1) {
+            highestUid = reserveUids(cassandraId, count);
+        } else {
+            highestUid = rangeAllocator.nextRange(cassandraId, count);
+        }
+        return highestUid
+            .thenApply(optional -> optional.<List<MessageUid>>map(highest -> LongStream.rangeClosed(highest - count + 1, highest)
+                .mapToObj(MessageUid::of)
+                .collect(Guavate.toImmutableList())));
+    }
+
+    private CompletableFuture<Optional<Long>> reserveUids(CassandraId cassandraId, long count) {
         return findHighestUid(cassandraId)
             .thenCompose(optional -> {
                 if (optional.isPresent()) {
-                    return tryUpdateUid(cassandraId, optional);
+                    return tryUpdateUid(cassandraId, optional, count);
                 }
-                return tryInsert(cassandraId);
+                return tryInsert(cassandraId, count);
             })
             .thenCompose(optional -> {
                 if (optional.isPresent()) {
@@ -119,13 +157,22 @@ public class CassandraUidProvider implements UidProvider {
                 }
                 return runner.executeAsyncAndRetrieveObject(
                     () -> findHighestUid(cassandraId)
-                        .thenCompose(readUid -> tryUpdateUid(cassandraId, readUid)));
+                        .thenCompose(readUid -> tryUpdateUid(cassandraId, readUid, count)));
             });
     }
 
     @Override
     public Optional<MessageUid> lastUid(MailboxSession mailboxSession, Mailbox mailbox) throws MailboxException {
-        return findHighestUid((CassandraId) mailbox.getMailboxId()).join();
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        Optional<MessageUid> persistedUid = findHighestUid(mailboxId).join();
+        if (rangeSize == 1) {
+            return persistedUid;
+        }
+        long lastAllocated = rangeAllocator.lastAllocated(mailboxId, persistedUid.map(MessageUid::asLong).orElse(NO_UID));
+        if (lastAllocated == NO_UID) {
+            return Optional.empty();
+        }
+        return Optional.of(MessageUid.of(lastAllocated));
     }
 
     private CompletableFuture<Optional<MessageUid>> findHighestUid(CassandraId mailboxId) {
@@ -135,28 +182,30 @@ public class CassandraUidProvider implements UidProvider {
             .thenApply(optional -> optional.map(row -> MessageUid.of(row.getLong(NEXT_UID))));
     }
 
-    private CompletableFuture<Optional<MessageUid>> tryUpdateUid(CassandraId mailboxId, Optional<MessageUid> uid) {
+    private CompletableFuture<Optional<Long>> tryUpdateUid(CassandraId mailboxId, Optional<MessageUid> uid, long count) {
         if (uid.isPresent()) {
-            MessageUid nextUid = uid.get().next();
+            long highestReservedUid = uid.get().asLong() + count;
             return executor.executeReturnApplied(
                 updateStatement.bind()
                     .setUUID(MAILBOX_ID, mailboxId.asUuid())
                     .setLong(CONDITION, uid.get().asLong())
-                    .setLong(NEXT_UID, nextUid.asLong()))
-                .thenApply(success -> successToUid(nextUid, success));
+                    .setLong(NEXT_UID, highestReservedUid))
+                .thenApply(success -> successToUid(highestReservedUid, success));
         } else {
-            return tryInsert(mailboxId);
+            return tryInsert(mailboxId, count);
         }
     }
 
-    private CompletableFuture<Optional<MessageUid>> tryInsert(CassandraId mailboxId) {
+    private CompletableFuture<Optional<Long>> tryInsert(CassandraId mailboxId, long count) {
+        long highestReservedUid = MessageUid.MIN_VALUE.asLong() + count - 1;
         return executor.executeReturnApplied(
             insertStatement.bind()
-                .setUUID(MAILBOX_ID, mailboxId.asUuid()))
-            .thenApply(success -> successToUid(MessageUid.MIN_VALUE, success));
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(NEXT_UID, highestReservedUid))
+            .thenApply(success -> successToUid(highestReservedUid, success));
     }
 
-    private Optional<MessageUid> successToUid(MessageUid uid, Boolean success) {
+    private Optional<Long> successToUid(long uid, Boolean success) {
         if (success) {
             return Optional.of(uid);
         }
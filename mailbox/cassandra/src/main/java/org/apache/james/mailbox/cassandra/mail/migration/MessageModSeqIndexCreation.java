@@ -0,0 +1,70 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.migration;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.migration.Migration;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageModSeqDAO;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.task.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MessageModSeqIndexCreation implements Migration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageModSeqIndexCreation.class);
+    private final CassandraMessageIdDAO messageIdDAO;
+    private final CassandraMessageModSeqDAO messageModSeqDAO;
+
+    @Inject
+    public MessageModSeqIndexCreation(CassandraMessageIdDAO messageIdDAO,
+                                      CassandraMessageModSeqDAO messageModSeqDAO) {
+        this.messageIdDAO = messageIdDAO;
+        this.messageModSeqDAO = messageModSeqDAO;
+    }
+
+    @Override
+    public Result run() {
+        try {
+            return messageIdDAO.retrieveAllMessages()
+                .join()
+                .map(this::createIndex)
+                .reduce(Result.COMPLETED, Task::combine);
+        } catch (Exception e) {
+            LOGGER.error("Error while creating the modSeq -> uid index", e);
+            return Result.PARTIAL;
+        }
+    }
+
+    private Result createIndex(ComposedMessageIdWithMetaData message) {
+        try {
+            ComposedMessageId composedMessageId = message.getComposedMessageId();
+            messageModSeqDAO.insert((CassandraId) composedMessageId.getMailboxId(), message.getModSeq(), composedMessageId.getUid())
+                .join();
+            return Result.COMPLETED;
+        } catch (Exception e) {
+            LOGGER.error("Error while creating the modSeq -> uid index for {}", message.getComposedMessageId(), e);
+            return Result.PARTIAL;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.utils;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Iterates over the results of asynchronously loaded batches, preserving the order of the batches.
+ *
+ * At most <code>prefetchedBatches</code> batches are loaded ahead of the one being consumed: the following batches are
+ * only loaded once the first ones are consumed, which bounds both the memory usage and the number of concurrent reads.
+ */
+public class PrefetchingIterator<T, R> implements Iterator<R> {
+
+    private final Iterator<T> batches;
+    private final Function<T, CompletableFuture<Stream<R>>> loader;
+    private final int prefetchedBatches;
+    private final Deque<CompletableFuture<Stream<R>>> loadingBatches;
+    private Iterator<R> current;
+
+    public PrefetchingIterator(Iterator<T> batches, Function<T, CompletableFuture<Stream<R>>> loader, int prefetchedBatches) {
+        Preconditions.checkArgument(prefetchedBatches > 0, "prefetchedBatches should be strictly positive");
+        this.batches = batches;
+        this.loader = loader;
+        this.prefetchedBatches = prefetchedBatches;
+        this.loadingBatches = new ArrayDeque<>(prefetchedBatches);
+        this.current = Collections.emptyIterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            prefetch();
+            if (loadingBatches.isEmpty()) {
+                return false;
+            }
+            current = loadingBatches.poll().join().iterator();
+            prefetch();
+        }
+        return true;
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private void prefetch() {
+        while (loadingBatches.size() < prefetchedBatches && batches.hasNext()) {
+            loadingBatches.add(loader.apply(batches.next()));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.utils;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Hands out increasing values (UIDs, ModSeqs) per mailbox from ranges reserved in a single
+ * lightweight transaction.
+ *
+ * Values handed out by a given node are strictly increasing for a mailbox. Ordering across nodes is only
+ * guaranteed when all the writes of a mailbox go through the same node, which is why range sizes greater than 1
+ * require {@link org.apache.james.backends.cassandra.init.CassandraConfiguration#isRangeSingleWriter()}.
+ */
+public class ReservedRangeAllocator {
+
+    @FunctionalInterface
+    public interface RangeReserver {
+        /**
+         * Reserves the given count of values and returns the highest reserved one, or empty if the
+         * reservation did not succeed.
+         */
+        CompletableFuture<Optional<Long>> reserve(CassandraId mailboxId, long count);
+    }
+
+    private static class Range {
+        private long lastAllocated;
+        private long upperBound;
+        private CompletableFuture<Optional<Long>> pendingReservation;
+
+        private boolean hasRemaining() {
+            return lastAllocated < upperBound;
+        }
+
+        private boolean isReserving() {
+            return pendingReservation != null && !pendingReservation.isDone();
+        }
+    }
+
+    private final RangeReserver reserver;
+    private final long rangeSize;
+    private final ConcurrentHashMap<CassandraId, Range> ranges;
+
+    public ReservedRangeAllocator(RangeReserver reserver, int rangeSize) {
+        Preconditions.checkArgument(rangeSize > 0, "rangeSize needs to be strictly positive");
+        this.reserver = reserver;
+        this.rangeSize = rangeSize;
+        this.ranges = new ConcurrentHashMap<>();
+    }
+
+    public CompletableFuture<Optional<Long>> next(CassandraId mailboxId) {
+        Range range = ranges.computeIfAbsent(mailboxId, any -> new Range());
+        synchronized (range) {
+            if (range.hasRemaining()) {
+                range.lastAllocated++;
+                return CompletableFuture.completedFuture(Optional.of(range.lastAllocated));
+            }
+            if (!range.isReserving()) {
+                range.pendingReservation = reserver.reserve(mailboxId, rangeSize)
+                    .thenApply(upperBound -> {
+                        upperBound.ifPresent(value -> updateRange(range, value));
+                        return upperBound;
+                    });
+            }
+            return range.pendingReservation
+                .thenCompose(upperBound -> {
+                    if (upperBound.isPresent()) {
+                        return next(mailboxId);
+                    }
+                    return CompletableFuture.completedFuture(Optional.empty());
+                });
+        }
+    }
+
+    /**
+     * Hands out count consecutive values and returns the highest one.
+     *
+     * The values are taken from the local range when enough of them remain. Otherwise they are reserved at once, and
+     * the values left in the local range are dropped so that handed out values keep increasing.
+     */
+    public CompletableFuture<Optional<Long>> nextRange(CassandraId mailboxId, long count) {
+        Preconditions.checkArgument(count > 0, "count needs to be strictly positive");
+        Range range = ranges.computeIfAbsent(mailboxId, any -> new Range());
+        synchronized (range) {
+            if (range.upperBound - range.lastAllocated >= count) {
+                range.lastAllocated += count;
+                return CompletableFuture.completedFuture(Optional.of(range.lastAllocated));
+            }
+            if (range.isReserving()) {
+                return range.pendingReservation
+                    .exceptionally(e -> Optional.empty())
+                    .thenCompose(any -> nextRange(mailboxId, count));
+            }
+            range.pendingReservation = reserver.reserve(mailboxId, count)
+                .thenApply(upperBound -> {
+                    upperBound.ifPresent(value -> exhaustRange(range, value));
+                    return upperBound;
+                });
+            return range.pendingReservation;
+        }
+    }
+
+    private void updateRange(Range range, long upperBound) {
+        synchronized (range) {
+            range.lastAllocated = upperBound - rangeSize;
+            range.upperBound = upperBound;
+        }
+    }
+
+    private void exhaustRange(Range range, long upperBound) {
+        synchronized (range) {
+            range.lastAllocated = upperBound;
+            range.upperBound = upperBound;
+        }
+    }
+
+    /**
+     * Reconciles the persisted highest reserved value with values actually handed out by this node.
+     *
+     * When this node holds the latest reservation, the last handed out value is returned, so that clients are
+     * not told about values that will be assigned later. Otherwise another node reserved values after us: the
+     * local range is dropped so that we never hand out values lower than the returned one.
+     */
+    public long lastAllocated(CassandraId mailboxId, long persistedUpperBound) {
+        Range range = ranges.get(mailboxId);
+        if (range == null) {
+            return persistedUpperBound;
+        }
+        awaitPendingReservation(range);
+        synchronized (range) {
+            if (persistedUpperBound <= range.upperBound) {
+                return range.lastAllocated;
+            }
+            range.lastAllocated = range.upperBound;
+            return persistedUpperBound;
+        }
+    }
+
+    private void awaitPendingReservation(Range range) {
+        CompletableFuture<Optional<Long>> pendingReservation;
+        synchronized (range) {
+            pendingReservation = range.pendingReservation;
+        }
+        if (pendingReservation != null) {
+            pendingReservation.exceptionally(e -> Optional.empty()).join();
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.james.backends.cassandra.components.CassandraTable;
 import org.apache.james.backends.cassandra.components.CassandraType;
 import org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable;
 import org.apache.james.mailbox.cassandra.table.CassandraMessageIds;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageModSeqTable;
 import org.apache.james.mailbox.cassandra.table.CassandraMessageV2Table;
 import org.apache.james.mailbox.cassandra.table.Flag;
 import org.apache.james.mailbox.cassandra.table.MessageIdToImapUid;
@@ -90,6 +91,16 @@ public class CassandraMessageModule implements CassandraModule {
                     .compactionOptions(SchemaBuilder.leveledStrategy())
                     .caching(SchemaBuilder.KeyCaching.ALL,
                         SchemaBuilder.rows(CACHED_MESSAGE_ID_ROWS))),
+            new CassandraTable(CassandraMessageModSeqTable.TABLE_NAME,
+                SchemaBuilder.createTable(CassandraMessageModSeqTable.TABLE_NAME)
+                    .ifNotExists()
+                    .addPartitionKey(CassandraMessageIds.MAILBOX_ID, timeuuid())
+                    .addClusteringColumn(CassandraMessageModSeqTable.MOD_SEQ, bigint())
+                    .addClusteringColumn(CassandraMessageIds.IMAP_UID, bigint())
+                    .withOptions()
+                    .comment("Denormalisation table. Allows to retrieve the UIDs of the messages modified since a given " +
+                        "mod-sequence in a mailbox. Entries of outdated mod-sequences are removed upon reads.")
+                    .compactionOptions(SchemaBuilder.leveledStrategy())),
             new CassandraTable(CassandraMessageV2Table.TABLE_NAME,
                 SchemaBuilder.createTable(CassandraMessageV2Table.TABLE_NAME)
                     .ifNotExists()
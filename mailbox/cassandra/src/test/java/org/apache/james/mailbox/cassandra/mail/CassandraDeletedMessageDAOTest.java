@@ -36,6 +36,7 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 public class CassandraDeletedMessageDAOTest {
     
@@ -98,6 +99,41 @@ public class CassandraDeletedMessageDAOTest {
         assertThat(result).containsExactly(UID_1);
     }
 
+    @Test
+    public void addDeletedShouldAddAllMessagesOfCollection() {
+        testee.addDeleted(MAILBOX_ID, ImmutableList.of(UID_1, UID_2, UID_3)).join();
+
+        List<MessageUid> result = testee.retrieveDeletedMessage(MAILBOX_ID, MessageRange.all())
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(UID_1, UID_2, UID_3);
+    }
+
+    @Test
+    public void removeDeletedShouldRemoveAllMessagesOfCollection() {
+        testee.addDeleted(MAILBOX_ID, ImmutableList.of(UID_1, UID_2, UID_3)).join();
+
+        testee.removeDeleted(MAILBOX_ID, ImmutableList.of(UID_1, UID_3)).join();
+
+        List<MessageUid> result = testee.retrieveDeletedMessage(MAILBOX_ID, MessageRange.all())
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(UID_2);
+    }
+
+    @Test
+    public void addDeletedShouldDoNothingWhenEmptyCollection() {
+        testee.addDeleted(MAILBOX_ID, ImmutableList.of()).join();
+
+        List<MessageUid> result = testee.retrieveDeletedMessage(MAILBOX_ID, MessageRange.all())
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).isEmpty();
+    }
+
 
     @Test
     public void removeUnreadShouldReturnEmptyWhenNoData() {
@@ -39,8 +39,10 @@ import org.apache.james.mailbox.cassandra.modules.CassandraDeletedMessageModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraFirstUnseenModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxCounterModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxRecentsModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MailboxCounters;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.model.UpdatedFlags;
@@ -53,6 +55,7 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 public class CassandraIndexTableHandlerTest {
 
@@ -71,6 +74,7 @@ public class CassandraIndexTableHandlerTest {
     private CassandraFirstUnseenDAO firstUnseenDAO;
     private CassandraIndexTableHandler testee;
     private CassandraDeletedMessageDAO deletedMessageDAO;
+    private CassandraMessageModSeqDAO messageModSeqDAO;
     private Mailbox mailbox;
 
     @Before
@@ -81,18 +85,21 @@ public class CassandraIndexTableHandlerTest {
                 new CassandraMailboxRecentsModule(),
                 new CassandraFirstUnseenModule(),
                 new CassandraApplicableFlagsModule(),
-                new CassandraDeletedMessageModule()), cassandraServer.getIp(), cassandraServer.getBindingPort());
+                new CassandraDeletedMessageModule(),
+                new CassandraMessageModule()), cassandraServer.getIp(), cassandraServer.getBindingPort());
         mailboxCounterDAO = new CassandraMailboxCounterDAO(cassandra.getConf());
         mailboxRecentsDAO = new CassandraMailboxRecentsDAO(cassandra.getConf());
         firstUnseenDAO = new CassandraFirstUnseenDAO(cassandra.getConf());
         applicableFlagDAO = new CassandraApplicableFlagDAO(cassandra.getConf());
         deletedMessageDAO = new CassandraDeletedMessageDAO(cassandra.getConf());
+        messageModSeqDAO = new CassandraMessageModSeqDAO(cassandra.getConf());
 
         testee = new CassandraIndexTableHandler(mailboxRecentsDAO,
                                                 mailboxCounterDAO,
                                                 firstUnseenDAO,
                                                 applicableFlagDAO,
-                                                deletedMessageDAO);
+                                                deletedMessageDAO,
+                                                messageModSeqDAO);
 
         mailbox = new SimpleMailbox(MailboxPath.forUser("user", "name"),
             UID_VALIDITY,
@@ -706,4 +713,216 @@ public class CassandraIndexTableHandlerTest {
         Flags applicableFlag = applicableFlagDAO.retrieveApplicableFlag(MAILBOX_ID).join().get();
         assertThat(applicableFlag).isEqualTo(messageFlags);
     }
+
+    @Test
+    public void updateIndexOnAddShouldIndexModSeq() throws Exception {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+        when(message.getModSeq()).thenReturn(MODSEQ);
+
+        testee.updateIndexOnAdd(message, MAILBOX_ID).join();
+
+        assertThat(messageModSeqDAO.retrieveChangedSince(MAILBOX_ID, MODSEQ - 1).join())
+            .containsOnly(new CassandraMessageModSeqDAO.Entry(MODSEQ, MESSAGE_UID));
+    }
+
+    @Test
+    public void updateIndexOnFlagsUpdateShouldIndexNewModSeq() throws Exception {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+        when(message.getModSeq()).thenReturn(MODSEQ);
+        testee.updateIndexOnAdd(message, MAILBOX_ID).join();
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, UpdatedFlags.builder()
+            .uid(MESSAGE_UID)
+            .newFlags(new Flags(Flags.Flag.SEEN))
+            .oldFlags(new Flags())
+            .modSeq(MODSEQ + 1)
+            .build()).join();
+
+        assertThat(messageModSeqDAO.retrieveChangedSince(MAILBOX_ID, MODSEQ).join())
+            .containsOnly(new CassandraMessageModSeqDAO.Entry(MODSEQ + 1, MESSAGE_UID));
+    }
+
+    @Test
+    public void updateIndexOnDeleteShouldRemoveModSeqEntry() throws Exception {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+        when(message.getModSeq()).thenReturn(MODSEQ);
+        testee.updateIndexOnAdd(message, MAILBOX_ID).join();
+
+        testee.updateIndexOnDelete(new ComposedMessageIdWithMetaData(
+            new ComposedMessageId(MAILBOX_ID, CASSANDRA_MESSAGE_ID, MESSAGE_UID),
+            new Flags(),
+            MODSEQ), MAILBOX_ID).join();
+
+        assertThat(messageModSeqDAO.retrieveChangedSince(MAILBOX_ID, 0).join())
+            .isEmpty();
+    }
+
+    @Test
+    public void bulkUpdateIndexOnFlagsUpdateShouldApplyUnseenCountDelta() throws Exception {
+        MessageUid otherUid = MessageUid.of(19L);
+        MessageUid thirdUid = MessageUid.of(20L);
+        addUnseenMessage(MESSAGE_UID);
+        addUnseenMessage(otherUid);
+        addUnseenMessage(thirdUid);
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            markAsSeen(MESSAGE_UID),
+            markAsSeen(otherUid))).join();
+
+        assertThat(mailboxCounterDAO.countUnseenMessagesInMailbox(mailbox).join())
+            .contains(1L);
+    }
+
+    @Test
+    public void bulkUpdateIndexOnFlagsUpdateShouldUpdateFirstUnseen() throws Exception {
+        MessageUid otherUid = MessageUid.of(19L);
+        MessageUid thirdUid = MessageUid.of(20L);
+        addUnseenMessage(MESSAGE_UID);
+        addUnseenMessage(otherUid);
+        addUnseenMessage(thirdUid);
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            markAsSeen(MESSAGE_UID),
+            markAsSeen(otherUid))).join();
+
+        assertThat(firstUnseenDAO.retrieveFirstUnread(MAILBOX_ID).join())
+            .contains(thirdUid);
+    }
+
+    @Test
+    public void bulkUpdateIndexOnFlagsUpdateShouldIndexAllModSeqs() throws Exception {
+        MessageUid otherUid = MessageUid.of(19L);
+        addUnseenMessage(MESSAGE_UID);
+        addUnseenMessage(otherUid);
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            markAsSeen(MESSAGE_UID),
+            markAsSeen(otherUid))).join();
+
+        assertThat(messageModSeqDAO.retrieveChangedSince(MAILBOX_ID, MODSEQ).join())
+            .containsOnly(new CassandraMessageModSeqDAO.Entry(MODSEQ + 1, MESSAGE_UID),
+                new CassandraMessageModSeqDAO.Entry(MODSEQ + 1, otherUid));
+    }
+
+    @Test
+    public void bulkUpdateIndexOnFlagsUpdateShouldUnionApplicableFlags() throws Exception {
+        MessageUid otherUid = MessageUid.of(19L);
+        addUnseenMessage(MESSAGE_UID);
+        addUnseenMessage(otherUid);
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(MESSAGE_UID)
+                .newFlags(new Flags("custom1"))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ + 1)
+                .build(),
+            UpdatedFlags.builder()
+                .uid(otherUid)
+                .newFlags(new Flags("custom2"))
+                .oldFlags(new Flags())
+                .modSeq(MODSEQ + 1)
+                .build())).join();
+
+        assertThat(applicableFlagDAO.retrieveApplicableFlag(MAILBOX_ID).join().get())
+            .isEqualTo(FlagsBuilder.builder().add("custom1", "custom2").build());
+    }
+
+    @Test
+    public void bulkUpdateIndexOnFlagsUpdateShouldSucceedWhenNoUpdates() throws Exception {
+        addUnseenMessage(MESSAGE_UID);
+
+        testee.updateIndexOnFlagsUpdate(MAILBOX_ID, ImmutableList.of()).join();
+
+        assertThat(mailboxCounterDAO.countUnseenMessagesInMailbox(mailbox).join())
+            .contains(1L);
+    }
+
+    private void addUnseenMessage(MessageUid uid) {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(uid);
+        when(message.getModSeq()).thenReturn(MODSEQ);
+        testee.updateIndexOnAdd(message, MAILBOX_ID).join();
+    }
+
+    private UpdatedFlags markAsSeen(MessageUid uid) {
+        return UpdatedFlags.builder()
+            .uid(uid)
+            .newFlags(new Flags(Flags.Flag.SEEN))
+            .oldFlags(new Flags())
+            .modSeq(MODSEQ + 1)
+            .build();
+    }
+
+    @Test
+    public void bulkUpdateIndexOnAddShouldApplyCountersOnce() throws Exception {
+        testee.updateIndexOnAdd(ImmutableList.of(
+            mockMessage(MESSAGE_UID, new Flags()),
+            mockMessage(MessageUid.of(19L), new Flags(Flags.Flag.SEEN)),
+            mockMessage(MessageUid.of(20L), new Flags())), MAILBOX_ID).join();
+
+        assertThat(mailboxCounterDAO.retrieveMailboxCounters(mailbox).join())
+            .contains(MailboxCounters.builder()
+                .count(3L)
+                .unseen(2L)
+                .build());
+    }
+
+    @Test
+    public void bulkUpdateIndexOnAddShouldIndexEachMessage() throws Exception {
+        MessageUid otherUid = MessageUid.of(19L);
+        testee.updateIndexOnAdd(ImmutableList.of(
+            mockMessage(MESSAGE_UID, new Flags(Flags.Flag.SEEN)),
+            mockMessage(otherUid, new FlagsBuilder().add(Flags.Flag.RECENT, Flags.Flag.DELETED).add("custom").build())), MAILBOX_ID).join();
+
+        assertThat(firstUnseenDAO.retrieveFirstUnread(MAILBOX_ID).join()).contains(otherUid);
+        assertThat(mailboxRecentsDAO.getRecentMessageUidsInMailbox(MAILBOX_ID).join()
+            .collect(Guavate.toImmutableList()))
+            .containsOnly(otherUid);
+        assertThat(deletedMessageDAO.retrieveDeletedMessage(MAILBOX_ID, MessageRange.all()).join()
+            .collect(Guavate.toImmutableList()))
+            .containsOnly(otherUid);
+        assertThat(applicableFlagDAO.retrieveApplicableFlag(MAILBOX_ID).join().get())
+            .isEqualTo(new Flags("custom"));
+    }
+
+    @Test
+    public void bulkUpdateIndexOnDeleteShouldRevertBulkAdd() throws Exception {
+        MessageUid otherUid = MessageUid.of(19L);
+        testee.updateIndexOnAdd(ImmutableList.of(
+            mockMessage(MESSAGE_UID, new Flags()),
+            mockMessage(otherUid, new Flags(Flags.Flag.RECENT))), MAILBOX_ID).join();
+
+        testee.updateIndexOnDelete(ImmutableList.of(
+            new ComposedMessageIdWithMetaData(new ComposedMessageId(MAILBOX_ID, CASSANDRA_MESSAGE_ID, MESSAGE_UID), new Flags(), MODSEQ),
+            new ComposedMessageIdWithMetaData(new ComposedMessageId(MAILBOX_ID, CASSANDRA_MESSAGE_ID, otherUid), new Flags(Flags.Flag.RECENT), MODSEQ)),
+            MAILBOX_ID).join();
+
+        assertThat(mailboxCounterDAO.retrieveMailboxCounters(mailbox).join())
+            .contains(MailboxCounters.builder()
+                .count(0L)
+                .unseen(0L)
+                .build());
+        assertThat(firstUnseenDAO.retrieveFirstUnread(MAILBOX_ID).join()).isEmpty();
+        assertThat(mailboxRecentsDAO.getRecentMessageUidsInMailbox(MAILBOX_ID).join()
+            .collect(Guavate.toImmutableList()))
+            .isEmpty();
+        assertThat(messageModSeqDAO.retrieveChangedSince(MAILBOX_ID, 0).join())
+            .isEmpty();
+    }
+
+    private MailboxMessage mockMessage(MessageUid uid, Flags flags) {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(flags);
+        when(message.getUid()).thenReturn(uid);
+        when(message.getModSeq()).thenReturn(MODSEQ);
+        return message;
+    }
 }
@@ -21,6 +21,9 @@ package org.apache.james.mailbox.cassandra.mail;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.DockerCassandraRule;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
@@ -190,4 +193,76 @@ public class CassandraMailboxCounterDAOTest {
         assertThat(testee.countUnseenMessagesInMailbox(mailbox).join())
             .contains(-1L);
     }
+
+    @Test
+    public void addToUnseenShouldApplyPositiveDelta() throws Exception {
+        testee.addToUnseen(MAILBOX_ID, 3).join();
+
+        assertThat(testee.countUnseenMessagesInMailbox(mailbox).join()).contains(3L);
+    }
+
+    @Test
+    public void addToUnseenShouldApplyNegativeDelta() throws Exception {
+        testee.addToUnseen(MAILBOX_ID, 5).join();
+
+        testee.addToUnseen(MAILBOX_ID, -3).join();
+
+        assertThat(testee.countUnseenMessagesInMailbox(mailbox).join()).contains(2L);
+    }
+
+    @Test
+    public void addToUnseenShouldNotCreateCounterWhenZeroDelta() throws Exception {
+        testee.addToUnseen(MAILBOX_ID, 0).join();
+
+        assertThat(testee.countUnseenMessagesInMailbox(mailbox).join()).isEmpty();
+    }
+
+    @Test
+    public void addToCountersShouldApplyBothDeltas() throws Exception {
+        testee.addToCounters(MAILBOX_ID, 5, 3).join();
+
+        testee.addToCounters(MAILBOX_ID, -2, -1).join();
+
+        assertThat(testee.retrieveMailboxCounters(mailbox).join())
+            .contains(MailboxCounters.builder()
+                .count(3L)
+                .unseen(2L)
+                .build());
+    }
+
+    @Test
+    public void addToCountersShouldApplyEveryConcurrentDelta() throws Exception {
+        CompletableFuture.allOf(IntStream.range(0, 100)
+                .mapToObj(i -> testee.addToCounters(MAILBOX_ID, 1, i % 2))
+                .toArray(CompletableFuture[]::new))
+            .join();
+
+        assertThat(testee.retrieveMailboxCounters(mailbox).join())
+            .contains(MailboxCounters.builder()
+                .count(100L)
+                .unseen(50L)
+                .build());
+    }
+
+    @Test
+    public void addToCountersShouldAcknowledgeConcurrentDeltasCancellingEachOther() throws Exception {
+        CompletableFuture.allOf(
+                testee.addToCounters(MAILBOX_ID, 1, 1),
+                testee.addToCounters(MAILBOX_ID, 1, 0),
+                testee.addToCounters(MAILBOX_ID, -1, 0))
+            .join();
+
+        assertThat(testee.retrieveMailboxCounters(mailbox).join())
+            .contains(MailboxCounters.builder()
+                .count(1L)
+                .unseen(1L)
+                .build());
+    }
+
+    @Test
+    public void addToCountersShouldNotCreateCountersWhenZeroDeltas() throws Exception {
+        testee.addToCounters(MAILBOX_ID, 0, 0).join();
+
+        assertThat(testee.retrieveMailboxCounters(mailbox).join()).isEmpty();
+    }
 }
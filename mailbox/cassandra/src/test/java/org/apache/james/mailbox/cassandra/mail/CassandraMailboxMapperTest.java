@@ -22,6 +22,8 @@ package org.apache.james.mailbox.cassandra.mail;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.concurrent.CompletionException;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.DockerCassandraRule;
@@ -86,6 +88,38 @@ public class CassandraMailboxMapperTest {
             .isPresent();
     }
 
+    @Test
+    public void findMailboxByPathAsyncShouldReturnSavedMailbox() throws Exception {
+        testee.save(new SimpleMailbox(MAILBOX_PATH, UID_VALIDITY));
+
+        assertThat(testee.findMailboxByPathAsync(MAILBOX_PATH).join()
+                .map(Mailbox::generateAssociatedPath))
+            .contains(MAILBOX_PATH);
+    }
+
+    @Test
+    public void findMailboxByPathAsyncShouldReturnEmptyWhenMailboxDoesNotExist() {
+        assertThat(testee.findMailboxByPathAsync(MAILBOX_PATH).join())
+            .isEmpty();
+    }
+
+    @Test
+    public void findMailboxByPathAsyncShouldFailWithTooLongMailboxNameException() {
+        assertThatThrownBy(() -> testee.findMailboxByPathAsync(tooLongMailboxPath(MAILBOX_PATH)).join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(TooLongMailboxNameException.class);
+    }
+
+    @Test
+    public void findMailboxByIdAsyncShouldReturnSavedMailbox() throws Exception {
+        testee.save(new SimpleMailbox(MAILBOX_PATH, UID_VALIDITY));
+        Mailbox mailbox = testee.findMailboxByPath(MAILBOX_PATH);
+
+        assertThat(testee.findMailboxByIdAsync(mailbox.getMailboxId()).join()
+                .map(Mailbox::getMailboxId))
+            .contains(mailbox.getMailboxId());
+    }
+
     private MailboxPath tooLongMailboxPath(MailboxPath fromMailboxPath) {
         return new MailboxPath(fromMailboxPath, StringUtils.repeat("b", 65537));
     }
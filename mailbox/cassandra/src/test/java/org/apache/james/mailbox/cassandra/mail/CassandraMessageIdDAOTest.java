@@ -37,6 +37,7 @@ import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.util.streams.Limit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -441,6 +442,34 @@ public class CassandraMessageIdDAOTest {
         assertThat(messages).containsOnly(composedMessageIdWithMetaData, composedMessageIdWithMetaData2);
     }
 
+    @Test
+    public void retrieveMessagesShouldApplyLimitByAscendingUid() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        ComposedMessageIdWithMetaData composedMessageIdWithMetaData = ComposedMessageIdWithMetaData.builder()
+                .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), MessageUid.of(1)))
+                .flags(new Flags())
+                .modSeq(1)
+                .build();
+        ComposedMessageIdWithMetaData composedMessageIdWithMetaData2 = ComposedMessageIdWithMetaData.builder()
+                .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), MessageUid.of(2)))
+                .flags(new Flags())
+                .modSeq(1)
+                .build();
+        CompletableFuture.allOf(testee.insert(composedMessageIdWithMetaData2),
+                testee.insert(composedMessageIdWithMetaData),
+                testee.insert(ComposedMessageIdWithMetaData.builder()
+                    .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), MessageUid.of(3)))
+                    .flags(new Flags())
+                    .modSeq(1)
+                    .build()))
+        .join();
+
+        List<ComposedMessageIdWithMetaData> messages = testee.retrieveMessages(mailboxId, MessageRange.all(), Limit.limit(2)).join()
+                .collect(Collectors.toList());
+
+        assertThat(messages).containsExactly(composedMessageIdWithMetaData, composedMessageIdWithMetaData2);
+    }
+
     @Test
     public void retrieveMessagesShouldRetrieveSomeWhenRange() {
         CassandraMessageId messageId = messageIdFactory.generate();
@@ -19,11 +19,20 @@
 
 package org.apache.james.mailbox.cassandra.mail;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.mail.Flags;
+import javax.mail.util.SharedByteArrayInputStream;
+
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.ContainerLifecycleConfiguration;
 import org.apache.james.backends.cassandra.DockerCassandraRule;
 import org.apache.james.backends.cassandra.init.CassandraModuleComposite;
 import org.apache.james.blob.cassandra.CassandraBlobModule;
+import org.apache.james.mailbox.MessageManager.FlagsUpdateMode;
 import org.apache.james.mailbox.cassandra.modules.CassandraAclModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraAnnotationModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraApplicableFlagsModule;
@@ -36,12 +45,23 @@ import org.apache.james.mailbox.cassandra.modules.CassandraMailboxRecentsModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraModSeqModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraUidModule;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.store.FlagsUpdateCalculator;
+import org.apache.james.mailbox.store.mail.AsyncMessageMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.MapperProvider;
 import org.apache.james.mailbox.store.mail.model.MessageMapperTest;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.rules.TestRule;
 
 public class CassandraMessageMapperTest extends MessageMapperTest {
@@ -87,4 +107,63 @@ public class CassandraMessageMapperTest extends MessageMapperTest {
     protected MapperProvider createMapperProvider() {
         return new CassandraMapperProvider(cassandra);
     }
+
+    @Test
+    public void findInMailboxAsyncShouldReturnMessagesAddedWithAddAsync() throws Exception {
+        CassandraMapperProvider mapperProvider = new CassandraMapperProvider(cassandra);
+        AsyncMessageMapper messageMapper = (AsyncMessageMapper) mapperProvider.createMessageMapper();
+        SimpleMailbox mailbox = createMailbox(mapperProvider);
+        MailboxMessage message1 = createMessage(mapperProvider, mailbox, "Subject: Test1 \n\nBody1\n.\n");
+        MailboxMessage message2 = createMessage(mapperProvider, mailbox, "Subject: Test2 \n\nBody2\n.\n");
+
+        messageMapper.addAsync(mailbox, message1)
+            .thenCompose(any -> messageMapper.addAsync(mailbox, message2))
+            .join();
+
+        List<MailboxMessage> messages = messageMapper.findInMailboxAsync(mailbox, MessageRange.all(), FetchType.Metadata, -1).join();
+        assertThat(messages)
+            .extracting(MailboxMessage::getMessageId)
+            .containsExactly(message1.getMessageId(), message2.getMessageId());
+    }
+
+    @Test
+    public void updateFlagsAsyncShouldReturnUpdatedFlags() throws Exception {
+        CassandraMapperProvider mapperProvider = new CassandraMapperProvider(cassandra);
+        AsyncMessageMapper messageMapper = (AsyncMessageMapper) mapperProvider.createMessageMapper();
+        SimpleMailbox mailbox = createMailbox(mapperProvider);
+        MailboxMessage message = createMessage(mapperProvider, mailbox, "Subject: Test1 \n\nBody1\n.\n");
+        messageMapper.addAsync(mailbox, message).join();
+
+        List<UpdatedFlags> updatedFlags = messageMapper.updateFlagsAsync(mailbox,
+                new FlagsUpdateCalculator(new Flags(Flags.Flag.SEEN), FlagsUpdateMode.REPLACE),
+                MessageRange.one(message.getUid()))
+            .join();
+
+        assertThat(updatedFlags)
+            .extracting(UpdatedFlags::getNewFlags)
+            .containsExactly(new Flags(Flags.Flag.SEEN));
+    }
+
+    @Test
+    public void getMailboxCountersAsyncShouldCountAddedMessages() throws Exception {
+        CassandraMapperProvider mapperProvider = new CassandraMapperProvider(cassandra);
+        AsyncMessageMapper messageMapper = (AsyncMessageMapper) mapperProvider.createMessageMapper();
+        SimpleMailbox mailbox = createMailbox(mapperProvider);
+        messageMapper.addAsync(mailbox, createMessage(mapperProvider, mailbox, "Subject: Test1 \n\nBody1\n.\n")).join();
+
+        assertThat(messageMapper.getMailboxCountersAsync(mailbox).join().getCount())
+            .isEqualTo(1);
+    }
+
+    private SimpleMailbox createMailbox(CassandraMapperProvider mapperProvider) throws Exception {
+        SimpleMailbox mailbox = new SimpleMailbox(MailboxPath.forUser("benwa", "async"), UID_VALIDITY);
+        mailbox.setMailboxId(mapperProvider.generateId());
+        mapperProvider.createMailboxMapper().save(mailbox);
+        return mailbox;
+    }
+
+    private MailboxMessage createMessage(CassandraMapperProvider mapperProvider, SimpleMailbox mailbox, String content) {
+        return new SimpleMailboxMessage(mapperProvider.generateMessageId(), new Date(), content.length(), 16,
+            new SharedByteArrayInputStream(content.getBytes()), new Flags(), new PropertyBuilder(), mailbox.getMailboxId());
+    }
 }
@@ -0,0 +1,142 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.DockerCassandraRule;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageModSeqDAO.Entry;
+import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
+public class CassandraMessageModSeqDAOTest {
+
+    public static final CassandraId MAILBOX_ID = CassandraId.of(UUID.fromString("110e8400-e29b-11d4-a716-446655440000"));
+    public static final CassandraId OTHER_MAILBOX_ID = CassandraId.of(UUID.fromString("110e8400-e29b-11d4-a716-446655440001"));
+    public static final MessageUid UID_1 = MessageUid.of(1);
+    public static final MessageUid UID_2 = MessageUid.of(2);
+    public static final MessageUid UID_3 = MessageUid.of(3);
+
+    @ClassRule public static DockerCassandraRule cassandraServer = new DockerCassandraRule();
+
+    private CassandraCluster cassandra;
+    private CassandraMessageModSeqDAO testee;
+
+    @Before
+    public void setUp() {
+        cassandra = CassandraCluster.create(
+            new CassandraMessageModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
+        testee = new CassandraMessageModSeqDAO(cassandra.getConf());
+    }
+
+    @After
+    public void tearDown() {
+        cassandra.close();
+    }
+
+    @Test
+    public void retrieveChangedSinceShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieveChangedSince(MAILBOX_ID, 0).join())
+            .isEmpty();
+    }
+
+    @Test
+    public void retrieveChangedSinceShouldReturnEntriesStrictlyAfterModSeqByAscendingModSeq() {
+        testee.insert(MAILBOX_ID, 12, UID_1).join();
+        testee.insert(MAILBOX_ID, 10, UID_2).join();
+        testee.insert(MAILBOX_ID, 11, UID_3).join();
+
+        List<Entry> result = testee.retrieveChangedSince(MAILBOX_ID, 10)
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(new Entry(11, UID_3), new Entry(12, UID_1));
+    }
+
+    @Test
+    public void retrieveChangedSinceShouldReturnAllEntriesOfAMessage() {
+        testee.insert(MAILBOX_ID, 10, UID_1).join();
+        testee.insert(MAILBOX_ID, 11, UID_1).join();
+
+        List<Entry> result = testee.retrieveChangedSince(MAILBOX_ID, 0)
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(new Entry(10, UID_1), new Entry(11, UID_1));
+    }
+
+    @Test
+    public void retrieveChangedSinceShouldNotReturnEntriesOfOtherMailboxes() {
+        testee.insert(OTHER_MAILBOX_ID, 10, UID_1).join();
+
+        assertThat(testee.retrieveChangedSince(MAILBOX_ID, 0).join())
+            .isEmpty();
+    }
+
+    @Test
+    public void deleteShouldRemoveTheGivenEntry() {
+        testee.insert(MAILBOX_ID, 10, UID_1).join();
+        testee.insert(MAILBOX_ID, 11, UID_1).join();
+
+        testee.delete(MAILBOX_ID, 10, UID_1).join();
+
+        List<Entry> result = testee.retrieveChangedSince(MAILBOX_ID, 0)
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(new Entry(11, UID_1));
+    }
+
+    @Test
+    public void insertShouldAddAllEntriesOfCollection() {
+        testee.insert(MAILBOX_ID, ImmutableList.of(new Entry(10, UID_1), new Entry(11, UID_2))).join();
+
+        List<Entry> result = testee.retrieveChangedSince(MAILBOX_ID, 0)
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(new Entry(10, UID_1), new Entry(11, UID_2));
+    }
+
+    @Test
+    public void deleteShouldRemoveAllEntriesOfCollection() {
+        testee.insert(MAILBOX_ID, ImmutableList.of(new Entry(10, UID_1), new Entry(11, UID_2), new Entry(12, UID_3))).join();
+
+        testee.delete(MAILBOX_ID, ImmutableList.of(new Entry(10, UID_1), new Entry(12, UID_3))).join();
+
+        List<Entry> result = testee.retrieveChangedSince(MAILBOX_ID, 0)
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(new Entry(11, UID_2));
+    }
+}
@@ -25,6 +25,7 @@ import java.util.stream.LongStream;
 
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.DockerCassandraRule;
+import org.apache.james.backends.cassandra.init.CassandraConfiguration;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.modules.CassandraModSeqModule;
 import org.apache.james.mailbox.model.MailboxPath;
@@ -98,4 +99,53 @@ public class CassandraModSeqProviderTest {
             .count();
         assertThat(nbValues).isEqualTo(nbEntries);
     }
+
+    @Test
+    public void nextModSeqShouldIncrementValueByOneWhenUsingRanges() throws Exception {
+        modSeqProvider = new CassandraModSeqProvider(cassandra.getConf(), CassandraConfiguration.builder()
+            .modSeqRangeSize(10)
+            .rangeSingleWriter(true)
+            .build());
+
+        int nbEntries = 100;
+        LongStream.range(1, nbEntries)
+            .forEach(Throwing.longConsumer(value -> {
+                        long result = modSeqProvider.nextModSeq(null, mailbox);
+                        assertThat(value).isEqualTo(result);
+                })
+            );
+    }
+
+    @Test
+    public void highestModSeqShouldReturnLastAllocatedValueWhenUsingRanges() throws Exception {
+        modSeqProvider = new CassandraModSeqProvider(cassandra.getConf(), CassandraConfiguration.builder()
+            .modSeqRangeSize(10)
+            .rangeSingleWriter(true)
+            .build());
+
+        int nbEntries = 25;
+        assertThat(modSeqProvider.highestModSeq(null, mailbox)).isEqualTo(0);
+        LongStream.range(0, nbEntries)
+            .forEach(Throwing.longConsumer(value -> {
+                        long modSeq = modSeqProvider.nextModSeq(null, mailbox);
+                        assertThat(modSeq).isEqualTo(modSeqProvider.highestModSeq(null, mailbox));
+                })
+            );
+    }
+
+    @Test
+    public void nextModSeqShouldGenerateUniqueValuesWhenParallelCallsUsingRanges() throws Exception {
+        modSeqProvider = new CassandraModSeqProvider(cassandra.getConf(), CassandraConfiguration.builder()
+            .modSeqRangeSize(10)
+            .rangeSingleWriter(true)
+            .build());
+
+        int nbEntries = 100;
+        long nbValues = LongStream.range(0, nbEntries)
+            .parallel()
+            .map(Throwing.longUnaryOperator(x -> modSeqProvider.nextModSeq(null, mailbox)))
+            .distinct()
+            .count();
+        assertThat(nbValues).isEqualTo(nbEntries);
+    }
 }
@@ -25,6 +25,7 @@ import java.util.stream.LongStream;
 
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.DockerCassandraRule;
+import org.apache.james.backends.cassandra.init.CassandraConfiguration;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.modules.CassandraUidModule;
@@ -36,6 +37,7 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import com.github.fge.lambdas.Throwing;
+import com.google.common.collect.ImmutableList;
 
 public class CassandraUidProviderTest {
     private static final CassandraId CASSANDRA_ID = new CassandraId.Factory().fromString("e22b3ac0-a80b-11e7-bb00-777268d65503");
@@ -95,4 +97,82 @@ public class CassandraUidProviderTest {
             .count();
         assertThat(nbValues).isEqualTo(nbEntries);
     }
+
+    @Test
+    public void nextUidShouldIncrementValueByOneWhenUsingRanges() throws Exception {
+        uidProvider = new CassandraUidProvider(cassandra.getConf(), CassandraConfiguration.builder()
+            .uidRangeSize(10)
+            .rangeSingleWriter(true)
+            .build());
+
+        int nbEntries = 100;
+        LongStream.range(1, nbEntries)
+            .forEach(Throwing.longConsumer(value -> {
+                        MessageUid result = uidProvider.nextUid(null, mailbox);
+                        assertThat(value).isEqualTo(result.asLong());
+                })
+            );
+    }
+
+    @Test
+    public void lastUidShouldReturnLastAllocatedValueWhenUsingRanges() throws Exception {
+        uidProvider = new CassandraUidProvider(cassandra.getConf(), CassandraConfiguration.builder()
+            .uidRangeSize(10)
+            .rangeSingleWriter(true)
+            .build());
+
+        int nbEntries = 25;
+        assertThat(uidProvider.lastUid(null, mailbox)).isEmpty();
+        LongStream.range(0, nbEntries)
+            .forEach(Throwing.longConsumer(value -> {
+                        MessageUid uid = uidProvider.nextUid(null, mailbox);
+                        assertThat(uid).isEqualTo(uidProvider.lastUid(null, mailbox).get());
+                })
+            );
+    }
+
+    @Test
+    public void nextUidShouldGenerateUniqueValuesWhenParallelCallsUsingRanges() throws Exception {
+        uidProvider = new CassandraUidProvider(cassandra.getConf(), CassandraConfiguration.builder()
+            .uidRangeSize(10)
+            .rangeSingleWriter(true)
+            .build());
+
+        int nbEntries = 100;
+        long nbValues = LongStream.range(0, nbEntries)
+            .parallel()
+            .boxed()
+            .map(Throwing.function(x -> uidProvider.nextUid(null, mailbox)))
+            .distinct()
+            .count();
+        assertThat(nbValues).isEqualTo(nbEntries);
+    }
+
+    @Test
+    public void nextUidsShouldReturnConsecutiveUids() throws Exception {
+        uidProvider.nextUid(null, mailbox);
+
+        assertThat(uidProvider.nextUids(CASSANDRA_ID, 3).join())
+            .contains(ImmutableList.of(MessageUid.of(2), MessageUid.of(3), MessageUid.of(4)));
+    }
+
+    @Test
+    public void nextUidShouldFollowReservedUids() throws Exception {
+        uidProvider.nextUids(CASSANDRA_ID, 3).join();
+
+        assertThat(uidProvider.nextUid(null, mailbox)).isEqualTo(MessageUid.of(4));
+    }
+
+    @Test
+    public void nextUidShouldFollowReservedUidsWhenUsingRanges() throws Exception {
+        uidProvider = new CassandraUidProvider(cassandra.getConf(), CassandraConfiguration.builder()
+            .uidRangeSize(10)
+            .rangeSingleWriter(true)
+            .build());
+
+        uidProvider.nextUid(null, mailbox);
+        uidProvider.nextUids(CASSANDRA_ID, 30).join();
+
+        assertThat(uidProvider.nextUid(null, mailbox)).isEqualTo(MessageUid.of(41));
+    }
 }
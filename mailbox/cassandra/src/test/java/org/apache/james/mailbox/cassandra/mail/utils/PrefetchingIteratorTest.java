@@ -0,0 +1,87 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class PrefetchingIteratorTest {
+
+    @Test
+    public void constructorShouldThrowWhenPrefetchedBatchesIsNotPositive() {
+        assertThatThrownBy(() -> new PrefetchingIterator<List<Integer>, Integer>(ImmutableList.<List<Integer>>of().iterator(),
+                batch -> CompletableFuture.completedFuture(batch.stream()), 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void iteratorShouldBeEmptyWhenNoBatches() {
+        PrefetchingIterator<List<Integer>, Integer> iterator = new PrefetchingIterator<>(ImmutableList.<List<Integer>>of().iterator(),
+            batch -> CompletableFuture.completedFuture(batch.stream()), 2);
+
+        assertThat(iterator.hasNext()).isFalse();
+        assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void iteratorShouldPreserveBatchOrderAndSkipEmptyBatches() {
+        Iterator<List<Integer>> batches = ImmutableList.<List<Integer>>of(
+                ImmutableList.of(1, 2),
+                ImmutableList.of(),
+                ImmutableList.of(3),
+                ImmutableList.of(4, 5))
+            .iterator();
+
+        PrefetchingIterator<List<Integer>, Integer> iterator = new PrefetchingIterator<>(batches,
+            batch -> CompletableFuture.supplyAsync(batch::stream), 2);
+
+        assertThat(iterator).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void iteratorShouldNotLoadMoreThanPrefetchedBatches() {
+        AtomicInteger loadedBatches = new AtomicInteger();
+        Iterator<List<Integer>> batches = ImmutableList.<List<Integer>>of(
+                ImmutableList.of(1),
+                ImmutableList.of(2),
+                ImmutableList.of(3),
+                ImmutableList.of(4))
+            .iterator();
+
+        PrefetchingIterator<List<Integer>, Integer> iterator = new PrefetchingIterator<>(batches,
+            batch -> {
+                loadedBatches.incrementAndGet();
+                return CompletableFuture.completedFuture(batch.stream());
+            }, 2);
+
+        assertThat(iterator.next()).isEqualTo(1);
+        assertThat(loadedBatches.get()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,129 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReservedRangeAllocatorTest {
+    private static final CassandraId MAILBOX_ID = new CassandraId.Factory().fromString("e22b3ac0-a80b-11e7-bb00-777268d65503");
+    private static final int RANGE_SIZE = 10;
+
+    private AtomicLong persistedValue;
+    private AtomicInteger reservationCount;
+    private ReservedRangeAllocator testee;
+
+    @Before
+    public void setUp() {
+        persistedValue = new AtomicLong(0);
+        reservationCount = new AtomicInteger(0);
+        testee = new ReservedRangeAllocator((mailboxId, count) -> {
+            reservationCount.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.of(persistedValue.addAndGet(count)));
+        }, RANGE_SIZE);
+    }
+
+    @Test
+    public void nextShouldReturnIncreasingValues() {
+        IntStream.rangeClosed(1, 25)
+            .forEach(value -> assertThat(testee.next(MAILBOX_ID).join()).contains((long) value));
+    }
+
+    @Test
+    public void nextShouldReserveOncePerRange() {
+        IntStream.range(0, 25)
+            .forEach(any -> testee.next(MAILBOX_ID).join());
+
+        assertThat(reservationCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void nextShouldReturnEmptyWhenReservationFails() {
+        ReservedRangeAllocator failingAllocator = new ReservedRangeAllocator(
+            (mailboxId, count) -> CompletableFuture.completedFuture(Optional.empty()),
+            RANGE_SIZE);
+
+        assertThat(failingAllocator.next(MAILBOX_ID).join()).isEmpty();
+    }
+
+    @Test
+    public void lastAllocatedShouldReturnLastHandedOutValue() {
+        testee.next(MAILBOX_ID).join();
+        testee.next(MAILBOX_ID).join();
+
+        assertThat(testee.lastAllocated(MAILBOX_ID, persistedValue.get())).isEqualTo(2);
+    }
+
+    @Test
+    public void lastAllocatedShouldReturnPersistedValueWhenNothingAllocated() {
+        assertThat(testee.lastAllocated(MAILBOX_ID, 42)).isEqualTo(42);
+    }
+
+    @Test
+    public void lastAllocatedShouldDropLocalRangeWhenReservedElsewhere() {
+        testee.next(MAILBOX_ID).join();
+        persistedValue.addAndGet(RANGE_SIZE);
+
+        assertThat(testee.lastAllocated(MAILBOX_ID, persistedValue.get())).isEqualTo(20);
+        assertThat(testee.next(MAILBOX_ID).join()).contains(21L);
+    }
+
+    @Test
+    public void nextRangeShouldUseLocalRangeWhenEnoughValuesRemain() {
+        testee.next(MAILBOX_ID).join();
+
+        assertThat(testee.nextRange(MAILBOX_ID, 5).join()).contains(6L);
+        assertThat(reservationCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void nextRangeShouldReserveAtOnceWhenLocalRangeIsTooSmall() {
+        testee.next(MAILBOX_ID).join();
+
+        assertThat(testee.nextRange(MAILBOX_ID, 50).join()).contains(60L);
+        assertThat(reservationCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void nextShouldNotHandOutValuesLowerThanAReservedRange() {
+        testee.next(MAILBOX_ID).join();
+        testee.nextRange(MAILBOX_ID, 50).join();
+
+        assertThat(testee.next(MAILBOX_ID).join()).contains(61L);
+    }
+
+    @Test
+    public void nextRangeShouldReturnEmptyWhenReservationFails() {
+        ReservedRangeAllocator failingAllocator = new ReservedRangeAllocator(
+            (mailboxId, count) -> CompletableFuture.completedFuture(Optional.empty()),
+            RANGE_SIZE);
+
+        assertThat(failingAllocator.nextRange(MAILBOX_ID, 5).join()).isEmpty();
+    }
+}
@@ -29,7 +29,10 @@ import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
+import org.apache.james.backends.es.BulkOperation;
 import org.apache.james.backends.es.ElasticSearchIndexer;
+import org.apache.james.backends.es.ElasticSearchIndexingPipeline;
+import org.apache.james.backends.es.search.PaginatedSearchIterable;
 import org.apache.james.mailbox.MailboxManager.MessageCapabilities;
 import org.apache.james.mailbox.MailboxManager.SearchCapabilities;
 import org.apache.james.mailbox.MailboxSession;
@@ -60,14 +63,16 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
     private static final String ID_SEPARATOR = ":";
 
     private final ElasticSearchIndexer indexer;
+    private final ElasticSearchIndexingPipeline pipeline;
     private final ElasticSearchSearcher searcher;
     private final MessageToElasticSearchJson messageToElasticSearchJson;
 
     @Inject
     public ElasticSearchListeningMessageSearchIndex(MessageMapperFactory factory, ElasticSearchIndexer indexer,
-        ElasticSearchSearcher searcher, MessageToElasticSearchJson messageToElasticSearchJson) {
+        ElasticSearchIndexingPipeline pipeline, ElasticSearchSearcher searcher, MessageToElasticSearchJson messageToElasticSearchJson) {
         super(factory);
         this.indexer = indexer;
+        this.pipeline = pipeline;
         this.messageToElasticSearchJson = messageToElasticSearchJson;
         this.searcher = searcher;
     }
@@ -107,7 +112,7 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
             return ImmutableList.of();
         }
 
-        return searcher.search(mailboxIds, searchQuery, Optional.empty())
+        return searcher.searchByPages(mailboxIds, searchQuery, pageSize(limit))
             .peek(this::logIfNoMessageId)
             .map(SearchResult::getMessageId)
             .map(Optional::get)
@@ -116,15 +121,38 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
             .collect(Guavate.toImmutableList());
     }
 
+    private int pageSize(long limit) {
+        return (int) Math.max(1, Math.min(limit, PaginatedSearchIterable.DEFAULT_MAX_RESULT_WINDOW));
+    }
+
     @Override
     public void add(MailboxSession session, Mailbox mailbox, MailboxMessage message) throws MailboxException {
+        LOGGER.debug("Indexing mailbox {}-{} of user {} on message {}",
+                mailbox.getName(),
+                mailbox.getMailboxId(),
+                session.getUser().getUserName(),
+                message.getUid());
+        indexOperation(session, mailbox, message).ifPresent(pipeline::submit);
+    }
+
+    @Override
+    public void add(MailboxSession session, Mailbox mailbox, List<MailboxMessage> messages) throws MailboxException {
+        LOGGER.debug("Indexing {} messages of mailbox {}-{} of user {}",
+                messages.size(),
+                mailbox.getName(),
+                mailbox.getMailboxId(),
+                session.getUser().getUserName());
+        pipeline.submit(messages.stream()
+            .map(message -> indexOperation(session, mailbox, message))
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(Guavate.toImmutableList()));
+    }
+
+    private Optional<BulkOperation> indexOperation(MailboxSession session, Mailbox mailbox, MailboxMessage message) {
+        String id = indexIdFor(mailbox, message.getUid());
         try {
-            LOGGER.info("Indexing mailbox {}-{} of user {} on message {}",
-                    mailbox.getName(),
-                    mailbox.getMailboxId(),
-                    session.getUser().getUserName(),
-                    message.getUid());
-            indexer.indexMessage(indexIdFor(mailbox, message.getUid()), messageToElasticSearchJson.convertToJson(message, ImmutableList.of(session.getUser())));
+            return Optional.of(BulkOperation.index(id, messageToElasticSearchJson.convertToJson(message, ImmutableList.of(session.getUser()))));
         } catch (Exception e) {
             try {
                 LOGGER.warn("Indexing mailbox {}-{} of user {} on message {} without attachments ",
@@ -133,7 +161,7 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
                         session.getUser().getUserName(),
                         message.getUid(),
                         e);
-                indexer.indexMessage(indexIdFor(mailbox, message.getUid()), messageToElasticSearchJson.convertToJsonWithoutAttachment(message, ImmutableList.of(session.getUser())));
+                return Optional.of(BulkOperation.index(id, messageToElasticSearchJson.convertToJsonWithoutAttachment(message, ImmutableList.of(session.getUser()))));
             } catch (JsonProcessingException e1) {
                 LOGGER.error("Error when indexing mailbox {}-{} of user {} on message {} without its attachment",
                         mailbox.getName(),
@@ -141,6 +169,7 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
                         session.getUser().getUserName(),
                         message.getUid(),
                         e1);
+                return Optional.empty();
             }
         }
     }
@@ -148,8 +177,8 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
     @Override
     public void delete(MailboxSession session, Mailbox mailbox, List<MessageUid> expungedUids) throws MailboxException {
         try {
-            indexer.deleteMessages(expungedUids.stream()
-                .map(uid ->  indexIdFor(mailbox, uid))
+            pipeline.submit(expungedUids.stream()
+                .map(uid -> BulkOperation.delete(indexIdFor(mailbox, uid)))
                 .collect(Collectors.toList()));
         } catch (Exception e) {
             if (LOGGER.isErrorEnabled()) {
@@ -161,6 +190,7 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
     @Override
     public void deleteAll(MailboxSession session, Mailbox mailbox) throws MailboxException {
         try {
+            pipeline.flush().join();
             indexer.deleteAllMatchingQuery(
                 termQuery(
                     JsonMessageConstants.MAILBOX_ID,
@@ -173,8 +203,9 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
     @Override
     public void update(MailboxSession session, Mailbox mailbox, List<UpdatedFlags> updatedFlagsList) throws MailboxException {
         try {
-            indexer.updateMessages(updatedFlagsList.stream()
+            pipeline.submit(updatedFlagsList.stream()
                 .map(updatedFlags -> createUpdatedDocumentPartFromUpdatedFlags(mailbox, updatedFlags))
+                .map(BulkOperation::update)
                 .collect(Collectors.toList()));
         } catch (Exception e) {
             LOGGER.error("Error when updating index on mailbox {}", mailbox.getMailboxId().serialize(), e);
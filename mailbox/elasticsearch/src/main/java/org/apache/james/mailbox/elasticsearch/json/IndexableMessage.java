@@ -166,7 +166,10 @@ public class IndexableMessage {
             boolean isRecent = message.isRecent();
             boolean isUnRead = !message.isSeen();
             String[] userFlags = message.createFlags().getUserFlags();
-            List<Property> properties = message.getProperties();
+            List<Property> properties = message.getProperties()
+                .stream()
+                .filter(PropertyBuilder.isMimeStructureProperty().negate())
+                .collect(Guavate.toImmutableList());
 
             return new IndexableMessage(
                     attachments,
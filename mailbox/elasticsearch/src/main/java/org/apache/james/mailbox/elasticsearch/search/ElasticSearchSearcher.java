@@ -21,6 +21,7 @@ package org.apache.james.mailbox.elasticsearch.search;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -29,6 +30,7 @@ import javax.inject.Named;
 import org.apache.james.backends.es.AliasName;
 import org.apache.james.backends.es.ElasticSearchConstants;
 import org.apache.james.backends.es.TypeName;
+import org.apache.james.backends.es.search.PaginatedSearchIterable;
 import org.apache.james.backends.es.search.ScrollIterable;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants;
@@ -46,6 +48,7 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -84,6 +87,11 @@ public class ElasticSearchSearcher {
 
     public Stream<MessageSearchIndex.SearchResult> search(Collection<MailboxId> mailboxIds, SearchQuery query,
                                                           Optional<Long> limit) throws MailboxException {
+        return scrollSearch(mailboxIds, query, limit);
+    }
+
+    private Stream<MessageSearchIndex.SearchResult> scrollSearch(Collection<MailboxId> mailboxIds, SearchQuery query,
+                                                                 Optional<Long> limit) {
         SearchRequestBuilder searchRequestBuilder = getSearchRequestBuilder(client, mailboxIds, query, limit);
         Stream<MessageSearchIndex.SearchResult> pairStream = new ScrollIterable(client, searchRequestBuilder).stream()
             .flatMap(this::transformResponseToUidStream);
@@ -92,19 +100,67 @@ public class ElasticSearchSearcher {
             .orElse(pairStream);
     }
 
+    /**
+     * Search results are read lazily, by pages of pageSize hits, without opening a scroll.
+     *
+     * This avoids reading more hits than the caller consumes, which matters when the caller stops after a few results
+     * (for instance after deduplicating them by messageId). Hits beyond the maximum result window of ElasticSearch are
+     * read through a scroll.
+     */
+    public Stream<MessageSearchIndex.SearchResult> searchByPages(Collection<MailboxId> mailboxIds, SearchQuery query,
+                                                                 int pageSize) {
+        PaginatedSearchIterable.PaginatedSearchIterator pages = new PaginatedSearchIterable(
+                withSorts(baseSearchRequestBuilder(client, mailboxIds, query), query),
+                pageSize)
+            .iterator();
+
+        Stream<Supplier<Stream<MessageSearchIndex.SearchResult>>> sources = Stream.of(
+            () -> Iterators.toStream(pages).flatMap(this::transformResponseToUidStream),
+            () -> remainingResults(pages, mailboxIds, query));
+
+        return Iterators.toStream(
+            com.google.common.collect.Iterators.concat(
+                sources.map(source -> source.get().iterator()).iterator()));
+    }
+
+    private Stream<MessageSearchIndex.SearchResult> remainingResults(PaginatedSearchIterable.PaginatedSearchIterator pages,
+                                                                     Collection<MailboxId> mailboxIds, SearchQuery query) {
+        if (pages.hasReachedMaxResultWindow()) {
+            return scrollSearch(mailboxIds, query, Optional.empty())
+                .skip(PaginatedSearchIterable.DEFAULT_MAX_RESULT_WINDOW);
+        }
+        return Stream.empty();
+    }
+
     private SearchRequestBuilder getSearchRequestBuilder(Client client, Collection<MailboxId> users,
                                                          SearchQuery query, Optional<Long> limit) {
+        return withSorts(
+            baseSearchRequestBuilder(client, users, query)
+                .setScroll(TIMEOUT)
+                .setSize(computeRequiredSize(limit)),
+            query);
+    }
+
+    private SearchRequestBuilder baseSearchRequestBuilder(Client client, Collection<MailboxId> users, SearchQuery query) {
+        return client.prepareSearch(aliasName.getValue())
+            .setTypes(typeName.getValue())
+            .addFields(JsonMessageConstants.UID, JsonMessageConstants.MAILBOX_ID, JsonMessageConstants.MESSAGE_ID)
+            .setQuery(queryConverter.from(users, query));
+    }
+
+    /**
+     * MailboxId and Uid are added as last sort criteria: as they identify a document, the order of results is then
+     * total, and pages stay consistent from one request to another.
+     */
+    private SearchRequestBuilder withSorts(SearchRequestBuilder searchRequestBuilder, SearchQuery query) {
         return query.getSorts()
             .stream()
             .reduce(
-                client.prepareSearch(aliasName.getValue())
-                    .setTypes(typeName.getValue())
-                    .setScroll(TIMEOUT)
-                    .addFields(JsonMessageConstants.UID, JsonMessageConstants.MAILBOX_ID, JsonMessageConstants.MESSAGE_ID)
-                    .setQuery(queryConverter.from(users, query))
-                    .setSize(computeRequiredSize(limit)),
+                searchRequestBuilder,
                 (searchBuilder, sort) -> searchBuilder.addSort(SortConverter.convertSort(sort)),
-                (partialResult1, partialResult2) -> partialResult1);
+                (partialResult1, partialResult2) -> partialResult1)
+            .addSort(SortBuilders.fieldSort(JsonMessageConstants.MAILBOX_ID))
+            .addSort(SortBuilders.fieldSort(JsonMessageConstants.UID));
     }
 
     private int computeRequiredSize(Optional<Long> limit) {
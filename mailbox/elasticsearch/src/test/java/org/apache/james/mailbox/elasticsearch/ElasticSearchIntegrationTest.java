@@ -25,8 +25,10 @@ import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.util.concurrent.Executors;
 
+import org.apache.james.backends.es.BulkIndexingConfiguration;
 import org.apache.james.backends.es.DeleteByQueryPerformer;
 import org.apache.james.backends.es.ElasticSearchIndexer;
+import org.apache.james.backends.es.ElasticSearchIndexingPipeline;
 import org.apache.james.backends.es.EmbeddedElasticSearch;
 import org.apache.james.backends.es.IndexCreationFactory;
 import org.apache.james.backends.es.NodeMappingFactory;
@@ -53,6 +55,7 @@ import org.apache.james.mailbox.tika.TikaTextExtractor;
 import org.apache.james.metrics.api.NoopMetricFactory;
 import org.apache.james.mime4j.dom.Message;
 import org.elasticsearch.client.Client;
+import org.junit.After;
 import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
@@ -75,6 +78,7 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
     @ClassRule
     public static TikaContainer tika = new TikaContainer();
     private TikaTextExtractor textExtractor;
+    private ElasticSearchIndexingPipeline pipeline;
 
     @Override
     public void setUp() throws Exception {
@@ -87,8 +91,14 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
         super.setUp();
     }
 
+    @After
+    public void tearDown() {
+        pipeline.stop();
+    }
+
     @Override
     protected void await() {
+        pipeline.flush().join();
         embeddedElasticSearch.awaitForElasticSearch();
     }
 
@@ -108,16 +118,20 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
             .createMailboxManager(new SimpleGroupMembershipResolver());
 
 
-        ElasticSearchListeningMessageSearchIndex elasticSearchListeningMessageSearchIndex = new ElasticSearchListeningMessageSearchIndex(
-            storeMailboxManager.getMapperFactory(),
-            new ElasticSearchIndexer(client,
-                new DeleteByQueryPerformer(client,
-                    Executors.newSingleThreadExecutor(),
-                    BATCH_SIZE,
-                    MailboxElasticSearchConstants.DEFAULT_MAILBOX_WRITE_ALIAS,
-                    MailboxElasticSearchConstants.MESSAGE_TYPE),
+        ElasticSearchIndexer indexer = new ElasticSearchIndexer(client,
+            new DeleteByQueryPerformer(client,
+                Executors.newSingleThreadExecutor(),
+                BATCH_SIZE,
                 MailboxElasticSearchConstants.DEFAULT_MAILBOX_WRITE_ALIAS,
                 MailboxElasticSearchConstants.MESSAGE_TYPE),
+            MailboxElasticSearchConstants.DEFAULT_MAILBOX_WRITE_ALIAS,
+            MailboxElasticSearchConstants.MESSAGE_TYPE);
+        pipeline = new ElasticSearchIndexingPipeline(indexer, new NoopMetricFactory(), BulkIndexingConfiguration.DEFAULT);
+
+        ElasticSearchListeningMessageSearchIndex elasticSearchListeningMessageSearchIndex = new ElasticSearchListeningMessageSearchIndex(
+            storeMailboxManager.getMapperFactory(),
+            indexer,
+            pipeline,
             new ElasticSearchSearcher(client, new QueryConverter(new CriterionConverter()), SEARCH_SIZE,
                 new InMemoryId.Factory(), storeMailboxManager.getMessageIdFactory(),
                 MailboxElasticSearchConstants.DEFAULT_MAILBOX_READ_ALIAS,
@@ -149,7 +163,7 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
                 .setBody(Strings.repeat("0à2345678é", 3200), StandardCharsets.UTF_8)),
             session);
 
-        embeddedElasticSearch.awaitForElasticSearch();
+        await();
 
         assertThat(messageManager.search(new SearchQuery(SearchQuery.address(SearchQuery.AddressType.To, recipient)), session))
             .containsExactly(composedMessageId.getUid());
@@ -168,7 +182,7 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
                 .setBody(Strings.repeat("0123456789", 3300), StandardCharsets.UTF_8)),
             session);
 
-        embeddedElasticSearch.awaitForElasticSearch();
+        await();
 
         assertThat(messageManager.search(new SearchQuery(SearchQuery.address(SearchQuery.AddressType.To, recipient)), session))
             .containsExactly(composedMessageId.getUid());
@@ -187,7 +201,7 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
                 .setBody(Strings.repeat("0123456789 ", 5000), StandardCharsets.UTF_8)),
             session);
 
-        embeddedElasticSearch.awaitForElasticSearch();
+        await();
 
         assertThat(messageManager.search(new SearchQuery(SearchQuery.bodyContains("0123456789")), session))
             .containsExactly(composedMessageId.getUid());
@@ -206,7 +220,7 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
                 .setBody(Strings.repeat("0123456789 ", 5000) + " matchMe", StandardCharsets.UTF_8)),
             session);
 
-        embeddedElasticSearch.awaitForElasticSearch();
+        await();
 
         assertThat(messageManager.search(new SearchQuery(SearchQuery.bodyContains("matchMe")), session))
             .containsExactly(composedMessageId.getUid());
@@ -226,7 +240,7 @@ public class ElasticSearchIntegrationTest extends AbstractMessageSearchIndexTest
                 .setBody(reasonableLongTerm, StandardCharsets.UTF_8)),
             session);
 
-        embeddedElasticSearch.awaitForElasticSearch();
+        await();
 
         assertThat(messageManager.search(new SearchQuery(SearchQuery.bodyContains(reasonableLongTerm)), session))
             .containsExactly(composedMessageId.getUid());
@@ -28,11 +28,13 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import javax.mail.Flags;
 
+import org.apache.james.backends.es.BulkOperation;
 import org.apache.james.backends.es.ElasticSearchIndexer;
+import org.apache.james.backends.es.ElasticSearchIndexingPipeline;
 import org.apache.james.backends.es.ElasticSearchIndexer.UpdatedRepresentation;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MailboxSession.User;
@@ -46,7 +48,6 @@ import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.elasticsearch.ElasticsearchException;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.junit.Before;
@@ -68,6 +69,7 @@ public class ElasticSearchListeningMessageSearchIndexTest {
     public static final String USERNAME = "username";
 
     private ElasticSearchIndexer indexer;
+    private ElasticSearchIndexingPipeline pipeline;
     private MessageToElasticSearchJson messageToElasticSearchJson;
     private ElasticSearchListeningMessageSearchIndex testee;
     private MailboxSession session;
@@ -81,8 +83,11 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         ElasticSearchSearcher elasticSearchSearcher = mock(ElasticSearchSearcher.class);
 
         indexer = mock(ElasticSearchIndexer.class);
+        pipeline = mock(ElasticSearchIndexingPipeline.class);
+        when(pipeline.flush())
+            .thenReturn(CompletableFuture.completedFuture(null));
         
-        testee = new ElasticSearchListeningMessageSearchIndex(mapperFactory, indexer, elasticSearchSearcher, messageToElasticSearchJson);
+        testee = new ElasticSearchListeningMessageSearchIndex(mapperFactory, indexer, pipeline, elasticSearchSearcher, messageToElasticSearchJson);
         session = new MockMailboxSession(USERNAME);
         users = ImmutableList.of(session.getUser());
     }
@@ -102,7 +107,7 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         testee.add(session, mailbox, message);
         
         //Then
-        verify(indexer).indexMessage(eq(ELASTIC_SEARCH_ID), eq(EXPECTED_JSON_CONTENT));
+        verify(pipeline).submit(BulkOperation.index(ELASTIC_SEARCH_ID, EXPECTED_JSON_CONTENT));
     }
 
     @SuppressWarnings("unchecked")
@@ -125,7 +130,30 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         testee.add(session, mailbox, message);
         
         //Then
-        verify(indexer).indexMessage(eq(ELASTIC_SEARCH_ID), eq(EXPECTED_JSON_CONTENT));
+        verify(pipeline).submit(BulkOperation.index(ELASTIC_SEARCH_ID, EXPECTED_JSON_CONTENT));
+    }
+
+    @Test
+    public void addShouldSubmitAllMessagesAtOnceWhenBulkAdd() throws Exception {
+        //Given
+        Mailbox mailbox = mock(Mailbox.class);
+        when(mailbox.getMailboxId())
+            .thenReturn(MAILBOX_ID);
+        MailboxMessage message = mockedMessage(MESSAGE_UID);
+        MailboxMessage message2 = mockedMessage(MessageUid.of(2));
+
+        when(messageToElasticSearchJson.convertToJson(eq(message), eq(users)))
+            .thenReturn(EXPECTED_JSON_CONTENT);
+        when(messageToElasticSearchJson.convertToJson(eq(message2), eq(users)))
+            .thenReturn("other json content");
+
+        //When
+        testee.add(session, mailbox, ImmutableList.of(message, message2));
+
+        //Then
+        verify(pipeline).submit(ImmutableList.of(
+            BulkOperation.index(ELASTIC_SEARCH_ID, EXPECTED_JSON_CONTENT),
+            BulkOperation.index("12:2", "other json content")));
     }
 
     private MailboxMessage mockedMessage(MessageUid messageId) throws IOException {
@@ -165,15 +193,11 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         when(mailbox.getMailboxId())
             .thenReturn(MAILBOX_ID);
 
-        BulkResponse expectedBulkResponse = mock(BulkResponse.class);
-        when(indexer.deleteMessages(any(List.class)))
-            .thenReturn(Optional.of(expectedBulkResponse));
-
         //When
         testee.delete(session, mailbox, Lists.newArrayList(MESSAGE_UID));
 
         //Then
-        verify(indexer).deleteMessages(eq(Lists.newArrayList(ELASTIC_SEARCH_ID)));
+        verify(pipeline).submit(eq(ImmutableList.of(BulkOperation.delete(ELASTIC_SEARCH_ID))));
     }
 
     @Test
@@ -188,15 +212,16 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         when(mailbox.getMailboxId())
             .thenReturn(MAILBOX_ID);
 
-        BulkResponse expectedBulkResponse = mock(BulkResponse.class);
-        when(indexer.deleteMessages(any(List.class)))
-            .thenReturn(Optional.of(expectedBulkResponse));
-        
         //When
         testee.delete(session, mailbox, Lists.newArrayList(MESSAGE_UID, messageId2, messageId3, messageId4, messageId5));
         
         //Then
-        verify(indexer).deleteMessages(eq(Lists.newArrayList(ELASTIC_SEARCH_ID, "12:2", "12:3", "12:4", "12:5")));
+        verify(pipeline).submit(eq(ImmutableList.of(
+            BulkOperation.delete(ELASTIC_SEARCH_ID),
+            BulkOperation.delete("12:2"),
+            BulkOperation.delete("12:3"),
+            BulkOperation.delete("12:4"),
+            BulkOperation.delete("12:5"))));
     }
 
     @Test
@@ -207,8 +232,8 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         when(mailbox.getMailboxId())
             .thenReturn(MAILBOX_ID);
         
-        when(indexer.deleteMessages(any(List.class)))
-            .thenThrow(new ElasticsearchException(""));
+        doThrow(new ElasticsearchException(""))
+            .when(pipeline).submit(any(List.class));
         
         //When
         testee.delete(session, mailbox, Lists.newArrayList(MESSAGE_UID));
@@ -240,11 +265,11 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         testee.update(session, mailbox, Lists.newArrayList(updatedFlags));
         
         //Then
-        ImmutableList<UpdatedRepresentation> expectedUpdatedRepresentations = ImmutableList.of(new UpdatedRepresentation(ELASTIC_SEARCH_ID, "json updated content"));
-        verify(indexer).updateMessages(expectedUpdatedRepresentations);
+        verify(pipeline).submit(ImmutableList.of(BulkOperation.update(new UpdatedRepresentation(ELASTIC_SEARCH_ID, "json updated content"))));
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     public void updateShouldNotPropagateExceptionWhenExceptionOccurs() throws Exception {
         //Given
         Mailbox mailbox = mock(Mailbox.class);
@@ -258,9 +283,10 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         when(mailbox.getMailboxId())
             .thenReturn(MAILBOX_ID);
 
-        ImmutableList<UpdatedRepresentation> expectedUpdatedRepresentations = ImmutableList.of(new UpdatedRepresentation(ELASTIC_SEARCH_ID, "json updated content"));
-        when(indexer.updateMessages(expectedUpdatedRepresentations))
-            .thenThrow(new ElasticsearchException(""));
+        when(messageToElasticSearchJson.getUpdatedJsonMessagePart(any(Flags.class), any(Long.class)))
+            .thenReturn("json updated content");
+        doThrow(new ElasticsearchException(""))
+            .when(pipeline).submit(any(List.class));
         
         //When
         testee.update(session, mailbox, Lists.newArrayList(updatedFlags));
@@ -280,6 +306,7 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         testee.deleteAll(session, mailbox);
         
         //Then
+        verify(pipeline).flush();
         QueryBuilder expectedQueryBuilder = QueryBuilders.termQuery("mailboxId", "12");
         verify(indexer).deleteAllMatchingQuery(refEq(expectedQueryBuilder));
     }
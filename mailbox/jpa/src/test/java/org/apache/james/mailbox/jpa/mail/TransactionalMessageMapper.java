@@ -75,6 +75,12 @@ public class TransactionalMessageMapper implements MessageMapper {
         return messageMapper.findInMailbox(mailbox, set, type, limit);
     }
 
+    @Override
+    public Iterator<MailboxMessage> findInMailboxChangedSince(Mailbox mailbox, MessageRange set, long modSeq, FetchType type, int limit)
+            throws MailboxException {
+        return messageMapper.findInMailboxChangedSince(mailbox, set, modSeq, type, limit);
+    }
+
     @Override
     public Map<MessageUid, MessageMetaData> expungeMarkedForDeletionInMailbox(final Mailbox mailbox, final MessageRange set)
             throws MailboxException {
@@ -36,7 +36,9 @@ import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
@@ -94,7 +96,6 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Index;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.NumericField;
-import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
@@ -106,6 +107,8 @@ import org.apache.lucene.search.NumericRangeQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
@@ -113,7 +116,6 @@ import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -147,6 +149,11 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
      * Default max query results
      */
     private static final int DEFAULT_MAX_QUERY_RESULTS = 100000;
+
+    /**
+     * Default count of index writes between two commits
+     */
+    public static final int DEFAULT_COMMIT_INTERVAL = 1000;
     
     /**
      * {@link Field} which will contain the unique index of the {@link Document}
@@ -355,9 +362,15 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
     private final MailboxId.Factory mailboxIdFactory;
     private final MessageId.Factory messageIdFactory;
     private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final AtomicLong writeGeneration;
+    private final AtomicLong uncommittedWrites;
+    private volatile long refreshedGeneration;
 
     private int maxQueryResults = DEFAULT_MAX_QUERY_RESULTS;
 
+    private int commitInterval = DEFAULT_COMMIT_INTERVAL;
+
     private boolean suffixMatch = false;
 
     @Inject
@@ -382,14 +395,20 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         this.mailboxIdFactory = mailboxIdFactory;
         this.messageIdFactory = messageIdFactory;
         this.writer = new IndexWriter(directory,  createConfig(createAnalyzer(lenient), dropIndexOnStart));
+        this.searcherManager = new SearcherManager(writer, true, new SearcherFactory());
+        this.writeGeneration = new AtomicLong();
+        this.uncommittedWrites = new AtomicLong();
     }
     
     
-    public LuceneMessageSearchIndex(MessageMapperFactory factory, MailboxId.Factory mailboxIdFactory, MessageId.Factory messageIdFactory, IndexWriter writer) {
+    public LuceneMessageSearchIndex(MessageMapperFactory factory, MailboxId.Factory mailboxIdFactory, MessageId.Factory messageIdFactory, IndexWriter writer) throws IOException {
         super(factory);
         this.mailboxIdFactory = mailboxIdFactory;
         this.messageIdFactory = messageIdFactory;
         this.writer = writer;
+        this.searcherManager = new SearcherManager(writer, true, new SearcherFactory());
+        this.writeGeneration = new AtomicLong();
+        this.uncommittedWrites = new AtomicLong();
     }
 
     @Override
@@ -412,6 +431,26 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
     public void setMaxQueryResults(int maxQueryResults) {
         this.maxQueryResults = maxQueryResults;
     }
+
+    /**
+     * Set the count of index writes after which changes are committed to the index {@link Directory}. Searches do not
+     * need changes to be committed to see them: commits only bound what is lost upon a crash. The default is
+     * {@link #DEFAULT_COMMIT_INTERVAL}, a value of 0 or less disables commits, except upon {@link #close()}.
+     *
+     * @param commitInterval
+     */
+    public void setCommitInterval(int commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * Release the shared {@link IndexSearcher} and commit pending changes.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.commit();
+    }
     
     protected IndexWriterConfig createConfig(Analyzer analyzer, boolean dropIndexOnStart) {
         IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_31, analyzer);
@@ -486,7 +525,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         Query inMailboxes = buildQueryFromMailboxes(mailboxIds);
         
         try {
-            searcher = new IndexSearcher(IndexReader.open(writer, true));
+            searcher = acquireSearcher();
             BooleanQuery query = new BooleanQuery();
             query.add(inMailboxes, BooleanClause.Occur.MUST);
             // Not return flags documents
@@ -510,13 +549,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         } catch (IOException e) {
             throw new MailboxException("Unable to search the mailbox", e);
         } finally {
-            if (searcher != null) {
-                try {
-                    searcher.close();
-                } catch (IOException e) {
-                    // ignore on close
-                }
-            }
+            releaseSearcher(searcher);
         }
         return results.build();
     }
@@ -982,7 +1015,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
 
         try {
             Set<MessageUid> uids = new HashSet<>();
-            searcher = new IndexSearcher(IndexReader.open(writer, true));
+            searcher = acquireSearcher();
             
             // query for all the documents sorted by uid
             TopDocs docs = searcher.search(query, null, maxQueryResults, new Sort(UID_SORT));
@@ -1011,13 +1044,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         } catch (IOException e) {
             throw new MailboxException("Unable to search mailbox " + inMailboxes, e);
         } finally {
-            if (searcher != null) {
-                try {
-                    searcher.close();
-                } catch (IOException e) {
-                    // ignore on close
-                }
-            }
+            releaseSearcher(searcher);
         }
     }
     
@@ -1255,6 +1282,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         try {
             writer.addDocument(doc);
             writer.addDocument(flagsDoc);
+            onWrite();
         } catch (IOException e) {
             throw new MailboxException("Unable to add message to index", e);
         }
@@ -1270,7 +1298,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
     private void update(Mailbox mailbox, MessageUid uid, Flags f) throws MailboxException {
         IndexSearcher searcher = null;
         try {
-            searcher = new IndexSearcher(IndexReader.open(writer, true));
+            searcher = acquireSearcher();
             BooleanQuery query = new BooleanQuery();
             query.add(new TermQuery(new Term(MAILBOX_ID_FIELD, mailbox.getMailboxId().serialize())), BooleanClause.Occur.MUST);
             query.add(createQuery(MessageRange.one(uid)), BooleanClause.Occur.MUST);
@@ -1286,18 +1314,14 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
                     indexFlags(doc, f);
 
                     writer.updateDocument(new Term(ID_FIELD, doc.get(ID_FIELD)), doc);
-
+                    onWrite();
                 }
             }
         } catch (IOException e) {
             throw new MailboxException("Unable to add messages in index", e);
 
         } finally {
-            try {
-                IOUtils.closeWhileHandlingException(searcher);
-            } catch (IOException e) {
-                //can't happen anyway
-            }
+            releaseSearcher(searcher);
         }
         
     }
@@ -1376,8 +1400,45 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         
         try {
             writer.deleteDocuments(query);
+            onWrite();
         } catch (IOException e) {
             throw new MailboxException("Unable to delete message from index", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The shared {@link IndexSearcher} is only reopened when writes happened since it was last refreshed. Refreshes
+     * are serialized so that a search always sees the writes completed before it started.
+     */
+    private IndexSearcher acquireSearcher() throws IOException {
+        long expectedGeneration = writeGeneration.get();
+        if (refreshedGeneration < expectedGeneration) {
+            synchronized (searcherManager) {
+                if (refreshedGeneration < expectedGeneration) {
+                    long refreshingGeneration = writeGeneration.get();
+                    searcherManager.maybeRefresh();
+                    refreshedGeneration = refreshingGeneration;
+                }
+            }
+        }
+        return searcherManager.acquire();
+    }
+
+    private void releaseSearcher(IndexSearcher searcher) {
+        if (searcher != null) {
+            try {
+                searcherManager.release(searcher);
+            } catch (IOException e) {
+                // ignore on release
+            }
+        }
+    }
+
+    private void onWrite() throws IOException {
+        writeGeneration.incrementAndGet();
+        if (commitInterval > 0 && uncommittedWrites.incrementAndGet() >= commitInterval) {
+            uncommittedWrites.set(0);
+            writer.commit();
+        }
+    }
+}
@@ -636,6 +636,43 @@ public class LuceneMailboxMessageSearchIndexTest {
         Iterator<MessageUid> result = index.search(session, mailbox, query);
         assertThat(result).containsExactly(uid3, uid4);
     }
+
+    @Test
+    public void searchShouldReturnMessagesAddedAfterAPreviousSearch() throws Exception {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.all());
+        assertThat(index.search(session, mailbox2, query)).containsExactly(uid2);
+
+        MessageUid uid6 = MessageUid.of(2);
+        SimpleMailboxMembership m6 = new SimpleMailboxMembership(new TestMessageId.Factory().generate(), mailbox2.getMailboxId(), uid6, 0, new Date(), 20, new Flags(), "My Body".getBytes(), new HashMap<>());
+        index.add(session, mailbox2, m6);
+
+        assertThat(index.search(session, mailbox2, query)).containsExactly(uid2, uid6);
+    }
+
+    @Test
+    public void searchShouldNotReturnMessagesDeletedAfterAPreviousSearch() throws Exception {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.all());
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1, uid3, uid4);
+
+        index.delete(session, mailbox, ImmutableList.of(uid3));
+
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1, uid4);
+    }
+
+    @Test
+    public void searchShouldReturnMessagesWhenCommittedEveryWrite() throws Exception {
+        index.setCommitInterval(1);
+        MessageUid uid6 = MessageUid.of(2);
+        SimpleMailboxMembership m6 = new SimpleMailboxMembership(new TestMessageId.Factory().generate(), mailbox2.getMailboxId(), uid6, 0, new Date(), 20, new Flags(), "My Body".getBytes(), new HashMap<>());
+
+        index.add(session, mailbox2, m6);
+
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.all());
+        assertThat(index.search(session, mailbox2, query)).containsExactly(uid2, uid6);
+    }
     
     private final class SimpleMailbox implements Mailbox {
         private final TestId id;
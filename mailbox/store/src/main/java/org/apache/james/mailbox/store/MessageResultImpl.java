@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.mail.Flags;
 
@@ -38,8 +39,10 @@ import org.apache.james.mailbox.model.MessageAttachment;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.store.json.MimeDescriptorJsonConverter;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.Message;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
 import org.apache.james.mailbox.store.streaming.InputStreamContent;
 import org.apache.james.mailbox.store.streaming.InputStreamContent.Type;
 import org.apache.james.mime4j.MimeException;
@@ -308,7 +311,7 @@ public class MessageResultImpl implements MessageResult {
         if (mimeDescriptor == null) {
             try {
                 if (MimeDescriptorImpl.isComposite(message.getMediaType())) {
-                    mimeDescriptor = MimeDescriptorImpl.build(getFullContent().getInputStream());
+                    mimeDescriptor = buildCompositeMimeDescriptor();
                 } else {
                     mimeDescriptor = new LazyMimeDescriptor(this, message);
                 }
@@ -319,6 +322,23 @@ public class MessageResultImpl implements MessageResult {
         return mimeDescriptor;
     }
 
+    private MimeDescriptor buildCompositeMimeDescriptor() throws IOException, MimeException {
+        Optional<String> mimeStructure = new PropertyBuilder(message.getProperties()).getMimeStructure();
+        if (mimeStructure.isPresent()) {
+            return MimeDescriptorJsonConverter.toMimeDescriptor(mimeStructure.get(), ResultUtils.createHeaders(message));
+        }
+        return MimeDescriptorImpl.build(getFullContent().getInputStream());
+    }
+
+    /**
+     * @return true when the full content of the message needs to be read to build its {@link MimeDescriptor}, false
+     * when its headers and properties are enough
+     */
+    static boolean isFullContentNeededForMimeDescriptor(MailboxMessage message) {
+        return MimeDescriptorImpl.isComposite(message.getMediaType())
+            && message.getProperties().stream().noneMatch(PropertyBuilder.isMimeStructureProperty());
+    }
+
     @Override
     public long getModSeq() {
         return message.getModSeq();
@@ -23,21 +23,26 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
 
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.store.streaming.ContentTransferEncoding;
 import org.apache.james.mailbox.store.streaming.CountingInputStream;
 import org.apache.james.mime4j.MimeException;
 import org.apache.james.mime4j.message.DefaultBodyDescriptorBuilder;
 import org.apache.james.mime4j.message.MaximalBodyDescriptor;
 import org.apache.james.mime4j.stream.EntityState;
+import org.apache.james.mime4j.stream.Field;
 import org.apache.james.mime4j.stream.MimeConfig;
 import org.apache.james.mime4j.stream.MimeTokenStream;
 import org.apache.james.mime4j.stream.RecursionMode;
@@ -46,6 +51,66 @@ public class MimeDescriptorImpl implements MimeDescriptor {
 
     private static final Charset US_ASCII = Charset.forName("US-ASCII");
 
+    /**
+     * Builds the descriptor of a message out of the tokens of a parser driven by its caller, so that the
+     * structure is computed by the parsing pass that also reads the message properties and attachments.
+     *
+     * The parser is expected to use {@link RecursionMode#M_NO_RECURSE}, as {@link #build(InputStream)} does.
+     */
+    public static class StreamingBuilder {
+        private final Deque<MimeDescriptorImpl> multiparts;
+        private Collection<MessageResult.Header> headers;
+        private Optional<MimeDescriptorImpl> root;
+
+        public StreamingBuilder() {
+            this.multiparts = new ArrayDeque<>();
+            this.headers = new ArrayList<>();
+            this.root = Optional.empty();
+        }
+
+        public void startHeader() {
+            headers = new ArrayList<>();
+        }
+
+        public void field(Field field) {
+            headers.add(new ResultHeader(field.getName(), field.getBody().trim()));
+        }
+
+        public void startMultipart(MaximalBodyDescriptor descriptor) {
+            MimeDescriptorImpl multipart = createDescriptor(0, 0, descriptor, null, headers);
+            add(multipart);
+            multiparts.push(multipart);
+        }
+
+        public void endMultipart() {
+            multiparts.pop();
+        }
+
+        /**
+         * @param content the body as stored, that is before its transfer encoding is decoded
+         */
+        public void body(MaximalBodyDescriptor descriptor, InputStream content) throws IOException, MimeException {
+            if (isEmbeddedMessage(descriptor)) {
+                add(embeddedMessageDescriptor(descriptor,
+                    ContentTransferEncoding.decode(descriptor.getTransferEncoding(), content), headers));
+            } else {
+                add(leafDescriptor(descriptor, content, headers));
+            }
+        }
+
+        public Optional<MimeDescriptorImpl> build() {
+            return root;
+        }
+
+        private void add(MimeDescriptorImpl descriptor) {
+            if (multiparts.isEmpty()) {
+                root = Optional.of(descriptor);
+            } else {
+                multiparts.peek().addPart(descriptor);
+            }
+        }
+    }
+
     /**
      * Is this a composite media type (as per RFC2045)?
      * 
@@ -124,32 +189,41 @@ public class MimeDescriptorImpl implements MimeDescriptor {
             throws IOException, MimeException {
         MaximalBodyDescriptor descriptor = (MaximalBodyDescriptor) parser
                 .getBodyDescriptor();
-        final MimeDescriptorImpl mimeDescriptorImpl;
-        if ("message".equalsIgnoreCase(descriptor.getMediaType())
-                && "rfc822".equalsIgnoreCase(descriptor.getSubType())) {
-            final CountingInputStream messageStream = new CountingInputStream(
-                    parser.getDecodedInputStream());
-            MimeDescriptorImpl embeddedMessageDescriptor = build(messageStream);
-            final int octetCount = messageStream.getOctetCount();
-            final int lineCount = messageStream.getLineCount();
-
-            mimeDescriptorImpl = createDescriptor(octetCount, lineCount,
-                    descriptor, embeddedMessageDescriptor, headers);
-        } else {
-            final InputStream body = parser.getInputStream();
-            long bodyOctets = 0;
-            long lines = 0;
-            for (int n = body.read(); n >= 0; n = body.read()) {
-                if (n == '\r') {
-                    lines++;
-                }
-                bodyOctets++;
-            }
+        if (isEmbeddedMessage(descriptor)) {
+            return embeddedMessageDescriptor(descriptor, parser.getDecodedInputStream(), headers);
+        }
+        return leafDescriptor(descriptor, parser.getInputStream(), headers);
+    }
 
-            mimeDescriptorImpl = createDescriptor(bodyOctets, lines,
-                    descriptor, null, headers);
+    private static boolean isEmbeddedMessage(MaximalBodyDescriptor descriptor) {
+        return "message".equalsIgnoreCase(descriptor.getMediaType())
+                && "rfc822".equalsIgnoreCase(descriptor.getSubType());
+    }
+
+    private static MimeDescriptorImpl embeddedMessageDescriptor(MaximalBodyDescriptor descriptor,
+            InputStream decodedContent, Collection<MessageResult.Header> headers) throws IOException, MimeException {
+        final CountingInputStream messageStream = new CountingInputStream(decodedContent);
+        MimeDescriptorImpl embeddedMessageDescriptor = build(messageStream);
+        final int octetCount = messageStream.getOctetCount();
+        final int lineCount = messageStream.getLineCount();
+
+        return createDescriptor(octetCount, lineCount,
+                descriptor, embeddedMessageDescriptor, headers);
+    }
+
+    private static MimeDescriptorImpl leafDescriptor(MaximalBodyDescriptor descriptor,
+            InputStream body, Collection<MessageResult.Header> headers) throws IOException {
+        long bodyOctets = 0;
+        long lines = 0;
+        for (int n = body.read(); n >= 0; n = body.read()) {
+            if (n == '\r') {
+                lines++;
+            }
+            bodyOctets++;
         }
-        return mimeDescriptorImpl;
+
+        return createDescriptor(bodyOctets, lines,
+                descriptor, null, headers);
     }
 
     private static MimeDescriptorImpl createDescriptor(long bodyOctets,
@@ -19,8 +19,6 @@
 
 package org.apache.james.mailbox.store;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -28,16 +26,19 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
 import javax.mail.internet.SharedInputStream;
+import javax.mail.util.SharedByteArrayInputStream;
 import javax.mail.util.SharedFileInputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.james.mailbox.MailboxListener;
 import org.apache.james.mailbox.MailboxPathLocker;
 import org.apache.james.mailbox.MailboxSession;
@@ -64,6 +65,7 @@ import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.quota.QuotaManager;
 import org.apache.james.mailbox.quota.QuotaRootResolver;
 import org.apache.james.mailbox.store.event.MailboxEventDispatcher;
+import org.apache.james.mailbox.store.json.MimeDescriptorJsonConverter;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
@@ -83,12 +85,13 @@ import org.apache.james.mime4j.stream.MimeConfig;
 import org.apache.james.mime4j.stream.MimeTokenStream;
 import org.apache.james.mime4j.stream.RecursionMode;
 import org.apache.james.util.BodyOffsetInputStream;
-import org.apache.james.util.IteratorWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 
 /**
  * Base class for {@link org.apache.james.mailbox.MessageManager}
@@ -127,6 +130,11 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
 
     private static final Logger LOG = LoggerFactory.getLogger(StoreMessageManager.class);
 
+    /**
+     * Messages smaller than this size are buffered in memory upon append, bigger ones are spooled to a temporary file.
+     */
+    private static final int IN_MEMORY_THRESHOLD = 100 * 1024;
+
     private final Mailbox mailbox;
 
     private final MailboxEventDispatcher dispatcher;
@@ -289,22 +297,20 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
     @Override
     public ComposedMessageId appendMessage(InputStream msgIn, Date internalDate, final MailboxSession mailboxSession, boolean isRecent, Flags flagsToBeSet) throws MailboxException {
 
-        File file = null;
         TeeInputStream tmpMsgIn = null;
         BodyOffsetInputStream bIn = null;
-        FileOutputStream out = null;
-        SharedFileInputStream contentIn = null;
+        DeferredFileOutputStream out = null;
+        InputStream contentIn = null;
 
         if (!isWriteable(mailboxSession)) {
             throw new ReadOnlyException(getMailboxPath(), mailboxSession.getPathDelimiter());
         }
 
         try {
-            // Create a temporary file and copy the message to it. We will work
-            // with the file as
+            // Copy the message to a buffer, that spills to a temporary file once it
+            // exceeds IN_MEMORY_THRESHOLD. We will work with the buffer as
             // source for the InputStream
-            file = File.createTempFile("imap", ".msg");
-            out = new FileOutputStream(file);
+            out = new DeferredFileOutputStream(IN_MEMORY_THRESHOLD, "imap", ".msg", null);
 
             tmpMsgIn = new TeeInputStream(msgIn, out);
 
@@ -318,11 +324,13 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
             parser.setRecursionMode(RecursionMode.M_NO_RECURSE);
             parser.parse(bIn);
             final HeaderImpl header = new HeaderImpl();
+            final MimeDescriptorImpl.StreamingBuilder mimeStructure = new MimeDescriptorImpl.StreamingBuilder();
 
             EntityState next = parser.next();
             while (next != EntityState.T_BODY && next != EntityState.T_END_OF_STREAM && next != EntityState.T_START_MULTIPART) {
                 if (next == EntityState.T_FIELD) {
-                    header.addField(parser.getField());
+                    header.addField(messageParser.parseField(parser.getField()));
+                    mimeStructure.field(parser.getField());
                 }
                 next = parser.next();
             }
@@ -363,6 +371,9 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
             if (boundary != null) {
                 propertyBuilder.setBoundary(boundary);
             }
+            // Attachments are retrieved while streaming, unless the body itself is an attachment, which
+            // requires a dedicated parsing of the stored content
+            final boolean bodyIsAttachment = messageParser.isBodyAttachment(header);
             if ("text".equalsIgnoreCase(mediaType)) {
                 final CountingInputStream bodyStream = new CountingInputStream(parser.getInputStream());
                 bodyStream.readAll();
@@ -378,6 +389,10 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
                 }
                 propertyBuilder.setTextualLineCount(lines);
             }
+            // The MIME structure of composite messages is computed along with the attachments, so that BODYSTRUCTURE
+            // does not need to read the full content. It is otherwise computed upon reads.
+            final Optional<MimeDescriptorImpl.StreamingBuilder> structure = MimeDescriptorImpl.isComposite(mediaType) ? Optional.of(mimeStructure) : Optional.empty();
+            final Optional<List<MessageAttachment>> streamedAttachments = bodyIsAttachment ? Optional.empty() : streamAttachments(parser, structure);
 
             final Flags flags;
             if (flagsToBeSet == null) {
@@ -405,13 +420,20 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
             if (bodyStartOctet == -1) {
                 bodyStartOctet = 0;
             }
-            contentIn = new SharedFileInputStream(file);
-            final int size = (int) file.length();
+            out.close();
+            final InputStream content = bufferedContent(out);
+            contentIn = content;
+            final int size = (int) out.getByteCount();
 
-            final List<MessageAttachment> attachments = extractAttachments(contentIn);
+            final List<MessageAttachment> attachments = streamedAttachments.orElseGet(() -> extractAttachments(content));
             propertyBuilder.setHasAttachment(hasNonInlinedAttachment(attachments));
+            if (streamedAttachments.isPresent()) {
+                structure.flatMap(MimeDescriptorImpl.StreamingBuilder::build)
+                    .flatMap(this::serializeMimeStructure)
+                    .ifPresent(propertyBuilder::setMimeStructure);
+            }
 
-            final MailboxMessage message = createMessage(internalDate, size, bodyStartOctet, contentIn, flags, propertyBuilder, attachments);
+            final MailboxMessage message = createMessage(internalDate, size, bodyStartOctet, (SharedInputStream) content, flags, propertyBuilder, attachments);
 
             new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(1, size);
 
@@ -431,9 +453,9 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
             IOUtils.closeQuietly(out);
             IOUtils.closeQuietly(contentIn);
 
-            // delete the temporary file if one was specified
-            if (file != null) {
-                if (!file.delete()) {
+            // delete the temporary file if one was created
+            if (out != null && out.getFile() != null) {
+                if (!out.getFile().delete()) {
                     // Don't throw an IOException. The message could be appended
                     // and the temporary file
                     // will be deleted hopefully some day
@@ -448,7 +470,35 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
             .anyMatch(messageAttachment -> !messageAttachment.isInlinedWithCid());
     }
 
-    private List<MessageAttachment> extractAttachments(SharedFileInputStream contentIn) {
+    /**
+     * @return the content written to the given buffer, as an {@link InputStream} implementing {@link SharedInputStream}
+     */
+    private InputStream bufferedContent(DeferredFileOutputStream out) throws IOException {
+        if (out.isInMemory()) {
+            return new SharedByteArrayInputStream(out.getData());
+        }
+        return new SharedFileInputStream(out.getFile());
+    }
+
+    private Optional<String> serializeMimeStructure(MimeDescriptorImpl mimeStructure) {
+        try {
+            return Optional.of(MimeDescriptorJsonConverter.toJson(mimeStructure));
+        } catch (Exception e) {
+            LOG.warn("Error while serializing mail's MIME structure: {}", e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    private Optional<List<MessageAttachment>> streamAttachments(MimeTokenStream parser, Optional<MimeDescriptorImpl.StreamingBuilder> structure) {
+        try {
+            return Optional.of(messageParser.retrieveAttachments(parser, structure));
+        } catch (Exception e) {
+            LOG.warn("Error while streaming mail's attachments, falling back to a full parsing: {}", e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    private List<MessageAttachment> extractAttachments(InputStream contentIn) {
         try {
             return messageParser.retrieveAttachments(contentIn);
         } catch (Exception e) {
@@ -650,6 +700,12 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
         return new StoreMessageResultIterator(messageMapper, mailbox, set, batchSizes, fetchGroup);
     }
 
+    @Override
+    public MessageResultIterator getMessagesChangedSince(MessageRange set, long changedSince, FetchGroup fetchGroup, MailboxSession mailboxSession) throws MailboxException {
+        final MessageMapper messageMapper = mapperFactory.getMessageMapper(mailboxSession);
+        return new StoreMessageResultIterator(messageMapper, mailbox, set, Optional.of(changedSince), batchSizes, fetchGroup);
+    }
+
     /**
      * Return a List which holds all uids of recent messages and optional reset
      * the recent flag on the messages for the uids
@@ -695,76 +751,86 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
         return index.search(mailboxSession, getMailboxEntity(), query);
     }
 
-    private Iterator<MessageMetaData> copy(Iterator<MailboxMessage> originalRows, MailboxSession session) throws MailboxException {
-        final List<MessageMetaData> copiedRows = new ArrayList<>();
+    private List<MessageMetaData> copy(List<MailboxMessage> originalRows, MailboxSession session) throws MailboxException {
         final MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
 
-        while (originalRows.hasNext()) {
-            final MailboxMessage originalMessage = originalRows.next();
-            new QuotaChecker(quotaManager, quotaRootResolver, mailbox)
-                .tryAddition(1, originalMessage.getFullContentOctets());
-            MessageMetaData data = messageMapper.execute(
-                () -> messageMapper.copy(getMailboxEntity(), originalMessage));
-            dispatcher.added(session, this.getMailboxEntity(), immutableMailboxMessageFactory.from(getMailboxEntity().getMailboxId(), originalMessage));
-            copiedRows.add(data);
-        }
-        return copiedRows.iterator();
+        new QuotaChecker(quotaManager, quotaRootResolver, mailbox)
+            .tryAddition(originalRows.size(), originalRows.stream()
+                .mapToLong(MailboxMessage::getFullContentOctets)
+                .sum());
+        return messageMapper.execute(
+            () -> messageMapper.copy(getMailboxEntity(), originalRows));
     }
 
-    private MoveResult move(Iterator<MailboxMessage> originalRows, MailboxSession session) throws MailboxException {
-        final List<MessageMetaData> movedRows = new ArrayList<>();
-        final List<MessageMetaData> originalRowsCopy = new ArrayList<>();
+    private MoveResult move(List<MailboxMessage> originalRows, MailboxSession session) throws MailboxException {
         final MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+        final List<MessageMetaData> originalRowsCopy = originalRows.stream()
+            .map(SimpleMessageMetaData::new)
+            .collect(Guavate.toImmutableList());
 
-        while (originalRows.hasNext()) {
-            final MailboxMessage originalMessage = originalRows.next();
-            originalRowsCopy.add(new SimpleMessageMetaData(originalMessage));
-            MessageMetaData data = messageMapper.execute(
-                () -> messageMapper.move(getMailboxEntity(), originalMessage));
-            movedRows.add(data);
-        }
+        List<MessageMetaData> movedRows = messageMapper.execute(
+            () -> messageMapper.move(getMailboxEntity(), originalRows));
         return new MoveResult(movedRows.iterator(), originalRowsCopy.iterator());
     }
 
-
+    /**
+     * Copies the messages by batches of {@link BatchSizes#getCopyBatchSize()}, each batch being copied by a single
+     * {@link MessageMapper} call and reported by a single aggregated event.
+     */
     private SortedMap<MessageUid, MessageMetaData> copy(MessageRange set, StoreMessageManager to, MailboxSession session) throws MailboxException {
-        IteratorWrapper<MailboxMessage> originalRows = new IteratorWrapper<>(retrieveOriginalRows(set, session));
-
-        SortedMap<MessageUid, MessageMetaData> copiedUids = collectMetadata(to.copy(originalRows, session));
-
-        ImmutableMap.Builder<MessageUid, MailboxMessage> messagesMap = ImmutableMap.builder();
-        for (MailboxMessage message : originalRows.getEntriesSeen()) {
-            messagesMap.put(message.getUid(), immutableMailboxMessageFactory.from(to.getMailboxEntity().getMailboxId(), message));
+        SortedMap<MessageUid, MessageMetaData> copiedUids = new TreeMap<>();
+        Iterator<List<MailboxMessage>> batches = Iterators.partition(retrieveOriginalRows(set, session), batchSizes.getCopyBatchSize());
+
+        while (batches.hasNext()) {
+            List<MailboxMessage> originalRows = batches.next();
+            SortedMap<MessageUid, MessageMetaData> batchUids = collectMetadata(to.copy(originalRows, session).iterator());
+
+            ImmutableMap<MessageUid, MailboxMessage> messagesMap = toImmutableMessages(originalRows, to);
+            dispatcher.added(session, batchUids, to.getMailboxEntity(), messagesMap);
+            dispatcher.moved(session,
+                MessageMoves.builder()
+                    .previousMailboxIds(getMailboxEntity().getMailboxId())
+                    .targetMailboxIds(to.getMailboxEntity().getMailboxId(), getMailboxEntity().getMailboxId())
+                    .build(),
+                messagesMap);
+            copiedUids.putAll(batchUids);
         }
-        dispatcher.added(session, copiedUids, to.getMailboxEntity(), messagesMap.build());
-        dispatcher.moved(session,
-            MessageMoves.builder()
-                .previousMailboxIds(getMailboxEntity().getMailboxId())
-                .targetMailboxIds(to.getMailboxEntity().getMailboxId(), getMailboxEntity().getMailboxId())
-                .build(),
-            messagesMap.build());
         return copiedUids;
     }
 
+    /**
+     * Moves the messages by batches of {@link BatchSizes#getMoveBatchSize()}, each batch being moved by a single
+     * {@link MessageMapper} call and reported by single aggregated events.
+     */
     private SortedMap<MessageUid, MessageMetaData> move(MessageRange set, StoreMessageManager to, MailboxSession session) throws MailboxException {
-        IteratorWrapper<MailboxMessage> originalRows = new IteratorWrapper<>(retrieveOriginalRows(set, session));
-
-        MoveResult moveResult = to.move(originalRows, session);
-        SortedMap<MessageUid, MessageMetaData> moveUids = collectMetadata(moveResult.getMovedMessages());
+        SortedMap<MessageUid, MessageMetaData> movedUids = new TreeMap<>();
+        Iterator<List<MailboxMessage>> batches = Iterators.partition(retrieveOriginalRows(set, session), batchSizes.getMoveBatchSize());
+
+        while (batches.hasNext()) {
+            List<MailboxMessage> originalRows = batches.next();
+            MoveResult moveResult = to.move(originalRows, session);
+            SortedMap<MessageUid, MessageMetaData> batchUids = collectMetadata(moveResult.getMovedMessages());
+
+            ImmutableMap<MessageUid, MailboxMessage> messagesMap = toImmutableMessages(originalRows, to);
+            dispatcher.added(session, batchUids, to.getMailboxEntity(), messagesMap);
+            dispatcher.expunged(session, collectMetadata(moveResult.getOriginalMessages()), getMailboxEntity());
+            dispatcher.moved(session,
+                MessageMoves.builder()
+                    .previousMailboxIds(getMailboxEntity().getMailboxId())
+                    .targetMailboxIds(to.getMailboxEntity().getMailboxId())
+                    .build(),
+                messagesMap);
+            movedUids.putAll(batchUids);
+        }
+        return movedUids;
+    }
 
+    private ImmutableMap<MessageUid, MailboxMessage> toImmutableMessages(List<MailboxMessage> messages, StoreMessageManager to) {
         ImmutableMap.Builder<MessageUid, MailboxMessage> messagesMap = ImmutableMap.builder();
-        for (MailboxMessage message : originalRows.getEntriesSeen()) {
+        for (MailboxMessage message : messages) {
             messagesMap.put(message.getUid(), immutableMailboxMessageFactory.from(to.getMailboxEntity().getMailboxId(), message));
         }
-        dispatcher.added(session, moveUids, to.getMailboxEntity(), messagesMap.build());
-        dispatcher.expunged(session, collectMetadata(moveResult.getOriginalMessages()), getMailboxEntity());
-        dispatcher.moved(session,
-            MessageMoves.builder()
-                .previousMailboxIds(getMailboxEntity().getMailboxId())
-                .targetMailboxIds(to.getMailboxEntity().getMailboxId())
-                .build(),
-            messagesMap.build());
-        return moveUids;
+        return messagesMap.build();
     }
 
     private Iterator<MailboxMessage> retrieveOriginalRows(MessageRange set, MailboxSession session) throws MailboxException {
@@ -18,10 +18,15 @@
  ****************************************************************/
 package org.apache.james.mailbox.store;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 import javax.mail.Flags;
 
@@ -38,6 +43,7 @@ import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MessageResult.FetchGroup;
 import org.apache.james.mailbox.model.MessageResultIterator;
 import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.store.mail.AbstractMessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
@@ -45,7 +51,9 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
 
 public class StoreMessageResultIterator implements MessageResultIterator {
 
@@ -62,8 +70,16 @@ public class StoreMessageResultIterator implements MessageResultIterator {
     private final Type type;
     private final MessageMapper mapper;
     private final FetchType ftype;
+    private final Optional<Long> changedSince;
 
     public StoreMessageResultIterator(MessageMapper mapper, Mailbox mailbox, MessageRange range, BatchSizes batchSizes, org.apache.james.mailbox.model.MessageResult.FetchGroup group) {
+        this(mapper, mailbox, range, Optional.empty(), batchSizes, group);
+    }
+
+    /**
+     * @param changedSince when present, only the messages whose mod-sequence is strictly greater are returned
+     */
+    public StoreMessageResultIterator(MessageMapper mapper, Mailbox mailbox, MessageRange range, Optional<Long> changedSince, BatchSizes batchSizes, org.apache.james.mailbox.model.MessageResult.FetchGroup group) {
         this.mailbox = mailbox;
         this.group = group;
         this.mapper = mapper;
@@ -73,6 +89,7 @@ public class StoreMessageResultIterator implements MessageResultIterator {
         this.batchSizes = batchSizes;
         this.type = range.getType();
         this.ftype = getFetchType(group);
+        this.changedSince = changedSince;
         LOGGER.debug("batchSizes used: {}", batchSizes);
     }
 
@@ -107,10 +124,9 @@ public class StoreMessageResultIterator implements MessageResultIterator {
         }
 
         if ((content & FetchGroup.MIME_DESCRIPTOR) > 0) {
-            // If we need the mimedescriptor we MAY need the full content later
-            // too.
-            // This gives us no other choice then request it
-            full = true;
+            // The mimedescriptor is computed out of the headers and of the MIME structure stored upon append.
+            // Messages lacking it are read again with their full content
+            headers = true;
             content -= FetchGroup.MIME_DESCRIPTOR;
         }
         if (full || (body && headers)) {
@@ -160,7 +176,37 @@ public class StoreMessageResultIterator implements MessageResultIterator {
             range = MessageRange.range(cursor, to);
             break;
         }
-        next = mapper.findInMailbox(mailbox, range, ftype, batchSizeFromFetchType(ftype));
+        if (changedSince.isPresent()) {
+            next = withContentNeededForMimeDescriptor(mapper.findInMailboxChangedSince(mailbox, range, changedSince.get(), ftype, batchSizeFromFetchType(ftype)));
+        } else {
+            next = withContentNeededForMimeDescriptor(mapper.findInMailbox(mailbox, range, ftype, batchSizeFromFetchType(ftype)));
+        }
+    }
+
+    /**
+     * Messages lacking a stored MIME structure, such as messages appended before it was stored, need their full
+     * content for the MIME descriptor. They are read again with a single call per batch.
+     */
+    private Iterator<MailboxMessage> withContentNeededForMimeDescriptor(Iterator<MailboxMessage> batch) throws MailboxException {
+        if (ftype == FetchType.Full || (group.content() & FetchGroup.MIME_DESCRIPTOR) == 0) {
+            return batch;
+        }
+        List<MailboxMessage> messages = ImmutableList.copyOf(batch);
+        Set<MessageUid> missingStructures = messages.stream()
+            .filter(MessageResultImpl::isFullContentNeededForMimeDescriptor)
+            .map(MailboxMessage::getUid)
+            .collect(Guavate.toImmutableSet());
+        if (missingStructures.isEmpty()) {
+            return messages.iterator();
+        }
+        MessageRange range = MessageRange.range(Collections.min(missingStructures), Collections.max(missingStructures));
+        Map<MessageUid, MailboxMessage> fullMessages = ImmutableList.copyOf(mapper.findInMailbox(mailbox, range, FetchType.Full, AbstractMessageMapper.UNLIMITED))
+            .stream()
+            .filter(message -> missingStructures.contains(message.getUid()))
+            .collect(Guavate.toImmutableMap(MailboxMessage::getUid, Function.identity()));
+        return messages.stream()
+            .map(message -> fullMessages.getOrDefault(message.getUid(), message))
+            .iterator();
     }
 
     private int batchSizeFromFetchType(FetchType fetchType) {
@@ -183,7 +229,7 @@ public class StoreMessageResultIterator implements MessageResultIterator {
           throw new NoSuchElementException();
         }
         
-        final MailboxMessage message = next.next();
+        MailboxMessage message = next.next();
         MessageResult result;
         try {
             result = ResultUtils.loadMessageResult(message, group);
@@ -0,0 +1,195 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.MessageResult;
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.store.MimeDescriptorImpl;
+import org.apache.james.mailbox.store.ResultHeader;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Serializes the MIME structure of a message, so that BODYSTRUCTURE can be served without reading its content.
+ *
+ * The headers of the root part are not serialized, as they are part of the stored message already.
+ */
+public class MimeDescriptorJsonConverter {
+
+    private static final String TYPE = "type";
+    private static final String SUB_TYPE = "subType";
+    private static final String BODY_OCTETS = "bodyOctets";
+    private static final String LINES = "lines";
+    private static final String CONTENT_ID = "contentId";
+    private static final String CONTENT_DESCRIPTION = "contentDescription";
+    private static final String TRANSFER_ENCODING = "transferEncoding";
+    private static final String CONTENT_TYPE_PARAMETERS = "contentTypeParameters";
+    private static final String LANGUAGES = "languages";
+    private static final String DISPOSITION = "disposition";
+    private static final String DISPOSITION_PARAMETERS = "dispositionParameters";
+    private static final String LOCATION = "location";
+    private static final String MD5 = "md5";
+    private static final String HEADERS = "headers";
+    private static final String NAME = "name";
+    private static final String VALUE = "value";
+    private static final String EMBEDDED_MESSAGE = "embeddedMessage";
+    private static final String PARTS = "parts";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static {
+        // Keeps the serialized structure ASCII only, so that it can be split in chunks anywhere
+        objectMapper.configure(JsonGenerator.Feature.ESCAPE_NON_ASCII, true);
+    }
+
+    public static String toJson(MimeDescriptor descriptor) throws MailboxException, IOException {
+        return objectMapper.writeValueAsString(toNode(descriptor, false));
+    }
+
+    public static MimeDescriptorImpl toMimeDescriptor(String json, Collection<MessageResult.Header> rootHeaders) throws IOException {
+        return fromNode(objectMapper.readTree(json), rootHeaders);
+    }
+
+    private static ObjectNode toNode(MimeDescriptor descriptor, boolean withHeaders) throws MailboxException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put(TYPE, descriptor.getMimeType());
+        node.put(SUB_TYPE, descriptor.getMimeSubType());
+        node.put(BODY_OCTETS, descriptor.getBodyOctets());
+        node.put(LINES, descriptor.getLines());
+        node.put(CONTENT_ID, descriptor.getContentID());
+        node.put(CONTENT_DESCRIPTION, descriptor.getContentDescription());
+        node.put(TRANSFER_ENCODING, descriptor.getTransferContentEncoding());
+        node.set(CONTENT_TYPE_PARAMETERS, toNode(descriptor.contentTypeParameters()));
+        node.set(LANGUAGES, toNode(descriptor.getLanguages()));
+        node.put(DISPOSITION, descriptor.getDisposition());
+        node.set(DISPOSITION_PARAMETERS, toNode(descriptor.getDispositionParams()));
+        node.put(LOCATION, descriptor.getContentLocation());
+        node.put(MD5, descriptor.getContentMD5());
+        if (withHeaders) {
+            ArrayNode headers = node.putArray(HEADERS);
+            for (Iterator<MessageResult.Header> it = descriptor.headers(); it.hasNext();) {
+                MessageResult.Header header = it.next();
+                headers.addObject()
+                    .put(NAME, header.getName())
+                    .put(VALUE, header.getValue());
+            }
+        }
+        if (descriptor.embeddedMessage() != null) {
+            node.set(EMBEDDED_MESSAGE, toNode(descriptor.embeddedMessage(), true));
+        }
+        ArrayNode parts = node.putArray(PARTS);
+        for (Iterator<MimeDescriptor> it = descriptor.parts(); it.hasNext();) {
+            parts.add(toNode(it.next(), true));
+        }
+        return node;
+    }
+
+    private static JsonNode toNode(Map<String, String> map) {
+        if (map == null) {
+            return null;
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        map.forEach(node::put);
+        return node;
+    }
+
+    private static JsonNode toNode(List<String> list) {
+        if (list == null) {
+            return null;
+        }
+        ArrayNode node = objectMapper.createArrayNode();
+        list.forEach(node::add);
+        return node;
+    }
+
+    private static MimeDescriptorImpl fromNode(JsonNode node, Collection<MessageResult.Header> headers) {
+        JsonNode embeddedMessage = node.get(EMBEDDED_MESSAGE);
+        Collection<MimeDescriptor> parts = new ArrayList<>();
+        for (JsonNode part : node.path(PARTS)) {
+            parts.add(fromNode(part, headersOf(part)));
+        }
+        return new MimeDescriptorImpl(
+            node.path(BODY_OCTETS).asLong(),
+            textOf(node, CONTENT_DESCRIPTION),
+            textOf(node, CONTENT_ID),
+            node.path(LINES).asLong(),
+            textOf(node, SUB_TYPE),
+            textOf(node, TYPE),
+            textOf(node, TRANSFER_ENCODING),
+            headers,
+            mapOf(node, CONTENT_TYPE_PARAMETERS),
+            listOf(node, LANGUAGES),
+            textOf(node, DISPOSITION),
+            mapOf(node, DISPOSITION_PARAMETERS),
+            embeddedMessage == null ? null : fromNode(embeddedMessage, headersOf(embeddedMessage)),
+            parts,
+            textOf(node, LOCATION),
+            textOf(node, MD5));
+    }
+
+    private static Collection<MessageResult.Header> headersOf(JsonNode node) {
+        List<MessageResult.Header> headers = new ArrayList<>();
+        for (JsonNode header : node.path(HEADERS)) {
+            headers.add(new ResultHeader(header.path(NAME).asText(), header.path(VALUE).asText()));
+        }
+        return headers;
+    }
+
+    private static String textOf(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        return value.asText();
+    }
+
+    private static Map<String, String> mapOf(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        value.fields().forEachRemaining(entry -> result.put(entry.getKey(), entry.getValue().asText()));
+        return result;
+    }
+
+    private static List<String> listOf(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        value.forEach(element -> result.add(element.asText()));
+        return result;
+    }
+}
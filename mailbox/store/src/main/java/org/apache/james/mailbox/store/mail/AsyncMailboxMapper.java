@@ -0,0 +1,47 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailbox.store.mail;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.store.mail.model.Mailbox;
+
+/**
+ * Non blocking counterpart of the {@link MailboxMapper} lookups, for backends whose storage is natively asynchronous.
+ *
+ * Storage failures complete the returned futures exceptionally. A missing mailbox is reported as an empty
+ * {@link Optional} rather than as a failure.
+ */
+public interface AsyncMailboxMapper {
+
+    /**
+     * Return the {@link Mailbox} for the given path, if any
+     */
+    CompletableFuture<Optional<Mailbox>> findMailboxByPathAsync(MailboxPath mailboxPath);
+
+    /**
+     * Return the {@link Mailbox} for the given id, if any
+     */
+    CompletableFuture<Optional<Mailbox>> findMailboxByIdAsync(MailboxId mailboxId);
+}
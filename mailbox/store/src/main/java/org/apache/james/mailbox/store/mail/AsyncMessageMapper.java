@@ -0,0 +1,63 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailbox.store.mail;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.james.mailbox.model.MailboxCounters;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.store.FlagsUpdateCalculator;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.Mailbox;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+
+/**
+ * Non blocking counterpart of the most used {@link MessageMapper} operations, for backends whose storage is natively
+ * asynchronous. Callers can chain on the returned futures instead of holding a thread for each storage round-trip.
+ *
+ * Failures complete the returned futures exceptionally, with the {@link org.apache.james.mailbox.exception.MailboxException}
+ * the blocking method would have thrown as cause.
+ */
+public interface AsyncMessageMapper {
+
+    /**
+     * @see MessageMapper#findInMailbox(Mailbox, MessageRange, FetchType, int)
+     */
+    CompletableFuture<List<MailboxMessage>> findInMailboxAsync(Mailbox mailbox, MessageRange set, FetchType type, int limit);
+
+    /**
+     * @see MessageMapper#add(Mailbox, MailboxMessage)
+     */
+    CompletableFuture<MessageMetaData> addAsync(Mailbox mailbox, MailboxMessage message);
+
+    /**
+     * @see MessageMapper#updateFlags(Mailbox, FlagsUpdateCalculator, MessageRange)
+     */
+    CompletableFuture<List<UpdatedFlags>> updateFlagsAsync(Mailbox mailbox, FlagsUpdateCalculator flagsUpdateCalculator, MessageRange set);
+
+    /**
+     * @see MessageMapper#getMailboxCounters(Mailbox)
+     */
+    CompletableFuture<MailboxCounters> getMailboxCountersAsync(Mailbox mailbox);
+}
@@ -36,11 +36,15 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.Property;
 import org.apache.james.mailbox.store.transaction.Mapper;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
 /**
  * Maps {@link MailboxMessage} in a {@link org.apache.james.mailbox.MessageManager}. A {@link MessageMapper} has a lifecycle from the start of a request
  * to the end of the request.
  */
 public interface MessageMapper extends Mapper {
+    int UNLIMITED = -1;
 
     /**
      * Return a {@link Iterator} which holds the messages for the given criterias
@@ -56,6 +60,30 @@ public interface MessageMapper extends Mapper {
     Iterator<MailboxMessage> findInMailbox(Mailbox mailbox, MessageRange set, FetchType type, int limit)
             throws MailboxException;
 
+    /**
+     * Return a {@link Iterator} which holds the messages for the given criterias whose mod-sequence is strictly greater
+     * than the given one. The list must be ordered by the {@link MailboxMessage} uid
+     *
+     * Implementations are encouraged to rely on an index so that the cost of this call depends on the number of changed
+     * messages rather than on the size of the range. The default implementation filters {@link #findInMailbox}.
+     *
+     * @param mailbox The mailbox to search
+     * @param set message range for batch processing
+     * @param modSeq only messages modified after this mod-sequence are returned
+     * @param type
+     * @param limit the maximal limit of returned {@link MailboxMessage}'s. Use -1 to set no limit.
+     * @throws MailboxException
+     */
+    default Iterator<MailboxMessage> findInMailboxChangedSince(Mailbox mailbox, MessageRange set, long modSeq, FetchType type, int limit)
+            throws MailboxException {
+        Iterator<MailboxMessage> changedMessages = Iterators.filter(findInMailbox(mailbox, set, type, UNLIMITED),
+            message -> message.getModSeq() > modSeq);
+        if (limit > 0) {
+            return Iterators.limit(changedMessages, limit);
+        }
+        return changedMessages;
+    }
+
     /**
      * Return a {@link Iterator} which holds the uids for all deleted Messages for the given {@link MessageRange} which are marked for deletion
      * The list must be ordered
@@ -155,6 +183,40 @@ public interface MessageMapper extends Mapper {
      * @throws StorageException
      */
     MessageMetaData move(Mailbox mailbox,MailboxMessage original) throws MailboxException;
+
+    /**
+     * Copy the given {@link MailboxMessage}s to a new mailbox and return the metadata of the copies, in the same order.
+     * Implementations may override this to rely on bulk storage operations. The default implementation copies messages
+     * one by one.
+     *
+     * @param mailbox the Mailbox to copy to
+     * @param originals the originals to copy
+     * @throws StorageException
+     */
+    default List<MessageMetaData> copy(Mailbox mailbox, List<MailboxMessage> originals) throws MailboxException {
+        ImmutableList.Builder<MessageMetaData> copied = ImmutableList.builder();
+        for (MailboxMessage original : originals) {
+            copied.add(copy(mailbox, original));
+        }
+        return copied.build();
+    }
+
+    /**
+     * Move the given {@link MailboxMessage}s to a new mailbox and return the metadata of the moved messages, in the same
+     * order. Implementations may override this to rely on bulk storage operations. The default implementation moves
+     * messages one by one.
+     *
+     * @param mailbox the Mailbox to move to
+     * @param originals the originals to move
+     * @throws StorageException
+     */
+    default List<MessageMetaData> move(Mailbox mailbox, List<MailboxMessage> originals) throws MailboxException {
+        ImmutableList.Builder<MessageMetaData> moved = ImmutableList.builder();
+        for (MailboxMessage original : originals) {
+            moved.add(move(mailbox, original));
+        }
+        return moved.build();
+    }
     
     
     /**
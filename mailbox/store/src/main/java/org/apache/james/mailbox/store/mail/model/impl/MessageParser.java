@@ -19,9 +19,12 @@
 
 package org.apache.james.mailbox.store.mail.model.impl;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -30,25 +33,34 @@ import java.util.stream.Stream;
 import org.apache.james.mailbox.model.Attachment;
 import org.apache.james.mailbox.model.Cid;
 import org.apache.james.mailbox.model.MessageAttachment;
+import org.apache.james.mailbox.store.MimeDescriptorImpl;
+import org.apache.james.mailbox.store.streaming.ContentTransferEncoding;
 import org.apache.james.mime4j.MimeException;
 import org.apache.james.mime4j.codec.DecodeMonitor;
 import org.apache.james.mime4j.dom.Body;
 import org.apache.james.mime4j.dom.Entity;
+import org.apache.james.mime4j.dom.Header;
 import org.apache.james.mime4j.dom.Message;
 import org.apache.james.mime4j.dom.Multipart;
 import org.apache.james.mime4j.dom.field.ContentDispositionField;
 import org.apache.james.mime4j.dom.field.ContentIdField;
 import org.apache.james.mime4j.dom.field.ContentTypeField;
 import org.apache.james.mime4j.dom.field.ParsedField;
+import org.apache.james.mime4j.field.LenientFieldParser;
 import org.apache.james.mime4j.message.DefaultMessageBuilder;
 import org.apache.james.mime4j.message.DefaultMessageWriter;
+import org.apache.james.mime4j.message.HeaderImpl;
+import org.apache.james.mime4j.message.MaximalBodyDescriptor;
+import org.apache.james.mime4j.stream.EntityState;
 import org.apache.james.mime4j.stream.Field;
 import org.apache.james.mime4j.stream.MimeConfig;
+import org.apache.james.mime4j.stream.MimeTokenStream;
 import org.apache.james.mime4j.util.MimeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.io.ByteStreams;
 import com.google.common.collect.ImmutableList;
 
 public class MessageParser {
@@ -83,7 +95,7 @@ public class MessageParser {
         Message message = defaultMessageBuilder.parseMessage(fullContent);
         Body body = message.getBody();
         try {
-            if (isAttachment(message, Context.BODY)) {
+            if (isAttachment(message.getHeader(), Context.BODY)) {
                 return ImmutableList.of(retrieveAttachment(message));
             }
 
@@ -99,6 +111,106 @@ public class MessageParser {
         }
     }
 
+    /**
+     * Parses a raw header field the same way {@link DefaultMessageBuilder} does in permissive mode, so that the
+     * resulting {@link Header} can be used with {@link #isBodyAttachment(Header)}.
+     */
+    public ParsedField parseField(Field rawField) {
+        return LenientFieldParser.getParser().parse(rawField, DecodeMonitor.SILENT);
+    }
+
+    /**
+     * @return true when the body of a message with the given header is itself considered as an attachment
+     */
+    public boolean isBodyAttachment(Header messageHeader) {
+        return isAttachment(messageHeader, Context.BODY);
+    }
+
+    /**
+     * Retrieves the attachments while the message is being streamed, without building its DOM.
+     *
+     * The parser is expected to be positioned right after the header of a message whose body is not itself an
+     * attachment (see {@link #isBodyAttachment(Header)}). Only multipart bodies can then carry attachments: the
+     * remaining tokens are consumed and the attachments are decoded on the fly.
+     */
+    public List<MessageAttachment> retrieveAttachments(MimeTokenStream parser) throws MimeException, IOException {
+        return retrieveAttachments(parser, Optional.empty());
+    }
+
+    /**
+     * Same as {@link #retrieveAttachments(MimeTokenStream)}, also feeding the consumed tokens to the given structure
+     * builder, whose root headers are expected to be already read.
+     */
+    public List<MessageAttachment> retrieveAttachments(MimeTokenStream parser, Optional<MimeDescriptorImpl.StreamingBuilder> structure) throws MimeException, IOException {
+        if (parser.getState() == EntityState.T_BODY && structure.isPresent()) {
+            structure.get().body(bodyDescriptor(parser), parser.getInputStream());
+        }
+        if (parser.getState() != EntityState.T_START_MULTIPART) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<MessageAttachment> attachments = ImmutableList.builder();
+        Deque<Context> contexts = new ArrayDeque<>();
+        contexts.push(Context.fromSubType(parser.getBodyDescriptor().getSubType()));
+        structure.ifPresent(builder -> builder.startMultipart(bodyDescriptor(parser)));
+        HeaderImpl partHeader = new HeaderImpl();
+        for (EntityState state = parser.next(); state != EntityState.T_END_OF_STREAM; state = parser.next()) {
+            switch (state) {
+                case T_START_HEADER:
+                    partHeader = new HeaderImpl();
+                    structure.ifPresent(MimeDescriptorImpl.StreamingBuilder::startHeader);
+                    break;
+                case T_FIELD:
+                    partHeader.addField(parseField(parser.getField()));
+                    structure.ifPresent(builder -> builder.field(parser.getField()));
+                    break;
+                case T_START_MULTIPART:
+                    contexts.push(Context.fromMimeType(parser.getBodyDescriptor().getMimeType()));
+                    structure.ifPresent(builder -> builder.startMultipart(bodyDescriptor(parser)));
+                    break;
+                case T_END_MULTIPART:
+                    contexts.pop();
+                    structure.ifPresent(MimeDescriptorImpl.StreamingBuilder::endMultipart);
+                    break;
+                case T_BODY:
+                    if (isAttachment(partHeader, contexts.peek())) {
+                        retrieveAttachment(partHeader, parser, structure).ifPresent(attachments::add);
+                    } else if (structure.isPresent()) {
+                        structure.get().body(bodyDescriptor(parser), parser.getInputStream());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return attachments.build();
+    }
+
+    private MaximalBodyDescriptor bodyDescriptor(MimeTokenStream parser) {
+        return (MaximalBodyDescriptor) parser.getBodyDescriptor();
+    }
+
+    private Optional<MessageAttachment> retrieveAttachment(Header header, MimeTokenStream parser, Optional<MimeDescriptorImpl.StreamingBuilder> structure) throws MimeException, IOException {
+        if (!structure.isPresent()) {
+            return retrieveAttachment(header, parser.getDecodedInputStream());
+        }
+        // The structure needs the stored content, the attachment its decoded counterpart
+        MaximalBodyDescriptor descriptor = bodyDescriptor(parser);
+        byte[] content = ByteStreams.toByteArray(parser.getInputStream());
+        structure.get().body(descriptor, new ByteArrayInputStream(content));
+        return retrieveAttachment(header, ContentTransferEncoding.decode(descriptor.getTransferEncoding(), new ByteArrayInputStream(content)));
+    }
+
+    private Optional<MessageAttachment> retrieveAttachment(Header header, InputStream decodedContent) {
+        try {
+            return Optional.of(retrieveAttachment(header, ByteStreams.toByteArray(decodedContent)));
+        } catch (IllegalStateException e) {
+            LOGGER.warn("The attachment is not well-formed", e);
+        } catch (IOException e) {
+            LOGGER.warn("There is an error when retrieving attachment", e);
+        }
+        return Optional.empty();
+    }
+
     private Stream<MessageAttachment> listAttachments(Multipart multipart, Context context) {
         return multipart.getBodyParts()
             .stream()
@@ -109,7 +221,7 @@ public class MessageParser {
         if (isMultipart(entity)) {
             return listAttachments((Multipart) entity.getBody(), Context.fromEntity(entity));
         }
-        if (isAttachment(entity, context)) {
+        if (isAttachment(entity.getHeader(), context)) {
             try {
                 return Stream.of(retrieveAttachment(entity));
             } catch (IllegalStateException e) {
@@ -122,16 +234,20 @@ public class MessageParser {
     }
 
     private MessageAttachment retrieveAttachment(Entity entity) throws IOException {
-        Optional<ContentTypeField> contentTypeField = getContentTypeField(entity);
-        Optional<ContentDispositionField> contentDispositionField = getContentDispositionField(entity);
+        return retrieveAttachment(entity.getHeader(), getBytes(entity.getBody()));
+    }
+
+    private MessageAttachment retrieveAttachment(Header header, byte[] bytes) {
+        Optional<ContentTypeField> contentTypeField = getContentTypeField(header);
+        Optional<ContentDispositionField> contentDispositionField = getContentDispositionField(header);
         Optional<String> contentType = contentType(contentTypeField);
         Optional<String> name = name(contentTypeField, contentDispositionField);
-        Optional<Cid> cid = cid(readHeader(entity, CONTENT_ID, ContentIdField.class));
-        boolean isInline = isInline(readHeader(entity, CONTENT_DISPOSITION, ContentDispositionField.class)) && cid.isPresent();
+        Optional<Cid> cid = cid(readHeader(header, CONTENT_ID, ContentIdField.class));
+        boolean isInline = isInline(readHeader(header, CONTENT_DISPOSITION, ContentDispositionField.class)) && cid.isPresent();
 
         return MessageAttachment.builder()
                 .attachment(Attachment.builder()
-                    .bytes(getBytes(entity.getBody()))
+                    .bytes(bytes)
                     .type(contentType.orElse(DEFAULT_CONTENT_TYPE))
                     .build())
                 .name(name.orElse(null))
@@ -140,16 +256,16 @@ public class MessageParser {
                 .build();
     }
 
-    private <T extends ParsedField> Optional<T> readHeader(Entity entity, String headerName, Class<T> clazz) {
-        return castField(entity.getHeader().getField(headerName), clazz);
+    private <T extends ParsedField> Optional<T> readHeader(Header header, String headerName, Class<T> clazz) {
+        return castField(header.getField(headerName), clazz);
     }
 
-    private Optional<ContentTypeField> getContentTypeField(Entity entity) {
-        return castField(entity.getHeader().getField(CONTENT_TYPE), ContentTypeField.class);
+    private Optional<ContentTypeField> getContentTypeField(Header header) {
+        return castField(header.getField(CONTENT_TYPE), ContentTypeField.class);
     }
 
-    private Optional<ContentDispositionField> getContentDispositionField(Entity entity) {
-        return castField(entity.getHeader().getField(CONTENT_DISPOSITION), ContentDispositionField.class);
+    private Optional<ContentDispositionField> getContentDispositionField(Header header) {
+        return castField(header.getField(CONTENT_DISPOSITION), ContentDispositionField.class);
     }
 
     @SuppressWarnings("unchecked")
@@ -186,14 +302,14 @@ public class MessageParser {
             .orElse(false);
     }
 
-    private boolean isAttachment(Entity part, Context context) {
+    private boolean isAttachment(Header part, Context context) {
         if (context == Context.BODY && isTextPart(part)) {
             return false;
         }
         return attachmentDispositionCriterion(part) || attachmentContentTypeCriterion(part);
     }
 
-    private boolean isTextPart(Entity part) {
+    private boolean isTextPart(Header part) {
         return getContentTypeField(part)
             .filter(header -> !ATTACHMENT_CONTENT_TYPES.contains(header.getMimeType()))
             .map(ContentTypeField::getMediaType)
@@ -201,7 +317,7 @@ public class MessageParser {
             .orElse(false);
     }
 
-    private Boolean attachmentContentTypeCriterion(Entity part) {
+    private Boolean attachmentContentTypeCriterion(Header part) {
         return getContentTypeField(part)
             .map(ContentTypeField::getMimeType)
             .map(dispositionType -> dispositionType.toLowerCase(Locale.US))
@@ -209,7 +325,7 @@ public class MessageParser {
             .orElse(false);
     }
 
-    private Boolean attachmentDispositionCriterion(Entity part) {
+    private Boolean attachmentDispositionCriterion(Header part) {
         return getContentDispositionField(part)
             .map(ContentDispositionField::getDispositionType)
             .map(dispositionType -> dispositionType.toLowerCase(Locale.US))
@@ -232,7 +348,11 @@ public class MessageParser {
         private static final String MULTIPART_ALTERNATIVE = "multipart/" + ALTERNATIVE_SUB_TYPE;
 
         public static Context fromEntity(Entity entity) {
-            if (isMultipartAlternative(entity)) {
+            return fromMimeType(entity.getMimeType());
+        }
+
+        public static Context fromMimeType(String mimeType) {
+            if (isMultipartAlternative(mimeType)) {
                 return BODY;
             }
             return OTHER;
@@ -245,8 +365,8 @@ public class MessageParser {
             return OTHER;
         }
 
-        private static boolean isMultipartAlternative(Entity entity) {
-            return entity.getMimeType().equalsIgnoreCase(MULTIPART_ALTERNATIVE);
+        private static boolean isMultipartAlternative(String mimeType) {
+            return mimeType.equalsIgnoreCase(MULTIPART_ALTERNATIVE);
         }
 
         private static boolean isAlternative(String subPart) {
@@ -45,6 +45,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.function.Predicate;
@@ -52,6 +53,7 @@ import java.util.function.Predicate;
 import org.apache.james.mailbox.store.mail.model.Property;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Splitter;
 
 /**
  * Builds properties
@@ -61,6 +63,8 @@ public class PropertyBuilder {
     private static final int INITIAL_CAPACITY = 32;
     public static final String JAMES_INTERNALS = "JAMES_INTERNALS";
     public static final String HAS_ATTACHMENT = "HAS_ATTACHMENT";
+    public static final String MIME_STRUCTURE = "MIME_STRUCTURE";
+    private static final int MIME_STRUCTURE_CHUNK_LENGTH = 1000;
 
     public static Predicate<Property> isHasAttachmentProperty() {
         return property -> property.getNamespace().equals(PropertyBuilder.JAMES_INTERNALS)
@@ -68,6 +72,11 @@ public class PropertyBuilder {
             && property.getValue().equals("true");
     }
 
+    public static Predicate<Property> isMimeStructureProperty() {
+        return property -> property.getNamespace().equals(PropertyBuilder.JAMES_INTERNALS)
+            && property.getLocalName().equals(PropertyBuilder.MIME_STRUCTURE);
+    }
+
     private Long textualLineCount;
     private final List<SimpleProperty> properties;
 
@@ -227,6 +236,31 @@ public class PropertyBuilder {
         setProperty(JAMES_INTERNALS, HAS_ATTACHMENT, Boolean.toString(value));
     }
 
+    /**
+     * Sets the serialized MIME structure of the message. It is split in several values, as some backends limit the
+     * length of a property value.
+     *
+     * @param value null to remove
+     */
+    public void setMimeStructure(String value) {
+        if (value == null) {
+            setProperty(JAMES_INTERNALS, MIME_STRUCTURE, (List<String>) null);
+            return;
+        }
+        setProperty(JAMES_INTERNALS, MIME_STRUCTURE, Splitter.fixedLength(MIME_STRUCTURE_CHUNK_LENGTH).splitToList(value));
+    }
+
+    /**
+     * @return the serialized MIME structure of the message, if it was computed upon append
+     */
+    public Optional<String> getMimeStructure() {
+        List<String> values = getValues(JAMES_INTERNALS, MIME_STRUCTURE);
+        if (values.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(String.join("", values));
+    }
+
     /**
      * Gets the MIME content subtype.
      * 
@@ -146,6 +146,22 @@ public abstract class ListeningMessageSearchIndex implements MessageSearchIndex,
      */
     public abstract void add(MailboxSession session, Mailbox mailbox, MailboxMessage message) throws MailboxException;
 
+    /**
+     * Add several {@link MailboxMessage} of the given {@link Mailbox} to the index
+     *
+     * Implementations able to index several messages at once should override this method.
+     *
+     * @param session The mailbox session performing the message addition
+     * @param mailbox mailbox on which the message addition was performed
+     * @param messages The added messages
+     * @throws MailboxException
+     */
+    public void add(MailboxSession session, Mailbox mailbox, List<MailboxMessage> messages) throws MailboxException {
+        for (MailboxMessage message : messages) {
+            add(session, mailbox, message);
+        }
+    }
+
     /**
      * Delete the concerned UIDs for the given {@link Mailbox} from the index
      *
@@ -0,0 +1,90 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+
+/**
+ * Computes the smallest {@link FetchType} allowing {@link MessageSearches} to evaluate a {@link SearchQuery}.
+ *
+ * Criteria and sorts relying on flags, uids, sizes, modseqs or internal dates only need {@link FetchType#Metadata}.
+ * Criteria and sorts relying on headers or properties need {@link FetchType#Headers}. Any other criterion, for instance
+ * text criteria, needs {@link FetchType#Full}.
+ */
+public class SearchQueryFetchType {
+
+    public static FetchType fetchTypeFor(SearchQuery query) {
+        return max(Stream.concat(
+            query.getCriterias().stream().map(SearchQueryFetchType::criterionFetchType),
+            query.getSorts().stream().map(SearchQueryFetchType::sortFetchType)));
+    }
+
+    private static FetchType criterionFetchType(SearchQuery.Criterion criterion) {
+        if (criterion instanceof SearchQuery.AllCriterion
+            || criterion instanceof SearchQuery.UidCriterion
+            || criterion instanceof SearchQuery.FlagCriterion
+            || criterion instanceof SearchQuery.CustomFlagCriterion
+            || criterion instanceof SearchQuery.SizeCriterion
+            || criterion instanceof SearchQuery.ModSeqCriterion
+            || criterion instanceof SearchQuery.InternalDateCriterion) {
+            return FetchType.Metadata;
+        }
+        if (criterion instanceof SearchQuery.HeaderCriterion
+            || criterion instanceof SearchQuery.MimeMessageIDCriterion
+            || criterion instanceof SearchQuery.AttachmentCriterion) {
+            return FetchType.Headers;
+        }
+        if (criterion instanceof SearchQuery.ConjunctionCriterion) {
+            return criteriaFetchType(((SearchQuery.ConjunctionCriterion) criterion).getCriteria());
+        }
+        return FetchType.Full;
+    }
+
+    private static FetchType criteriaFetchType(Collection<SearchQuery.Criterion> criteria) {
+        return max(criteria.stream().map(SearchQueryFetchType::criterionFetchType));
+    }
+
+    private static FetchType sortFetchType(SearchQuery.Sort sort) {
+        switch (sort.getSortClause()) {
+            case Uid:
+            case Arrival:
+            case Size:
+            case Id:
+                return FetchType.Metadata;
+            default:
+                return FetchType.Headers;
+        }
+    }
+
+    /**
+     * {@link FetchType#Body} does not include headers: combining it with {@link FetchType#Headers} requires
+     * {@link FetchType#Full}. Only Metadata, Headers and Full are returned here, which are ordered by inclusion.
+     */
+    private static FetchType max(Stream<FetchType> fetchTypes) {
+        return fetchTypes
+            .max(Comparator.naturalOrder())
+            .orElse(FetchType.Metadata);
+    }
+}
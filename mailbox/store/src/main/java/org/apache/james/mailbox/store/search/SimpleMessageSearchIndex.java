@@ -18,12 +18,17 @@
  ****************************************************************/
 package org.apache.james.mailbox.store.search;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -33,6 +38,7 @@ import org.apache.james.mailbox.MailboxManager.SearchCapabilities;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.exception.MailboxNotFoundException;
 import org.apache.james.mailbox.extractor.TextExtractor;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
@@ -41,7 +47,7 @@ import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.mailbox.model.SearchQuery.ConjunctionCriterion;
 import org.apache.james.mailbox.model.SearchQuery.Criterion;
 import org.apache.james.mailbox.model.SearchQuery.UidCriterion;
-import org.apache.james.mailbox.model.SearchQuery.UidRange;
+import org.apache.james.mailbox.store.mail.AsyncMailboxMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapperFactory;
 import org.apache.james.mailbox.store.mail.MessageMapper;
@@ -49,12 +55,16 @@ import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.utils.AsyncMapperUtils;
 
 import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 
 /**
  * {@link MessageSearchIndex} which just fetch {@link MailboxMessage}'s from the {@link MessageMapper} and use {@link MessageSearcher}
@@ -62,9 +72,15 @@ import com.google.common.collect.ImmutableList;
  * 
  * This works with every implementation but is SLOW.
  * 
+ * To limit the cost, messages are read with the smallest {@link FetchType} allowing to evaluate the query (see
+ * {@link SearchQueryFetchType}), and by batches when their full content is needed.
+ * 
  *
  */
 public class SimpleMessageSearchIndex implements MessageSearchIndex {
+    private static final int FULL_CONTENT_BATCH_SIZE = 100;
+    private static final int UNLIMITED = -1;
+
     private final MessageMapperFactory messageMapperFactory;
     private final MailboxMapperFactory mailboxMapperFactory;
     private final TextExtractor textExtractor;
@@ -120,42 +136,122 @@ public class SimpleMessageSearchIndex implements MessageSearchIndex {
 
     private List<SearchResult> searchResults(MailboxSession session, Mailbox mailbox, SearchQuery query) throws MailboxException {
         MessageMapper mapper = messageMapperFactory.getMessageMapper(session);
-
-        final SortedSet<MailboxMessage> hitSet = new TreeSet<>();
+        FetchType fetchType = SearchQueryFetchType.fetchTypeFor(query);
 
         UidCriterion uidCrit = findConjugatedUidCriterion(query.getCriterias());
-        if (uidCrit != null) {
+        List<MessageRange> ranges = Optional.ofNullable(uidCrit)
             // if there is a conjugated uid range criterion in the query tree we can optimize by
             // only fetching this uid range
-            UidRange[] ranges = uidCrit.getOperator().getRange();
-            for (UidRange r : ranges) {
-                Iterator<MailboxMessage> it = mapper.findInMailbox(mailbox, MessageRange.range(r.getLowValue(), r.getHighValue()), FetchType.Metadata, -1);
-                while (it.hasNext()) {
-                    hitSet.add(it.next());
+            .map(criterion -> Arrays.stream(criterion.getOperator().getRange())
+                .map(range -> MessageRange.range(range.getLowValue(), range.getHighValue()))
+                .collect(Guavate.toImmutableList()))
+            // we have to fetch all messages
+            .orElse(ImmutableList.of(MessageRange.all()));
+
+        Set<MessageUid> readUids = new HashSet<>();
+        Iterator<MailboxMessage> messages = Iterators.filter(
+            Iterators.concat(ranges.stream()
+                .map(range -> new BatchedMessageIterator(mapper, mailbox, range, fetchType))
+                .iterator()),
+            message -> readUids.add(message.getUid()));
+        return ImmutableList.copyOf(new MessageSearches(messages, query, textExtractor).iterator());
+    }
+
+    /**
+     * Reads the messages of a range. When their content is needed, messages are read by batches of
+     * {@link #FULL_CONTENT_BATCH_SIZE} so that only the content of the batch being evaluated is held in memory.
+     */
+    private static class BatchedMessageIterator extends AbstractIterator<MailboxMessage> {
+        private final MessageMapper mapper;
+        private final Mailbox mailbox;
+        private final MessageRange range;
+        private final FetchType fetchType;
+        private final int batchSize;
+        private Optional<MessageUid> nextUid;
+        private Iterator<MailboxMessage> currentBatch;
+
+        BatchedMessageIterator(MessageMapper mapper, Mailbox mailbox, MessageRange range, FetchType fetchType) {
+            this.mapper = mapper;
+            this.mailbox = mailbox;
+            this.range = range;
+            this.fetchType = fetchType;
+            this.batchSize = batchSizeFor(fetchType);
+            this.nextUid = Optional.of(range.getUidFrom());
+            this.currentBatch = Collections.emptyIterator();
+        }
+
+        private static int batchSizeFor(FetchType fetchType) {
+            if (fetchType == FetchType.Full) {
+                return FULL_CONTENT_BATCH_SIZE;
+            }
+            return UNLIMITED;
+        }
+
+        @Override
+        protected MailboxMessage computeNext() {
+            while (!currentBatch.hasNext()) {
+                if (!nextUid.isPresent()) {
+                    return endOfData();
                 }
+                currentBatch = readBatch(nextUid.get());
             }
-        } else {
-            // we have to fetch all messages
-            Iterator<MailboxMessage> messages = mapper.findInMailbox(mailbox, MessageRange.all(), FetchType.Full, -1);
-            while (messages.hasNext()) {
-                MailboxMessage m = messages.next();
-                hitSet.add(m);
+            return currentBatch.next();
+        }
+
+        private Iterator<MailboxMessage> readBatch(MessageUid from) {
+            try {
+                List<MailboxMessage> batch = ImmutableList.copyOf(
+                    mapper.findInMailbox(mailbox, batchRange(from), fetchType, batchSize));
+                nextUid = nextUid(batch);
+                return batch.iterator();
+            } catch (MailboxException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+
+        private MessageRange batchRange(MessageUid from) {
+            if (from.equals(range.getUidFrom())) {
+                return range;
+            }
+            return MessageRange.range(from, range.getUidTo());
+        }
+
+        private Optional<MessageUid> nextUid(List<MailboxMessage> batch) {
+            if (batchSize == UNLIMITED || batch.size() < batchSize) {
+                return Optional.empty();
             }
+            MessageUid lastUid = Iterables.getLast(batch).getUid();
+            if (lastUid.compareTo(range.getUidTo()) >= 0 || lastUid.equals(MessageUid.MAX_VALUE)) {
+                return Optional.empty();
+            }
+            return Optional.of(lastUid.next());
         }
-        return ImmutableList.copyOf(new MessageSearches(hitSet.iterator(), query, textExtractor).iterator());
     }
 
     @Override
     public List<MessageId> search(MailboxSession session, final Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException {
         MailboxMapper mailboxManager = mailboxMapperFactory.getMailboxMapper(session);
 
-        Stream<Mailbox> filteredMailboxes = mailboxIds
-            .stream()
-            .map(Throwing.function(mailboxManager::findMailboxById).sneakyThrow());
+        Stream<Mailbox> filteredMailboxes = retrieveMailboxes(mailboxManager, mailboxIds);
 
         return getAsMessageIds(searchResults(session, filteredMailboxes, searchQuery), limit);
     }
 
+    private Stream<Mailbox> retrieveMailboxes(MailboxMapper mailboxMapper, Collection<MailboxId> mailboxIds) {
+        if (mailboxMapper instanceof AsyncMailboxMapper) {
+            AsyncMailboxMapper asyncMailboxMapper = (AsyncMailboxMapper) mailboxMapper;
+            // Every lookup is issued before the first mailbox gets searched
+            List<CompletableFuture<Mailbox>> mailboxes = mailboxIds.stream()
+                .map(mailboxId -> asyncMailboxMapper.findMailboxByIdAsync(mailboxId)
+                    .thenApply(mailbox -> mailbox.orElseThrow(() -> new CompletionException(new MailboxNotFoundException(mailboxId)))))
+                .collect(Guavate.toImmutableList());
+            return mailboxes.stream()
+                .map(Throwing.function((CompletableFuture<Mailbox> mailbox) -> AsyncMapperUtils.join(mailbox)).sneakyThrow());
+        }
+        return mailboxIds.stream()
+            .map(Throwing.function(mailboxMapper::findMailboxById).sneakyThrow());
+    }
+
     private List<SearchResult> searchResults(MailboxSession session, Stream<Mailbox> mailboxes, SearchQuery query) throws MailboxException {
         return mailboxes.flatMap(mailbox -> getSearchResultStream(session, query, mailbox))
             .collect(Guavate.toImmutableList());
@@ -0,0 +1,108 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.james.mailbox.model.MessageResult;
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.store.MimeDescriptorImpl;
+import org.apache.james.mailbox.store.ResultHeader;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class MimeDescriptorJsonConverterTest {
+
+    private static final List<MessageResult.Header> ROOT_HEADERS = ImmutableList.of(
+        new ResultHeader("Subject", "root"));
+
+    @Test
+    public void toMimeDescriptorShouldReturnTheSerializedStructure() throws Exception {
+        MimeDescriptor original = MimeDescriptorImpl.build(ClassLoader.getSystemResourceAsStream("eml/embeddedAttachmentWithAttachment.eml"));
+
+        MimeDescriptor deserialized = MimeDescriptorJsonConverter.toMimeDescriptor(MimeDescriptorJsonConverter.toJson(original), ROOT_HEADERS);
+
+        assertSameStructure(deserialized, original);
+    }
+
+    @Test
+    public void toMimeDescriptorShouldUseTheGivenRootHeaders() throws Exception {
+        MimeDescriptor original = MimeDescriptorImpl.build(ClassLoader.getSystemResourceAsStream("eml/embeddedAttachmentWithAttachment.eml"));
+
+        MimeDescriptor deserialized = MimeDescriptorJsonConverter.toMimeDescriptor(MimeDescriptorJsonConverter.toJson(original), ROOT_HEADERS);
+
+        assertThat(Lists.newArrayList(deserialized.headers())).containsExactlyElementsOf(ROOT_HEADERS);
+    }
+
+    @Test
+    public void toJsonShouldOnlyProduceAsciiCharacters() throws Exception {
+        MimeDescriptor original = MimeDescriptorImpl.build(ClassLoader.getSystemResourceAsStream("eml/messageWithNonASCIIFilenameAttachment.eml"));
+
+        assertThat(MimeDescriptorJsonConverter.toJson(original))
+            .matches("\\p{ASCII}*");
+    }
+
+    private void assertSameStructure(MimeDescriptor actual, MimeDescriptor expected) throws Exception {
+        assertThat(actual.getMimeType()).isEqualTo(expected.getMimeType());
+        assertThat(actual.getMimeSubType()).isEqualTo(expected.getMimeSubType());
+        assertThat(actual.getBodyOctets()).isEqualTo(expected.getBodyOctets());
+        assertThat(actual.getLines()).isEqualTo(expected.getLines());
+        assertThat(actual.getContentID()).isEqualTo(expected.getContentID());
+        assertThat(actual.getContentDescription()).isEqualTo(expected.getContentDescription());
+        assertThat(actual.getContentLocation()).isEqualTo(expected.getContentLocation());
+        assertThat(actual.getContentMD5()).isEqualTo(expected.getContentMD5());
+        assertThat(actual.getTransferContentEncoding()).isEqualTo(expected.getTransferContentEncoding());
+        assertThat(actual.getLanguages()).isEqualTo(expected.getLanguages());
+        assertThat(actual.getDisposition()).isEqualTo(expected.getDisposition());
+        assertThat(actual.getDispositionParams()).isEqualTo(expected.getDispositionParams());
+        assertThat(actual.contentTypeParameters()).isEqualTo(expected.contentTypeParameters());
+
+        if (expected.embeddedMessage() == null) {
+            assertThat(actual.embeddedMessage()).isNull();
+        } else {
+            assertSameHeaders(actual.embeddedMessage(), expected.embeddedMessage());
+            assertSameStructure(actual.embeddedMessage(), expected.embeddedMessage());
+        }
+
+        List<MimeDescriptor> actualParts = Lists.newArrayList(actual.parts());
+        List<MimeDescriptor> expectedParts = Lists.newArrayList(expected.parts());
+        assertThat(actualParts).hasSameSizeAs(expectedParts);
+        for (int i = 0; i < expectedParts.size(); i++) {
+            assertSameHeaders(actualParts.get(i), expectedParts.get(i));
+            assertSameStructure(actualParts.get(i), expectedParts.get(i));
+        }
+    }
+
+    private void assertSameHeaders(MimeDescriptor actual, MimeDescriptor expected) throws Exception {
+        Iterator<MessageResult.Header> actualHeaders = actual.headers();
+        for (Iterator<MessageResult.Header> it = expected.headers(); it.hasNext();) {
+            MessageResult.Header expectedHeader = it.next();
+            MessageResult.Header actualHeader = actualHeaders.next();
+            assertThat(actualHeader.getName()).isEqualTo(expectedHeader.getName());
+            assertThat(actualHeader.getValue()).isEqualTo(expectedHeader.getValue());
+        }
+        assertThat(actualHeaders.hasNext()).isFalse();
+    }
+}
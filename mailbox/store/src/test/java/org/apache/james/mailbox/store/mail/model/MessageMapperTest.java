@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.io.IOException;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -58,6 +59,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 public abstract class MessageMapperTest {
@@ -291,6 +293,58 @@ public abstract class MessageMapperTest {
         assertThat(messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.all(), MessageMapper.FetchType.Full, limit)).hasSize(2);
     }
 
+    @Test
+    public void findInMailboxChangedSinceShouldReturnOnlyMessagesModifiedAfterTheModSeq() throws MailboxException {
+        saveMessages();
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.REPLACE), MessageRange.one(message4.getUid()));
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.REPLACE), MessageRange.one(message2.getUid()));
+
+        Iterator<MailboxMessage> changedMessages = messageMapper.findInMailboxChangedSince(benwaInboxMailbox, MessageRange.all(), modSeq, FetchType.Metadata, MessageMapper.UNLIMITED);
+
+        assertThat(Lists.newArrayList(changedMessages))
+            .extracting(MailboxMessage::getUid)
+            .containsExactly(message2.getUid(), message4.getUid());
+    }
+
+    @Test
+    public void findInMailboxChangedSinceShouldReturnMessagesModifiedSeveralTimesOnlyOnce() throws MailboxException {
+        saveMessages();
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.REPLACE), MessageRange.one(message2.getUid()));
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.SEEN), FlagsUpdateMode.ADD), MessageRange.one(message2.getUid()));
+
+        Iterator<MailboxMessage> changedMessages = messageMapper.findInMailboxChangedSince(benwaInboxMailbox, MessageRange.all(), modSeq, FetchType.Metadata, MessageMapper.UNLIMITED);
+
+        assertThat(Lists.newArrayList(changedMessages))
+            .extracting(MailboxMessage::getUid)
+            .containsExactly(message2.getUid());
+    }
+
+    @Test
+    public void findInMailboxChangedSinceShouldNotReturnDeletedMessages() throws MailboxException {
+        saveMessages();
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.REPLACE), MessageRange.one(message2.getUid()));
+        messageMapper.delete(benwaInboxMailbox, message2);
+
+        assertThat(messageMapper.findInMailboxChangedSince(benwaInboxMailbox, MessageRange.all(), modSeq, FetchType.Metadata, MessageMapper.UNLIMITED))
+            .isEmpty();
+    }
+
+    @Test
+    public void findInMailboxChangedSinceShouldApplyRangeAndLimit() throws MailboxException {
+        saveMessages();
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.REPLACE), MessageRange.all());
+
+        Iterator<MailboxMessage> changedMessages = messageMapper.findInMailboxChangedSince(benwaInboxMailbox, MessageRange.from(message2.getUid()), modSeq, FetchType.Metadata, 2);
+
+        assertThat(Lists.newArrayList(changedMessages))
+            .extracting(MailboxMessage::getUid)
+            .containsExactly(message2.getUid(), message3.getUid());
+    }
+
     @Test
     public void findRecentUidsInMailboxShouldReturnEmptyListWhenNoMessagesMarkedAsRecentArePresentInMailbox() throws MailboxException {
         assertThat(messageMapper.findRecentMessageUidsInMailbox(benwaInboxMailbox)).isEmpty();
@@ -528,6 +582,44 @@ public abstract class MessageMapperTest {
         assertThat(result.getUid()).isEqualTo(messageMapper.getLastUid(benwaInboxMailbox).get());
     }
 
+    @Test
+    public void copyOfSeveralMessagesShouldIncrementMessageCount() throws MailboxException, IOException {
+        saveMessages();
+        messageMapper.copy(benwaInboxMailbox, ImmutableList.of(
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message5),
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message6)));
+        assertThat(messageMapper.countMessagesInMailbox(benwaInboxMailbox)).isEqualTo(7);
+    }
+
+    @Test
+    public void copyOfSeveralMessagesShouldAssignIncreasingUids() throws MailboxException, IOException {
+        saveMessages();
+        MessageUid lastUid = messageMapper.getLastUid(benwaInboxMailbox).get();
+
+        List<MessageMetaData> metaData = messageMapper.copy(benwaInboxMailbox, ImmutableList.of(
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message5),
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message6)));
+
+        assertThat(metaData).extracting(MessageMetaData::getUid)
+            .hasSize(2)
+            .isSorted()
+            .allMatch(uid -> uid.compareTo(lastUid) > 0);
+        assertThat(messageMapper.getLastUid(benwaInboxMailbox)).contains(metaData.get(1).getUid());
+    }
+
+    @Test
+    public void copyOfSeveralMessagesShouldIncrementModSeq() throws MailboxException, IOException {
+        saveMessages();
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        List<MessageMetaData> metaData = messageMapper.copy(benwaInboxMailbox, ImmutableList.of(
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message5),
+            SimpleMailboxMessage.copy(benwaInboxMailbox.getMailboxId(), message6)));
+
+        assertThat(metaData).extracting(MessageMetaData::getModSeq)
+            .allMatch(messageModSeq -> messageModSeq > modSeq);
+    }
+
     @Test
     public void copyOfSeenMessageShouldNotIncrementUnSeenMessageCount() throws MailboxException {
         message6.setFlags(new Flags(Flags.Flag.SEEN));
@@ -22,6 +22,7 @@ package org.apache.james.mailbox.store.mail.model;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.Date;
+import java.util.List;
 
 import javax.mail.Flags;
 import javax.mail.util.SharedByteArrayInputStream;
@@ -42,6 +43,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.google.common.collect.ImmutableList;
+
 public abstract class MessageMoveTest {
 
     private static final char DELIMITER = '.';
@@ -131,6 +134,31 @@ public abstract class MessageMoveTest {
         assertThat(messageMapper.countUnseenMessagesInMailbox(benwaWorkMailbox)).isEqualTo(0);
     }
 
+    @Test
+    public void movingSeveralMessagesShouldNotViolateMessageCount() throws Exception {
+        SimpleMailboxMessage message2 = createMessage(benwaInboxMailbox, mapperProvider.generateMessageId(), "Subject: Test2 \n\nBody2\n.\n", BODY_START, new PropertyBuilder());
+        messageMapper.add(benwaInboxMailbox, message1);
+        messageMapper.add(benwaInboxMailbox, message2);
+
+        messageMapper.move(benwaWorkMailbox, ImmutableList.of(message1, message2));
+
+        assertThat(messageMapper.countMessagesInMailbox(benwaInboxMailbox)).isEqualTo(0);
+        assertThat(messageMapper.countMessagesInMailbox(benwaWorkMailbox)).isEqualTo(2);
+    }
+
+    @Test
+    public void movingSeveralMessagesShouldReturnIncreasingUids() throws Exception {
+        SimpleMailboxMessage message2 = createMessage(benwaInboxMailbox, mapperProvider.generateMessageId(), "Subject: Test2 \n\nBody2\n.\n", BODY_START, new PropertyBuilder());
+        messageMapper.add(benwaInboxMailbox, message1);
+        messageMapper.add(benwaInboxMailbox, message2);
+
+        List<MessageMetaData> messageMetaData = messageMapper.move(benwaWorkMailbox, ImmutableList.of(message1, message2));
+
+        assertThat(messageMetaData).hasSize(2);
+        assertThat(messageMetaData.get(0).getUid()).isLessThan(messageMetaData.get(1).getUid());
+        assertThat(messageMetaData.get(1).getUid()).isEqualTo(messageMapper.getLastUid(benwaWorkMailbox).get());
+    }
+
     private SimpleMailbox createMailbox(MailboxPath mailboxPath) {
         SimpleMailbox mailbox = new SimpleMailbox(mailboxPath, UID_VALIDITY);
         MailboxId id = mapperProvider.generateId();
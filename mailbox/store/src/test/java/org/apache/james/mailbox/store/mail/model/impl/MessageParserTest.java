@@ -22,12 +22,15 @@ package org.apache.james.mailbox.store.mail.model.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.ByteArrayInputStream;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 import org.apache.james.mailbox.model.Attachment;
 import org.apache.james.mailbox.model.Cid;
 import org.apache.james.mailbox.model.MessageAttachment;
+import org.apache.james.mailbox.store.MimeDescriptorImpl;
+import org.apache.james.mailbox.store.json.MimeDescriptorJsonConverter;
 import org.apache.james.mdn.MDN;
 import org.apache.james.mdn.MDNReport;
 import org.apache.james.mdn.action.mode.DispositionActionMode;
@@ -36,12 +39,24 @@ import org.apache.james.mdn.fields.ReportingUserAgent;
 import org.apache.james.mdn.sending.mode.DispositionSendingMode;
 import org.apache.james.mdn.type.DispositionType;
 import org.apache.james.mime4j.dom.Message;
+import org.apache.james.mime4j.message.DefaultBodyDescriptorBuilder;
 import org.apache.james.mime4j.message.DefaultMessageWriter;
+import org.apache.james.mime4j.message.HeaderImpl;
+import org.apache.james.mime4j.stream.EntityState;
+import org.apache.james.mime4j.stream.MimeConfig;
+import org.apache.james.mime4j.stream.MimeTokenStream;
+import org.apache.james.mime4j.stream.RecursionMode;
 import org.junit.Before;
 import org.junit.Test;
 
 public class MessageParserTest {
 
+    private static final Comparator<MessageAttachment> SAME_METADATA = Comparator
+        .comparing((MessageAttachment attachment) -> attachment.getName().orElse(""))
+        .thenComparing(attachment -> attachment.getCid().map(Cid::getValue).orElse(""))
+        .thenComparing(MessageAttachment::isInline)
+        .thenComparing(attachment -> attachment.getAttachment().getType());
+
     private MessageParser testee;
 
     @Before
@@ -310,4 +325,96 @@ public class MessageParserTest {
         assertThat(result).hasSize(1)
             .allMatch(attachment -> attachment.getAttachment().getType().equals(MDN.DISPOSITION_CONTENT_TYPE));
     }
+
+    @Test
+    public void streamedAttachmentsShouldBeEmptyWhenNoAttachment() throws Exception {
+        assertThat(streamAttachments("eml/noAttachment.eml")).isEmpty();
+    }
+
+    @Test
+    public void streamedAttachmentsShouldMatchParsedAttachments() throws Exception {
+        for (String resource : new String[] {
+            "eml/oneAttachmentAndSomeTextInlined.eml",
+            "eml/messageWithNonASCIIFilenameAttachment.eml",
+            "eml/oneAttachmentWithoutName.eml",
+            "eml/oneInlinedAttachment.eml",
+            "eml/multiAttachmentsWithOneWrongContentDisposition.eml",
+            "eml/embeddedAttachmentWithAttachment.eml",
+            "eml/recursiveMail.eml",
+            "eml/calendar.eml"}) {
+
+            assertThat(streamAttachments(resource))
+                .usingElementComparator(SAME_METADATA)
+                .containsExactlyElementsOf(testee.retrieveAttachments(ClassLoader.getSystemResourceAsStream(resource)));
+        }
+    }
+
+    @Test
+    public void streamedAttachmentsShouldHaveDecodedContent() throws Exception {
+        List<MessageAttachment> streamed = streamAttachments("eml/oneAttachmentAndSomeTextInlined.eml");
+        List<MessageAttachment> parsed = testee.retrieveAttachments(ClassLoader.getSystemResourceAsStream("eml/oneAttachmentAndSomeTextInlined.eml"));
+
+        assertThat(streamed).hasSize(1);
+        assertThat(streamed.get(0).getAttachment().getBytes()).isEqualTo(parsed.get(0).getAttachment().getBytes());
+    }
+
+    @Test
+    public void streamedMimeStructureShouldMatchParsedMimeStructure() throws Exception {
+        for (String resource : new String[] {
+            "eml/oneAttachmentAndSomeTextInlined.eml",
+            "eml/oneInlinedAttachment.eml",
+            "eml/multiAttachmentsWithOneWrongContentDisposition.eml",
+            "eml/embeddedAttachmentWithAttachment.eml",
+            "eml/recursiveMail.eml",
+            "eml/calendar.eml"}) {
+
+            MimeTokenStream parser = newParser(resource);
+            MimeDescriptorImpl.StreamingBuilder structure = new MimeDescriptorImpl.StreamingBuilder();
+            EntityState next = parser.next();
+            while (next != EntityState.T_BODY && next != EntityState.T_END_OF_STREAM && next != EntityState.T_START_MULTIPART) {
+                if (next == EntityState.T_FIELD) {
+                    structure.field(parser.getField());
+                }
+                next = parser.next();
+            }
+
+            assertThat(testee.retrieveAttachments(parser, Optional.of(structure)))
+                .usingElementComparator(SAME_METADATA)
+                .containsExactlyElementsOf(testee.retrieveAttachments(ClassLoader.getSystemResourceAsStream(resource)));
+            assertThat(MimeDescriptorJsonConverter.toJson(structure.build().get()))
+                .isEqualTo(MimeDescriptorJsonConverter.toJson(MimeDescriptorImpl.build(ClassLoader.getSystemResourceAsStream(resource))));
+        }
+    }
+
+    @Test
+    public void isBodyAttachmentShouldBeTrueWhenTheMessageIsOnlyAnAttachment() throws Exception {
+        MimeTokenStream parser = newParser("eml/emailWithOnlyAttachment.eml");
+
+        assertThat(testee.isBodyAttachment(readHeader(parser))).isTrue();
+    }
+
+    private List<MessageAttachment> streamAttachments(String resource) throws Exception {
+        MimeTokenStream parser = newParser(resource);
+        assertThat(testee.isBodyAttachment(readHeader(parser))).isFalse();
+        return testee.retrieveAttachments(parser);
+    }
+
+    private MimeTokenStream newParser(String resource) throws Exception {
+        MimeTokenStream parser = new MimeTokenStream(MimeConfig.PERMISSIVE, new DefaultBodyDescriptorBuilder());
+        parser.setRecursionMode(RecursionMode.M_NO_RECURSE);
+        parser.parse(ClassLoader.getSystemResourceAsStream(resource));
+        return parser;
+    }
+
+    private HeaderImpl readHeader(MimeTokenStream parser) throws Exception {
+        HeaderImpl header = new HeaderImpl();
+        EntityState next = parser.next();
+        while (next != EntityState.T_BODY && next != EntityState.T_END_OF_STREAM && next != EntityState.T_START_MULTIPART) {
+            if (next == EntityState.T_FIELD) {
+                header.addField(testee.parseField(parser.getField()));
+            }
+            next = parser.next();
+        }
+        return header;
+    }
 }
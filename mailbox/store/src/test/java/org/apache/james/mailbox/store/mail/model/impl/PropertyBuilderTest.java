@@ -23,6 +23,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import org.junit.Test;
 
+import com.google.common.base.Strings;
+
 public class PropertyBuilderTest {
 
     @Test
@@ -46,4 +48,28 @@ public class PropertyBuilderTest {
             .containsOnly(new SimpleProperty(PropertyBuilder.JAMES_INTERNALS, PropertyBuilder.HAS_ATTACHMENT, "true"));
     }
 
+    @Test
+    public void getMimeStructureShouldReturnEmptyByDefault() {
+        assertThat(new PropertyBuilder().getMimeStructure()).isEmpty();
+    }
+
+    @Test
+    public void getMimeStructureShouldReturnTheValueSplitInSeveralProperties() {
+        String mimeStructure = Strings.repeat("0123456789", 250);
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        propertyBuilder.setMimeStructure(mimeStructure);
+
+        assertThat(propertyBuilder.toProperties()).hasSize(3);
+        assertThat(new PropertyBuilder(propertyBuilder.toProperties()).getMimeStructure()).contains(mimeStructure);
+    }
+
+    @Test
+    public void setMimeStructureShouldRemoveThePreviousValue() {
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        propertyBuilder.setMimeStructure("previous");
+        propertyBuilder.setMimeStructure("{}");
+
+        assertThat(propertyBuilder.getMimeStructure()).contains("{}");
+    }
+
 }
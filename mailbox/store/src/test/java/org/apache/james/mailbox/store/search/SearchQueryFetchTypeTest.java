@@ -0,0 +1,111 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.mail.Flags.Flag;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.Sort;
+import org.apache.james.mailbox.model.SearchQuery.Sort.SortClause;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class SearchQueryFetchTypeTest {
+
+    @Test
+    public void fetchTypeForShouldReturnMetadataWhenNoCriterion() {
+        assertThat(SearchQueryFetchType.fetchTypeFor(new SearchQuery()))
+            .isEqualTo(FetchType.Metadata);
+    }
+
+    @Test
+    public void fetchTypeForShouldReturnMetadataForFlagCriterion() {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.flagIsSet(Flag.SEEN));
+
+        assertThat(SearchQueryFetchType.fetchTypeFor(query))
+            .isEqualTo(FetchType.Metadata);
+    }
+
+    @Test
+    public void fetchTypeForShouldReturnMetadataForUidAndSizeCriteria() {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.and(
+            SearchQuery.uid(new SearchQuery.UidRange[] { new SearchQuery.UidRange(MessageUid.of(1), MessageUid.of(10)) }),
+            SearchQuery.sizeGreaterThan(100)));
+
+        assertThat(SearchQueryFetchType.fetchTypeFor(query))
+            .isEqualTo(FetchType.Metadata);
+    }
+
+    @Test
+    public void fetchTypeForShouldReturnHeadersForHeaderCriterion() {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.flagIsSet(Flag.SEEN));
+        query.andCriteria(SearchQuery.headerContains("Subject", "test"));
+
+        assertThat(SearchQueryFetchType.fetchTypeFor(query))
+            .isEqualTo(FetchType.Headers);
+    }
+
+    @Test
+    public void fetchTypeForShouldReturnHeadersForHeaderBasedSort() {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.all());
+        query.setSorts(ImmutableList.of(new Sort(SortClause.BaseSubject)));
+
+        assertThat(SearchQueryFetchType.fetchTypeFor(query))
+            .isEqualTo(FetchType.Headers);
+    }
+
+    @Test
+    public void fetchTypeForShouldReturnMetadataForMetadataBasedSort() {
+        SearchQuery query = new SearchQuery();
+        query.setSorts(ImmutableList.of(new Sort(SortClause.Arrival), new Sort(SortClause.Size)));
+
+        assertThat(SearchQueryFetchType.fetchTypeFor(query))
+            .isEqualTo(FetchType.Metadata);
+    }
+
+    @Test
+    public void fetchTypeForShouldReturnFullForTextCriterion() {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.bodyContains("test"));
+
+        assertThat(SearchQueryFetchType.fetchTypeFor(query))
+            .isEqualTo(FetchType.Full);
+    }
+
+    @Test
+    public void fetchTypeForShouldReturnFullForTextCriterionNestedInConjunction() {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.or(
+            SearchQuery.flagIsSet(Flag.SEEN),
+            SearchQuery.not(SearchQuery.bodyContains("test"))));
+
+        assertThat(SearchQueryFetchType.fetchTypeFor(query))
+            .isEqualTo(FetchType.Full);
+    }
+}
@@ -0,0 +1,77 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Persists the re-indexing cursor in a file so that it survives restarts.
+ *
+ * Updates are written to a temporary file then atomically moved over the cursor file.
+ */
+public class FileReIndexingCursorRepository implements ReIndexingCursorRepository {
+
+    private final Path cursorFile;
+    private final Path temporaryFile;
+
+    public FileReIndexingCursorRepository(File cursorFile) {
+        this.cursorFile = cursorFile.toPath();
+        this.temporaryFile = this.cursorFile.resolveSibling(cursorFile.getName() + ".tmp");
+    }
+
+    @Override
+    public synchronized Optional<String> retrieve() {
+        if (!Files.exists(cursorFile)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new String(Files.readAllBytes(cursorFile), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void store(String cursor) {
+        try {
+            Files.createDirectories(cursorFile.toAbsolutePath().getParent());
+            Files.write(temporaryFile, cursor.getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        try {
+            Files.deleteIfExists(cursorFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
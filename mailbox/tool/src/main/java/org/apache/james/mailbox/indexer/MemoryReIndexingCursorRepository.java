@@ -0,0 +1,47 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MemoryReIndexingCursorRepository implements ReIndexingCursorRepository {
+
+    private final AtomicReference<Optional<String>> cursor;
+
+    public MemoryReIndexingCursorRepository() {
+        this.cursor = new AtomicReference<>(Optional.empty());
+    }
+
+    @Override
+    public Optional<String> retrieve() {
+        return cursor.get();
+    }
+
+    @Override
+    public void store(String cursor) {
+        this.cursor.set(Optional.of(cursor));
+    }
+
+    @Override
+    public void clear() {
+        cursor.set(Optional.empty());
+    }
+}
@@ -144,7 +144,7 @@ public class ReIndexerImpl implements ReIndexer {
         }
     }
 
-    private ImpactingMessageEvent findMostRelevant(Collection<ImpactingMessageEvent> messageEvents) {
+    static ImpactingMessageEvent findMostRelevant(Collection<ImpactingMessageEvent> messageEvents) {
         for (ImpactingMessageEvent impactingMessageEvent : messageEvents) {
             if (impactingMessageEvent.getType().equals(ImpactingEventType.Deletion)) {
                 return impactingMessageEvent;
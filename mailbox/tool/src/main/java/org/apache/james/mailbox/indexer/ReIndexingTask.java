@@ -0,0 +1,267 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+
+import com.google.common.base.Preconditions;
+
+public class ReIndexingTask implements Task {
+    public static final String FULL_RE_INDEXING = "FullReIndexing";
+
+    public static class Parameters {
+        public static final int DEFAULT_PARALLELISM = 4;
+        public static final int DEFAULT_BATCH_SIZE = 100;
+
+        public static class Builder {
+            private Optional<Integer> parallelism;
+            private Optional<Integer> batchSize;
+            private Optional<Integer> messagesPerSecond;
+            private Optional<Boolean> resume;
+
+            private Builder() {
+                parallelism = Optional.empty();
+                batchSize = Optional.empty();
+                messagesPerSecond = Optional.empty();
+                resume = Optional.empty();
+            }
+
+            public Builder parallelism(int parallelism) {
+                Preconditions.checkArgument(parallelism > 0, "'parallelism' needs to be strictly positive");
+                this.parallelism = Optional.of(parallelism);
+                return this;
+            }
+
+            public Builder batchSize(int batchSize) {
+                Preconditions.checkArgument(batchSize > 0, "'batchSize' needs to be strictly positive");
+                this.batchSize = Optional.of(batchSize);
+                return this;
+            }
+
+            public Builder messagesPerSecond(int messagesPerSecond) {
+                Preconditions.checkArgument(messagesPerSecond > 0, "'messagesPerSecond' needs to be strictly positive");
+                this.messagesPerSecond = Optional.of(messagesPerSecond);
+                return this;
+            }
+
+            public Builder resume(boolean resume) {
+                this.resume = Optional.of(resume);
+                return this;
+            }
+
+            public Parameters build() {
+                return new Parameters(
+                    parallelism.orElse(DEFAULT_PARALLELISM),
+                    batchSize.orElse(DEFAULT_BATCH_SIZE),
+                    messagesPerSecond,
+                    resume.orElse(true));
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final int parallelism;
+        private final int batchSize;
+        private final Optional<Integer> messagesPerSecond;
+        private final boolean resume;
+
+        private Parameters(int parallelism, int batchSize, Optional<Integer> messagesPerSecond, boolean resume) {
+            this.parallelism = parallelism;
+            this.batchSize = batchSize;
+            this.messagesPerSecond = messagesPerSecond;
+            this.resume = resume;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public Optional<Integer> getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        public boolean isResume() {
+            return resume;
+        }
+    }
+
+    public static class Details implements TaskExecutionDetails.AdditionalInformation {
+        private final int parallelism;
+        private final Optional<Integer> messagesPerSecond;
+        private final Optional<String> resumedFrom;
+        private final long totalMailboxCount;
+        private final long processedMailboxCount;
+        private final long failedMailboxCount;
+        private final long indexedMessageCount;
+        private final long failedMessageCount;
+
+        public Details(int parallelism, Optional<Integer> messagesPerSecond, Optional<String> resumedFrom, long totalMailboxCount,
+                       long processedMailboxCount, long failedMailboxCount, long indexedMessageCount, long failedMessageCount) {
+            this.parallelism = parallelism;
+            this.messagesPerSecond = messagesPerSecond;
+            this.resumedFrom = resumedFrom;
+            this.totalMailboxCount = totalMailboxCount;
+            this.processedMailboxCount = processedMailboxCount;
+            this.failedMailboxCount = failedMailboxCount;
+            this.indexedMessageCount = indexedMessageCount;
+            this.failedMessageCount = failedMessageCount;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public Optional<Integer> getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        public Optional<String> getResumedFrom() {
+            return resumedFrom;
+        }
+
+        public long getTotalMailboxCount() {
+            return totalMailboxCount;
+        }
+
+        public long getProcessedMailboxCount() {
+            return processedMailboxCount;
+        }
+
+        public long getFailedMailboxCount() {
+            return failedMailboxCount;
+        }
+
+        public long getIndexedMessageCount() {
+            return indexedMessageCount;
+        }
+
+        public long getFailedMessageCount() {
+            return failedMessageCount;
+        }
+    }
+
+    public static class Context {
+        private final AtomicLong totalMailboxCount;
+        private final AtomicLong processedMailboxCount;
+        private final AtomicLong failedMailboxCount;
+        private final AtomicLong indexedMessageCount;
+        private final AtomicLong failedMessageCount;
+        private volatile Optional<String> resumedFrom;
+
+        public Context() {
+            this.totalMailboxCount = new AtomicLong(0L);
+            this.processedMailboxCount = new AtomicLong(0L);
+            this.failedMailboxCount = new AtomicLong(0L);
+            this.indexedMessageCount = new AtomicLong(0L);
+            this.failedMessageCount = new AtomicLong(0L);
+            this.resumedFrom = Optional.empty();
+        }
+
+        public long getTotalMailboxCount() {
+            return totalMailboxCount.get();
+        }
+
+        public long getProcessedMailboxCount() {
+            return processedMailboxCount.get();
+        }
+
+        public long getFailedMailboxCount() {
+            return failedMailboxCount.get();
+        }
+
+        public long getIndexedMessageCount() {
+            return indexedMessageCount.get();
+        }
+
+        public long getFailedMessageCount() {
+            return failedMessageCount.get();
+        }
+
+        public Optional<String> getResumedFrom() {
+            return resumedFrom;
+        }
+
+        public void setTotalMailboxCount(long totalMailboxCount) {
+            this.totalMailboxCount.set(totalMailboxCount);
+        }
+
+        public void setResumedFrom(Optional<String> resumedFrom) {
+            this.resumedFrom = resumedFrom;
+        }
+
+        public void incrementProcessedMailboxCount() {
+            processedMailboxCount.incrementAndGet();
+        }
+
+        public void incrementFailedMailboxCount() {
+            failedMailboxCount.incrementAndGet();
+        }
+
+        public void addIndexedMessages(long count) {
+            indexedMessageCount.addAndGet(count);
+        }
+
+        public void addFailedMessages(long count) {
+            failedMessageCount.addAndGet(count);
+        }
+    }
+
+    private final ReIndexingTaskRunner taskRunner;
+    private final Parameters parameters;
+    private final Context context;
+
+    public ReIndexingTask(ReIndexingTaskRunner taskRunner, Parameters parameters) {
+        this.taskRunner = taskRunner;
+        this.parameters = parameters;
+        this.context = new Context();
+    }
+
+    @Override
+    public Result run() {
+        return taskRunner.run(parameters, context);
+    }
+
+    @Override
+    public String type() {
+        return FULL_RE_INDEXING;
+    }
+
+    @Override
+    public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+        return Optional.of(new Details(parameters.getParallelism(),
+            parameters.getMessagesPerSecond(),
+            context.getResumedFrom(),
+            context.getTotalMailboxCount(),
+            context.getProcessedMailboxCount(),
+            context.getFailedMailboxCount(),
+            context.getIndexedMessageCount(),
+            context.getFailedMessageCount()));
+    }
+}
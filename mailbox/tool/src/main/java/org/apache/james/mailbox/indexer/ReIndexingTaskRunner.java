@@ -0,0 +1,259 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.inject.Inject;
+
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.indexer.events.FlagsMessageEvent;
+import org.apache.james.mailbox.indexer.events.ImpactingMessageEvent;
+import org.apache.james.mailbox.indexer.registrations.GlobalRegistration;
+import org.apache.james.mailbox.indexer.registrations.MailboxRegistration;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.model.Mailbox;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.task.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Re-indexes all the mailboxes of the server.
+ *
+ * Mailboxes are processed in parallel by a bounded pool of workers, in the order of their path. Messages of a mailbox
+ * are read by batches of UIDs and submitted to the index batch by batch, so that a mailbox is never fully loaded in
+ * memory. The overall indexing throughput can be capped.
+ *
+ * Once all mailboxes up to a given one are re-indexed, that mailbox is recorded in the {@link ReIndexingCursorRepository}.
+ * A later run resumes after it. The cursor is cleared once a run completes without failure.
+ */
+public class ReIndexingTaskRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReIndexingTaskRunner.class);
+    private static final String RE_INDEXING = "re-indexing";
+
+    private class ProgressCursor {
+        private final List<MailboxPath> mailboxPaths;
+        private final boolean[] indexed;
+        private int indexedPrefixLength;
+
+        private ProgressCursor(List<MailboxPath> mailboxPaths) {
+            this.mailboxPaths = mailboxPaths;
+            this.indexed = new boolean[mailboxPaths.size()];
+            this.indexedPrefixLength = 0;
+        }
+
+        private synchronized void markIndexed(int position) {
+            indexed[position] = true;
+            int previousPrefixLength = indexedPrefixLength;
+            while (indexedPrefixLength < indexed.length && indexed[indexedPrefixLength]) {
+                indexedPrefixLength++;
+            }
+            if (indexedPrefixLength > previousPrefixLength) {
+                cursorRepository.store(mailboxPaths.get(indexedPrefixLength - 1).asString());
+            }
+        }
+    }
+
+    private final MailboxManager mailboxManager;
+    private final ListeningMessageSearchIndex messageSearchIndex;
+    private final MailboxSessionMapperFactory mailboxSessionMapperFactory;
+    private final ReIndexingCursorRepository cursorRepository;
+
+    @Inject
+    public ReIndexingTaskRunner(MailboxManager mailboxManager,
+                                ListeningMessageSearchIndex messageSearchIndex,
+                                MailboxSessionMapperFactory mailboxSessionMapperFactory,
+                                ReIndexingCursorRepository cursorRepository) {
+        this.mailboxManager = mailboxManager;
+        this.messageSearchIndex = messageSearchIndex;
+        this.mailboxSessionMapperFactory = mailboxSessionMapperFactory;
+        this.cursorRepository = cursorRepository;
+    }
+
+    public Task.Result run(ReIndexingTask.Parameters parameters, ReIndexingTask.Context context) {
+        try {
+            MailboxSession systemSession = mailboxManager.createSystemSession(RE_INDEXING);
+            Optional<String> cursor = retrieveCursor(parameters);
+            List<MailboxPath> mailboxPaths = mailboxesToIndex(systemSession, cursor);
+            context.setResumedFrom(cursor);
+            context.setTotalMailboxCount(mailboxPaths.size());
+            LOGGER.info("Starting a full reindex of {} mailboxes", mailboxPaths.size());
+
+            GlobalRegistration globalRegistration = new GlobalRegistration();
+            mailboxManager.addGlobalListener(globalRegistration, systemSession);
+            try {
+                return reIndex(mailboxPaths, globalRegistration, parameters, context)
+                    .onComplete(cursorRepository::clear);
+            } finally {
+                mailboxManager.removeGlobalListener(globalRegistration, systemSession);
+                LOGGER.info("Full reindex finished");
+            }
+        } catch (MailboxException e) {
+            LOGGER.error("Error while proceeding to full reindexing", e);
+            return Task.Result.PARTIAL;
+        }
+    }
+
+    private Optional<String> retrieveCursor(ReIndexingTask.Parameters parameters) {
+        if (parameters.isResume()) {
+            return cursorRepository.retrieve();
+        }
+        cursorRepository.clear();
+        return Optional.empty();
+    }
+
+    private List<MailboxPath> mailboxesToIndex(MailboxSession systemSession, Optional<String> cursor) throws MailboxException {
+        return mailboxManager.list(systemSession)
+            .stream()
+            .filter(path -> cursor
+                .map(lastIndexed -> path.asString().compareTo(lastIndexed) > 0)
+                .orElse(true))
+            .sorted(Comparator.comparing(MailboxPath::asString))
+            .collect(Collectors.toList());
+    }
+
+    private Task.Result reIndex(List<MailboxPath> mailboxPaths, GlobalRegistration globalRegistration,
+                                ReIndexingTask.Parameters parameters, ReIndexingTask.Context context) {
+        ProgressCursor progressCursor = new ProgressCursor(mailboxPaths);
+        Optional<RateLimiter> rateLimiter = parameters.getMessagesPerSecond()
+            .map(messagesPerSecond -> RateLimiter.create(messagesPerSecond));
+        ExecutorService executor = Executors.newFixedThreadPool(parameters.getParallelism(),
+            new ThreadFactoryBuilder().setNameFormat("re-indexing-%d").build());
+        try {
+            List<CompletableFuture<Task.Result>> results = IntStream.range(0, mailboxPaths.size())
+                .mapToObj(position -> CompletableFuture.supplyAsync(
+                    () -> reIndex(mailboxPaths.get(position), globalRegistration, parameters.getBatchSize(), rateLimiter, context)
+                        .onComplete(() -> progressCursor.markIndexed(position)),
+                    executor))
+                .collect(Collectors.toList());
+            return results.stream()
+                .map(CompletableFuture::join)
+                .reduce(Task.Result.COMPLETED, Task::combine);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Task.Result reIndex(MailboxPath mailboxPath, GlobalRegistration globalRegistration, int batchSize,
+                                Optional<RateLimiter> rateLimiter, ReIndexingTask.Context context) {
+        Optional<MailboxPath> pathToIndex = globalRegistration.getPathToIndex(mailboxPath);
+        if (!pathToIndex.isPresent()) {
+            context.incrementProcessedMailboxCount();
+            return Task.Result.COMPLETED;
+        }
+        try {
+            Task.Result result = reIndexMailbox(pathToIndex.get(), batchSize, rateLimiter, context);
+            context.incrementProcessedMailboxCount();
+            return result;
+        } catch (Exception e) {
+            LOGGER.error("Error while proceeding to reindexing of {}", pathToIndex.get(), e);
+            context.incrementFailedMailboxCount();
+            return Task.Result.PARTIAL;
+        }
+    }
+
+    private Task.Result reIndexMailbox(MailboxPath path, int batchSize, Optional<RateLimiter> rateLimiter,
+                                       ReIndexingTask.Context context) throws MailboxException {
+        MailboxSession mailboxSession = mailboxManager.createSystemSession(path.getUser());
+        Mailbox mailbox = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxByPath(path);
+        MailboxRegistration mailboxRegistration = new MailboxRegistration(path);
+        messageSearchIndex.deleteAll(mailboxSession, mailbox);
+        mailboxManager.addListener(path, mailboxRegistration, mailboxSession);
+        try {
+            return reIndexMessages(mailboxSession, mailboxRegistration, mailbox, batchSize, rateLimiter, context);
+        } finally {
+            mailboxManager.removeListener(path, mailboxRegistration, mailboxSession);
+        }
+    }
+
+    private Task.Result reIndexMessages(MailboxSession mailboxSession, MailboxRegistration mailboxRegistration, Mailbox mailbox,
+                                        int batchSize, Optional<RateLimiter> rateLimiter, ReIndexingTask.Context context) throws MailboxException {
+        MessageMapper messageMapper = mailboxSessionMapperFactory.getMessageMapper(mailboxSession);
+        Task.Result result = Task.Result.COMPLETED;
+        MessageUid from = MessageUid.MIN_VALUE;
+        List<MailboxMessage> batch;
+        do {
+            batch = ImmutableList.copyOf(
+                messageMapper.findInMailbox(mailbox, MessageRange.from(from), MessageMapper.FetchType.Full, batchSize));
+            if (!batch.isEmpty()) {
+                int batchLength = batch.size();
+                rateLimiter.ifPresent(limiter -> limiter.acquire(batchLength));
+                result = Task.combine(result, indexBatch(mailboxSession, mailboxRegistration, mailbox, batch, context));
+                from = Iterables.getLast(batch).getUid().next();
+            }
+        } while (batch.size() == batchSize);
+        return result;
+    }
+
+    private Task.Result indexBatch(MailboxSession mailboxSession, MailboxRegistration mailboxRegistration, Mailbox mailbox,
+                                   List<MailboxMessage> batch, ReIndexingTask.Context context) {
+        List<MailboxMessage> messagesToIndex = batch.stream()
+            .filter(message -> applyImpactingEvents(mailboxRegistration, message))
+            .collect(Collectors.toList());
+        if (messagesToIndex.isEmpty()) {
+            return Task.Result.COMPLETED;
+        }
+        try {
+            messageSearchIndex.add(mailboxSession, mailbox, messagesToIndex);
+            context.addIndexedMessages(messagesToIndex.size());
+            return Task.Result.COMPLETED;
+        } catch (Exception e) {
+            LOGGER.error("Error while indexing messages {} to {} of mailbox {}",
+                messagesToIndex.get(0).getUid(),
+                Iterables.getLast(messagesToIndex).getUid(),
+                mailbox.getMailboxId().serialize(),
+                e);
+            context.addFailedMessages(messagesToIndex.size());
+            return Task.Result.PARTIAL;
+        }
+    }
+
+    private boolean applyImpactingEvents(MailboxRegistration mailboxRegistration, MailboxMessage message) {
+        ImpactingMessageEvent impactingMessageEvent = ReIndexerImpl.findMostRelevant(mailboxRegistration.getImpactingEvents(message.getUid()));
+        if (impactingMessageEvent == null) {
+            return true;
+        }
+        if (impactingMessageEvent instanceof FlagsMessageEvent) {
+            message.setFlags(((FlagsMessageEvent) impactingMessageEvent).getFlags());
+            return true;
+        }
+        return false;
+    }
+}
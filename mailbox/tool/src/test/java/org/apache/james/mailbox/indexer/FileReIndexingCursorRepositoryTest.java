@@ -0,0 +1,88 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileReIndexingCursorRepositoryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cursorFile;
+    private FileReIndexingCursorRepository testee;
+
+    @Before
+    public void setUp() throws Exception {
+        cursorFile = new File(temporaryFolder.getRoot(), "reindexing/cursor");
+        testee = new FileReIndexingCursorRepository(cursorFile);
+    }
+
+    @Test
+    public void retrieveShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieve()).isEmpty();
+    }
+
+    @Test
+    public void retrieveShouldReturnStoredCursor() {
+        testee.store("#private:user:INBOX");
+
+        assertThat(testee.retrieve()).contains("#private:user:INBOX");
+    }
+
+    @Test
+    public void storeShouldOverridePreviousCursor() {
+        testee.store("#private:user:INBOX");
+
+        testee.store("#private:user:OUTBOX");
+
+        assertThat(testee.retrieve()).contains("#private:user:OUTBOX");
+    }
+
+    @Test
+    public void cursorShouldSurviveRepositoryRecreation() {
+        testee.store("#private:user:INBOX");
+
+        assertThat(new FileReIndexingCursorRepository(cursorFile).retrieve()).contains("#private:user:INBOX");
+    }
+
+    @Test
+    public void clearShouldRemoveCursor() {
+        testee.store("#private:user:INBOX");
+
+        testee.clear();
+
+        assertThat(testee.retrieve()).isEmpty();
+    }
+
+    @Test
+    public void clearShouldNotFailWhenNoCursor() {
+        testee.clear();
+
+        assertThat(testee.retrieve()).isEmpty();
+    }
+}
@@ -0,0 +1,194 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.exception.MailboxNotFoundException;
+import org.apache.james.mailbox.mock.MockMailboxSession;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.mail.MailboxMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.model.Mailbox;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.task.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ReIndexingTaskRunnerTest {
+
+    private static final MailboxPath INBOX = MailboxPath.forUser("benwa@apache.org", "INBOX");
+    private static final MailboxPath OUTBOX = MailboxPath.forUser("benwa@apache.org", "OUTBOX");
+    private static final int BATCH_SIZE = 2;
+
+    private MailboxManager mailboxManager;
+    private ListeningMessageSearchIndex messageSearchIndex;
+    private MailboxMapper mailboxMapper;
+    private MessageMapper messageMapper;
+    private ReIndexingCursorRepository cursorRepository;
+    private MockMailboxSession mailboxSession;
+    private Mailbox inbox;
+    private Mailbox outbox;
+    private MailboxMessage message1;
+    private MailboxMessage message2;
+    private MailboxMessage message3;
+    private ReIndexingTaskRunner testee;
+
+    @Before
+    public void setUp() throws Exception {
+        mailboxManager = mock(MailboxManager.class);
+        messageSearchIndex = mock(ListeningMessageSearchIndex.class);
+        MailboxSessionMapperFactory mailboxSessionMapperFactory = mock(MailboxSessionMapperFactory.class);
+        mailboxMapper = mock(MailboxMapper.class);
+        messageMapper = mock(MessageMapper.class);
+        cursorRepository = new MemoryReIndexingCursorRepository();
+
+        mailboxSession = new MockMailboxSession("re-indexing");
+        when(mailboxManager.createSystemSession(any(String.class))).thenReturn(mailboxSession);
+        when(mailboxSessionMapperFactory.getMailboxMapper(any(MailboxSession.class))).thenReturn(mailboxMapper);
+        when(mailboxSessionMapperFactory.getMessageMapper(any(MailboxSession.class))).thenReturn(messageMapper);
+        when(mailboxManager.list(mailboxSession)).thenReturn(ImmutableList.of(OUTBOX, INBOX));
+
+        inbox = mock(Mailbox.class);
+        outbox = mock(Mailbox.class);
+        when(mailboxMapper.findMailboxByPath(INBOX)).thenReturn(inbox);
+        when(mailboxMapper.findMailboxByPath(OUTBOX)).thenReturn(outbox);
+
+        message1 = mockMessage(1);
+        message2 = mockMessage(2);
+        message3 = mockMessage(3);
+        when(messageMapper.findInMailbox(inbox, MessageRange.from(MessageUid.of(1)), MessageMapper.FetchType.Full, BATCH_SIZE))
+            .thenAnswer(invocation -> ImmutableList.of(message1, message2).iterator());
+        when(messageMapper.findInMailbox(inbox, MessageRange.from(MessageUid.of(3)), MessageMapper.FetchType.Full, BATCH_SIZE))
+            .thenAnswer(invocation -> ImmutableList.of(message3).iterator());
+        when(messageMapper.findInMailbox(outbox, MessageRange.from(MessageUid.of(1)), MessageMapper.FetchType.Full, BATCH_SIZE))
+            .thenAnswer(invocation -> ImmutableList.of().iterator());
+
+        testee = new ReIndexingTaskRunner(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory, cursorRepository);
+    }
+
+    private MailboxMessage mockMessage(long uid) {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.getUid()).thenReturn(MessageUid.of(uid));
+        return message;
+    }
+
+    private ReIndexingTask.Parameters parameters() {
+        return ReIndexingTask.Parameters.builder()
+            .parallelism(2)
+            .batchSize(BATCH_SIZE)
+            .build();
+    }
+
+    @Test
+    public void runShouldIndexMessagesByBatches() throws Exception {
+        Task.Result result = testee.run(parameters(), new ReIndexingTask.Context());
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        verify(messageSearchIndex).deleteAll(mailboxSession, inbox);
+        verify(messageSearchIndex).add(mailboxSession, inbox, ImmutableList.of(message1, message2));
+        verify(messageSearchIndex).add(mailboxSession, inbox, ImmutableList.of(message3));
+    }
+
+    @Test
+    public void runShouldReportProgress() {
+        ReIndexingTask.Context context = new ReIndexingTask.Context();
+
+        testee.run(parameters(), context);
+
+        assertThat(context.getTotalMailboxCount()).isEqualTo(2);
+        assertThat(context.getProcessedMailboxCount()).isEqualTo(2);
+        assertThat(context.getFailedMailboxCount()).isEqualTo(0);
+        assertThat(context.getIndexedMessageCount()).isEqualTo(3);
+        assertThat(context.getFailedMessageCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void runShouldClearCursorWhenCompleted() {
+        testee.run(parameters(), new ReIndexingTask.Context());
+
+        assertThat(cursorRepository.retrieve()).isEmpty();
+    }
+
+    @Test
+    public void runShouldIgnoreCursorWhenNotResuming() throws Exception {
+        cursorRepository.store(INBOX.asString());
+
+        testee.run(ReIndexingTask.Parameters.builder()
+                .batchSize(BATCH_SIZE)
+                .resume(false)
+                .build(),
+            new ReIndexingTask.Context());
+
+        verify(messageSearchIndex).deleteAll(mailboxSession, inbox);
+    }
+
+    @Test
+    public void runShouldSkipMailboxesBeforeCursor() throws Exception {
+        cursorRepository.store(INBOX.asString());
+        ReIndexingTask.Context context = new ReIndexingTask.Context();
+
+        testee.run(parameters(), context);
+
+        verify(mailboxMapper, never()).findMailboxByPath(INBOX);
+        verify(messageSearchIndex).deleteAll(mailboxSession, outbox);
+        assertThat(context.getResumedFrom()).contains(INBOX.asString());
+        assertThat(context.getTotalMailboxCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void runShouldRecordCursorOfLastIndexedMailboxWhenFailure() throws Exception {
+        when(mailboxMapper.findMailboxByPath(OUTBOX)).thenThrow(new MailboxNotFoundException(OUTBOX));
+        ReIndexingTask.Context context = new ReIndexingTask.Context();
+
+        Task.Result result = testee.run(parameters(), context);
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+        assertThat(context.getFailedMailboxCount()).isEqualTo(1);
+        assertThat(cursorRepository.retrieve()).contains(INBOX.asString());
+    }
+
+    @Test
+    public void runShouldCountFailedMessages() throws Exception {
+        doThrow(new RuntimeException())
+            .when(messageSearchIndex).add(mailboxSession, inbox, ImmutableList.of(message1, message2));
+        ReIndexingTask.Context context = new ReIndexingTask.Context();
+
+        Task.Result result = testee.run(parameters(), context);
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+        assertThat(context.getFailedMessageCount()).isEqualTo(2);
+        assertThat(context.getIndexedMessageCount()).isEqualTo(1);
+    }
+}
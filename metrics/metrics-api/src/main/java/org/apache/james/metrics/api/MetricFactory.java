@@ -28,4 +28,10 @@ public interface MetricFactory {
     TimeMetric timer(String name);
 
     <T> T withMetric(String name, Supplier<T> operation);
+
+    /**
+     * Registers a gauge whose value is computed by the given supplier each time it is reported.
+     * Registering a gauge under an existing name replaces the previous one.
+     */
+    <T> void gauge(String name, Supplier<T> gauge);
 }
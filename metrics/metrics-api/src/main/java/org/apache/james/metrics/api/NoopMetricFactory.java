@@ -62,4 +62,8 @@ public class NoopMetricFactory implements MetricFactory {
     public <T> T withMetric(String name, Supplier<T> operation) {
         return operation.get();
     }
+
+    @Override
+    public <T> void gauge(String name, Supplier<T> gauge) {
+    }
 }
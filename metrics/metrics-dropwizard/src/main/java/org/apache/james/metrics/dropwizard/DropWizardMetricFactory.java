@@ -30,6 +30,7 @@ import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.MetricRegistry;
 
@@ -65,6 +66,12 @@ public class DropWizardMetricFactory implements MetricFactory {
         }
     }
 
+    @Override
+    public <T> void gauge(String name, Supplier<T> gauge) {
+        metricRegistry.remove(name);
+        metricRegistry.register(name, (Gauge<T>) gauge::get);
+    }
+
     @PostConstruct
     public void start() throws ConfigurationException {
         jmxReporter.start();
@@ -50,4 +50,9 @@ public class DefaultMetricFactory implements MetricFactory {
         }
     }
 
+    @Override
+    public <T> void gauge(String name, Supplier<T> gauge) {
+        LOGGER.debug("Gauge {} is not reported by this metric factory", name);
+    }
+
 }
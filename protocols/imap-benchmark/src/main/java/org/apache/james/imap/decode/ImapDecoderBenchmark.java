@@ -0,0 +1,182 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.decode;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.apache.james.imap.api.ImapMessage;
+import org.apache.james.imap.api.process.SelectedMailbox;
+import org.apache.james.imap.encode.FakeImapSession;
+import org.apache.james.imap.main.DefaultImapDecoderFactory;
+import org.apache.james.imap.message.request.AppendRequest;
+import org.apache.james.protocols.imap.DecodingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Measures the decoding of client commands: {@link ImapRequestLineReader} tokenizing, command parsers such as
+ * {@link org.apache.james.imap.decode.parser.SearchCommandParser} and {@link FetchPartPathDecoder}.
+ *
+ * Commands are read from recorded client sessions, see {@link RecordedImapTraffic}. Each command gets its own
+ * line reader, as a frame does in the server. Add <code>-prof gc</code> to the JMH options to report allocation rates.
+ *
+ * Run it with its main method, or from the shaded benchmark jar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ImapDecoderBenchmark {
+
+    @State(Scope.Thread)
+    public static class RecordedSession {
+        @Param({RecordedImapTraffic.DESKTOP_CLIENT, RecordedImapTraffic.MOBILE_CLIENT})
+        public String traffic;
+
+        @VisibleForTesting
+        List<byte[]> commands;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            commands = RecordedImapTraffic.load(traffic).getCommands();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RecordedCommands {
+        @Param({"FETCH", "SEARCH", "STORE", "APPEND"})
+        public String commandName;
+
+        @VisibleForTesting
+        List<byte[]> commands;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Pattern command = Pattern.compile("^\\S+ (UID )?" + commandName + " ", Pattern.CASE_INSENSITIVE);
+            commands = Stream.of(RecordedImapTraffic.DESKTOP_CLIENT, RecordedImapTraffic.MOBILE_CLIENT)
+                .flatMap(this::loadCommands)
+                .filter(bytes -> command.matcher(new String(bytes, StandardCharsets.US_ASCII)).find())
+                .collect(Guavate.toImmutableList());
+        }
+
+        private Stream<byte[]> loadCommands(String traffic) {
+            try {
+                return RecordedImapTraffic.load(traffic).getCommands().stream();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Decoder {
+        private ImapDecoder decoder;
+        private FakeImapSession session;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            decoder = DefaultImapDecoderFactory.createDecoder();
+            session = new FakeImapSession();
+            // FETCH, STORE, SEARCH and friends are rejected before being parsed unless a mailbox is selected
+            session.selected(mock(SelectedMailbox.class));
+        }
+
+        @VisibleForTesting
+        ImapMessage decode(byte[] command) throws IOException {
+            ImapRequestLineReader reader = new ImapRequestStreamLineReader(new ByteArrayInputStream(command), ByteStreams.nullOutputStream());
+            ImapMessage message = decoder.decode(reader, session);
+            if (message instanceof AppendRequest) {
+                // The server streams the appended message to the mailbox
+                ByteStreams.copy(((AppendRequest) message).getMessage(), ByteStreams.nullOutputStream());
+            }
+            return message;
+        }
+    }
+
+    private static final String[] FETCH_SECTIONS = {
+        "HEADER",
+        "TEXT",
+        "1",
+        "1.MIME",
+        "2.1.HEADER",
+        "2.1.TEXT",
+        "3.2.5.7",
+        "HEADER.FIELDS (From To Cc Bcc Subject Date Message-ID Priority X-Priority References Newsgroups In-Reply-To Content-Type Reply-To)",
+        "HEADER.FIELDS.NOT (Received DKIM-Signature)"
+    };
+
+    @Benchmark
+    public void decodeRecordedSession(RecordedSession session, Decoder decoder, Blackhole blackhole) throws IOException {
+        for (byte[] command : session.commands) {
+            blackhole.consume(decoder.decode(command));
+        }
+    }
+
+    @Benchmark
+    public void decodeCommands(RecordedCommands commands, Decoder decoder, Blackhole blackhole) throws IOException {
+        for (byte[] command : commands.commands) {
+            blackhole.consume(decoder.decode(command));
+        }
+    }
+
+    @Benchmark
+    public void decodeFetchPartPaths(Blackhole blackhole) throws DecodingException {
+        for (String section : FETCH_SECTIONS) {
+            FetchPartPathDecoder decoder = new FetchPartPathDecoder();
+            blackhole.consume(decoder.decode(section));
+            blackhole.consume(decoder.getPath());
+            blackhole.consume(decoder.getNames());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ImapDecoderBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
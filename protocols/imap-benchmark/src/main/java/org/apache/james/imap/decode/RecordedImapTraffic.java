@@ -0,0 +1,87 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.decode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+
+/**
+ * Client commands recorded from real IMAP sessions, used as benchmark fixtures.
+ *
+ * Fixtures hold one command per line. Literals span the following lines and their announced size is counted
+ * with CRLF line endings. Lines starting with '#' and blank lines between commands are ignored.
+ */
+public class RecordedImapTraffic {
+
+    public static final String DESKTOP_CLIENT = "traffic/desktop-client.txt";
+    public static final String MOBILE_CLIENT = "traffic/mobile-client.txt";
+
+    private static final String CRLF = "\r\n";
+    private static final Pattern LITERAL = Pattern.compile("\\{(\\d+)\\+?\\}$");
+
+    public static RecordedImapTraffic load(String resource) throws IOException {
+        List<String> lines = Resources.readLines(Resources.getResource(resource), StandardCharsets.US_ASCII);
+        ImmutableList.Builder<byte[]> commands = ImmutableList.builder();
+
+        int index = 0;
+        while (index < lines.size()) {
+            String line = lines.get(index++);
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            StringBuilder command = new StringBuilder();
+            Matcher literal = LITERAL.matcher(line);
+            while (literal.find()) {
+                command.append(line).append(CRLF);
+                int literalStart = command.length();
+                int literalSize = Integer.parseInt(literal.group(1));
+                while (command.length() - literalStart < literalSize) {
+                    command.append(lines.get(index++)).append(CRLF);
+                }
+                if (command.length() - literalStart != literalSize) {
+                    throw new IllegalArgumentException("Literal size does not match its content in " + resource + " at line " + index);
+                }
+                line = lines.get(index++);
+                literal = LITERAL.matcher(line);
+            }
+            command.append(line).append(CRLF);
+
+            commands.add(command.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        return new RecordedImapTraffic(commands.build());
+    }
+
+    private final List<byte[]> commands;
+
+    private RecordedImapTraffic(List<byte[]> commands) {
+        this.commands = commands;
+    }
+
+    public List<byte[]> getCommands() {
+        return commands;
+    }
+}
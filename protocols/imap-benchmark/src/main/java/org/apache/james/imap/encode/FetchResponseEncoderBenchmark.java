@@ -0,0 +1,259 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.encode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import javax.mail.Flags;
+
+import org.apache.james.imap.decode.main.OutputStreamImapResponseWriter;
+import org.apache.james.imap.encode.base.ImapResponseComposerImpl;
+import org.apache.james.imap.encode.main.DefaultImapEncoderFactory;
+import org.apache.james.imap.encode.main.DefaultLocalizer;
+import org.apache.james.imap.message.response.FetchResponse;
+import org.apache.james.mailbox.MessageUid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Measures the encoding of large FETCH result sets through the default encoder chain, {@link FetchResponseEncoder}
+ * and {@link ImapResponseComposerImpl}, as issued by clients synchronizing flags or listing message headers.
+ *
+ * Responses are written to a discarding stream. Add <code>-prof gc</code> to the JMH options to report allocation rates.
+ *
+ * Run it with its main method, or from the shaded benchmark jar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class FetchResponseEncoderBenchmark {
+
+    private static final long FIRST_UID = 4212;
+    private static final long MOD_SEQ = 91877;
+    private static final Date INTERNAL_DATE = new Date(1508228132000L);
+    private static final String HEADER_FIELDS_SECTION = "BODY[HEADER.FIELDS (FROM TO CC SUBJECT DATE MESSAGE-ID)]";
+    private static final byte[] HEADER_FIELDS = ("From: Alice <alice@example.com>\r\n"
+        + "To: Bob <bob@example.org>\r\n"
+        + "Cc: team@example.org\r\n"
+        + "Subject: Re: quarterly report\r\n"
+        + "Date: Tue, 17 Oct 2017 10:15:32 +0200\r\n"
+        + "Message-ID: <5a1f0c2e.8d3b.4c11@example.com>\r\n"
+        + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"100", "5000"})
+    public int fetchSize;
+
+    private List<FetchResponse> flagsResponses;
+    private List<FetchResponse> headersResponses;
+    private ImapEncoder encoder;
+    private ImapResponseComposer composer;
+    private FakeImapSession session;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        flagsResponses = IntStream.rangeClosed(1, fetchSize)
+            .mapToObj(msn -> new FetchResponse(msn, flags(msn), MessageUid.of(FIRST_UID + msn), MOD_SEQ + msn,
+                null, null, null, null, null, null))
+            .collect(Guavate.toImmutableList());
+        headersResponses = IntStream.rangeClosed(1, fetchSize)
+            .mapToObj(msn -> new FetchResponse(msn, flags(msn), MessageUid.of(FIRST_UID + msn), null,
+                INTERNAL_DATE, 4096L + msn, new BenchmarkEnvelope(), null, null,
+                ImmutableList.of(new BenchmarkBodyElement(HEADER_FIELDS_SECTION, HEADER_FIELDS))))
+            .collect(Guavate.toImmutableList());
+
+        encoder = DefaultImapEncoderFactory.createDefaultEncoder(new DefaultLocalizer(), false);
+        composer = new ImapResponseComposerImpl(new OutputStreamImapResponseWriter(ByteStreams.nullOutputStream()));
+        session = new FakeImapSession();
+    }
+
+    private static Flags flags(int msn) {
+        Flags flags = new Flags(Flags.Flag.SEEN);
+        if (msn % 3 == 0) {
+            flags.add(Flags.Flag.ANSWERED);
+        }
+        if (msn % 10 == 0) {
+            flags.add("$label1");
+        }
+        return flags;
+    }
+
+    @Benchmark
+    public void encodeFlagsSynchronization() throws IOException {
+        encode(flagsResponses);
+    }
+
+    @Benchmark
+    public void encodeHeadersListing() throws IOException {
+        encode(headersResponses);
+    }
+
+    private void encode(List<FetchResponse> responses) throws IOException {
+        for (FetchResponse response : responses) {
+            encoder.encode(response, composer, session);
+        }
+    }
+
+    private static class BenchmarkBodyElement implements FetchResponse.BodyElement {
+        private final String name;
+        private final byte[] content;
+
+        BenchmarkBodyElement(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long size() {
+            return content.length;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+    }
+
+    private static class BenchmarkEnvelope implements FetchResponse.Envelope {
+        private static final Address[] FROM = { new BenchmarkAddress("Alice", "alice", "example.com") };
+        private static final Address[] TO = { new BenchmarkAddress("Bob", "bob", "example.org") };
+        private static final Address[] CC = { new BenchmarkAddress(null, "team", "example.org") };
+
+        @Override
+        public String getDate() {
+            return "Tue, 17 Oct 2017 10:15:32 +0200";
+        }
+
+        @Override
+        public String getSubject() {
+            return "Re: quarterly report";
+        }
+
+        @Override
+        public Address[] getFrom() {
+            return FROM;
+        }
+
+        @Override
+        public Address[] getSender() {
+            return FROM;
+        }
+
+        @Override
+        public Address[] getReplyTo() {
+            return FROM;
+        }
+
+        @Override
+        public Address[] getTo() {
+            return TO;
+        }
+
+        @Override
+        public Address[] getCc() {
+            return CC;
+        }
+
+        @Override
+        public Address[] getBcc() {
+            return null;
+        }
+
+        @Override
+        public String getInReplyTo() {
+            return "<59e5a1b3.1122.77aa@example.org>";
+        }
+
+        @Override
+        public String getMessageId() {
+            return "<5a1f0c2e.8d3b.4c11@example.com>";
+        }
+    }
+
+    private static class BenchmarkAddress implements FetchResponse.Envelope.Address {
+        private final String personalName;
+        private final String mailboxName;
+        private final String hostName;
+
+        BenchmarkAddress(String personalName, String mailboxName, String hostName) {
+            this.personalName = personalName;
+            this.mailboxName = mailboxName;
+            this.hostName = hostName;
+        }
+
+        @Override
+        public String getPersonalName() {
+            return personalName;
+        }
+
+        @Override
+        public String getAtDomainList() {
+            return null;
+        }
+
+        @Override
+        public String getMailboxName() {
+            return mailboxName;
+        }
+
+        @Override
+        public String getHostName() {
+            return hostName;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(FetchResponseEncoderBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,144 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.processor.base;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import javax.mail.Flags;
+
+import org.apache.james.imap.api.ImapSessionUtils;
+import org.apache.james.imap.encode.FakeImapSession;
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.MailboxConstants;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.steveash.guavate.Guavate;
+
+/**
+ * Measures the operations {@link SelectedMailboxImpl} performs upon SELECT, FETCH and EXPUNGE on big mailboxes,
+ * on top of the {@link UidMsnConverter} ones measured by {@link UidMsnConverterBenchmark}.
+ *
+ * The mailbox manager is mocked: only the selected mailbox bookkeeping is measured.
+ *
+ * Run it with its main method, or from the shaded benchmark jar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelectedMailboxImplBenchmark {
+
+    private static final MailboxPath INBOX = MailboxPath.forUser("bob@example.org", MailboxConstants.INBOX);
+
+    @Param({"10000", "200000"})
+    public int mailboxSize;
+
+    private List<MessageUid> mailboxUids;
+    private List<MessageUid> expungedUids;
+    private MailboxManager mailboxManager;
+    private FakeImapSession imapSession;
+    private SelectedMailboxImpl selectedMailbox;
+    private SelectedMailboxImpl expungeMailbox;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws MailboxException {
+        mailboxUids = LongStream.rangeClosed(1, mailboxSize)
+            .mapToObj(MessageUid::of)
+            .collect(Guavate.toImmutableList());
+        expungedUids = LongStream.rangeClosed(1, mailboxSize)
+            .filter(uid -> uid % 10 == 0)
+            .mapToObj(MessageUid::of)
+            .collect(Guavate.toImmutableList());
+
+        MessageManager messageManager = mock(MessageManager.class);
+        when(messageManager.getApplicableFlags(any(MailboxSession.class)))
+            .thenAnswer(invocation -> new Flags());
+        when(messageManager.search(any(SearchQuery.class), any(MailboxSession.class)))
+            .thenAnswer(invocation -> mailboxUids.iterator());
+        mailboxManager = mock(MailboxManager.class);
+        when(mailboxManager.getMailbox(eq(INBOX), any(MailboxSession.class)))
+            .thenReturn(messageManager);
+
+        imapSession = new FakeImapSession();
+        imapSession.setAttribute(ImapSessionUtils.MAILBOX_SESSION_ATTRIBUTE_SESSION_KEY, mock(MailboxSession.class));
+
+        selectedMailbox = select();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws MailboxException {
+        expungeMailbox = select();
+    }
+
+    @Benchmark
+    public SelectedMailboxImpl select() throws MailboxException {
+        return new SelectedMailboxImpl(mailboxManager, imapSession, INBOX);
+    }
+
+    @Benchmark
+    public long fetchAllMessageNumbers() {
+        long sum = 0;
+        for (int msn = UidMsnConverter.FIRST_MSN; msn <= mailboxSize; msn++) {
+            sum += selectedMailbox.msn(selectedMailbox.uid(msn).get());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<Integer> expungeTenPercent() {
+        return expungeMailbox.removeAll(expungedUids);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SelectedMailboxImplBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,121 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information       *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.processor.base;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.apache.james.mailbox.MessageUid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.steveash.guavate.Guavate;
+
+/**
+ * Measures the operations performed by {@link UidMsnConverter} upon SELECT, FETCH and EXPUNGE on big mailboxes.
+ *
+ * Run it with its main method, or from the shaded benchmark jar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UidMsnConverterBenchmark {
+
+    @Param({"10000", "200000"})
+    public int mailboxSize;
+
+    private List<MessageUid> mailboxUids;
+    private List<MessageUid> expungedUids;
+    private UidMsnConverter selectedConverter;
+    private UidMsnConverter expungeConverter;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        mailboxUids = LongStream.rangeClosed(1, mailboxSize)
+            .mapToObj(MessageUid::of)
+            .collect(Guavate.toImmutableList());
+        expungedUids = LongStream.rangeClosed(1, mailboxSize)
+            .filter(uid -> uid % 10 == 0)
+            .mapToObj(MessageUid::of)
+            .collect(Guavate.toImmutableList());
+        selectedConverter = new UidMsnConverter();
+        selectedConverter.addAll(mailboxUids);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        expungeConverter = new UidMsnConverter();
+        expungeConverter.addAll(mailboxUids);
+    }
+
+    @Benchmark
+    public UidMsnConverter select() {
+        UidMsnConverter converter = new UidMsnConverter();
+        converter.addAll(mailboxUids);
+        return converter;
+    }
+
+    @Benchmark
+    public UidMsnConverter appendNewMessages() {
+        UidMsnConverter converter = new UidMsnConverter();
+        for (MessageUid uid : mailboxUids) {
+            converter.addUid(uid);
+        }
+        return converter;
+    }
+
+    @Benchmark
+    public int fetchAllMessageNumbers() {
+        int sum = 0;
+        for (int msn = UidMsnConverter.FIRST_MSN; msn <= mailboxSize; msn++) {
+            sum += selectedConverter.getMsn(selectedConverter.getUid(msn).get()).get();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<Integer> expungeTenPercent() {
+        return expungeConverter.removeAll(expungedUids);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(UidMsnConverterBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
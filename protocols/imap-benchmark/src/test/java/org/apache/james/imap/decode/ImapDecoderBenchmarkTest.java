@@ -0,0 +1,95 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.decode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.imap.api.ImapMessage;
+import org.apache.james.imap.api.message.response.StatusResponse;
+import org.apache.james.imap.message.request.AppendRequest;
+import org.apache.james.imap.message.request.FetchRequest;
+import org.apache.james.imap.message.request.SearchRequest;
+import org.apache.james.imap.message.request.StoreRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImapDecoderBenchmarkTest {
+
+    private ImapDecoderBenchmark.Decoder decoder;
+
+    @Before
+    public void setUp() {
+        decoder = new ImapDecoderBenchmark.Decoder();
+        decoder.setUp();
+    }
+
+    @Test
+    public void recordedDesktopSessionShouldDecodeWithoutErrors() throws Exception {
+        assertDecodesWithoutErrors(RecordedImapTraffic.DESKTOP_CLIENT);
+    }
+
+    @Test
+    public void recordedMobileSessionShouldDecodeWithoutErrors() throws Exception {
+        assertDecodesWithoutErrors(RecordedImapTraffic.MOBILE_CLIENT);
+    }
+
+    @Test
+    public void fetchCommandsShouldDecodeAsFetchRequests() throws Exception {
+        assertDecodesAs("FETCH", FetchRequest.class);
+    }
+
+    @Test
+    public void searchCommandsShouldDecodeAsSearchRequests() throws Exception {
+        assertDecodesAs("SEARCH", SearchRequest.class);
+    }
+
+    @Test
+    public void storeCommandsShouldDecodeAsStoreRequests() throws Exception {
+        assertDecodesAs("STORE", StoreRequest.class);
+    }
+
+    @Test
+    public void appendCommandsShouldDecodeAsAppendRequests() throws Exception {
+        assertDecodesAs("APPEND", AppendRequest.class);
+    }
+
+    private void assertDecodesWithoutErrors(String traffic) throws Exception {
+        ImapDecoderBenchmark.RecordedSession session = new ImapDecoderBenchmark.RecordedSession();
+        session.traffic = traffic;
+        session.setUp();
+
+        assertThat(session.commands).isNotEmpty();
+        for (byte[] command : session.commands) {
+            ImapMessage message = decoder.decode(command);
+            assertThat(message).isNotInstanceOf(StatusResponse.class);
+        }
+    }
+
+    private void assertDecodesAs(String commandName, Class<? extends ImapMessage> requestType) throws Exception {
+        ImapDecoderBenchmark.RecordedCommands commands = new ImapDecoderBenchmark.RecordedCommands();
+        commands.commandName = commandName;
+        commands.setUp();
+
+        assertThat(commands.commands).isNotEmpty();
+        for (byte[] command : commands.commands) {
+            assertThat(decoder.decode(command)).isInstanceOf(requestType);
+        }
+    }
+}
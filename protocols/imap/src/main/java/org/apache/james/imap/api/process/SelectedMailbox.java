@@ -20,6 +20,7 @@
 package org.apache.james.imap.api.process;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import javax.mail.Flags;
 
@@ -148,6 +149,17 @@ public interface SelectedMailbox {
      */
     int remove(MessageUid uid);
 
+    /**
+     * Removes the given UIDs at once.
+     *
+     * @param uids
+     *            not null
+     * @return the message sequence numbers that the removed UIDs held, by
+     *         ascending UID order, each of them taking into account the removal
+     *         of the previous ones. UIDs that are not found are ignored
+     */
+    List<Integer> removeAll(Collection<MessageUid> uids);
+
     /**
      * Return a Collection which holds all uids reflecting the Messages which
      * flags were updated
@@ -110,12 +110,12 @@ public class SelectedMailboxImpl implements SelectedMailbox, MailboxListener {
     }
 
     @Override
-    public synchronized Optional<MessageUid> getFirstUid() {
+    public Optional<MessageUid> getFirstUid() {
         return uidMsnConverter.getFirstUid();
     }
 
     @Override
-    public synchronized Optional<MessageUid> getLastUid() {
+    public Optional<MessageUid> getLastUid() {
         return uidMsnConverter.getLastUid();
     }
 
@@ -203,6 +203,11 @@ public class SelectedMailboxImpl implements SelectedMailbox, MailboxListener {
         return result;
     }
 
+    @Override
+    public synchronized List<Integer> removeAll(Collection<MessageUid> uids) {
+        return uidMsnConverter.removeAll(uids);
+    }
+
     private boolean interestingFlags(UpdatedFlags updated) {
         boolean result;
         final Iterator<Flags.Flag> it = updated.systemFlagIterator();
@@ -408,12 +413,12 @@ public class SelectedMailboxImpl implements SelectedMailbox, MailboxListener {
     }
 
     @Override
-    public synchronized int msn(MessageUid uid) {
+    public int msn(MessageUid uid) {
         return uidMsnConverter.getMsn(uid).orElse(NO_SUCH_MESSAGE);
     }
 
     @Override
-    public synchronized Optional<MessageUid> uid(int msn) {
+    public Optional<MessageUid> uid(int msn) {
         if (msn == NO_SUCH_MESSAGE) {
             return Optional.empty();
         }
@@ -423,7 +428,7 @@ public class SelectedMailboxImpl implements SelectedMailbox, MailboxListener {
 
     
     @Override
-    public synchronized long existsCount() {
+    public long existsCount() {
         return uidMsnConverter.getNumMessage();
     }
 }
@@ -19,96 +19,217 @@
 
 package org.apache.james.imap.processor.base;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import org.apache.james.mailbox.MessageUid;
 
-import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 
+/**
+ * Maps message sequence numbers to UIDs for a selected mailbox.
+ *
+ * UIDs are kept sorted in a primitive array, the MSN of a UID being its position in the array plus one. Appending
+ * UIDs greater than the last known one is amortised O(1), MSN lookups are binary searches, and reads can be performed
+ * concurrently.
+ */
 public class UidMsnConverter {
 
     public static final int FIRST_MSN = 1;
+    private static final int INITIAL_CAPACITY = 16;
 
-    @VisibleForTesting final ArrayList<MessageUid> uids;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] uids;
+    private int size;
 
     public UidMsnConverter() {
-        this.uids = Lists.newArrayList();
+        this.uids = new long[INITIAL_CAPACITY];
+        this.size = 0;
     }
 
-    public synchronized void addAll(List<MessageUid> addedUids) {
-        TreeSet<MessageUid> tmp = new TreeSet<>();
-        tmp.addAll(uids);
-        tmp.addAll(addedUids);
-        uids.clear();
-        uids.addAll(tmp);
+    public void addAll(List<MessageUid> addedUids) {
+        long[] added = addedUids.stream()
+            .mapToLong(MessageUid::asLong)
+            .sorted()
+            .distinct()
+            .toArray();
+
+        update(() -> {
+            if (size == 0 || added.length == 0 || added[0] > uids[size - 1]) {
+                ensureCapacity(size + added.length);
+                System.arraycopy(added, 0, uids, size, added.length);
+                size += added.length;
+            } else {
+                merge(added);
+            }
+        });
     }
 
-    public synchronized Optional<Integer> getMsn(MessageUid uid) {
-        int position = Collections.binarySearch(uids, uid);
-        if (position < 0) {
-            return Optional.empty();
+    private void merge(long[] added) {
+        long[] merged = new long[Math.max(INITIAL_CAPACITY, size + added.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size && j < added.length) {
+            if (uids[i] < added[j]) {
+                merged[k++] = uids[i++];
+            } else if (uids[i] > added[j]) {
+                merged[k++] = added[j++];
+            } else {
+                merged[k++] = uids[i++];
+                j++;
+            }
         }
-        return Optional.of(position + 1);
+        while (i < size) {
+            merged[k++] = uids[i++];
+        }
+        while (j < added.length) {
+            merged[k++] = added[j++];
+        }
+        uids = merged;
+        size = k;
     }
 
-    public synchronized Optional<MessageUid> getUid(int msn) {
-        if (msn <= uids.size() && msn > 0) {
-            return Optional.of(uids.get(msn - 1));
-        }
-        return Optional.empty();
+    public Optional<Integer> getMsn(MessageUid uid) {
+        return read(() -> {
+            int position = Arrays.binarySearch(uids, 0, size, uid.asLong());
+            if (position < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(position + 1);
+        });
     }
 
-    public synchronized Optional<MessageUid> getLastUid() {
-        if (uids.isEmpty()) {
-            return Optional.empty();
-        }
-        return getUid(getLastMsn());
+    public Optional<MessageUid> getUid(int msn) {
+        return read(() -> uidAt(msn));
     }
 
-    public synchronized Optional<MessageUid> getFirstUid() {
+    public Optional<MessageUid> getLastUid() {
+        return read(() -> uidAt(size));
+    }
+
+    public Optional<MessageUid> getFirstUid() {
         return getUid(FIRST_MSN);
     }
 
-    public synchronized int getNumMessage() {
-        return uids.size();
+    public int getNumMessage() {
+        return read(() -> size);
     }
 
-    public synchronized void remove(MessageUid uid) {
-        uids.remove(uid);
+    public void remove(MessageUid uid) {
+        update(() -> {
+            int position = Arrays.binarySearch(uids, 0, size, uid.asLong());
+            if (position >= 0) {
+                System.arraycopy(uids, position + 1, uids, position, size - position - 1);
+                size--;
+            }
+        });
     }
 
-    public synchronized boolean isEmpty() {
-        return uids.isEmpty();
+    /**
+     * Removes the given UIDs, compacting the mapping in a single pass.
+     *
+     * @return the message sequence numbers of the removed UIDs, by ascending UID order, as if they were removed one
+     * after the other, which is what EXPUNGE responses expect. UIDs that are not part of the mapping are ignored.
+     */
+    public List<Integer> removeAll(Collection<MessageUid> removedUids) {
+        long[] removed = removedUids.stream()
+            .mapToLong(MessageUid::asLong)
+            .sorted()
+            .distinct()
+            .toArray();
+
+        return write(() -> {
+            ImmutableList.Builder<Integer> msns = ImmutableList.builder();
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                while (j < removed.length && removed[j] < uids[i]) {
+                    j++;
+                }
+                if (j < removed.length && removed[j] == uids[i]) {
+                    msns.add(kept + 1);
+                    j++;
+                } else {
+                    uids[kept++] = uids[i];
+                }
+            }
+            size = kept;
+            return msns.build();
+        });
     }
 
-    public synchronized void clear() {
-        uids.clear();
+    public boolean isEmpty() {
+        return read(() -> size == 0);
     }
 
-    public synchronized void addUid(MessageUid uid) {
-        if (uids.contains(uid)) {
-            return;
+    public void clear() {
+        update(() -> {
+            uids = new long[INITIAL_CAPACITY];
+            size = 0;
+        });
+    }
+
+    public void addUid(MessageUid uid) {
+        long value = uid.asLong();
+        update(() -> {
+            if (size == 0 || uids[size - 1] < value) {
+                ensureCapacity(size + 1);
+                uids[size++] = value;
+                return;
+            }
+            int position = Arrays.binarySearch(uids, 0, size, value);
+            if (position >= 0) {
+                return;
+            }
+            int insertionPoint = -(position + 1);
+            ensureCapacity(size + 1);
+            System.arraycopy(uids, insertionPoint, uids, insertionPoint + 1, size - insertionPoint);
+            uids[insertionPoint] = value;
+            size++;
+        });
+    }
+
+    private Optional<MessageUid> uidAt(int msn) {
+        if (msn <= size && msn > 0) {
+            return Optional.of(MessageUid.of(uids[msn - 1]));
         }
-        if (isLastUid(uid)) {
-            uids.add(uid);
-        } else {
-            uids.add(uid);
-            Collections.sort(uids);
+        return Optional.empty();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > uids.length) {
+            uids = Arrays.copyOf(uids, Math.max(capacity, uids.length * 2));
         }
     }
 
-    private boolean isLastUid(MessageUid uid) {
-        Optional<MessageUid> lastUid = getLastUid();
-        return !lastUid.isPresent() ||
-            lastUid.get().compareTo(uid) < 0;
+    private <T> T read(Supplier<T> supplier) {
+        return withLock(lock.readLock(), supplier);
     }
 
-    private int getLastMsn() {
-        return getNumMessage();
+    private void update(Runnable runnable) {
+        write(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private <T> T write(Supplier<T> supplier) {
+        return withLock(lock.writeLock(), supplier);
+    }
+
+    private <T> T withLock(Lock lock, Supplier<T> supplier) {
+        lock.lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -153,15 +153,10 @@ public class FetchProcessor extends AbstractMailboxProcessor<FetchRequest> {
         FetchGroup resultToFetch = getFetchGroup(fetch);
 
         for (MessageRange range : ranges) {
-            MessageResultIterator messages = mailbox.getMessages(range, resultToFetch, mailboxSession);
+            MessageResultIterator messages = retrieveMessages(mailbox, range, fetch, resultToFetch, mailboxSession);
             while (messages.hasNext()) {
                 final MessageResult result = messages.next();
 
-                //skip unchanged messages - this should be filtered at the mailbox level to take advantage of indexes
-                if (fetch.isModSeq() && result.getModSeq() <= fetch.getChangedSince()) {
-                    continue;
-                }
-
                 try {
                     final FetchResponse response = builder.build(fetch, result, mailbox, session, useUids);
                     responder.respond(response);
@@ -186,6 +181,14 @@ public class FetchProcessor extends AbstractMailboxProcessor<FetchRequest> {
 
     }
 
+    private MessageResultIterator retrieveMessages(MessageManager mailbox, MessageRange range, FetchData fetch, FetchGroup resultToFetch, MailboxSession mailboxSession) throws MailboxException {
+        // skip unchanged messages at the mailbox level to take advantage of indexes
+        if (fetch.isModSeq() && fetch.getChangedSince() != -1) {
+            return mailbox.getMessagesChangedSince(range, fetch.getChangedSince(), resultToFetch, mailboxSession);
+        }
+        return mailbox.getMessages(range, resultToFetch, mailboxSession);
+    }
+
     protected FetchGroup getFetchGroup(FetchData fetch) {
         FetchGroupImpl result = new FetchGroupImpl();
 
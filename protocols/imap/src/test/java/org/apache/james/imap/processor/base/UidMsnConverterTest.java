@@ -429,10 +429,98 @@ public class UidMsnConverterTest {
             .containsExactlyElementsOf(resultBuilder.build().entrySet());
     }
 
+    @Test
+    public void addAllShouldMergeWithExistingUids() {
+        testee.addUid(messageUid1);
+        testee.addUid(messageUid3);
+
+        testee.addAll(ImmutableList.of(messageUid4, messageUid2, messageUid3));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid1,
+                2, messageUid2,
+                3, messageUid3,
+                4, messageUid4));
+    }
+
+    @Test
+    public void addAllShouldAppendWhenGreaterThanLastUid() {
+        testee.addUid(messageUid1);
+
+        testee.addAll(ImmutableList.of(messageUid3, messageUid2));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid1,
+                2, messageUid2,
+                3, messageUid3));
+    }
+
+    @Test
+    public void addUidShouldSupportManyMessages() {
+        int count = 100_000;
+        for (int i = 1; i <= count; i++) {
+            testee.addUid(MessageUid.of(i));
+        }
+
+        assertThat(testee.getNumMessage()).isEqualTo(count);
+        assertThat(testee.getMsn(MessageUid.of(count))).contains(count);
+    }
+
+    @Test
+    public void removeAllShouldReturnSequentialExpungeMessageNumbers() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3, messageUid4));
+
+        assertThat(testee.removeAll(ImmutableList.of(messageUid4, messageUid2, messageUid3)))
+            .containsExactly(2, 2, 2);
+    }
+
+    @Test
+    public void removeAllShouldKeepRemainingUids() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3, messageUid4));
+
+        testee.removeAll(ImmutableList.of(messageUid1, messageUid3));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid2,
+                2, messageUid4));
+    }
+
+    @Test
+    public void removeAllShouldIgnoreUnknownUids() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid3));
+
+        assertThat(testee.removeAll(ImmutableList.of(messageUid2, messageUid3)))
+            .containsExactly(2);
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(1, messageUid1));
+    }
+
+    @Test
+    public void removeAllShouldMatchSuccessiveRemoves() {
+        UidMsnConverter reference = new UidMsnConverter();
+        for (int i = 1; i <= 100; i++) {
+            testee.addUid(MessageUid.of(i));
+            reference.addUid(MessageUid.of(i));
+        }
+        ImmutableList<MessageUid> removed = ImmutableList.of(MessageUid.of(3), MessageUid.of(4), MessageUid.of(50), MessageUid.of(100));
+
+        ImmutableList.Builder<Integer> expected = ImmutableList.builder();
+        for (MessageUid uid : removed) {
+            expected.add(reference.getMsn(uid).get());
+            reference.remove(uid);
+        }
+
+        assertThat(testee.removeAll(removed)).containsExactlyElementsOf(expected.build());
+        assertThat(testee.getNumMessage()).isEqualTo(reference.getNumMessage());
+    }
+
     private Map<Integer, MessageUid> mapTesteeInternalDataToMsnByUid() {
         ImmutableMap.Builder<Integer, MessageUid> result = ImmutableMap.builder();
-        for (int i = 0; i < testee.uids.size(); i++) {
-            result.put(i + 1, testee.uids.get(i));
+        for (int msn = UidMsnConverter.FIRST_MSN; msn <= testee.getNumMessage(); msn++) {
+            result.put(msn, testee.getUid(msn).get());
         }
         return result.build();
     }
@@ -22,7 +22,11 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
@@ -134,10 +138,15 @@ public class DNSRBLHandler implements RcptHook {
             }
             String reversedOctets = sb.toString();
 
+            // Query all the zones at once, results are then checked in the configured order
+            List<CompletableFuture<Boolean>> whitelisted = resolveAll(reversedOctets, whitelist);
+            List<CompletableFuture<Boolean>> blacklisted = resolveAll(reversedOctets, blacklist);
+
             if (whitelist != null) {
                 String[] rblList = whitelist;
-                for (String rbl : rblList) {
-                    if (resolve(reversedOctets + rbl)) {
+                for (int i = 0; i < rblList.length; i++) {
+                    String rbl = rblList[i];
+                    if (whitelisted.get(i).join()) {
                         LOGGER.info("Connection from {} whitelisted by {}", ipAddress, rbl);
                         return;
                     } else {
@@ -148,8 +157,9 @@ public class DNSRBLHandler implements RcptHook {
 
             if (blacklist != null) {
                 String[] rblList = blacklist;
-                for (String rbl : rblList) {
-                    if (resolve(reversedOctets + rbl)) {
+                for (int i = 0; i < rblList.length; i++) {
+                    String rbl = rblList[i];
+                    if (blacklisted.get(i).join()) {
                         LOGGER.info("Connection from {} restricted by {} to SMTP AUTH/postmaster/abuse.", ipAddress, rbl);
 
                         // we should try to retrieve details
@@ -176,6 +186,15 @@ public class DNSRBLHandler implements RcptHook {
             }
         }
     }
+
+    private List<CompletableFuture<Boolean>> resolveAll(String reversedOctets, String[] rblList) {
+        if (rblList == null) {
+            return Collections.emptyList();
+        }
+        return Stream.of(rblList)
+            .map(rbl -> resolveAsync(reversedOctets + rbl))
+            .collect(Collectors.toList());
+    }
     
     @Override
     public HookResult doRcpt(SMTPSession session, MailAddress sender, MailAddress rcpt) {
@@ -222,6 +241,20 @@ public class DNSRBLHandler implements RcptHook {
         }
     }
     
+    /**
+     * Asynchronous version of {@link #resolve(String)}, allowing the lookups against the configured lists to be
+     * performed concurrently.
+     * 
+     * This implementation calls {@link #resolve(String)} in the calling thread. Sub-classes relying on a non
+     * blocking resolver should override it.
+     * 
+     * @param ip
+     * @return a future completed with true if the ip can be resolved
+     */
+    protected CompletableFuture<Boolean> resolveAsync(String ip) {
+        return CompletableFuture.completedFuture(resolve(ip));
+    }
+
     /**
      * Return a {@link Collection} which holds all TXT records for the ip. This is most times used to add details for a RBL entry.
      * 
@@ -30,6 +30,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.protocols.api.ProtocolSession.State;
@@ -261,6 +266,61 @@ public class DNSRBLHandlerTest {
         assertNull(mockedSMTPSession.getAttachment(RBL_DETAIL_MAIL_ATTRIBUTE_NAME, State.Connection));
         assertNull("Not blocked", mockedSMTPSession.getAttachment(RBL_BLOCKLISTED_MAIL_ATTRIBUTE_NAME, State.Connection));
     }
-   
+
+    // all lists are queried before waiting for any answer
+    @Test
+    public void testListsAreQueriedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch allQueried = new CountDownLatch(2);
+        DNSRBLHandler rbl = new DNSRBLHandler() {
+            @Override
+            protected CompletableFuture<Boolean> resolveAsync(String host) {
+                return CompletableFuture.supplyAsync(() -> {
+                    allQueried.countDown();
+                    try {
+                        return allQueried.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        return false;
+                    }
+                }, executor);
+            }
+        };
+
+        try {
+            setRemoteIp("127.0.0.2");
+            setupMockedSMTPSession(new MailAddress("any@domain"));
+
+            rbl.setBlacklist(new String[] { "bl.spamcop.net.", "other.spamcop.net." });
+            rbl.doRcpt(mockedSMTPSession, null, new MailAddress("test@localhost"));
+            assertNotNull("Blocked", mockedSMTPSession.getAttachment(RBL_BLOCKLISTED_MAIL_ATTRIBUTE_NAME, State.Connection));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // the first list of the configuration providing an answer is used
+    @Test
+    public void testBlackListedUsesConfiguredOrder() throws Exception {
+        DNSRBLHandler rbl = new DNSRBLHandler() {
+            @Override
+            protected boolean resolve(String host) {
+                return true;
+            }
+
+            @Override
+            protected Collection<String> resolveTXTRecords(String hostname) {
+                List<String> res = new ArrayList<>();
+                res.add("Blocked by " + hostname);
+                return res;
+            }
+        };
+        setupMockedSMTPSession(new MailAddress("any@domain"));
+
+        rbl.setBlacklist(new String[] { "first.spamcop.net.", "second.spamcop.net." });
+        rbl.setGetDetail(true);
+        rbl.doRcpt(mockedSMTPSession, null, new MailAddress("test@localhost"));
+        assertEquals("Details", "Blocked by 2.0.0.127.first.spamcop.net.",
+               mockedSMTPSession.getAttachment(RBL_DETAIL_MAIL_ATTRIBUTE_NAME, State.Connection));
+    }
 
 }
@@ -0,0 +1,112 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.blob.api;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+public class BlobCacheConfiguration {
+    public static final long DEFAULT_MAX_SIZE_IN_BYTES = 50L * 1024 * 1024;
+    public static final int DEFAULT_MAX_ENTRY_SIZE_IN_BYTES = 64 * 1024;
+
+    public static final BlobCacheConfiguration DEFAULT = builder().build();
+    public static final BlobCacheConfiguration DISABLED = builder().maxSizeInBytes(0).build();
+
+    public static class Builder {
+        private Optional<Long> maxSizeInBytes;
+        private Optional<Integer> maxEntrySizeInBytes;
+
+        private Builder() {
+            maxSizeInBytes = Optional.empty();
+            maxEntrySizeInBytes = Optional.empty();
+        }
+
+        public Builder maxSizeInBytes(long maxSizeInBytes) {
+            Preconditions.checkArgument(maxSizeInBytes >= 0, "'maxSizeInBytes' can not be negative");
+            this.maxSizeInBytes = Optional.of(maxSizeInBytes);
+            return this;
+        }
+
+        public Builder maxSizeInBytes(Optional<Long> maxSizeInBytes) {
+            maxSizeInBytes.ifPresent(this::maxSizeInBytes);
+            return this;
+        }
+
+        public Builder maxEntrySizeInBytes(int maxEntrySizeInBytes) {
+            Preconditions.checkArgument(maxEntrySizeInBytes > 0, "'maxEntrySizeInBytes' needs to be strictly positive");
+            this.maxEntrySizeInBytes = Optional.of(maxEntrySizeInBytes);
+            return this;
+        }
+
+        public Builder maxEntrySizeInBytes(Optional<Integer> maxEntrySizeInBytes) {
+            maxEntrySizeInBytes.ifPresent(this::maxEntrySizeInBytes);
+            return this;
+        }
+
+        public BlobCacheConfiguration build() {
+            return new BlobCacheConfiguration(
+                maxSizeInBytes.orElse(DEFAULT_MAX_SIZE_IN_BYTES),
+                maxEntrySizeInBytes.orElse(DEFAULT_MAX_ENTRY_SIZE_IN_BYTES));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final long maxSizeInBytes;
+    private final int maxEntrySizeInBytes;
+
+    private BlobCacheConfiguration(long maxSizeInBytes, int maxEntrySizeInBytes) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.maxEntrySizeInBytes = maxEntrySizeInBytes;
+    }
+
+    public boolean isEnabled() {
+        return maxSizeInBytes > 0;
+    }
+
+    public long getMaxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    public int getMaxEntrySizeInBytes() {
+        return maxEntrySizeInBytes;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof BlobCacheConfiguration) {
+            BlobCacheConfiguration that = (BlobCacheConfiguration) o;
+
+            return Objects.equals(this.maxSizeInBytes, that.maxSizeInBytes)
+                && Objects.equals(this.maxEntrySizeInBytes, that.maxEntrySizeInBytes);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(maxSizeInBytes, maxEntrySizeInBytes);
+    }
+}
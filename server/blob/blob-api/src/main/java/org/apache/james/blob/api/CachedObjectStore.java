@@ -0,0 +1,108 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.blob.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.james.metrics.api.MetricFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * {@link ObjectStore} decorator keeping the content of small blobs in memory.
+ *
+ * Blob ids are derived from the blob content, hence a blob never changes once stored and cached entries never need
+ * to be invalidated. The cache is bounded by the total size of the content it holds, least recently used blobs being
+ * evicted first. Blobs bigger than the configured entry size are never cached, and neither are empty reads, which
+ * are returned for blobs not stored yet.
+ *
+ * Cached arrays are copied in and out, so that callers modifying the content they were handed do not corrupt the cache.
+ */
+public class CachedObjectStore implements ObjectStore {
+    public static final String HIT_COUNT_METRIC_NAME = "blobCacheHitCount";
+    public static final String MISS_COUNT_METRIC_NAME = "blobCacheMissCount";
+    public static final String EVICTION_COUNT_METRIC_NAME = "blobCacheEvictionCount";
+    public static final String ENTRY_COUNT_METRIC_NAME = "blobCacheEntryCount";
+
+    private final ObjectStore backend;
+    private final int maxEntrySizeInBytes;
+    private final Cache<BlobId, byte[]> cache;
+
+    public CachedObjectStore(ObjectStore backend, BlobCacheConfiguration configuration, MetricFactory metricFactory) {
+        this.backend = backend;
+        this.maxEntrySizeInBytes = configuration.getMaxEntrySizeInBytes();
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(configuration.getMaxSizeInBytes())
+            .weigher((BlobId blobId, byte[] bytes) -> bytes.length)
+            .recordStats()
+            .build();
+
+        metricFactory.gauge(HIT_COUNT_METRIC_NAME, () -> cache.stats().hitCount());
+        metricFactory.gauge(MISS_COUNT_METRIC_NAME, () -> cache.stats().missCount());
+        metricFactory.gauge(EVICTION_COUNT_METRIC_NAME, () -> cache.stats().evictionCount());
+        metricFactory.gauge(ENTRY_COUNT_METRIC_NAME, cache::size);
+    }
+
+    @Override
+    public CompletableFuture<BlobId> save(byte[] data) {
+        return backend.save(data)
+            .thenApply(blobId -> {
+                cacheIfEligible(blobId, data);
+                return blobId;
+            });
+    }
+
+    @Override
+    public CompletableFuture<BlobId> save(InputStream data) {
+        return backend.save(data);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> read(BlobId blobId) {
+        byte[] cachedContent = cache.getIfPresent(blobId);
+        if (cachedContent != null) {
+            return CompletableFuture.completedFuture(cachedContent.clone());
+        }
+        return backend.read(blobId)
+            .thenApply(bytes -> {
+                cacheIfEligible(blobId, bytes);
+                return bytes;
+            });
+    }
+
+    @Override
+    public InputStream readStream(BlobId blobId) {
+        byte[] cachedContent = cache.getIfPresent(blobId);
+        if (cachedContent != null) {
+            return new ByteArrayInputStream(cachedContent);
+        }
+        return backend.readStream(blobId);
+    }
+
+    private void cacheIfEligible(BlobId blobId, byte[] bytes) {
+        if (bytes.length > 0 && bytes.length <= maxEntrySizeInBytes) {
+            cache.put(blobId, bytes.clone());
+        }
+    }
+}
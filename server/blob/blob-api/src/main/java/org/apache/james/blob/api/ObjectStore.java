@@ -18,11 +18,24 @@
  ****************************************************************/
 package org.apache.james.blob.api;
 
+import java.io.InputStream;
 import java.util.concurrent.CompletableFuture;
 
 public interface ObjectStore {
 
     CompletableFuture<BlobId> save(byte[] data);
 
+    /**
+     * Saves the content of the given stream without requiring the caller to
+     * materialize it as a single byte array. The stream is fully consumed before this method returns, but is not closed.
+     */
+    CompletableFuture<BlobId> save(InputStream data);
+
     CompletableFuture<byte[]> read(BlobId blobId);
+
+    /**
+     * Returns a stream over the content of the blob. Content is retrieved lazily, piece by piece,
+     * while the stream is being read. Reading is blocking: do not consume it from an asynchronous callback.
+     */
+    InputStream readStream(BlobId blobId);
 }
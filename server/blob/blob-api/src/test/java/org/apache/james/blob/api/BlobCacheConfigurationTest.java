@@ -0,0 +1,62 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.blob.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class BlobCacheConfigurationTest {
+
+    @Test
+    public void shouldRespectBeanContract() {
+        EqualsVerifier.forClass(BlobCacheConfiguration.class).verify();
+    }
+
+    @Test
+    public void builderShouldUseDefaultValues() {
+        BlobCacheConfiguration configuration = BlobCacheConfiguration.builder().build();
+
+        assertThat(configuration.getMaxSizeInBytes()).isEqualTo(BlobCacheConfiguration.DEFAULT_MAX_SIZE_IN_BYTES);
+        assertThat(configuration.getMaxEntrySizeInBytes()).isEqualTo(BlobCacheConfiguration.DEFAULT_MAX_ENTRY_SIZE_IN_BYTES);
+        assertThat(configuration.isEnabled()).isTrue();
+    }
+
+    @Test
+    public void cacheShouldBeDisabledWhenMaxSizeIsZero() {
+        assertThat(BlobCacheConfiguration.DISABLED.isEnabled()).isFalse();
+    }
+
+    @Test
+    public void maxSizeInBytesShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> BlobCacheConfiguration.builder().maxSizeInBytes(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void maxEntrySizeInBytesShouldThrowOnZero() {
+        assertThatThrownBy(() -> BlobCacheConfiguration.builder().maxEntrySizeInBytes(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -21,12 +21,15 @@ package org.apache.james.blob.api;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Test;
 
 import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
 
 public interface ObjectStoreContract {
 
@@ -36,7 +39,7 @@ public interface ObjectStoreContract {
 
     @Test
     default void saveShouldReturnEmptyWhenNullData() throws Exception {
-        assertThatThrownBy(() -> testee().save(null))
+        assertThatThrownBy(() -> testee().save((byte[]) null))
             .isInstanceOf(NullPointerException.class);
     }
 
@@ -92,4 +95,60 @@ public interface ObjectStoreContract {
 
         assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(bigString);
     }
+
+    @Test
+    default void saveStreamShouldReturnSameBlobIdAsSaveBytes() throws Exception {
+        byte[] data = "toto".getBytes(StandardCharsets.UTF_8);
+
+        BlobId blobId = testee().save(new ByteArrayInputStream(data)).join();
+
+        assertThat(blobId).isEqualTo(testee().save(data).join());
+    }
+
+    @Test
+    default void saveStreamShouldSaveEmptyData() throws Exception {
+        BlobId blobId = testee().save(new ByteArrayInputStream(new byte[0])).join();
+
+        byte[] bytes = testee().read(blobId).join();
+
+        assertThat(bytes).isEmpty();
+    }
+
+    @Test
+    default void readShouldReturnBigSavedStream() throws IOException {
+        // 12 MB of text
+        String bigString = Strings.repeat("0123456789\r\n", 1024 * 1024);
+        BlobId blobId = testee().save(new ByteArrayInputStream(bigString.getBytes(StandardCharsets.UTF_8))).join();
+
+        byte[] bytes = testee().read(blobId).join();
+
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(bigString);
+    }
+
+    @Test
+    default void readStreamShouldBeEmptyWhenNoExisting() throws IOException {
+        InputStream stream = testee().readStream(blobIdFactory().from("unknown"));
+
+        assertThat(ByteStreams.toByteArray(stream)).isEmpty();
+    }
+
+    @Test
+    default void readStreamShouldReturnSavedData() throws IOException {
+        BlobId blobId = testee().save("toto".getBytes(StandardCharsets.UTF_8)).join();
+
+        InputStream stream = testee().readStream(blobId);
+
+        assertThat(new String(ByteStreams.toByteArray(stream), StandardCharsets.UTF_8)).isEqualTo("toto");
+    }
+
+    @Test
+    default void readStreamShouldReturnBigSavedData() throws IOException {
+        // 12 MB of text
+        String bigString = Strings.repeat("0123456789\r\n", 1024 * 1024);
+        BlobId blobId = testee().save(bigString.getBytes(StandardCharsets.UTF_8)).join();
+
+        InputStream stream = testee().readStream(blobId);
+
+        assertThat(new String(ByteStreams.toByteArray(stream), StandardCharsets.UTF_8)).isEqualTo(bigString);
+    }
 }
@@ -24,7 +24,18 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.IntStream;
@@ -32,6 +43,8 @@ import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.backends.cassandra.init.CassandraConfiguration;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
@@ -51,10 +64,11 @@ import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.primitives.Bytes;
 
 public class CassandraBlobsDAO implements ObjectStore {
     private static final Logger LOGGER = LoggerFactory.getLogger(CassandraBlobsDAO.class);
+    private static final int READ_AHEAD_PART_COUNT = 2;
+
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insert;
     private final PreparedStatement insertPart;
@@ -113,14 +127,34 @@ public class CassandraBlobsDAO implements ObjectStore {
         Preconditions.checkNotNull(data);
 
         CassandraBlobId blobId = blobIdFactory.forPayload(data);
-        return saveBlobParts(data, blobId)
+        return saveBlobParts(dataChunker.chunk(data, configuration.getBlobPartSize()), blobId)
             .thenCompose(numberOfChunk -> saveBlobPartsReferences(blobId, numberOfChunk))
             .thenApply(any -> blobId);
     }
 
-    private CompletableFuture<Integer> saveBlobParts(byte[] data, CassandraBlobId blobId) {
+    @Override
+    public CompletableFuture<BlobId> save(InputStream data) {
+        Preconditions.checkNotNull(data);
+
+        try {
+            MessageDigest digest = DigestUtils.getSha256Digest();
+            List<Pair<Integer, ByteBuffer>> chunks = dataChunker.chunk(new DigestInputStream(data, digest), configuration.getBlobPartSize())
+                .collect(Guavate.toImmutableList());
+            CassandraBlobId blobId = blobIdFactory.from(Hex.encodeHexString(digest.digest()));
+
+            return saveBlobParts(chunks.stream(), blobId)
+                .thenCompose(numberOfChunk -> saveBlobPartsReferences(blobId, numberOfChunk))
+                .thenApply(any -> blobId);
+        } catch (IOException e) {
+            CompletableFuture<BlobId> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+            return failure;
+        }
+    }
+
+    private CompletableFuture<Integer> saveBlobParts(Stream<Pair<Integer, ByteBuffer>> chunks, CassandraBlobId blobId) {
         return FluentFutureStream.of(
-            dataChunker.chunk(data, configuration.getBlobPartSize())
+            chunks
                 .map(pair -> writePart(pair.getRight(), blobId, pair.getKey())
                     .thenApply(partId -> Pair.of(pair.getKey(), partId))))
             .completableFuture()
@@ -157,6 +191,21 @@ public class CassandraBlobsDAO implements ObjectStore {
             .thenApply(this::concatenateDataParts);
     }
 
+    @Override
+    public InputStream readStream(BlobId blobId) {
+        int numOfChunk = cassandraAsyncExecutor.executeSingleRow(
+            select.bind()
+                .setString(BlobTable.ID, blobId.asString()))
+            .join()
+            .map(blobRow -> blobRow.getInt(BlobTable.NUMBER_OF_CHUNK))
+            .orElseGet(() -> {
+                LOGGER.warn("Could not retrieve blob metadata for {}", blobId);
+                return 0;
+            });
+
+        return new SequenceInputStream(new BlobPartsEnumeration(blobId, numOfChunk));
+    }
+
     private CompletableFuture<Stream<BlobPart>> toDataParts(Optional<Row> blobRowOptional, BlobId blobId) {
         return blobRowOptional.map(blobRow -> {
             int numOfChunk = blobRow.getInt(BlobTable.NUMBER_OF_CHUNK);
@@ -171,15 +220,24 @@ public class CassandraBlobsDAO implements ObjectStore {
     }
 
     private byte[] concatenateDataParts(Stream<BlobPart> blobParts) {
-        ImmutableList<byte[]> parts = blobParts
-            .map(blobPart -> OptionalUtils.executeIfEmpty(
-                blobPart.row,
-                () -> LOGGER.warn("Missing blob part for blobId {} and position {}", blobPart.blobId, blobPart.position)))
+        ImmutableList<ByteBuffer> parts = blobParts
+            .map(this::logIfMissing)
             .flatMap(OptionalUtils::toStream)
-            .map(this::rowToData)
+            .map(row -> row.getBytes(BlobParts.DATA))
             .collect(Guavate.toImmutableList());
 
-        return Bytes.concat(parts.toArray(new byte[parts.size()][]));
+        int size = parts.stream()
+            .mapToInt(ByteBuffer::remaining)
+            .sum();
+        ByteBuffer result = ByteBuffer.allocate(size);
+        parts.forEach(result::put);
+        return result.array();
+    }
+
+    private Optional<Row> logIfMissing(BlobPart blobPart) {
+        return OptionalUtils.executeIfEmpty(
+            blobPart.row,
+            () -> LOGGER.warn("Missing blob part for blobId {} and position {}", blobPart.blobId, blobPart.position));
     }
 
     private byte[] rowToData(Row row) {
@@ -196,6 +254,45 @@ public class CassandraBlobsDAO implements ObjectStore {
             .thenApply(row -> new BlobPart(blobId, position, row));
     }
 
+    private class BlobPartsEnumeration implements Enumeration<InputStream> {
+        private final BlobId blobId;
+        private final int numOfChunk;
+        private final Deque<CompletableFuture<BlobPart>> readAhead;
+        private int nextPosition;
+
+        private BlobPartsEnumeration(BlobId blobId, int numOfChunk) {
+            this.blobId = blobId;
+            this.numOfChunk = numOfChunk;
+            this.readAhead = new ArrayDeque<>(READ_AHEAD_PART_COUNT);
+            this.nextPosition = 0;
+            fillReadAhead();
+        }
+
+        private void fillReadAhead() {
+            while (nextPosition < numOfChunk && readAhead.size() < READ_AHEAD_PART_COUNT) {
+                readAhead.add(readPart(blobId, nextPosition));
+                nextPosition++;
+            }
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return !readAhead.isEmpty();
+        }
+
+        @Override
+        public InputStream nextElement() {
+            if (readAhead.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            BlobPart blobPart = readAhead.poll().join();
+            fillReadAhead();
+            return logIfMissing(blobPart)
+                .map(row -> (InputStream) new ByteArrayInputStream(rowToData(row)))
+                .orElseGet(() -> new ByteArrayInputStream(new byte[0]));
+        }
+    }
+
     private static class BlobPart {
         private final BlobId blobId;
         private final int position;
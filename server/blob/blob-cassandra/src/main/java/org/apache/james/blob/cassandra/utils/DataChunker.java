@@ -19,13 +19,18 @@
 
 package org.apache.james.blob.cassandra.utils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 
 public class DataChunker {
 
@@ -42,6 +47,26 @@ public class DataChunker {
             lastChunk(data, chunkSize * fullChunkCount, fullChunkCount));
     }
 
+    public Stream<Pair<Integer, ByteBuffer>> chunk(InputStream data, int chunkSize) throws IOException {
+        Preconditions.checkNotNull(data);
+        Preconditions.checkArgument(chunkSize > 0, "ChunkSize can not be negative");
+
+        ImmutableList.Builder<Pair<Integer, ByteBuffer>> chunks = ImmutableList.builder();
+        int index = 0;
+        while (true) {
+            byte[] buffer = new byte[chunkSize];
+            int read = ByteStreams.read(data, buffer, 0, chunkSize);
+            if (read < chunkSize) {
+                if (read > 0 || index == 0) {
+                    chunks.add(Pair.of(index, ByteBuffer.wrap(Arrays.copyOf(buffer, read))));
+                }
+                return chunks.build().stream();
+            }
+            chunks.add(Pair.of(index, ByteBuffer.wrap(buffer)));
+            index++;
+        }
+    }
+
     private Stream<Pair<Integer, ByteBuffer>> lastChunk(byte[] data, int offset, int index) {
         if (offset == data.length && index > 0) {
             return Stream.empty();
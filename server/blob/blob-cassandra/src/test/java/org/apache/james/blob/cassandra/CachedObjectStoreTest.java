@@ -0,0 +1,127 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.blob.cassandra;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.truncate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.DockerCassandraExtension;
+import org.apache.james.backends.cassandra.DockerCassandraExtension.DockerCassandra;
+import org.apache.james.backends.cassandra.init.CassandraConfiguration;
+import org.apache.james.blob.api.BlobCacheConfiguration;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.CachedObjectStore;
+import org.apache.james.blob.api.ObjectStore;
+import org.apache.james.blob.api.ObjectStoreContract;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+@ExtendWith(DockerCassandraExtension.class)
+public class CachedObjectStoreTest implements ObjectStoreContract {
+
+    private static final int MAX_ENTRY_SIZE = 100;
+
+    private CassandraCluster cassandra;
+    private CachedObjectStore testee;
+
+    @BeforeEach
+    public void setUp(DockerCassandra dockerCassandra) {
+        cassandra = CassandraCluster.create(
+                new CassandraBlobModule(), dockerCassandra.getIp(), dockerCassandra.getBindingPort());
+
+        CassandraBlobsDAO blobsDAO = new CassandraBlobsDAO(cassandra.getConf(),
+            CassandraConfiguration.DEFAULT_CONFIGURATION,
+            new CassandraBlobId.Factory());
+        testee = new CachedObjectStore(blobsDAO,
+            BlobCacheConfiguration.builder()
+                .maxEntrySizeInBytes(MAX_ENTRY_SIZE)
+                .build(),
+            new NoopMetricFactory());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cassandra.close();
+    }
+
+    @Override
+    public ObjectStore testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return new CassandraBlobId.Factory();
+    }
+
+    @Test
+    public void readShouldBeServedFromCacheForSmallBlobs() throws Exception {
+        BlobId blobId = testee.save("toto".getBytes(StandardCharsets.UTF_8)).join();
+
+        removeStoredBlobs();
+
+        assertThat(new String(testee.read(blobId).join(), StandardCharsets.UTF_8)).isEqualTo("toto");
+        assertThat(new String(ByteStreams.toByteArray(testee.readStream(blobId)), StandardCharsets.UTF_8)).isEqualTo("toto");
+    }
+
+    @Test
+    public void readShouldNotCacheBlobsBiggerThanTheEntrySizeLimit() throws Exception {
+        BlobId blobId = testee.save(Strings.repeat("0123456789", MAX_ENTRY_SIZE).getBytes(StandardCharsets.UTF_8)).join();
+        testee.read(blobId).join();
+
+        removeStoredBlobs();
+
+        assertThat(testee.read(blobId).join()).isEmpty();
+    }
+
+    @Test
+    public void readShouldNotCacheMissingBlobs() throws Exception {
+        BlobId blobId = new CassandraBlobId.Factory().forPayload("toto".getBytes(StandardCharsets.UTF_8));
+        testee.read(blobId).join();
+
+        testee.save("toto".getBytes(StandardCharsets.UTF_8)).join();
+
+        assertThat(new String(testee.read(blobId).join(), StandardCharsets.UTF_8)).isEqualTo("toto");
+    }
+
+    @Test
+    public void modifyingReadContentShouldNotAlterCachedContent() throws Exception {
+        BlobId blobId = testee.save("toto".getBytes(StandardCharsets.UTF_8)).join();
+
+        testee.read(blobId).join()[0] = 'x';
+
+        assertThat(new String(testee.read(blobId).join(), StandardCharsets.UTF_8)).isEqualTo("toto");
+    }
+
+    private void removeStoredBlobs() {
+        cassandra.getConf().execute(truncate(BlobTable.TABLE_NAME));
+        cassandra.getConf().execute(truncate(BlobTable.BlobParts.TABLE_NAME));
+    }
+}
@@ -19,21 +19,57 @@
 
 package org.apache.james.modules.mailbox;
 
+import java.util.Optional;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.james.backends.cassandra.init.CassandraSessionConfiguration;
+import org.apache.james.blob.api.BlobCacheConfiguration;
 import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.CachedObjectStore;
 import org.apache.james.blob.api.ObjectStore;
 import org.apache.james.blob.cassandra.CassandraBlobId;
 import org.apache.james.blob.cassandra.CassandraBlobsDAO;
+import org.apache.james.metrics.api.MetricFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import com.google.inject.Singleton;
 
 public class CassandraObjectStoreModule extends AbstractModule {
+    private static final String BLOB_CACHE_MAX_SIZE = "blob.cache.max.size.bytes";
+    private static final String BLOB_CACHE_MAX_ENTRY_SIZE = "blob.cache.max.entry.size.bytes";
+
     @Override
     protected void configure() {
         bind(CassandraBlobsDAO.class).in(Scopes.SINGLETON);
         bind(CassandraBlobId.Factory.class).in(Scopes.SINGLETON);
 
-        bind(ObjectStore.class).to(CassandraBlobsDAO.class);
         bind(BlobId.Factory.class).to(CassandraBlobId.Factory.class);
     }
+
+    @Provides
+    @Singleton
+    ObjectStore provideObjectStore(CassandraBlobsDAO blobsDAO, BlobCacheConfiguration cacheConfiguration, MetricFactory metricFactory) {
+        if (cacheConfiguration.isEnabled()) {
+            return new CachedObjectStore(blobsDAO, cacheConfiguration, metricFactory);
+        }
+        return blobsDAO;
+    }
+
+    @VisibleForTesting
+    @Provides
+    @Singleton
+    BlobCacheConfiguration provideBlobCacheConfiguration(CassandraSessionConfiguration sessionConfiguration) throws ConfigurationException {
+        PropertiesConfiguration propertiesConfiguration = sessionConfiguration.getConfiguration();
+
+        return BlobCacheConfiguration.builder()
+            .maxSizeInBytes(Optional.ofNullable(
+                propertiesConfiguration.getLong(BLOB_CACHE_MAX_SIZE, null)))
+            .maxEntrySizeInBytes(Optional.ofNullable(
+                propertiesConfiguration.getInteger(BLOB_CACHE_MAX_ENTRY_SIZE, null)))
+            .build();
+    }
 }
@@ -76,6 +76,9 @@ public class CassandraSessionModule extends AbstractModule {
     private static final String BLOB_PART_SIZE = "mailbox.blob.part.size";
     private static final String ATTACHMENT_V2_MIGRATION_READ_TIMEOUT = "attachment.v2.migration.read.timeout";
     private static final String MESSAGE_ATTACHMENTID_READ_TIMEOUT = "message.attachmentids.read.timeout";
+    private static final String MAILBOX_UID_RANGE_SIZE = "mailbox.uid.range.size";
+    private static final String MAILBOX_MODSEQ_RANGE_SIZE = "mailbox.modseq.range.size";
+    private static final String MAILBOX_RANGE_SINGLE_WRITER = "mailbox.range.single.writer";
     private static final String CASSANDRA_NODES = "cassandra.nodes";
 
     @Override
@@ -167,6 +170,12 @@ public class CassandraSessionModule extends AbstractModule {
                 propertiesConfiguration.getInteger(ATTACHMENT_V2_MIGRATION_READ_TIMEOUT, null)))
             .messageAttachmentIdsReadTimeout(Optional.ofNullable(
                 propertiesConfiguration.getInteger(MESSAGE_ATTACHMENTID_READ_TIMEOUT, null)))
+            .uidRangeSize(Optional.ofNullable(
+                propertiesConfiguration.getInteger(MAILBOX_UID_RANGE_SIZE, null)))
+            .modSeqRangeSize(Optional.ofNullable(
+                propertiesConfiguration.getInteger(MAILBOX_MODSEQ_RANGE_SIZE, null)))
+            .rangeSingleWriter(Optional.ofNullable(
+                propertiesConfiguration.getBoolean(MAILBOX_RANGE_SINGLE_WRITER, null)))
             .build();
     }
 
@@ -19,6 +19,7 @@
 
 package org.apache.james.modules.mailbox;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -27,6 +28,7 @@ import java.util.Optional;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.james.backends.es.AliasName;
+import org.apache.james.backends.es.BulkIndexingConfiguration;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.mailbox.elasticsearch.IndexAttachments;
 import org.apache.james.mailbox.elasticsearch.MailboxElasticSearchConstants;
@@ -48,6 +50,11 @@ public class ElasticSearchConfiguration {
     public static final String ELASTICSEARCH_RETRY_CONNECTION_MIN_DELAY = "elasticsearch.retryConnection.minDelay";
     public static final String ELASTICSEARCH_RETRY_CONNECTION_MAX_RETRIES = "elasticsearch.retryConnection.maxRetries";
     public static final String ELASTICSEARCH_INDEX_ATTACHMENTS = "elasticsearch.indexAttachments";
+    public static final String ELASTICSEARCH_INDEXING_BULK_SIZE = "elasticsearch.indexing.bulk.size";
+    public static final String ELASTICSEARCH_INDEXING_FLUSH_DELAY = "elasticsearch.indexing.flush.delay.ms";
+    public static final String ELASTICSEARCH_INDEXING_BUFFER_SIZE = "elasticsearch.indexing.buffer.size";
+    public static final String ELASTICSEARCH_INDEXING_MAX_RETRIES = "elasticsearch.indexing.retries";
+    public static final String ELASTICSEARCH_INDEXING_RETRY_DELAY = "elasticsearch.indexing.retry.delay.ms";
 
     public static final int DEFAULT_CONNECTION_MAX_RETRIES = 7;
     public static final int DEFAULT_CONNECTION_MIN_DELAY = 3000;
@@ -67,7 +74,8 @@ public class ElasticSearchConfiguration {
         DEFAULT_NB_REPLICA,
         DEFAULT_CONNECTION_MIN_DELAY,
         DEFAULT_CONNECTION_MAX_RETRIES,
-        IndexAttachments.YES);
+        IndexAttachments.YES,
+        BulkIndexingConfiguration.DEFAULT);
 
     public static ElasticSearchConfiguration fromProperties(PropertiesConfiguration configuration) throws ConfigurationException {
         int nbShards = configuration.getInt(ELASTICSEARCH_NB_SHARDS, DEFAULT_NB_SHARDS);
@@ -76,6 +84,7 @@ public class ElasticSearchConfiguration {
         int minDelay = configuration.getInt(ELASTICSEARCH_RETRY_CONNECTION_MIN_DELAY, DEFAULT_CONNECTION_MIN_DELAY);
         IndexAttachments indexAttachments = provideIndexAttachments(configuration);
         ImmutableList<Host> hosts = getHosts(configuration);
+        BulkIndexingConfiguration bulkIndexingConfiguration = getBulkIndexingConfiguration(configuration);
 
         AliasName readAlias = Optional.ofNullable(configuration.getString(ELASTICSEARCH_ALIAS_READ_NAME))
             .map(AliasName::new)
@@ -96,7 +105,18 @@ public class ElasticSearchConfiguration {
             nbReplica,
             minDelay,
             maxRetries,
-            indexAttachments);
+            indexAttachments,
+            bulkIndexingConfiguration);
+    }
+
+    private static BulkIndexingConfiguration getBulkIndexingConfiguration(PropertiesConfiguration configuration) {
+        return BulkIndexingConfiguration.builder()
+            .bulkSize(configuration.getInt(ELASTICSEARCH_INDEXING_BULK_SIZE, BulkIndexingConfiguration.DEFAULT_BULK_SIZE))
+            .flushDelay(Duration.ofMillis(configuration.getLong(ELASTICSEARCH_INDEXING_FLUSH_DELAY, BulkIndexingConfiguration.DEFAULT_FLUSH_DELAY.toMillis())))
+            .bufferSize(configuration.getInt(ELASTICSEARCH_INDEXING_BUFFER_SIZE, BulkIndexingConfiguration.DEFAULT_BUFFER_SIZE))
+            .maxRetries(configuration.getInt(ELASTICSEARCH_INDEXING_MAX_RETRIES, BulkIndexingConfiguration.DEFAULT_MAX_RETRIES))
+            .retryDelay(Duration.ofMillis(configuration.getLong(ELASTICSEARCH_INDEXING_RETRY_DELAY, BulkIndexingConfiguration.DEFAULT_RETRY_DELAY.toMillis())))
+            .build();
     }
 
     private static IndexAttachments provideIndexAttachments(PropertiesConfiguration configuration) {
@@ -150,10 +170,12 @@ public class ElasticSearchConfiguration {
     private final int minDelay;
     private final int maxRetries;
     private final IndexAttachments indexAttachment;
+    private final BulkIndexingConfiguration bulkIndexingConfiguration;
 
     public ElasticSearchConfiguration(ImmutableList<Host> hosts, IndexName indexName, AliasName readAliasName,
                                       AliasName writeAliasName, int nbShards, int nbReplica, int minDelay,
-                                      int maxRetries, IndexAttachments indexAttachment) {
+                                      int maxRetries, IndexAttachments indexAttachment,
+                                      BulkIndexingConfiguration bulkIndexingConfiguration) {
         this.hosts = hosts;
         this.indexName = indexName;
         this.readAliasName = readAliasName;
@@ -163,6 +185,7 @@ public class ElasticSearchConfiguration {
         this.minDelay = minDelay;
         this.maxRetries = maxRetries;
         this.indexAttachment = indexAttachment;
+        this.bulkIndexingConfiguration = bulkIndexingConfiguration;
     }
 
     public ImmutableList<Host> getHosts() {
@@ -201,6 +224,10 @@ public class ElasticSearchConfiguration {
         return indexAttachment;
     }
 
+    public BulkIndexingConfiguration getBulkIndexingConfiguration() {
+        return bulkIndexingConfiguration;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof ElasticSearchConfiguration) {
@@ -214,7 +241,8 @@ public class ElasticSearchConfiguration {
                 && Objects.equals(this.hosts, that.hosts)
                 && Objects.equals(this.indexName, that.indexName)
                 && Objects.equals(this.readAliasName, that.readAliasName)
-                && Objects.equals(this.writeAliasName, that.writeAliasName);
+                && Objects.equals(this.writeAliasName, that.writeAliasName)
+                && Objects.equals(this.bulkIndexingConfiguration, that.bulkIndexingConfiguration);
         }
         return false;
     }
@@ -222,6 +250,6 @@ public class ElasticSearchConfiguration {
     @Override
     public final int hashCode() {
         return Objects.hash(hosts, indexName, readAliasName, writeAliasName, nbShards,
-            nbReplica, minDelay, maxRetries, indexAttachment);
+            nbReplica, minDelay, maxRetries, indexAttachment, bulkIndexingConfiguration);
     }
 }
@@ -29,8 +29,10 @@ import javax.inject.Singleton;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.james.backends.es.AliasName;
+import org.apache.james.backends.es.BulkIndexingConfiguration;
 import org.apache.james.backends.es.ClientProviderImpl;
 import org.apache.james.backends.es.ElasticSearchConstants;
+import org.apache.james.backends.es.ElasticSearchIndexingPipeline;
 import org.apache.james.backends.es.IndexCreationFactory;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.NodeMappingFactory;
@@ -61,6 +63,7 @@ public class ElasticSearchMailboxModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(TypeName.class).toInstance(MailboxElasticSearchConstants.MESSAGE_TYPE);
+        bind(ElasticSearchIndexingPipeline.class).in(Scopes.SINGLETON);
         bind(ElasticSearchListeningMessageSearchIndex.class).in(Scopes.SINGLETON);
         bind(MessageSearchIndex.class).to(ElasticSearchListeningMessageSearchIndex.class);
         bind(ListeningMessageSearchIndex.class).to(ElasticSearchListeningMessageSearchIndex.class);
@@ -129,6 +132,12 @@ public class ElasticSearchMailboxModule extends AbstractModule {
             MailboxMappingFactory.getMappingContent());
     }
 
+    @Provides
+    @Singleton
+    protected BulkIndexingConfiguration provideBulkIndexingConfiguration(ElasticSearchConfiguration configuration) {
+        return configuration.getBulkIndexingConfiguration();
+    }
+
     @Provides
     @Singleton
     public IndexAttachments provideIndexAttachments(ElasticSearchConfiguration configuration) {
@@ -0,0 +1,68 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.modules.mailbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.james.blob.api.BlobCacheConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CassandraObjectStoreModuleTest {
+
+    private CassandraObjectStoreModule cassandraObjectStoreModule;
+
+    @Before
+    public void setUp() {
+        cassandraObjectStoreModule = new CassandraObjectStoreModule();
+    }
+
+    @Test
+    public void provideBlobCacheConfigurationShouldReturnDefaultOnEmptyConfigurationFile() throws ConfigurationException {
+        BlobCacheConfiguration configuration = cassandraObjectStoreModule.provideBlobCacheConfiguration(PropertiesConfiguration::new);
+
+        assertThat(configuration).isEqualTo(BlobCacheConfiguration.DEFAULT);
+    }
+
+    @Test
+    public void provideBlobCacheConfigurationShouldReturnRightConfigurationFile() throws ConfigurationException {
+        BlobCacheConfiguration configuration = cassandraObjectStoreModule.provideBlobCacheConfiguration(
+            () -> new PropertiesConfiguration(ClassLoader.getSystemResource("modules/mailbox/cassandra.properties")));
+
+        assertThat(configuration)
+            .isEqualTo(BlobCacheConfiguration.builder()
+                .maxSizeInBytes(13)
+                .maxEntrySizeInBytes(14)
+                .build());
+    }
+
+    @Test
+    public void provideBlobCacheConfigurationShouldAllowDisablingTheCache() throws ConfigurationException {
+        PropertiesConfiguration propertiesConfiguration = new PropertiesConfiguration();
+        propertiesConfiguration.addProperty("blob.cache.max.size.bytes", "0");
+
+        BlobCacheConfiguration configuration = cassandraObjectStoreModule.provideBlobCacheConfiguration(() -> propertiesConfiguration);
+
+        assertThat(configuration.isEnabled()).isFalse();
+    }
+}
@@ -22,11 +22,13 @@ package org.apache.james.modules.mailbox;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.james.backends.es.AliasName;
+import org.apache.james.backends.es.BulkIndexingConfiguration;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.mailbox.elasticsearch.IndexAttachments;
 import org.apache.james.mailbox.elasticsearch.MailboxElasticSearchConstants;
@@ -230,6 +232,39 @@ public class ElasticSearchConfigurationTest {
             .isEqualTo(IndexAttachments.NO);
     }
 
+    @Test
+    public void getBulkIndexingConfigurationShouldReturnConfiguredValues() throws ConfigurationException {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.indexing.bulk.size", 50);
+        configuration.addProperty("elasticsearch.indexing.flush.delay.ms", 20);
+        configuration.addProperty("elasticsearch.indexing.buffer.size", 500);
+        configuration.addProperty("elasticsearch.indexing.retries", 5);
+        configuration.addProperty("elasticsearch.indexing.retry.delay.ms", 200);
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchConfiguration elasticSearchConfiguration = ElasticSearchConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkIndexingConfiguration())
+            .isEqualTo(BulkIndexingConfiguration.builder()
+                .bulkSize(50)
+                .flushDelay(Duration.ofMillis(20))
+                .bufferSize(500)
+                .maxRetries(5)
+                .retryDelay(Duration.ofMillis(200))
+                .build());
+    }
+
+    @Test
+    public void getBulkIndexingConfigurationShouldReturnDefaultValueWhenMissing() throws ConfigurationException {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchConfiguration elasticSearchConfiguration = ElasticSearchConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkIndexingConfiguration())
+            .isEqualTo(BulkIndexingConfiguration.DEFAULT);
+    }
+
     @Test
     public void getIndexAttachmentShouldReturnDefaultValueWhenMissing() throws ConfigurationException {
         PropertiesConfiguration configuration = new PropertiesConfiguration();
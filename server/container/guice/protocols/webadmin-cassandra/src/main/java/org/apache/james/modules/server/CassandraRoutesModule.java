@@ -25,6 +25,7 @@ import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionManage
 import org.apache.james.backends.cassandra.versions.SchemaVersion;
 import org.apache.james.mailbox.cassandra.mail.migration.AttachmentMessageIdCreation;
 import org.apache.james.mailbox.cassandra.mail.migration.AttachmentV2Migration;
+import org.apache.james.mailbox.cassandra.mail.migration.MessageModSeqIndexCreation;
 import org.apache.james.webadmin.Routes;
 import org.apache.james.webadmin.routes.CassandraMailboxMergingRoutes;
 import org.apache.james.webadmin.routes.CassandraMigrationRoutes;
@@ -39,6 +40,7 @@ public class CassandraRoutesModule extends AbstractModule {
     private static final SchemaVersion FROM_V2_TO_V3 = new SchemaVersion(2);
     private static final SchemaVersion FROM_V3_TO_V4 = new SchemaVersion(3);
     private static final SchemaVersion FROM_V4_TO_V5 = new SchemaVersion(4);
+    private static final SchemaVersion FROM_V5_TO_V6 = new SchemaVersion(5);
 
     @Override
     protected void configure() {
@@ -54,6 +56,7 @@ public class CassandraRoutesModule extends AbstractModule {
         allMigrationClazzBinder.addBinding(FROM_V2_TO_V3).toInstance(() -> Migration.Result.COMPLETED);
         allMigrationClazzBinder.addBinding(FROM_V3_TO_V4).to(AttachmentV2Migration.class);
         allMigrationClazzBinder.addBinding(FROM_V4_TO_V5).to(AttachmentMessageIdCreation.class);
+        allMigrationClazzBinder.addBinding(FROM_V5_TO_V6).to(MessageModSeqIndexCreation.class);
 
         bind(SchemaVersion.class)
             .annotatedWith(Names.named(CassandraMigrationService.LATEST_VERSION))
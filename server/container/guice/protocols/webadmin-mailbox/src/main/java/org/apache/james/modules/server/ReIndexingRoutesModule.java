@@ -0,0 +1,56 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.server;
+
+import java.io.FileNotFoundException;
+
+import org.apache.james.filesystem.api.FileSystem;
+import org.apache.james.mailbox.indexer.FileReIndexingCursorRepository;
+import org.apache.james.mailbox.indexer.ReIndexingCursorRepository;
+import org.apache.james.mailbox.indexer.ReIndexingTaskRunner;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.routes.ReIndexingRoutes;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Scopes;
+import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
+
+/**
+ * Requires a {@link org.apache.james.mailbox.store.search.ListeningMessageSearchIndex} to be bound.
+ */
+public class ReIndexingRoutesModule extends AbstractModule {
+    private static final String CURSOR_FILE = FileSystem.FILE_PROTOCOL_AND_VAR + "reindexing/cursor";
+
+    @Override
+    protected void configure() {
+        bind(ReIndexingTaskRunner.class).in(Scopes.SINGLETON);
+
+        Multibinder<Routes> routesMultibinder = Multibinder.newSetBinder(binder(), Routes.class);
+        routesMultibinder.addBinding().to(ReIndexingRoutes.class);
+    }
+
+    @Provides
+    @Singleton
+    ReIndexingCursorRepository provideReIndexingCursorRepository(FileSystem fileSystem) throws FileNotFoundException {
+        return new FileReIndexingCursorRepository(fileSystem.getFile(CURSOR_FILE));
+    }
+}
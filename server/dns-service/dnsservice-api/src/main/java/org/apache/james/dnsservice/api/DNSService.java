@@ -21,6 +21,7 @@ package org.apache.james.dnsservice.api;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides abstraction for DNS resolutions. The interface is Mail specific. It
@@ -94,4 +95,47 @@ public interface DNSService {
      */
     String getHostName(InetAddress addr);
 
+    /**
+     * Non blocking version of {@link #findMXRecords(String)}.
+     *
+     * The returned future fails with a {@link TemporaryResolutionException} on temporary problems.
+     *
+     * The default implementation resolves in the calling thread. Implementations performing network I/O
+     * should override it so that several lookups can be run concurrently.
+     */
+    default CompletableFuture<Collection<String>> findMXRecordsAsync(String hostname) {
+        return DNSServiceFutures.resolve(() -> findMXRecords(hostname));
+    }
+
+    /**
+     * Non blocking version of {@link #findTXTRecords(String)}.
+     *
+     * The default implementation resolves in the calling thread.
+     */
+    default CompletableFuture<Collection<String>> findTXTRecordsAsync(String hostname) {
+        return DNSServiceFutures.resolve(() -> findTXTRecords(hostname));
+    }
+
+    /**
+     * Non blocking version of {@link #getAllByName(String)}.
+     *
+     * The returned future fails with an {@link UnknownHostException} if the host can not be resolved.
+     *
+     * The default implementation resolves in the calling thread.
+     */
+    default CompletableFuture<Collection<InetAddress>> getAllByNameAsync(String host) {
+        return DNSServiceFutures.resolve(() -> getAllByName(host));
+    }
+
+    /**
+     * Non blocking version of {@link #getByName(String)}.
+     *
+     * The returned future fails with an {@link UnknownHostException} if the host can not be resolved.
+     *
+     * The default implementation resolves in the calling thread.
+     */
+    default CompletableFuture<InetAddress> getByNameAsync(String host) {
+        return DNSServiceFutures.resolve(() -> getByName(host));
+    }
+
 }
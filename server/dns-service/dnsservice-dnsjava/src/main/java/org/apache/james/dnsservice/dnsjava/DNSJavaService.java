@@ -24,10 +24,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.apache.commons.configuration.ConfigurationException;
@@ -53,17 +63,24 @@ import org.xbill.DNS.Record;
 import org.xbill.DNS.Resolver;
 import org.xbill.DNS.ResolverConfig;
 import org.xbill.DNS.ReverseMap;
+import org.xbill.DNS.SOARecord;
 import org.xbill.DNS.TXTRecord;
 import org.xbill.DNS.TextParseException;
 import org.xbill.DNS.Type;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Provides DNS client functionality to services running inside James
  */
 public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DNSJavaService.class);
+    private static final int DEFAULT_RESULT_CACHE_SIZE = 10000;
+    private static final long DEFAULT_RESULT_CACHE_TTL_IN_SECONDS = 60;
+    private static final int DEFAULT_RESOLVER_THREADS = 16;
 
     /**
      * A resolver instance used to retrieve DNS records. This is a reference to
@@ -100,9 +117,33 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
     private Name[] searchPaths = null;
 
     /**
-     * The MX Comparator used in the MX sort.
+     * Maximum number of resolved MX and address results to keep, on top of the DNSJava record cache.
      */
-    private final Comparator<MXRecord> mxComparator = new MXRecordComparator();
+    private int resultCacheSize = DEFAULT_RESULT_CACHE_SIZE;
+
+    /**
+     * Upper bound on how long resolved MX and address results, including negative ones, are kept. Each result
+     * is also bounded by the TTL of its records, or by the negative TTL of its zone for negative answers.
+     * 0 disables result caching.
+     */
+    private long resultCacheTtlInSeconds = DEFAULT_RESULT_CACHE_TTL_IN_SECONDS;
+
+    /**
+     * Number of threads used to run asynchronous lookups.
+     */
+    private int resolverThreads = DEFAULT_RESOLVER_THREADS;
+
+    /**
+     * MX targets of a domain, grouped by ascending priority. An empty list records a domain without MX records.
+     */
+    private com.google.common.cache.Cache<String, CachedResult<ImmutableList<ImmutableList<String>>>> mxCache;
+
+    /**
+     * A records of a host. An empty list records a host known not to resolve.
+     */
+    private com.google.common.cache.Cache<String, CachedResult<ImmutableList<InetAddress>>> addressCache;
+
+    private ExecutorService resolverExecutor;
 
     /**
      * If true register this service as the default resolver/cache for DNSJava
@@ -177,6 +218,17 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         dnsCredibility = authoritative ? Credibility.AUTH_ANSWER : Credibility.NONAUTH_ANSWER;
 
         maxCacheSize = configuration.getInt("maxcachesize", maxCacheSize);
+
+        resultCacheSize = configuration.getInt("resultcachesize", resultCacheSize);
+        resultCacheTtlInSeconds = configuration.getLong("resultcachettl", resultCacheTtlInSeconds);
+        if (resultCacheSize < 0 || resultCacheTtlInSeconds < 0) {
+            throw new ConfigurationException("resultcachesize and resultcachettl should be positive or zero");
+        }
+
+        resolverThreads = configuration.getInt("resolverthreads", resolverThreads);
+        if (resolverThreads < 1) {
+            throw new ConfigurationException("resolverthreads should be strictly positive");
+        }
     }
 
     @PostConstruct
@@ -211,6 +263,17 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         cache = new Cache(DClass.IN);
         cache.setMaxEntries(maxCacheSize);
 
+        mxCache = newResultCache();
+        addressCache = newResultCache();
+        metricFactory.gauge("dnsMXCacheHitRate", () -> mxCache.stats().hitRate());
+        metricFactory.gauge("dnsAddressCacheHitRate", () -> addressCache.stats().hitRate());
+
+        resolverExecutor = Executors.newFixedThreadPool(resolverThreads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("dns-resolver-%d")
+                .setDaemon(true)
+                .build());
+
         if (setAsDNSJavaDefault) {
             Lookup.setDefaultResolver(resolver);
             Lookup.setDefaultCache(cache, DClass.IN);
@@ -230,6 +293,103 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         LOGGER.debug("DNSService ...init end");
     }
 
+    @PreDestroy
+    public void destroy() {
+        if (resolverExecutor != null) {
+            resolverExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * A result together with the instant it stops being valid, as record TTLs differ from one entry to another.
+     */
+    private static class CachedResult<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private CachedResult(V value, long ttlInSeconds) {
+            this.value = value;
+            this.expiresAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlInSeconds);
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
+    }
+
+    private <V> com.google.common.cache.Cache<String, CachedResult<V>> newResultCache() {
+        return CacheBuilder.newBuilder()
+            .maximumSize(resultCacheSize)
+            .expireAfterWrite(resultCacheTtlInSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    }
+
+    private static String cacheKey(String name) {
+        return name.toLowerCase(Locale.US);
+    }
+
+    private <V> Optional<V> getCachedResult(com.google.common.cache.Cache<String, CachedResult<V>> resultCache, String key) {
+        CachedResult<V> cached = resultCache.getIfPresent(key);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (cached.isExpired()) {
+            resultCache.asMap().remove(key, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached.value);
+    }
+
+    private <V> Optional<V> peekCachedResult(com.google.common.cache.Cache<String, CachedResult<V>> resultCache, String key) {
+        return Optional.ofNullable(resultCache.asMap().get(key))
+            .filter(cached -> !cached.isExpired())
+            .map(cached -> cached.value);
+    }
+
+    private <V> void cacheResult(com.google.common.cache.Cache<String, CachedResult<V>> resultCache, String key, V value, long ttlInSeconds) {
+        long effectiveTtlInSeconds = Math.min(ttlInSeconds, resultCacheTtlInSeconds);
+        if (effectiveTtlInSeconds > 0) {
+            resultCache.put(key, new CachedResult<>(value, effectiveTtlInSeconds));
+        }
+    }
+
+    /**
+     * A positive answer is valid as long as its shortest lived record. A negative answer is valid for the negative
+     * TTL of its zone.
+     */
+    private long resultTtlInSeconds(String name, Record[] answers) {
+        if (answers == null) {
+            return negativeTtlInSeconds(name);
+        }
+        return Arrays.stream(answers)
+            .mapToLong(Record::getTTL)
+            .min()
+            .orElse(0);
+    }
+
+    /**
+     * Negative answers are kept for the minimum of the TTL and of the MINIMUM field of the SOA of the closest
+     * enclosing zone (RFC 2308). This SOA is usually already in the DNSJava record cache. When it can not be
+     * found, the configured result TTL applies.
+     */
+    private long negativeTtlInSeconds(String name) {
+        try {
+            Name current = Name.fromString(name, Name.root);
+            while (current.labels() > 1) {
+                Record[] records = lookup(current.toString(), Type.SOA, "SOA");
+                if (records != null && records.length > 0 && records[0] instanceof SOARecord) {
+                    SOARecord soa = (SOARecord) records[0];
+                    return Math.min(soa.getTTL(), soa.getMinimum());
+                }
+                current = new Name(current, 1);
+            }
+        } catch (TextParseException | TemporaryResolutionException e) {
+            LOGGER.debug("Could not find the negative TTL of {}", name, e);
+        }
+        return resultCacheTtlInSeconds;
+    }
+
     /**
      * Return the list of DNS servers in use by this service
      *
@@ -250,79 +410,58 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
     }
 
     /**
-     * Return a prioritized unmodifiable list of MX records obtained from the
-     * server.
+     * Return the MX targets of the domain, grouped by ascending priority.
+     * Results, including the absence of MX records, are cached.
      *
      * @param hostname domain name to look up
-     * @return a list of MX records corresponding to this mail domain
+     * @return the MX targets corresponding to this mail domain, grouped by priority
      * @throws TemporaryResolutionException get thrown on temporary problems
      */
-    private List<String> findMXRecordsRaw(String hostname) throws TemporaryResolutionException {
-        Record[] answers = lookup(hostname, Type.MX, "MX");
-        List<String> servers = new ArrayList<>();
-        if (answers == null) {
-            return servers;
+    private ImmutableList<ImmutableList<String>> findMXRecordsByPriority(String hostname) throws TemporaryResolutionException {
+        String key = cacheKey(hostname);
+        Optional<ImmutableList<ImmutableList<String>>> cached = getCachedResult(mxCache, key);
+        if (cached.isPresent()) {
+            return cached.get();
         }
 
-        MXRecord[] mxAnswers = new MXRecord[answers.length];
+        Record[] answers = lookup(hostname, Type.MX, "MX");
+        ImmutableList<ImmutableList<String>> groups = groupByPriority(answers);
+        cacheResult(mxCache, key, groups, resultTtlInSeconds(hostname, answers));
+        return groups;
+    }
 
-        for (int i = 0; i < answers.length; i++) {
-            mxAnswers[i] = (MXRecord) answers[i];
+    private ImmutableList<ImmutableList<String>> groupByPriority(Record[] answers) {
+        if (answers == null) {
+            return ImmutableList.of();
         }
-        // just sort for now.. This will ensure that mx records with same prio
-        // are in sequence
-        Arrays.sort(mxAnswers, mxComparator);
-
-        // now add the mx records to the right list and take care of shuffle
-        // mx records with the same priority
-        int currentPrio = -1;
-        List<String> samePrio = new ArrayList<>();
-        for (int i = 0; i < mxAnswers.length; i++) {
-            boolean same = false;
-            boolean lastItem = i + 1 == mxAnswers.length;
-            MXRecord mx = mxAnswers[i];
-            if (i == 0) {
-                currentPrio = mx.getPriority();
-            } else {
-                same = currentPrio == mx.getPriority();
-            }
-
-            String mxRecord = mx.getTarget().toString();
-            if (same) {
-                samePrio.add(mxRecord);
-            } else {
-                // shuffle entries with same prio
-                // JAMES-913
-                Collections.shuffle(samePrio);
-                servers.addAll(samePrio);
-
-                samePrio.clear();
-                samePrio.add(mxRecord);
+        TreeMap<Integer, List<String>> targetsByPriority = Arrays.stream(answers)
+            .map(MXRecord.class::cast)
+            .collect(Collectors.groupingBy(MXRecord::getPriority, TreeMap::new,
+                Collectors.mapping(mx -> mx.getTarget().toString(), Collectors.toList())));
 
-            }
+        LOGGER.debug("Found MX records {}", targetsByPriority);
 
-            if (lastItem) {
-                // shuffle entries with same prio
-                // JAMES-913
-                Collections.shuffle(samePrio);
-                servers.addAll(samePrio);
-            }
-            LOGGER.debug("Found MX record {}", mxRecord);
-        }
-        return servers;
+        ImmutableList.Builder<ImmutableList<String>> groups = ImmutableList.builder();
+        targetsByPriority.values().forEach(targets -> groups.add(ImmutableList.copyOf(targets)));
+        return groups.build();
     }
 
     @Override
     public Collection<String> findMXRecords(String hostname) throws TemporaryResolutionException {
         TimeMetric timeMetric = metricFactory.timer("findMXRecords");
-        List<String> servers = new ArrayList<>();
         try {
-            servers = findMXRecordsRaw(hostname);
-            return Collections.unmodifiableCollection(servers);
-        } finally {
+            List<String> servers = new ArrayList<>();
+            for (List<String> samePrio : findMXRecordsByPriority(hostname)) {
+                // shuffle entries with same prio
+                // JAMES-913
+                List<String> shuffled = new ArrayList<>(samePrio);
+                Collections.shuffle(shuffled);
+                servers.addAll(shuffled);
+            }
+
             // If we found no results, we'll add the original domain name if
             // it's a valid DNS entry
-            if (servers.size() == 0) {
+            if (servers.isEmpty()) {
                 LOGGER.info("Couldn't resolve MX records for domain {}.", hostname);
                 try {
                     getByName(hostname);
@@ -334,6 +473,8 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
                     LOGGER.error("Couldn't resolve IP address for host {}.", hostname, uhe);
                 }
             }
+            return Collections.unmodifiableCollection(servers);
+        } finally {
             timeMetric.stopAndPublish();
         }
     }
@@ -388,23 +529,6 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         }
     }
 
-    /*
-     * RFC 2821 section 5 requires that we sort the MX records by their
-     * preference. Reminder for maintainers: the return value on a Comparator
-     * can be counter-intuitive for those who aren't used to the old C strcmp
-     * function:
-     * 
-     * < 0 ==> a < b = 0 ==> a = b > 0 ==> a > b
-     */
-    private static class MXRecordComparator implements Comparator<MXRecord> {
-        @Override
-        public int compare(MXRecord a, MXRecord b) {
-            int pa = a.getPriority();
-            int pb = b.getPriority();
-            return pa - pb;
-        }
-    }
-
     /*
      * java.net.InetAddress.get[All]ByName(String) allows an IP literal to be
      * passed, and will recognize it even with a trailing '.'. However,
@@ -444,14 +568,10 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
 
             return org.xbill.DNS.Address.getByAddress(name);
         } catch (UnknownHostException e) {
-            Record[] records = lookupNoException(name, Type.A, "A");
-
-            if (records != null && records.length >= 1) {
-                ARecord a = (ARecord) records[0];
-                return InetAddress.getByAddress(name, a.getAddress().getAddress());
-            } else {
-                throw e;
-            }
+            return resolveARecords(name)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> e);
         } finally {
             timeMetric.stopAndPublish();
         }
@@ -470,23 +590,99 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
             InetAddress addr = org.xbill.DNS.Address.getByAddress(name);
             return ImmutableList.of(addr);
         } catch (UnknownHostException e) {
-            Record[] records = lookupNoException(name, Type.A, "A");
-
-            if (records != null && records.length >= 1) {
-                InetAddress[] addrs = new InetAddress[records.length];
-                for (int i = 0; i < records.length; i++) {
-                    ARecord a = (ARecord) records[i];
-                    addrs[i] = InetAddress.getByAddress(name, a.getAddress().getAddress());
-                }
-                return ImmutableList.copyOf(addrs);
-            } else {
+            ImmutableList<InetAddress> addresses = resolveARecords(name);
+            if (addresses.isEmpty()) {
                 throw e;
             }
+            return addresses;
         } finally {
             timeMetric.stopAndPublish();
         }
     }
 
+    /**
+     * Resolves the A records of the given name. Results, including hosts known not to resolve, are cached.
+     * Temporary failures are reported as an empty list and are not cached.
+     */
+    private ImmutableList<InetAddress> resolveARecords(String name) throws UnknownHostException {
+        String key = cacheKey(name);
+        Optional<ImmutableList<InetAddress>> cached = getCachedResult(addressCache, key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        try {
+            Record[] answers = lookup(name, Type.A, "A");
+            ImmutableList<InetAddress> addresses = toAddresses(name, answers);
+            cacheResult(addressCache, key, addresses, resultTtlInSeconds(name, answers));
+            return addresses;
+        } catch (TemporaryResolutionException e) {
+            return ImmutableList.of();
+        }
+    }
+
+    private ImmutableList<InetAddress> toAddresses(String name, Record[] records) throws UnknownHostException {
+        if (records == null) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<InetAddress> addresses = ImmutableList.builder();
+        for (Record record : records) {
+            ARecord a = (ARecord) record;
+            addresses.add(InetAddress.getByAddress(name, a.getAddress().getAddress()));
+        }
+        return addresses.build();
+    }
+
+    @Override
+    public CompletableFuture<Collection<String>> findMXRecordsAsync(String hostname) {
+        Optional<ImmutableList<ImmutableList<String>>> cachedGroups = peekCachedResult(mxCache, cacheKey(hostname));
+        boolean cached = cachedGroups.isPresent()
+            && (!cachedGroups.get().isEmpty() || isCached(addressCache, hostname));
+        return resolveAsync(() -> findMXRecords(hostname), cached);
+    }
+
+    @Override
+    public CompletableFuture<Collection<String>> findTXTRecordsAsync(String hostname) {
+        return resolveAsync(() -> findTXTRecords(hostname), false);
+    }
+
+    @Override
+    public CompletableFuture<Collection<InetAddress>> getAllByNameAsync(String host) {
+        return resolveAsync(() -> getAllByName(host), isCached(addressCache, allowIPLiteral(host)));
+    }
+
+    @Override
+    public CompletableFuture<InetAddress> getByNameAsync(String host) {
+        return resolveAsync(() -> getByName(host), isCached(addressCache, allowIPLiteral(host)));
+    }
+
+    private <V> boolean isCached(com.google.common.cache.Cache<String, CachedResult<V>> resultCache, String name) {
+        return peekCachedResult(resultCache, cacheKey(name)).isPresent();
+    }
+
+    /**
+     * DNSJava lookups are blocking: they are run on a dedicated executor so that callers can issue several
+     * of them concurrently. Answers already cached are served in the calling thread.
+     */
+    private <T> CompletableFuture<T> resolveAsync(Callable<T> resolution, boolean cached) {
+        if (cached) {
+            try {
+                return CompletableFuture.completedFuture(resolution.call());
+            } catch (Exception e) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return resolution.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, resolverExecutor);
+    }
+
     @Override
     public Collection<String> findTXTRecords(String hostname) {
         TimeMetric timeMetric = metricFactory.timer("findTXTRecords");
@@ -545,6 +741,18 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
     @Override
     public void clearCache() {
         cache.clearCache();
+        mxCache.invalidateAll();
+        addressCache.invalidateAll();
+    }
+
+    @VisibleForTesting
+    double getMXCacheHitRate() {
+        return mxCache.stats().hitRate();
+    }
+
+    @VisibleForTesting
+    double getAddressCacheHitRate() {
+        return addressCache.stats().hitRate();
     }
 
 }
@@ -29,9 +29,12 @@ import static org.mockito.Mockito.mock;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.URL;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.CompletionException;
 
 import org.apache.commons.configuration.DefaultConfigurationBuilder;
 import org.apache.james.metrics.api.NoopMetricFactory;
@@ -57,6 +60,11 @@ public class DNSJavaServiceTest {
             "<autodiscover>true</autodiscover>" +
             "<authoritative>false</authoritative>" +
             "</dnsserver>").getBytes();
+    private static final byte[] DNS_SERVER_WITHOUT_RESULT_CACHE_CONFIG = ("<dnsserver>" +
+            "<autodiscover>true</autodiscover>" +
+            "<authoritative>false</authoritative>" +
+            "<resultcachettl>0</resultcachettl>" +
+            "</dnsserver>").getBytes();
 
     private Cache defaultCache;
     private Resolver defaultResolver;
@@ -66,13 +74,7 @@ public class DNSJavaServiceTest {
 
     @Before
     public void setUp() throws Exception {
-        dnsServer = new TestableDNSServer();
-        DefaultConfigurationBuilder db = new DefaultConfigurationBuilder();
-
-        db.load(new ByteArrayInputStream(DNS_SERVER_CONFIG));
-
-        dnsServer.configure(db);
-        dnsServer.init();
+        dnsServer = createDNSServer(DNS_SERVER_CONFIG);
 
         defaultCache = Lookup.getDefaultCache(DClass.IN);
         defaultResolver = Lookup.getDefaultResolver();
@@ -87,6 +89,7 @@ public class DNSJavaServiceTest {
 
     @After
     public void tearDown() throws Exception {
+        dnsServer.destroy();
         dnsServer.setCache(null);
         dnsServer = null;
         Lookup.setDefaultCache(defaultCache, DClass.IN);
@@ -212,6 +215,164 @@ public class DNSJavaServiceTest {
         assertEquals(1, records.size());
         assertTrue(records.contains("mx1.one-mx.bar."));
     }
+
+    @Test
+    public void findMXRecordsShouldServeCachedResults() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("one-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.findMXRecords("one-mx.bar.");
+        Collection<String> records = dnsServer.findMXRecords("one-mx.bar.");
+
+        assertEquals(1, records.size());
+        assertTrue(records.contains("mx1.one-mx.bar."));
+        assertEquals(0.5, dnsServer.getMXCacheHitRate(), 0.0);
+    }
+
+    @Test
+    public void findMXRecordsShouldShuffleCachedEntriesWithSamePriority() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("three-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.findMXRecords("three-mx.bar.");
+        ArrayList<String> records = new ArrayList<>(dnsServer.findMXRecords("three-mx.bar."));
+
+        assertEquals(3, records.size());
+        assertTrue(records.subList(0, 2).contains("mx1.three-mx.bar."));
+        assertTrue(records.subList(0, 2).contains("mx2.three-mx.bar."));
+        assertEquals("mx3.three-mx.bar.", records.get(2));
+    }
+
+    @Test
+    public void getAllByNameShouldCacheNegativeAnswers() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("dnstest.com.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        assertUnknownHost("unknown.dnstest.com.");
+        assertUnknownHost("unknown.dnstest.com.");
+
+        assertEquals(0.5, dnsServer.getAddressCacheHitRate(), 0.0);
+    }
+
+    @Test
+    public void getAllByNameShouldNotCacheResultsBeyondTheirRecordTtl() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("short-ttl.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.getAllByName("zero-ttl.short-ttl.bar.");
+        Collection<InetAddress> addresses = dnsServer.getAllByName("zero-ttl.short-ttl.bar.");
+
+        assertEquals(1, addresses.size());
+        assertEquals(0.0, dnsServer.getAddressCacheHitRate(), 0.0);
+    }
+
+    @Test
+    public void getAllByNameShouldNotCacheNegativeAnswersBeyondTheNegativeTtlOfTheZone() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("short-ttl.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        assertUnknownHost("unknown.short-ttl.bar.");
+        assertUnknownHost("unknown.short-ttl.bar.");
+
+        assertEquals(0.0, dnsServer.getAddressCacheHitRate(), 0.0);
+    }
+
+    @Test
+    public void findMXRecordsShouldServeCachedResultsWhateverTheCase() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("one-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.findMXRecords("one-mx.bar.");
+        Collection<String> records = dnsServer.findMXRecords("ONE-MX.Bar.");
+
+        assertEquals(1, records.size());
+        assertTrue(records.contains("mx1.one-mx.bar."));
+        assertEquals(0.5, dnsServer.getMXCacheHitRate(), 0.0);
+    }
+
+    @Test
+    public void clearCacheShouldInvalidateCachedResults() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("one-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.findMXRecords("one-mx.bar.");
+        dnsServer.clearCache();
+        dnsServer.findMXRecords("one-mx.bar.");
+
+        assertEquals(0.0, dnsServer.getMXCacheHitRate(), 0.0);
+    }
+
+    @Test
+    public void resultCacheShouldBeDisabledWhenTtlIsZero() throws Exception {
+        dnsServer.destroy();
+        dnsServer = createDNSServer(DNS_SERVER_WITHOUT_RESULT_CACHE_CONFIG);
+        dnsServer.setResolver(null);
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("one-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.findMXRecords("one-mx.bar.");
+        Collection<String> records = dnsServer.findMXRecords("one-mx.bar.");
+
+        assertEquals(1, records.size());
+        assertEquals(0.0, dnsServer.getMXCacheHitRate(), 0.0);
+    }
+
+    @Test
+    public void findMXRecordsAsyncShouldReturnMXRecords() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("two-mx.differentprio.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        ArrayList<String> records = new ArrayList<>(dnsServer.findMXRecordsAsync("two-mx.differentprio.").join());
+
+        assertEquals(2, records.size());
+        assertEquals("mx1.two-mx.differentprio.", records.get(0));
+        assertEquals("mx2.two-mx.differentprio.", records.get(1));
+    }
+
+    @Test
+    public void getAllByNameAsyncShouldReturnAddresses() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("dnstest.com.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        Collection<InetAddress> addresses = dnsServer.getAllByNameAsync("mail.dnstest.com.").join();
+
+        assertEquals(1, addresses.size());
+        assertEquals("216.183.119.114", addresses.iterator().next().getHostAddress());
+    }
+
+    @Test
+    public void getByNameAsyncShouldFailWithUnknownHostExceptionWhenNotResolvable() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("dnstest.com.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        try {
+            dnsServer.getByNameAsync("unknown.dnstest.com.").join();
+            fail("unknown.dnstest.com. should not be resolved");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof UnknownHostException);
+        }
+    }
+
+    private void assertUnknownHost(String host) {
+        try {
+            dnsServer.getAllByName(host);
+            fail(host + " should not be resolved");
+        } catch (UnknownHostException e) {
+            LOGGER.info("Expected error", e);
+        }
+    }
+
     /*
      * public void testCNAMEasMXrecords() throws Exception { // Zone z =
      * loadZone("brandilyncollins.com."); dnsServer.setResolver(null);
@@ -221,6 +382,17 @@ public class DNSJavaServiceTest {
      * //assertEquals(true, records.hasNext()); }
      */
 
+    private static TestableDNSServer createDNSServer(byte[] configuration) throws Exception {
+        TestableDNSServer dnsServer = new TestableDNSServer();
+        DefaultConfigurationBuilder db = new DefaultConfigurationBuilder();
+
+        db.load(new ByteArrayInputStream(configuration));
+
+        dnsServer.configure(db);
+        dnsServer.init();
+        return dnsServer;
+    }
+
     private static Zone loadZone(String zoneName) throws IOException {
         String zoneFilename = zoneName + "zone";
         URL zoneResource = Resources.getResource(DNSJavaServiceTest.class, zoneFilename);
@@ -228,7 +400,7 @@ public class DNSJavaServiceTest {
         return new Zone(Name.fromString(zoneName), zoneResource.getFile());
     }
 
-    private final class TestableDNSServer extends DNSJavaService {
+    private static final class TestableDNSServer extends DNSJavaService {
 
         public TestableDNSServer() {
             super(new NoopMetricFactory());
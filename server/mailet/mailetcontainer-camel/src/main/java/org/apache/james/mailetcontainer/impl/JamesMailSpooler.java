@@ -19,9 +19,12 @@
 
 package org.apache.james.mailetcontainer.impl;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -54,6 +57,9 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
     private static final Logger LOGGER = LoggerFactory.getLogger(JamesMailSpooler.class);
 
     public static final String SPOOL_PROCESSING = "spoolProcessing";
+    public static final String SPOOL_IN_FLIGHT = "spoolInFlight";
+    public static final String SPOOL_WAITING = "spoolWaiting";
+    public static final String SPOOL_QUEUE_LAG = "spoolQueueLag";
     private MailQueue queue;
 
     /**
@@ -68,6 +74,16 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
 
     private final AtomicInteger processingActive = new AtomicInteger(0);
 
+    /**
+     * Number of mails dequeued but not yet handled by a worker
+     */
+    private final AtomicInteger waiting = new AtomicInteger(0);
+
+    /**
+     * Time, in milliseconds, the last handled mail waited between its dequeue and its processing
+     */
+    private final AtomicLong queueLag = new AtomicLong(0);
+
     /**
      * Spool threads are active
      */
@@ -91,6 +107,18 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
 
     private int numDequeueThreads;
 
+    /**
+     * When enabled, a mail is only dequeued once a worker is available to process it
+     */
+    private boolean backPressure;
+
+    private Semaphore workerSlots;
+
+    /**
+     * Maximum number of mails retrieved by a single dequeue operation
+     */
+    private int dequeueBatchSize;
+
     @Inject
     public JamesMailSpooler(MetricFactory metricFactory) {
         this.metricFactory = metricFactory;
@@ -111,6 +139,13 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
         numDequeueThreads = config.getInt("dequeueThreads", 2);
 
         numThreads = config.getInt("threads", 100);
+
+        backPressure = config.getBoolean("backPressure", false);
+
+        dequeueBatchSize = config.getInt("dequeueBatchSize", 1);
+        if (dequeueBatchSize < 1) {
+            throw new ConfigurationException("'dequeueBatchSize' needs to be strictly positive");
+        }
     }
 
     /**
@@ -123,6 +158,12 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
         queue = queueFactory.createQueue(MailQueueFactory.SPOOL);
 
         LOGGER.info("{} uses {} Thread(s)", getClass().getName(), numThreads);
+        LOGGER.info("{} back pressure is {}", getClass().getName(), backPressure ? "enabled" : "disabled");
+
+        workerSlots = new Semaphore(numThreads);
+        metricFactory.gauge(SPOOL_IN_FLIGHT, processingActive::get);
+        metricFactory.gauge(SPOOL_WAITING, waiting::get);
+        metricFactory.gauge(SPOOL_QUEUE_LAG, queueLag::get);
 
         active.set(true);
         workerService = JMXEnabledThreadPoolExecutor.newFixedThreadPool("org.apache.james:type=component,component=mailetcontainer,name=mailspooler,sub-type=threadpool", "spooler", numThreads);
@@ -144,46 +185,21 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
         LOGGER.info("Queue={}", queue);
 
         while (active.get()) {
-
-            final MailQueueItem queueItem;
             try {
-                queueItem = queue.deQueue();
-                workerService.execute(() -> {
-                    TimeMetric timeMetric = metricFactory.timer(SPOOL_PROCESSING);
-                    try {
-                        numActive.incrementAndGet();
-
-                        // increase count
-                        processingActive.incrementAndGet();
-
-                        Mail mail = queueItem.getMail();
-                        LOGGER.debug("==== Begin processing mail {} ====", mail.getName());
-
-                        try {
-                            mailProcessor.service(mail);
-                            queueItem.done(true);
-                        } catch (Exception e) {
-                            if (active.get()) {
-                                LOGGER.error("Exception processing mail while spooling", e);
-                            }
-                            queueItem.done(false);
-
-                        } finally {
-                            LifecycleUtil.dispose(mail);
-                            mail = null;
-                        }
-                    } catch (Throwable e) {
-                        if (active.get()) {
-                            LOGGER.error("Exception processing mail while spooling", e);
-
-                        }
-                    } finally {
-                        processingActive.decrementAndGet();
-                        numActive.decrementAndGet();
-                        timeMetric.stopAndPublish();
-                    }
-
-                });
+                int batchSize = acquireWorkerSlots();
+                List<MailQueueItem> queueItems;
+                try {
+                    queueItems = queue.deQueue(batchSize);
+                } catch (MailQueueException | InterruptedException | RuntimeException e) {
+                    releaseWorkerSlots(batchSize);
+                    throw e;
+                }
+                releaseWorkerSlots(batchSize - queueItems.size());
+                final long dequeuedAt = System.currentTimeMillis();
+                for (MailQueueItem queueItem : queueItems) {
+                    waiting.incrementAndGet();
+                    workerService.execute(() -> process(queueItem, dequeuedAt));
+                }
             } catch (MailQueueException e1) {
                 if (active.get()) {
                     LOGGER.error("Exception dequeue mail", e1);
@@ -195,6 +211,69 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
         LOGGER.info("Stop {} : {}", getClass().getName(), Thread.currentThread().getName());
     }
 
+    private void process(MailQueueItem queueItem, long dequeuedAt) {
+        TimeMetric timeMetric = metricFactory.timer(SPOOL_PROCESSING);
+        waiting.decrementAndGet();
+        queueLag.set(System.currentTimeMillis() - dequeuedAt);
+        try {
+            numActive.incrementAndGet();
+
+            // increase count
+            processingActive.incrementAndGet();
+
+            Mail mail = queueItem.getMail();
+            LOGGER.debug("==== Begin processing mail {} ====", mail.getName());
+
+            try {
+                mailProcessor.service(mail);
+                queueItem.done(true);
+            } catch (Exception e) {
+                if (active.get()) {
+                    LOGGER.error("Exception processing mail while spooling", e);
+                }
+                queueItem.done(false);
+
+            } finally {
+                LifecycleUtil.dispose(mail);
+                mail = null;
+            }
+        } catch (Throwable e) {
+            if (active.get()) {
+                LOGGER.error("Exception processing mail while spooling", e);
+
+            }
+        } finally {
+            processingActive.decrementAndGet();
+            numActive.decrementAndGet();
+            timeMetric.stopAndPublish();
+            releaseWorkerSlots(1);
+        }
+    }
+
+    /**
+     * With back pressure, waits for a worker to be available before mails get dequeued. Mails are then kept
+     * in the {@link MailQueue} rather than in memory while all workers are busy.
+     *
+     * @return the count of mails that can be dequeued, up to {@link #dequeueBatchSize}
+     */
+    private int acquireWorkerSlots() throws InterruptedException {
+        if (!backPressure) {
+            return dequeueBatchSize;
+        }
+        workerSlots.acquire();
+        int acquired = 1;
+        while (acquired < dequeueBatchSize && workerSlots.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private void releaseWorkerSlots(int count) {
+        if (backPressure && count > 0) {
+            workerSlots.release(count);
+        }
+    }
+
     /**
      * The dispose operation is called at the end of a components lifecycle.
      * Instances of this class use this method to release and destroy any
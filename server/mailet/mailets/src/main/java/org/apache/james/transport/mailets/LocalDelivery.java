@@ -40,6 +40,10 @@ import org.apache.mailet.base.GenericMailet;
  * This mailet is a composition of RecipientRewriteTable, SieveMailet 
  * and MailboxManager configured to mimic the old "LocalDelivery"
  * James 2.3 behavior.
+ *
+ * When the <code>singleInstanceStorage</code> parameter is set to true (defaults to false), the message content
+ * is appended once and then copied into the mailboxes of the other recipients not carrying specific headers,
+ * instead of being parsed and stored again for each of them.
  */
 public class LocalDelivery extends GenericMailet {
 
@@ -77,6 +81,7 @@ public class LocalDelivery extends GenericMailet {
                 .metric(metricFactory.generate(LOCAL_DELIVERED_MAILS_METRIC_NAME))
                 .build())
             .consume(getInitParameter("consume", true))
+            .singleInstanceStorage(getInitParameter("singleInstanceStorage", false))
             .mailetContext(getMailetContext())
             .build();
     }
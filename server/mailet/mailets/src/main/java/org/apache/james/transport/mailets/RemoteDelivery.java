@@ -117,6 +117,12 @@ import com.google.common.collect.HashMultimap;
  * Note: This facility should be used with extreme care by expert users with a thorough knowledge of the relevant RFCs and
  * the ability to perform their own problem resolutions.</li>
  * <li><b>debug</b> (optional) - a Boolean (true/false) indicating whether debugging is on. Default is false.</li>
+ * <li><b>connectionPool</b> (optional) - a Boolean (true/false) indicating whether each delivery thread keeps its SMTP
+ * connections open after a successful delivery, for the next mails sent to the same server to reuse them. Default is false.</li>
+ * <li><b>connectionPoolIdleTimeout</b> (optional) - a Long for the time in milliseconds after which an unused pooled
+ * connection is closed. Default is 10000.</li>
+ * <li><b>connectionPoolMaxMessages</b> (optional) - an Integer for the number of messages sent over a pooled connection
+ * before it gets closed. Default is 100.</li>
  * </ul>
  */
 public class RemoteDelivery extends GenericMailet {
@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -49,8 +50,10 @@ public class MailDispatcher {
 
     public static class Builder {
         public static final boolean CONSUME = true;
+        public static final boolean SINGLE_INSTANCE_STORAGE = false;
         private MailStore mailStore;
         private Optional<Boolean> consume = Optional.empty();
+        private Optional<Boolean> singleInstanceStorage = Optional.empty();
         private MailetContext mailetContext;
 
         public Builder consume(boolean consume) {
@@ -58,6 +61,11 @@ public class MailDispatcher {
             return this;
         }
 
+        public Builder singleInstanceStorage(boolean singleInstanceStorage) {
+            this.singleInstanceStorage = Optional.of(singleInstanceStorage);
+            return this;
+        }
+
         public Builder mailStore(MailStore mailStore) {
             this.mailStore = mailStore;
             return this;
@@ -71,18 +79,20 @@ public class MailDispatcher {
         public MailDispatcher build() throws MessagingException {
             Preconditions.checkNotNull(mailStore);
             Preconditions.checkNotNull(mailetContext);
-            return new MailDispatcher(mailStore, consume.orElse(CONSUME), mailetContext);
+            return new MailDispatcher(mailStore, consume.orElse(CONSUME), singleInstanceStorage.orElse(SINGLE_INSTANCE_STORAGE), mailetContext);
         }
 
     }
 
     private final MailStore mailStore;
     private final boolean consume;
+    private final boolean singleInstanceStorage;
     private final MailetContext mailetContext;
 
-    private MailDispatcher(MailStore mailStore, boolean consume, MailetContext mailetContext) {
+    private MailDispatcher(MailStore mailStore, boolean consume, boolean singleInstanceStorage, MailetContext mailetContext) {
         this.mailStore = mailStore;
         this.consume = consume;
+        this.singleInstanceStorage = singleInstanceStorage;
         this.mailetContext = mailetContext;
     }
 
@@ -116,8 +126,37 @@ public class MailDispatcher {
     }
 
     private Collection<MailAddress> deliver(Mail mail, MimeMessage message) {
+        if (singleInstanceStorage) {
+            return deliverSharingContent(mail, message);
+        }
+        return deliverIndividually(mail, message, mail.getRecipients());
+    }
+
+    /**
+     * Recipients without specific headers receive the exact same content: it is handed once to the {@link MailStore}
+     * for all of them. Recipients with specific headers are delivered one by one.
+     */
+    private Collection<MailAddress> deliverSharingContent(Mail mail, MimeMessage message) {
+        Map<Boolean, List<MailAddress>> recipientsByHasSpecificHeaders = mail.getRecipients()
+            .stream()
+            .collect(Collectors.partitioningBy(recipient -> hasSpecificHeaders(mail, recipient)));
+
+        Collection<MailAddress> errors = new ArrayList<>();
+        List<MailAddress> sharingRecipients = recipientsByHasSpecificHeaders.get(false);
+        if (!sharingRecipients.isEmpty()) {
+            errors.addAll(mailStore.storeMail(sharingRecipients, mail));
+        }
+        errors.addAll(deliverIndividually(mail, message, recipientsByHasSpecificHeaders.get(true)));
+        return errors;
+    }
+
+    private boolean hasSpecificHeaders(Mail mail, MailAddress recipient) {
+        return !mail.getPerRecipientSpecificHeaders().getHeadersForRecipient(recipient).isEmpty();
+    }
+
+    private Collection<MailAddress> deliverIndividually(Mail mail, MimeMessage message, Collection<MailAddress> recipients) {
         Collection<MailAddress> errors = new ArrayList<>();
-        for (MailAddress recipient : mail.getRecipients()) {
+        for (MailAddress recipient : recipients) {
             try {
                 Map<String, List<String>> savedHeaders = saveHeaders(mail, recipient);
 
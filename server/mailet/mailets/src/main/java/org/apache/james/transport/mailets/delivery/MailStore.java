@@ -19,13 +19,41 @@
 
 package org.apache.james.transport.mailets.delivery;
 
+import java.util.Collection;
+
 import javax.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
 import org.apache.mailet.Mail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
 
 public interface MailStore {
     String DELIVERY_PATH_PREFIX = "DeliveryPath_";
+    Logger LOGGER = LoggerFactory.getLogger(MailStore.class);
 
     void storeMail(MailAddress recipient, Mail mail) throws MessagingException;
+
+    /**
+     * Store the mail for several recipients sharing the exact same content. Implementations
+     * are allowed to store the content once and reference it from each recipient's mailbox.
+     *
+     * The default implementation stores the mail independently for each recipient.
+     *
+     * @return the recipients for which storage failed
+     */
+    default Collection<MailAddress> storeMail(Collection<MailAddress> recipients, Mail mail) {
+        ImmutableList.Builder<MailAddress> errors = ImmutableList.builder();
+        for (MailAddress recipient : recipients) {
+            try {
+                storeMail(recipient, mail);
+            } catch (Exception e) {
+                LOGGER.error("Error while storing mail.", e);
+                errors.add(recipient);
+            }
+        }
+        return errors.build();
+    }
 }
@@ -19,16 +19,22 @@
 
 package org.apache.james.transport.mailets.delivery;
 
+import java.util.List;
+
+import javax.mail.Flags;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.BadCredentialsException;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.MailboxACL.Right;
 import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.server.core.MimeMessageInputStream;
 
 import com.google.common.base.Strings;
@@ -46,6 +52,45 @@ public class MailboxAppender {
         return append(mail, user, useSlashAsSeparator(folder, session), session);
     }
 
+    /**
+     * Deliver to the given user a message previously appended to another mailbox.
+     *
+     * The source is identified by its {@link org.apache.james.mailbox.model.MailboxId} and UID, which never designate
+     * another message, and is only copied if the target user is allowed to read it. Flags possibly set on the source
+     * since its delivery are not propagated: the copy gets the flags of a freshly delivered message.
+     *
+     * @throws MessagingException when the message can not be copied, for instance because it was expunged
+     *  or is not readable by the target user. Callers are expected to fall back to {@link #append(MimeMessage, String, String)}.
+     */
+    public ComposedMessageId copy(ComposedMessageId source, String user, String folder) throws MessagingException {
+        MailboxSession session = createMailboxSession(user);
+        mailboxManager.startProcessingRequest(session);
+        try {
+            MailboxPath mailboxPath = MailboxPath.forUser(user, useSlashAsSeparator(folder, session));
+            return copyMessageToMailbox(source, session, mailboxPath);
+        } catch (MailboxException e) {
+            throw new MessagingException("Unable to access mailbox.", e);
+        } finally {
+            closeProcessing(session);
+        }
+    }
+
+    private ComposedMessageId copyMessageToMailbox(ComposedMessageId source, MailboxSession session, MailboxPath path) throws MailboxException, MessagingException {
+        if (!mailboxManager.hasRight(source.getMailboxId(), Right.Read, session)) {
+            throw new MessagingException("Message " + source.getUid() + " of mailbox " + source.getMailboxId().serialize()
+                + " is not readable by " + session.getUser().getUserName());
+        }
+        createMailboxIfNotExist(session, path);
+        MessageManager mailbox = mailboxManager.getMailbox(path, session);
+        List<MessageRange> copiedRanges = mailboxManager.copyMessages(MessageRange.one(source.getUid()), source.getMailboxId(), mailbox.getId(), session);
+        if (copiedRanges.isEmpty()) {
+            throw new MessagingException("Message " + source.getUid() + " could not be found in mailbox " + source.getMailboxId().serialize());
+        }
+        MessageUid uid = copiedRanges.get(0).getUidFrom();
+        mailbox.setFlags(new Flags(Flags.Flag.RECENT), MessageManager.FlagsUpdateMode.REPLACE, MessageRange.one(uid), session);
+        return new ComposedMessageId(mailbox.getId(), source.getMessageId(), uid);
+    }
+
     private String useSlashAsSeparator(String urlPath, MailboxSession session) throws MessagingException {
         String destination = urlPath.replace('/', session.getPathDelimiter());
         if (Strings.isNullOrEmpty(destination)) {
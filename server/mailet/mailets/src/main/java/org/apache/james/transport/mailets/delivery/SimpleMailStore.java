@@ -19,6 +19,9 @@
 
 package org.apache.james.transport.mailets.delivery;
 
+import java.util.Collection;
+import java.util.Optional;
+
 import javax.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
@@ -31,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 
 public class SimpleMailStore implements MailStore {
 
@@ -89,14 +93,53 @@ public class SimpleMailStore implements MailStore {
 
     @Override
     public void storeMail(MailAddress recipient, Mail mail) throws MessagingException {
+        store(recipient, mail, Optional.empty());
+    }
+
+    /**
+     * The content is appended once, for the first recipient. It is then copied into the other recipients' mailboxes,
+     * which avoids parsing it again and allows the storage layer to share it. Recipients for which this copy is not
+     * possible get the content appended.
+     */
+    @Override
+    public Collection<MailAddress> storeMail(Collection<MailAddress> recipients, Mail mail) {
+        ImmutableList.Builder<MailAddress> errors = ImmutableList.builder();
+        Optional<ComposedMessageId> storedMessage = Optional.empty();
+        for (MailAddress recipient : recipients) {
+            try {
+                ComposedMessageId result = store(recipient, mail, storedMessage);
+                if (!storedMessage.isPresent()) {
+                    storedMessage = Optional.of(result);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Error while storing mail.", e);
+                errors.add(recipient);
+            }
+        }
+        return errors.build();
+    }
+
+    private ComposedMessageId store(MailAddress recipient, Mail mail, Optional<ComposedMessageId> storedMessage) throws MessagingException {
         String username = computeUsername(recipient);
 
         String locatedFolder = locateFolder(username, mail);
-        ComposedMessageId composedMessageId = mailboxAppender.append(mail.getMessage(), username, locatedFolder);
+        ComposedMessageId composedMessageId = save(mail, username, locatedFolder, storedMessage);
 
         metric.increment();
         LOGGER.info("Local delivered mail {} successfully from {} to {} in folder {} with composedMessageId {}", mail.getName(),
             DeliveryUtils.prettyPrint(mail.getSender()), DeliveryUtils.prettyPrint(recipient), locatedFolder, composedMessageId);
+        return composedMessageId;
+    }
+
+    private ComposedMessageId save(Mail mail, String username, String locatedFolder, Optional<ComposedMessageId> storedMessage) throws MessagingException {
+        if (storedMessage.isPresent()) {
+            try {
+                return mailboxAppender.copy(storedMessage.get(), username, locatedFolder);
+            } catch (MessagingException e) {
+                LOGGER.info("Could not copy {} for {}, appending it instead", storedMessage.get(), username, e);
+            }
+        }
+        return mailboxAppender.append(mail.getMessage(), username, locatedFolder);
     }
 
     private String locateFolder(String username, Mail mail) {
@@ -82,6 +82,7 @@ public class DeliveryRunnable implements Runnable {
                 runStep();
             }
         } finally {
+            mailDelivrer.closeIdleConnections();
             // Restore the thread state to non-interrupted.
             Thread.interrupted();
         }
@@ -88,6 +88,13 @@ public class MailDelivrer {
         }
     }
 
+    /**
+     * Closes the SMTP connections kept open for later deliveries, if any.
+     */
+    public void closeIdleConnections() {
+        mailDelivrerToHost.closeIdleConnections();
+    }
+
     private ExecutionResult tryDeliver(Mail mail) throws MessagingException {
         if (mail.getRecipients().isEmpty()) {
             LOGGER.info("No recipients specified... not sure how this could have happened.");
@@ -20,6 +20,7 @@
 package org.apache.james.transport.mailets.remote.delivery;
 
 import java.io.IOException;
+import java.util.Optional;
 import java.util.Properties;
 
 import javax.mail.MessagingException;
@@ -43,11 +44,22 @@ public class MailDelivrerToHost {
     private final RemoteDeliveryConfiguration configuration;
     private final Converter7Bit converter7Bit;
     private final Session session;
+    private final Optional<SMTPConnectionPool> connectionPool;
 
     public MailDelivrerToHost(RemoteDeliveryConfiguration remoteDeliveryConfiguration, MailetContext mailetContext) {
         this.configuration = remoteDeliveryConfiguration;
         this.converter7Bit = new Converter7Bit(mailetContext);
         this.session = Session.getInstance(configuration.createFinalJavaxProperties());
+        this.connectionPool = createConnectionPool(remoteDeliveryConfiguration);
+    }
+
+    private Optional<SMTPConnectionPool> createConnectionPool(RemoteDeliveryConfiguration configuration) {
+        if (!configuration.isConnectionPoolEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SMTPConnectionPool(this::openTransport,
+            configuration.getConnectionPoolIdleTimeout(),
+            configuration.getConnectionPoolMaxMessages()));
     }
 
     public ExecutionResult tryDeliveryToHost(Mail mail, InternetAddress[] addr, HostAddress outgoingMailServer) throws MessagingException {
@@ -61,20 +73,68 @@ public class MailDelivrerToHost {
         // "mail.smtp.dsn.ret"        //default to nothing... appended as RET= after MAIL FROM line.
         // "mail.smtp.dsn.notify"     //default to nothing... appended as NOTIFY= after RCPT TO line.
 
+        if (connectionPool.isPresent()) {
+            return tryDeliveryWithPooledTransport(mail, addr, outgoingMailServer, props, connectionPool.get());
+        }
+
         SMTPTransport transport = null;
         try {
-            transport = (SMTPTransport) session.getTransport(outgoingMailServer);
-            transport.setLocalHost(props.getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
+            transport = createTransport(outgoingMailServer);
             connect(outgoingMailServer, transport);
-            transport.sendMessage(adaptToTransport(mail.getMessage(), transport), addr);
-            LOGGER.debug("Mail ({})  sent successfully to {} at {} from {} for {}", mail.getName(), outgoingMailServer.getHostName(),
-                outgoingMailServer.getHost(), props.get("mail.smtp.from"), mail.getRecipients());
+            sendMessage(mail, addr, outgoingMailServer, props, transport);
         } finally {
             closeTransport(mail, outgoingMailServer, transport);
         }
         return ExecutionResult.success();
     }
 
+    private ExecutionResult tryDeliveryWithPooledTransport(Mail mail, InternetAddress[] addr, HostAddress outgoingMailServer,
+                                                           Properties props, SMTPConnectionPool pool) throws MessagingException {
+        SMTPConnectionPool.PooledTransport pooledTransport = pool.borrow(outgoingMailServer);
+        try {
+            sendMessage(mail, addr, outgoingMailServer, props, pooledTransport.getTransport());
+        } catch (MessagingException | RuntimeException e) {
+            pool.discard(pooledTransport);
+            throw e;
+        }
+        pool.release(pooledTransport);
+        return ExecutionResult.success();
+    }
+
+    /**
+     * Closes the SMTP connections kept open for later deliveries, if any.
+     */
+    public void closeIdleConnections() {
+        connectionPool.ifPresent(SMTPConnectionPool::closeAll);
+    }
+
+    private SMTPTransport createTransport(HostAddress outgoingMailServer) throws MessagingException {
+        SMTPTransport transport = (SMTPTransport) session.getTransport(outgoingMailServer);
+        transport.setLocalHost(session.getProperties().getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
+        return transport;
+    }
+
+    private SMTPTransport openTransport(HostAddress outgoingMailServer) throws MessagingException {
+        SMTPTransport transport = createTransport(outgoingMailServer);
+        try {
+            connect(outgoingMailServer, transport);
+        } catch (MessagingException e) {
+            try {
+                transport.close();
+            } catch (MessagingException closeException) {
+                LOGGER.debug("Could not close SMTP transport to {} after a connection failure", outgoingMailServer.getHostName(), closeException);
+            }
+            throw e;
+        }
+        return transport;
+    }
+
+    private void sendMessage(Mail mail, InternetAddress[] addr, HostAddress outgoingMailServer, Properties props, SMTPTransport transport) throws MessagingException {
+        transport.sendMessage(adaptToTransport(mail.getMessage(), transport), addr);
+        LOGGER.debug("Mail ({})  sent successfully to {} at {} from {} for {}", mail.getName(), outgoingMailServer.getHostName(),
+            outgoingMailServer.getHost(), props.get("mail.smtp.from"), mail.getRecipients());
+    }
+
     private Properties getPropertiesForMail(Mail mail) {
         Properties props = session.getProperties();
         if (mail.getSender() == null) {
@@ -19,6 +19,7 @@
 
 package org.apache.james.transport.mailets.remote.delivery;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -61,11 +62,16 @@ public class RemoteDeliveryConfiguration {
     public static final String MAX_RETRIES = "maxRetries";
     public static final String DELAY_TIME = "delayTime";
     public static final String DEBUG = "debug";
+    public static final String CONNECTION_POOL = "connectionPool";
+    public static final String CONNECTION_POOL_IDLE_TIMEOUT = "connectionPoolIdleTimeout";
+    public static final String CONNECTION_POOL_MAX_MESSAGES = "connectionPoolMaxMessages";
     public static final int DEFAULT_SMTP_TIMEOUT = 180000;
     public static final String DEFAULT_OUTGOING_QUEUE_NAME = "outgoing";
     public static final int DEFAULT_CONNECTION_TIMEOUT = 60000;
     public static final int DEFAULT_DNS_RETRY_PROBLEM = 0;
     public static final int DEFAULT_MAX_RETRY = 5;
+    public static final Duration DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT = Duration.ofSeconds(10);
+    public static final int DEFAULT_CONNECTION_POOL_MAX_MESSAGES = 100;
     public static final String ADDRESS_PORT_SEPARATOR = ":";
 
     private final boolean isDebug;
@@ -74,11 +80,14 @@ public class RemoteDeliveryConfiguration {
     private final boolean isSSLEnable;
     private final boolean isBindUsed;
     private final boolean sendPartial;
+    private final boolean connectionPoolEnabled;
     private final int maxRetries;
     private final long smtpTimeout;
     private final int dnsProblemRetry;
     private final int connectionTimeout;
     private final int workersThreadCount;
+    private final int connectionPoolMaxMessages;
+    private final Duration connectionPoolIdleTimeout;
     private final List<Long> delayTimes;
     private final HeloNameProvider heloNameProvider;
     private final String outGoingQueueName;
@@ -95,6 +104,7 @@ public class RemoteDeliveryConfiguration {
         isSSLEnable = MailetUtil.getInitParameter(mailetConfig, SSL_ENABLE).orElse(false);
         usePriority = MailetUtil.getInitParameter(mailetConfig, USE_PRIORITY).orElse(false);
         sendPartial = MailetUtil.getInitParameter(mailetConfig, SENDPARTIAL).orElse(false);
+        connectionPoolEnabled = MailetUtil.getInitParameter(mailetConfig, CONNECTION_POOL).orElse(false);
         outGoingQueueName = Optional.ofNullable(mailetConfig.getInitParameter(OUTGOING)).orElse(DEFAULT_OUTGOING_QUEUE_NAME);
         bounceProcessor = mailetConfig.getInitParameter(BOUNCE_PROCESSOR);
         bindAddress = mailetConfig.getInitParameter(BIND);
@@ -107,6 +117,8 @@ public class RemoteDeliveryConfiguration {
         dnsProblemRetry = computeDnsProblemRetry(mailetConfig);
         heloNameProvider = new HeloNameProvider(mailetConfig.getInitParameter(HELO_NAME), domainList);
         workersThreadCount = Integer.valueOf(mailetConfig.getInitParameter(DELIVERY_THREADS));
+        connectionPoolIdleTimeout = computeConnectionPoolIdleTimeout(mailetConfig);
+        connectionPoolMaxMessages = computeConnectionPoolMaxMessages(mailetConfig);
 
         String gatewayPort = mailetConfig.getInitParameter(GATEWAY_PORT);
         String gateway = mailetConfig.getInitParameter(GATEWAY);
@@ -154,6 +166,33 @@ public class RemoteDeliveryConfiguration {
         }
     }
 
+    private Duration computeConnectionPoolIdleTimeout(MailetConfig mailetConfig) {
+        try {
+            return Optional.ofNullable(mailetConfig.getInitParameter(CONNECTION_POOL_IDLE_TIMEOUT))
+                .map(Long::valueOf)
+                .map(Duration::ofMillis)
+                .orElse(DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid connection pool idle timeout setting: {}", mailetConfig.getInitParameter(CONNECTION_POOL_IDLE_TIMEOUT));
+            return DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT;
+        }
+    }
+
+    private int computeConnectionPoolMaxMessages(MailetConfig mailetConfig) {
+        try {
+            int maxMessages = Optional.ofNullable(mailetConfig.getInitParameter(CONNECTION_POOL_MAX_MESSAGES))
+                .map(Integer::valueOf)
+                .orElse(DEFAULT_CONNECTION_POOL_MAX_MESSAGES);
+            if (maxMessages < 1) {
+                throw new NumberFormatException("Expecting a strictly positive value");
+            }
+            return maxMessages;
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid connection pool max messages setting: {}", mailetConfig.getInitParameter(CONNECTION_POOL_MAX_MESSAGES));
+            return DEFAULT_CONNECTION_POOL_MAX_MESSAGES;
+        }
+    }
+
     private long computeSmtpTimeout(MailetConfig mailetConfig) {
         try {
             if (mailetConfig.getInitParameter(TIMEOUT) != null) {
@@ -262,6 +301,18 @@ public class RemoteDeliveryConfiguration {
         return connectionTimeout;
     }
 
+    public boolean isConnectionPoolEnabled() {
+        return connectionPoolEnabled;
+    }
+
+    public Duration getConnectionPoolIdleTimeout() {
+        return connectionPoolIdleTimeout;
+    }
+
+    public int getConnectionPoolMaxMessages() {
+        return connectionPoolMaxMessages;
+    }
+
     public int getWorkersThreadCount() {
         return workersThreadCount;
     }
@@ -0,0 +1,172 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.mail.MessagingException;
+
+import org.apache.mailet.HostAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.sun.mail.smtp.SMTPTransport;
+
+/**
+ * Keeps SMTP connections open between deliveries, so that consecutive mails sent to the same server share a session:
+ * TCP connection, EHLO, STARTTLS and AUTH only happen once.
+ *
+ * Idle connections are kept per target server. A connection is closed once it stayed idle longer than the idle
+ * timeout, or once it carried the maximum number of messages allowed per connection.
+ *
+ * This class is not thread safe: each delivery thread owns its pool, the connections of a pool being bound to the
+ * javamail session of that thread.
+ */
+public class SMTPConnectionPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SMTPConnectionPool.class);
+
+    @FunctionalInterface
+    public interface TransportFactory {
+        SMTPTransport connect(HostAddress outgoingMailServer) throws MessagingException;
+    }
+
+    public static class PooledTransport {
+        private final String key;
+        private final SMTPTransport transport;
+        private int sentMessages;
+        private Instant lastUsed;
+
+        private PooledTransport(String key, SMTPTransport transport, Instant lastUsed) {
+            this.key = key;
+            this.transport = transport;
+            this.sentMessages = 0;
+            this.lastUsed = lastUsed;
+        }
+
+        public SMTPTransport getTransport() {
+            return transport;
+        }
+    }
+
+    private final TransportFactory transportFactory;
+    private final Duration idleTimeout;
+    private final int maxMessagesPerConnection;
+    private final Clock clock;
+    private final Map<String, PooledTransport> idleTransports;
+
+    public SMTPConnectionPool(TransportFactory transportFactory, Duration idleTimeout, int maxMessagesPerConnection) {
+        this(transportFactory, idleTimeout, maxMessagesPerConnection, Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    SMTPConnectionPool(TransportFactory transportFactory, Duration idleTimeout, int maxMessagesPerConnection, Clock clock) {
+        this.transportFactory = transportFactory;
+        this.idleTimeout = idleTimeout;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.clock = clock;
+        this.idleTransports = new HashMap<>();
+    }
+
+    /**
+     * Returns a connected transport to the given server, reusing an idle one when it is still usable.
+     */
+    public PooledTransport borrow(HostAddress outgoingMailServer) throws MessagingException {
+        closeExpiredTransports();
+
+        String key = key(outgoingMailServer);
+        PooledTransport idleTransport = idleTransports.remove(key);
+        if (idleTransport != null) {
+            if (idleTransport.transport.isConnected()) {
+                LOGGER.debug("Reusing SMTP connection to {}", key);
+                return idleTransport;
+            }
+            close(idleTransport);
+        }
+        return new PooledTransport(key, transportFactory.connect(outgoingMailServer), clock.instant());
+    }
+
+    /**
+     * Gives back a transport that successfully sent a message, for it to be reused by later deliveries.
+     */
+    public void release(PooledTransport pooledTransport) {
+        pooledTransport.sentMessages++;
+        pooledTransport.lastUsed = clock.instant();
+        if (pooledTransport.sentMessages >= maxMessagesPerConnection) {
+            close(pooledTransport);
+            return;
+        }
+        PooledTransport replacedTransport = idleTransports.put(pooledTransport.key, pooledTransport);
+        if (replacedTransport != null) {
+            close(replacedTransport);
+        }
+    }
+
+    /**
+     * Closes a transport whose state is unknown, typically after a failed delivery.
+     */
+    public void discard(PooledTransport pooledTransport) {
+        close(pooledTransport);
+    }
+
+    public void closeAll() {
+        List<PooledTransport> transports = new ArrayList<>(idleTransports.values());
+        idleTransports.clear();
+        transports.forEach(this::close);
+    }
+
+    @VisibleForTesting
+    int idleConnectionCount() {
+        return idleTransports.size();
+    }
+
+    private void closeExpiredTransports() {
+        Instant expirationLimit = clock.instant().minus(idleTimeout);
+        List<PooledTransport> expiredTransports = new ArrayList<>();
+        idleTransports.values().removeIf(pooledTransport -> {
+            if (pooledTransport.lastUsed.isBefore(expirationLimit)) {
+                expiredTransports.add(pooledTransport);
+                return true;
+            }
+            return false;
+        });
+        expiredTransports.forEach(this::close);
+    }
+
+    private String key(HostAddress outgoingMailServer) {
+        return outgoingMailServer.getHostName() + "@" + outgoingMailServer.toString();
+    }
+
+    private void close(PooledTransport pooledTransport) {
+        try {
+            pooledTransport.transport.close();
+        } catch (MessagingException e) {
+            LOGGER.info("Could not close SMTP connection to {}; probably the server has already closed it: {}",
+                pooledTransport.key, e.getMessage());
+        }
+    }
+}
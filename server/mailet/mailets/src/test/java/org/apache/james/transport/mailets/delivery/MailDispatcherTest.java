@@ -21,10 +21,12 @@ package org.apache.james.transport.mailets.delivery;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
@@ -47,6 +49,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 
 public class MailDispatcherTest {
     private static final String TEST_HEADER_NAME = "X-HEADER";
@@ -319,6 +322,74 @@ public class MailDispatcherTest {
         assertThat(mail.getMessage().getHeader(TEST_HEADER_NAME)).containsOnly(headerValue);
     }
 
+    @Test
+    public void dispatchShouldStoreMailOnceForAllRecipientsWhenSingleInstanceStorage() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .singleInstanceStorage(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        testee.dispatch(mail);
+
+        verify(mailStore).storeMail(ImmutableList.of(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2), mail);
+        verifyNoMoreInteractions(mailStore);
+    }
+
+    @Test
+    public void dispatchShouldStoreIndividuallyRecipientsWithSpecificHeadersWhenSingleInstanceStorage() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .singleInstanceStorage(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        mail.addSpecificHeaderForRecipient(TEST_HEADER_USER1, MailAddressFixture.ANY_AT_JAMES);
+        testee.dispatch(mail);
+
+        verify(mailStore).storeMail(ImmutableList.of(MailAddressFixture.ANY_AT_JAMES2), mail);
+        verify(mailStore).storeMail(MailAddressFixture.ANY_AT_JAMES, mail);
+        verifyNoMoreInteractions(mailStore);
+    }
+
+    @Test
+    public void dispatchShouldSendFailedSharedRecipientsToErrorWhenSingleInstanceStorage() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .singleInstanceStorage(true)
+            .build();
+        when(mailStore.storeMail(anyCollectionOf(MailAddress.class), any(Mail.class)))
+            .thenReturn(ImmutableList.of(MailAddressFixture.ANY_AT_JAMES2));
+
+        FakeMail mail = FakeMail.builder()
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        testee.dispatch(mail);
+
+        FakeMailContext.SentMail expected = FakeMailContext.sentMailBuilder()
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipient(MailAddressFixture.ANY_AT_JAMES2)
+            .fromMailet()
+            .state(Mail.ERROR).build();
+        assertThat(fakeMailContext.getSentMails()).containsOnly(expected);
+    }
+
     public static class AccumulatorHeaderMailStore implements MailStore {
         private final ArrayListMultimap<MailAddress, String[]> headerValues;
         private final String headerName;
@@ -21,14 +21,17 @@ package org.apache.james.transport.mailets.delivery;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import javax.mail.Flags;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.core.builder.MimeMessageBuilder;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager;
 import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources;
 import org.apache.james.mailbox.manager.ManagerTestResources;
+import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.FetchGroupImpl;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.MessageRange;
@@ -43,7 +46,9 @@ import org.junit.rules.ExpectedException;
 public class MailboxAppenderTest {
 
     public static final String USER = "user";
+    public static final String OTHER_USER = "otherUser";
     public static final String FOLDER = "folder";
+    public static final String OTHER_FOLDER = "otherFolder";
     public static final String EMPTY_FOLDER = "";
 
     @Rule public ExpectedException expectedException = ExpectedException.none();
@@ -67,7 +72,7 @@ public class MailboxAppenderTest {
         mailboxManager = new ManagerTestResources<>(integrationResources).getMailboxManager();
         testee = new MailboxAppender(mailboxManager);
 
-        session = mailboxManager.createSystemSession("TEST");
+        session = mailboxManager.createSystemSession(USER);
     }
 
     @After
@@ -124,4 +129,51 @@ public class MailboxAppenderTest {
 
         assertThat(messages).hasSize(1);
     }
+
+    @Test
+    public void copyShouldAddMessageToDesiredMailbox() throws Exception {
+        ComposedMessageId source = testee.append(mimeMessage, USER, FOLDER);
+
+        testee.copy(source, USER, OTHER_FOLDER);
+
+        MessageResultIterator messages = mailboxManager.getMailbox(MailboxPath.forUser(USER, OTHER_FOLDER), session)
+            .getMessages(MessageRange.all(), new FetchGroupImpl(MessageResult.FetchGroup.MINIMAL), session);
+
+        assertThat(messages).hasSize(1);
+    }
+
+    @Test
+    public void copyShouldNotPropagateFlagsSetOnTheSource() throws Exception {
+        ComposedMessageId source = testee.append(mimeMessage, USER, FOLDER);
+        mailboxManager.getMailbox(MailboxPath.forUser(USER, FOLDER), session)
+            .setFlags(new Flags(Flags.Flag.SEEN), MessageManager.FlagsUpdateMode.ADD, MessageRange.one(source.getUid()), session);
+
+        ComposedMessageId copy = testee.copy(source, USER, OTHER_FOLDER);
+
+        MessageResultIterator messages = mailboxManager.getMailbox(MailboxPath.forUser(USER, OTHER_FOLDER), session)
+            .getMessages(MessageRange.one(copy.getUid()), new FetchGroupImpl(MessageResult.FetchGroup.MINIMAL), session);
+
+        assertThat(messages.next().getFlags()).isEqualTo(new Flags(Flags.Flag.RECENT));
+    }
+
+    @Test
+    public void copyShouldFailWhenTargetUserCanNotReadTheSource() throws Exception {
+        ComposedMessageId source = testee.append(mimeMessage, USER, FOLDER);
+
+        expectedException.expect(MessagingException.class);
+
+        testee.copy(source, OTHER_USER, FOLDER);
+    }
+
+    @Test
+    public void copyShouldFailWhenTheSourceWasExpunged() throws Exception {
+        ComposedMessageId source = testee.append(mimeMessage, USER, FOLDER);
+        MessageManager sourceMailbox = mailboxManager.getMailbox(MailboxPath.forUser(USER, FOLDER), session);
+        sourceMailbox.setFlags(new Flags(Flags.Flag.DELETED), MessageManager.FlagsUpdateMode.ADD, MessageRange.one(source.getUid()), session);
+        sourceMailbox.expunge(MessageRange.all(), session);
+
+        expectedException.expect(MessagingException.class);
+
+        testee.copy(source, USER, OTHER_FOLDER);
+    }
 }
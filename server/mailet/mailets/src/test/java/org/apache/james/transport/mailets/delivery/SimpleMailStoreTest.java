@@ -19,16 +19,25 @@
 
 package org.apache.james.transport.mailets.delivery;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Collection;
+
+import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.metrics.api.Metric;
 import org.apache.james.user.api.UsersRepository;
 import org.apache.james.user.api.UsersRepositoryException;
@@ -37,6 +46,8 @@ import org.apache.mailet.base.test.FakeMail;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 public class SimpleMailStoreTest {
 
     public static final String FOLDER = "FOLDER";
@@ -98,4 +109,82 @@ public class SimpleMailStoreTest {
 
         verify(mailboxAppender).append(any(MimeMessage.class), eq(recipient.toString()), eq(FOLDER));
     }
+
+    @Test
+    public void storeMailForSeveralRecipientsShouldAppendOnceAndCopyForOtherRecipients() throws Exception {
+        MailAddress recipient1 = MailAddressFixture.ANY_AT_JAMES;
+        MailAddress recipient2 = MailAddressFixture.OTHER_AT_JAMES;
+        when(usersRepository.getUser(recipient1)).thenReturn(recipient1.asString());
+        when(usersRepository.getUser(recipient2)).thenReturn(recipient2.asString());
+        ComposedMessageId composedMessageId = new ComposedMessageId(mock(MailboxId.class), mock(MessageId.class), MessageUid.of(1));
+        when(mailboxAppender.append(any(MimeMessage.class), any(String.class), any(String.class))).thenReturn(composedMessageId);
+        FakeMail mail = FakeMail.builder()
+            .mimeMessage(mimeMessage)
+            .build();
+
+        Collection<MailAddress> errors = testee.storeMail(ImmutableList.of(recipient1, recipient2), mail);
+
+        assertThat(errors).isEmpty();
+        verify(mailboxAppender).append(any(MimeMessage.class), eq(recipient1.asString()), eq(FOLDER));
+        verify(mailboxAppender).copy(composedMessageId, recipient2.asString(), FOLDER);
+        verifyNoMoreInteractions(mailboxAppender);
+    }
+
+    @Test
+    public void storeMailForSeveralRecipientsShouldAppendForNextRecipientWhenFirstAppendFails() throws Exception {
+        MailAddress recipient1 = MailAddressFixture.ANY_AT_JAMES;
+        MailAddress recipient2 = MailAddressFixture.OTHER_AT_JAMES;
+        when(usersRepository.getUser(recipient1)).thenReturn(recipient1.asString());
+        when(usersRepository.getUser(recipient2)).thenReturn(recipient2.asString());
+        when(mailboxAppender.append(any(MimeMessage.class), eq(recipient1.asString()), any(String.class)))
+            .thenThrow(new MessagingException());
+        FakeMail mail = FakeMail.builder()
+            .mimeMessage(mimeMessage)
+            .build();
+
+        Collection<MailAddress> errors = testee.storeMail(ImmutableList.of(recipient1, recipient2), mail);
+
+        assertThat(errors).containsOnly(recipient1);
+        verify(mailboxAppender).append(any(MimeMessage.class), eq(recipient2.asString()), eq(FOLDER));
+    }
+
+    @Test
+    public void storeMailForSeveralRecipientsShouldAppendWhenCopyFails() throws Exception {
+        MailAddress recipient1 = MailAddressFixture.ANY_AT_JAMES;
+        MailAddress recipient2 = MailAddressFixture.OTHER_AT_JAMES;
+        when(usersRepository.getUser(recipient1)).thenReturn(recipient1.asString());
+        when(usersRepository.getUser(recipient2)).thenReturn(recipient2.asString());
+        ComposedMessageId composedMessageId = new ComposedMessageId(mock(MailboxId.class), mock(MessageId.class), MessageUid.of(1));
+        when(mailboxAppender.append(any(MimeMessage.class), any(String.class), any(String.class))).thenReturn(composedMessageId);
+        when(mailboxAppender.copy(any(ComposedMessageId.class), any(String.class), any(String.class)))
+            .thenThrow(new MessagingException());
+        FakeMail mail = FakeMail.builder()
+            .mimeMessage(mimeMessage)
+            .build();
+
+        Collection<MailAddress> errors = testee.storeMail(ImmutableList.of(recipient1, recipient2), mail);
+
+        assertThat(errors).isEmpty();
+        verify(mailboxAppender).append(any(MimeMessage.class), eq(recipient2.asString()), eq(FOLDER));
+    }
+
+    @Test
+    public void storeMailForSeveralRecipientsShouldReturnRecipientsForWhichCopyAndAppendFailed() throws Exception {
+        MailAddress recipient1 = MailAddressFixture.ANY_AT_JAMES;
+        MailAddress recipient2 = MailAddressFixture.OTHER_AT_JAMES;
+        when(usersRepository.getUser(recipient1)).thenReturn(recipient1.asString());
+        when(usersRepository.getUser(recipient2)).thenReturn(recipient2.asString());
+        ComposedMessageId composedMessageId = new ComposedMessageId(mock(MailboxId.class), mock(MessageId.class), MessageUid.of(1));
+        when(mailboxAppender.append(any(MimeMessage.class), eq(recipient1.asString()), any(String.class))).thenReturn(composedMessageId);
+        when(mailboxAppender.append(any(MimeMessage.class), eq(recipient2.asString()), any(String.class))).thenThrow(new MessagingException());
+        when(mailboxAppender.copy(any(ComposedMessageId.class), any(String.class), any(String.class)))
+            .thenThrow(new MessagingException());
+        FakeMail mail = FakeMail.builder()
+            .mimeMessage(mimeMessage)
+            .build();
+
+        Collection<MailAddress> errors = testee.storeMail(ImmutableList.of(recipient1, recipient2), mail);
+
+        assertThat(errors).containsOnly(recipient2);
+    }
 }
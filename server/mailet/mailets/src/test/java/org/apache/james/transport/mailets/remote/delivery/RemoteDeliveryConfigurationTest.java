@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Properties;
 
 import org.apache.james.core.Domain;
@@ -187,6 +188,91 @@ public class RemoteDeliveryConfigurationTest {
             .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_CONNECTION_TIMEOUT);
     }
 
+    @Test
+    public void isConnectionPoolEnabledShouldBeFalseByDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).isConnectionPoolEnabled())
+            .isFalse();
+    }
+
+    @Test
+    public void isConnectionPoolEnabledShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_POOL, "true")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).isConnectionPoolEnabled())
+            .isTrue();
+    }
+
+    @Test
+    public void getConnectionPoolIdleTimeoutShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionPoolIdleTimeout())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT);
+    }
+
+    @Test
+    public void getConnectionPoolIdleTimeoutShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_POOL_IDLE_TIMEOUT, "5000")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionPoolIdleTimeout())
+            .isEqualTo(Duration.ofMillis(5000));
+    }
+
+    @Test
+    public void getConnectionPoolIdleTimeoutShouldReturnDefaultIfParsingException() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_POOL_IDLE_TIMEOUT, "invalid")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionPoolIdleTimeout())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT);
+    }
+
+    @Test
+    public void getConnectionPoolMaxMessagesShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionPoolMaxMessages())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_CONNECTION_POOL_MAX_MESSAGES);
+    }
+
+    @Test
+    public void getConnectionPoolMaxMessagesShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_POOL_MAX_MESSAGES, "20")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionPoolMaxMessages())
+            .isEqualTo(20);
+    }
+
+    @Test
+    public void getConnectionPoolMaxMessagesShouldReturnDefaultWhenZero() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_THREADS, "1")
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_POOL_MAX_MESSAGES, "0")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionPoolMaxMessages())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_CONNECTION_POOL_MAX_MESSAGES);
+    }
+
     @Test
     public void getConnectionTimeoutShouldReturnProvidedValueWhenZero() {
         FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
@@ -0,0 +1,144 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.mailet.HostAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.mail.smtp.SMTPTransport;
+
+public class SMTPConnectionPoolTest {
+
+    private static final HostAddress HOST_ADDRESS_1 = new HostAddress("mx1.domain.com", "smtp://192.0.2.1:25");
+    private static final HostAddress HOST_ADDRESS_2 = new HostAddress("mx2.domain.com", "smtp://192.0.2.2:25");
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_MESSAGES = 2;
+    private static final Instant NOW = Instant.parse("2017-12-01T10:00:00Z");
+
+    private SMTPConnectionPool.TransportFactory transportFactory;
+    private SMTPTransport transport1;
+    private SMTPTransport transport2;
+    private Clock clock;
+    private SMTPConnectionPool testee;
+
+    @Before
+    public void setUp() throws Exception {
+        transportFactory = mock(SMTPConnectionPool.TransportFactory.class);
+        transport1 = mock(SMTPTransport.class);
+        transport2 = mock(SMTPTransport.class);
+        when(transport1.isConnected()).thenReturn(true);
+        when(transport2.isConnected()).thenReturn(true);
+        when(transportFactory.connect(HOST_ADDRESS_1)).thenReturn(transport1, transport2);
+        when(transportFactory.connect(HOST_ADDRESS_2)).thenReturn(transport2);
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+
+        testee = new SMTPConnectionPool(transportFactory, IDLE_TIMEOUT, MAX_MESSAGES, clock);
+    }
+
+    @Test
+    public void borrowShouldConnectWhenNoIdleConnection() throws Exception {
+        assertThat(testee.borrow(HOST_ADDRESS_1).getTransport()).isEqualTo(transport1);
+    }
+
+    @Test
+    public void borrowShouldReuseReleasedConnection() throws Exception {
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+
+        assertThat(testee.borrow(HOST_ADDRESS_1).getTransport()).isEqualTo(transport1);
+        verify(transportFactory, times(1)).connect(HOST_ADDRESS_1);
+    }
+
+    @Test
+    public void borrowShouldNotReuseConnectionToAnotherServer() throws Exception {
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+
+        assertThat(testee.borrow(HOST_ADDRESS_2).getTransport()).isEqualTo(transport2);
+    }
+
+    @Test
+    public void borrowShouldNotReuseDisconnectedConnection() throws Exception {
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+        when(transport1.isConnected()).thenReturn(false);
+
+        assertThat(testee.borrow(HOST_ADDRESS_1).getTransport()).isEqualTo(transport2);
+        verify(transport1).close();
+    }
+
+    @Test
+    public void borrowShouldCloseExpiredConnections() throws Exception {
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+        when(clock.instant()).thenReturn(NOW.plus(IDLE_TIMEOUT).plusMillis(1));
+
+        assertThat(testee.borrow(HOST_ADDRESS_2).getTransport()).isEqualTo(transport2);
+        verify(transport1).close();
+        assertThat(testee.idleConnectionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void releaseShouldCloseConnectionOnceMaxMessagesAreSent() throws Exception {
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+
+        verify(transport1).close();
+        assertThat(testee.idleConnectionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void releaseShouldKeepConnectionBelowMaxMessages() throws Exception {
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+
+        verify(transport1, never()).close();
+        assertThat(testee.idleConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void discardShouldCloseConnection() throws Exception {
+        testee.discard(testee.borrow(HOST_ADDRESS_1));
+
+        verify(transport1).close();
+        assertThat(testee.idleConnectionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void closeAllShouldCloseIdleConnections() throws Exception {
+        testee.release(testee.borrow(HOST_ADDRESS_1));
+        testee.release(testee.borrow(HOST_ADDRESS_2));
+
+        testee.closeAll();
+
+        verify(transport1).close();
+        verify(transport2).close();
+        assertThat(testee.idleConnectionCount()).isEqualTo(0);
+    }
+}
@@ -25,7 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
+import java.io.SequenceInputStream;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Properties;
@@ -47,7 +47,6 @@ import org.apache.mailet.Mail;
 
 import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Throwables;
-import com.google.common.primitives.Bytes;
 
 public class CassandraMailRepository implements MailRepository {
 
@@ -68,11 +67,12 @@ public class CassandraMailRepository implements MailRepository {
     @Override
     public void store(Mail mail) throws MessagingException {
         try {
-            Pair<byte[], byte[]> splitHeaderBody = splitHeaderBody(mail.getMessage());
+            byte[] messageAsArray = messageToArray(mail.getMessage());
+            int bodyStartOctet = computeBodyStartOctet(messageAsArray);
 
             CompletableFuture<Pair<BlobId, BlobId>> blobIds = CompletableFutureUtil.combine(
-                objectStore.save(splitHeaderBody.getLeft()),
-                objectStore.save(splitHeaderBody.getRight()),
+                objectStore.save(new ByteArrayInputStream(messageAsArray, 0, bodyStartOctet)),
+                objectStore.save(new ByteArrayInputStream(messageAsArray, bodyStartOctet, messageAsArray.length - bodyStartOctet)),
                 Pair::of);
 
             blobIds.thenCompose(Throwing.function(pair ->
@@ -86,41 +86,12 @@ public class CassandraMailRepository implements MailRepository {
         }
     }
 
-    public Pair<byte[], byte[]> splitHeaderBody(MimeMessage message) throws IOException, MessagingException {
-        byte[] messageAsArray = messageToArray(message);
-        int bodyStartOctet = computeBodyStartOctet(messageAsArray);
-
-        return Pair.of(
-            getHeaderBytes(messageAsArray, bodyStartOctet),
-            getBodyBytes(messageAsArray, bodyStartOctet));
-    }
-
     public byte[] messageToArray(MimeMessage message) throws IOException, MessagingException {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         message.writeTo(byteArrayOutputStream);
         return byteArrayOutputStream.toByteArray();
     }
 
-    public byte[] getHeaderBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-        ByteBuffer headerContent = ByteBuffer.wrap(messageContentAsArray, 0, bodyStartOctet);
-        byte[] headerBytes = new byte[bodyStartOctet];
-        headerContent.get(headerBytes);
-        return headerBytes;
-    }
-
-    public byte[] getBodyBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-        if (bodyStartOctet < messageContentAsArray.length) {
-            ByteBuffer bodyContent = ByteBuffer.wrap(messageContentAsArray,
-                bodyStartOctet,
-                messageContentAsArray.length - bodyStartOctet);
-            byte[] bodyBytes = new byte[messageContentAsArray.length - bodyStartOctet];
-            bodyContent.get(bodyBytes);
-            return bodyBytes;
-        } else {
-            return new byte[] {};
-        }
-    }
-
     public int computeBodyStartOctet(byte[] messageAsArray) throws IOException {
         try (BodyOffsetInputStream bodyOffsetInputStream =
                  new BodyOffsetInputStream(new ByteArrayInputStream(messageAsArray))) {
@@ -146,27 +117,25 @@ public class CassandraMailRepository implements MailRepository {
 
     @Override
     public Mail retrieve(String key) {
-        return CompletableFutureUtil
-            .unwrap(mailDAO.read(url, key)
-                .thenApply(optional -> optional.map(this::toMail)))
+        return mailDAO.read(url, key)
             .join()
+            .map(this::toMail)
             .orElse(null);
     }
 
-    public CompletableFuture<Mail> toMail(CassandraMailRepositoryMailDAO.MailDTO mailDTO) {
-        return CompletableFutureUtil.combine(
-            objectStore.read(mailDTO.getHeaderBlobId()),
-            objectStore.read(mailDTO.getBodyBlobId()),
-            Bytes::concat)
-            .thenApply(this::toMimeMessage)
-            .thenApply(mimeMessage -> mailDTO.getMailBuilder()
-                .mimeMessage(mimeMessage)
-                .build());
+    public Mail toMail(CassandraMailRepositoryMailDAO.MailDTO mailDTO) {
+        InputStream content = new SequenceInputStream(
+            objectStore.readStream(mailDTO.getHeaderBlobId()),
+            objectStore.readStream(mailDTO.getBodyBlobId()));
+
+        return mailDTO.getMailBuilder()
+            .mimeMessage(toMimeMessage(content))
+            .build();
     }
 
-    public MimeMessage toMimeMessage(byte[] bytes) {
+    public MimeMessage toMimeMessage(InputStream content) {
         try {
-            return new MimeMessage(Session.getInstance(new Properties()), new ByteArrayInputStream(bytes));
+            return new MimeMessage(Session.getInstance(new Properties()), content);
         } catch (MessagingException e) {
             throw Throwables.propagate(e);
         }
@@ -22,6 +22,8 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.inject.Inject;
 
@@ -82,6 +84,21 @@ public class DNSRBLHandler extends org.apache.james.protocols.smtp.core.fastfail
         }
     }
 
+    @Override
+    protected CompletableFuture<Boolean> resolveAsync(String ip) {
+        return dns.getByNameAsync(ip)
+            .handle((address, error) -> {
+                if (error == null) {
+                    return true;
+                }
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof UnknownHostException) {
+                    return false;
+                }
+                throw new CompletionException(cause);
+            });
+    }
+
     @Override
     protected Collection<String> resolveTXTRecords(String ip) {
         return dns.findTXTRecords(ip);
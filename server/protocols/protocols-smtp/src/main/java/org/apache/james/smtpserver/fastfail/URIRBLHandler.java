@@ -23,7 +23,11 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.mail.MessagingException;
@@ -46,6 +50,8 @@ import org.apache.mailet.Mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Lists;
+
 /**
  * Extract domains from message and check against URIRBLServer. For more
  * informations see <a href="http://www.surbl.org">www.surbl.org</a>
@@ -59,12 +65,16 @@ public class URIRBLHandler implements JamesMessageHook, ProtocolHandler {
 
     private static final String URBLSERVER = "URBL_SERVER";
 
+    private static final int DEFAULT_MAX_CONCURRENT_LOOKUPS = 8;
+
     private DNSService dnsService;
 
     private Collection<String> uriRbl;
 
     private boolean getDetail = false;
 
+    private int maxConcurrentLookups = DEFAULT_MAX_CONCURRENT_LOOKUPS;
+
     /**
      * Gets the DNS service.
      * 
@@ -105,6 +115,17 @@ public class URIRBLHandler implements JamesMessageHook, ProtocolHandler {
         this.getDetail = getDetail;
     }
 
+    /**
+     * Set the maximum number of lookups a message issues at once. Lookups share the DNS resolver threads with
+     * every other session, hence domains are checked in waves of this size.
+     *
+     * @param maxConcurrentLookups
+     *            strictly positive
+     */
+    public void setMaxConcurrentLookups(int maxConcurrentLookups) {
+        this.maxConcurrentLookups = maxConcurrentLookups;
+    }
+
     @Override
     public HookResult onMessage(SMTPSession session, Mail mail) {
         if (check(session, mail)) {
@@ -194,34 +215,66 @@ public class URIRBLHandler implements JamesMessageHook, ProtocolHandler {
 
             HashSet<String> domains = scanMailForDomains(message, session);
 
-            for (String domain : domains) {
-                Iterator<String> uRbl = uriRbl.iterator();
-                String target = domain;
+            List<UriRblLookup> lookups = domains.stream()
+                .flatMap(domain -> uriRbl.stream().map(uRblServer -> new UriRblLookup(domain, uRblServer)))
+                .collect(Collectors.toList());
+
+            // Query the domains against the servers in bounded waves, the first listed one in scanning order wins
+            for (List<UriRblLookup> wave : Lists.partition(lookups, maxConcurrentLookups)) {
+                List<CompletableFuture<Boolean>> results = wave.stream()
+                    .map(UriRblLookup::resolve)
+                    .collect(Collectors.toList());
+
+                Optional<UriRblLookup> listed = firstListed(wave, results);
+                if (listed.isPresent()) {
+                    // store server name for later use
+                    session.setAttachment(URBLSERVER, listed.get().uRblServer, State.Transaction);
+                    session.setAttachment(LISTED_DOMAIN, listed.get().target, State.Transaction);
+                    return true;
+                }
+            }
+        } catch (MessagingException | IOException e) {
+            LOGGER.error(e.getMessage());
+        }
+        return false;
+    }
+
+    private Optional<UriRblLookup> firstListed(List<UriRblLookup> wave, List<CompletableFuture<Boolean>> results) {
+        for (int index = 0; index < wave.size(); index++) {
+            if (results.get(index).join()) {
+                return Optional.of(wave.get(index));
+            }
+        }
+        return Optional.empty();
+    }
 
-                while (uRbl.hasNext()) {
-                    try {
-                        String uRblServer = uRbl.next();
-                        String address = target + "." + uRblServer;
+    private class UriRblLookup {
+        private final String target;
+        private final String uRblServer;
 
-                        LOGGER.debug("Lookup {}", address);
+        private UriRblLookup(String target, String uRblServer) {
+            this.target = target;
+            this.uRblServer = uRblServer;
+        }
 
-                        dnsService.getByName(address);
+        private CompletableFuture<Boolean> resolve() {
+            String address = target + "." + uRblServer;
 
-                        // store server name for later use
-                        session.setAttachment(URBLSERVER, uRblServer, State.Transaction);
-                        session.setAttachment(LISTED_DOMAIN, target, State.Transaction);
+            LOGGER.debug("Lookup {}", address);
 
+            return dnsService.getByNameAsync(address)
+                .handle((resolved, error) -> {
+                    if (error == null) {
                         return true;
-
-                    } catch (UnknownHostException uhe) {
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof UnknownHostException) {
                         // domain not found. keep processing
+                        return false;
                     }
-                }
-            }
-        } catch (MessagingException | IOException e) {
-            LOGGER.error(e.getMessage());
+                    throw new CompletionException(cause);
+                });
         }
-        return false;
     }
 
     @Override
@@ -239,6 +292,12 @@ public class URIRBLHandler implements JamesMessageHook, ProtocolHandler {
         }
 
         setGetDetail(config.getBoolean("getDetail", false));        
+
+        int maxConcurrentLookups = config.getInt("maxConcurrentLookups", DEFAULT_MAX_CONCURRENT_LOOKUPS);
+        if (maxConcurrentLookups < 1) {
+            throw new ConfigurationException("maxConcurrentLookups should be strictly positive");
+        }
+        setMaxConcurrentLookups(maxConcurrentLookups);
     }
 
     @Override
@@ -18,10 +18,15 @@
  ****************************************************************/
 package org.apache.james.smtpserver.fastfail;
 
+import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -94,38 +99,52 @@ public class ValidRcptMX implements RcptHook, ProtocolHandler {
         // Email should be deliver local
         if (!domain.equals(Domain.LOCALHOST)) {
 
-            Iterator<String> mx;
+            Collection<String> mx;
             try {
-                mx = dnsService.findMXRecords(domain.name()).iterator();
+                mx = dnsService.findMXRecords(domain.name());
             } catch (TemporaryResolutionException e1) {
                 return HookResult.DENYSOFT;
             }
 
-            if (mx != null && mx.hasNext()) {
-                while (mx.hasNext()) {
-                    String mxRec = mx.next();
-
-                    try {
-                        String ip = dnsService.getByName(mxRec).getHostAddress();
-
-                        // Check for invalid MX
-                        if (bNetwork.matchInetNetwork(ip)) {
-                            return HookResult.builder()
-                                .hookReturnCode(HookReturnCode.deny())
-                                .smtpReturnCode(SMTPRetCode.AUTH_REQUIRED)
-                                .smtpDescription(DSNStatus.getStatus(DSNStatus.PERMANENT, DSNStatus.SECURITY_AUTH)
-                                    + " Invalid MX " + session.getRemoteAddress().getAddress().toString() + " for domain " + domain.asString() + ". Reject email")
-                                .build();
-                        }
-                    } catch (UnknownHostException e) {
-                        // Ignore this
-                    }
-                }
+            // Resolve all the MX hosts at once
+            List<CompletableFuture<Optional<InetAddress>>> mxAddresses = mx.stream()
+                .map(this::resolveMX)
+                .collect(Guavate.toImmutableList());
+
+            boolean invalidMX = mxAddresses.stream()
+                .map(CompletableFuture::join)
+                .flatMap(address -> address.map(Stream::of).orElse(Stream.empty()))
+                .map(InetAddress::getHostAddress)
+                // Check for invalid MX
+                .anyMatch(ip -> bNetwork.matchInetNetwork(ip));
+
+            if (invalidMX) {
+                return HookResult.builder()
+                    .hookReturnCode(HookReturnCode.deny())
+                    .smtpReturnCode(SMTPRetCode.AUTH_REQUIRED)
+                    .smtpDescription(DSNStatus.getStatus(DSNStatus.PERMANENT, DSNStatus.SECURITY_AUTH)
+                        + " Invalid MX " + session.getRemoteAddress().getAddress().toString() + " for domain " + domain.asString() + ". Reject email")
+                    .build();
             }
         }
         return HookResult.DECLINED;
     }
 
+    private CompletableFuture<Optional<InetAddress>> resolveMX(String mxRec) {
+        return dnsService.getByNameAsync(mxRec)
+            .handle((address, error) -> {
+                if (error == null) {
+                    return Optional.of(address);
+                }
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof UnknownHostException) {
+                    // Ignore unresolvable MX
+                    return Optional.empty();
+                }
+                throw new CompletionException(cause);
+            });
+    }
+
     @Override
     public void init(Configuration config) throws ConfigurationException {
 
@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.james.smtpserver;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
@@ -49,6 +50,7 @@ public class URIRBLHandlerTest {
     private static final String BAD_DOMAIN2 = "bad2.domain.de";
     private static final String GOOD_DOMAIN = "good.apache.org";
     private static final String URISERVER = "multi.surbl.org.";
+    private static final String OTHER_URISERVER = "other.surbl.org.";
     private Mail mockedMail;
 
     private SMTPSession setupMockedSMTPSession(Mail mail) {
@@ -209,6 +211,34 @@ public class URIRBLHandlerTest {
         assertEquals("Email was rejected", response.getResult(), HookReturnCode.deny());
     }
 
+    @Test
+    public void onMessageShouldNotLookupRemainingServersOnceListed() throws IOException, MessagingException {
+        List<String> lookedUpHosts = new ArrayList<>();
+        DNSService dnsService = setupMockedDnsServer();
+        ArrayList<String> servers = new ArrayList<>();
+        servers.add(URISERVER);
+        servers.add(OTHER_URISERVER);
+
+        SMTPSession session = setupMockedSMTPSession(setupMockedMail(setupMockedMimeMessage(
+                "http://" + BAD_DOMAIN1 + "/")));
+
+        URIRBLHandler handler = new URIRBLHandler();
+
+        handler.setDNSService(new MockDNSService() {
+            @Override
+            public InetAddress getByName(String host) throws UnknownHostException {
+                lookedUpHosts.add(host);
+                return dnsService.getByName(host);
+            }
+        });
+        handler.setUriRblServer(servers);
+        handler.setMaxConcurrentLookups(1);
+        HookResult response = handler.onMessage(session, mockedMail);
+
+        assertEquals("Email was rejected", response.getResult(), HookReturnCode.deny());
+        assertThat(lookedUpHosts).containsExactly(BAD_DOMAIN1.substring(4) + "." + URISERVER);
+    }
+
     /*
      * public void testAddJunkScore() throws IOException, MessagingException {
      * 
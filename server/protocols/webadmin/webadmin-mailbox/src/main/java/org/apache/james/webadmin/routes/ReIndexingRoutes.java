@@ -0,0 +1,192 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.james.mailbox.indexer.ReIndexingTask;
+import org.apache.james.mailbox.indexer.ReIndexingTaskRunner;
+import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.dto.TaskIdDto;
+import org.apache.james.webadmin.utils.ErrorResponder;
+import org.apache.james.webadmin.utils.ErrorResponder.ErrorType;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+
+import com.google.common.base.Strings;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.ResponseHeader;
+import spark.Request;
+import spark.Response;
+import spark.Service;
+
+@Api(tags = "ReIndexing")
+@Path(ReIndexingRoutes.MAILBOXES)
+@Produces("application/json")
+public class ReIndexingRoutes implements Routes {
+
+    /* for @Path annotation */ static final String MAILBOXES = "/mailboxes";
+    private static final String TASK_PARAMETER = "task";
+    private static final String RE_INDEX = "reIndex";
+    private static final String PARALLELISM_PARAMETER = "parallelism";
+    private static final String BATCH_SIZE_PARAMETER = "batchSize";
+    private static final String MESSAGES_PER_SECOND_PARAMETER = "messagesPerSecond";
+    private static final String RESUME_PARAMETER = "resume";
+
+    private final ReIndexingTaskRunner reIndexingTaskRunner;
+    private final TaskManager taskManager;
+    private final JsonTransformer jsonTransformer;
+
+    @Inject
+    public ReIndexingRoutes(ReIndexingTaskRunner reIndexingTaskRunner, TaskManager taskManager, JsonTransformer jsonTransformer) {
+        this.reIndexingTaskRunner = reIndexingTaskRunner;
+        this.taskManager = taskManager;
+        this.jsonTransformer = jsonTransformer;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.post(MAILBOXES, this::reIndex, jsonTransformer);
+    }
+
+    @POST
+    @ApiOperation("Re-indexes all the mails of the server")
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+            required = true,
+            name = TASK_PARAMETER,
+            paramType = "query parameter",
+            dataType = "String",
+            defaultValue = "none",
+            example = "?task=reIndex",
+            value = "Compulsory. Only supported value is `reIndex`"),
+        @ApiImplicitParam(
+            required = false,
+            name = PARALLELISM_PARAMETER,
+            paramType = "query parameter",
+            dataType = "Integer",
+            defaultValue = "4",
+            example = "?parallelism=8",
+            value = "Count of mailboxes re-indexed concurrently"),
+        @ApiImplicitParam(
+            required = false,
+            name = BATCH_SIZE_PARAMETER,
+            paramType = "query parameter",
+            dataType = "Integer",
+            defaultValue = "100",
+            example = "?batchSize=500",
+            value = "Count of messages read and submitted to the index at once"),
+        @ApiImplicitParam(
+            required = false,
+            name = MESSAGES_PER_SECOND_PARAMETER,
+            paramType = "query parameter",
+            dataType = "Integer",
+            defaultValue = "unlimited",
+            example = "?messagesPerSecond=1000",
+            value = "Caps the count of messages re-indexed per second"),
+        @ApiImplicitParam(
+            required = false,
+            name = RESUME_PARAMETER,
+            paramType = "query parameter",
+            dataType = "Boolean",
+            defaultValue = "true",
+            example = "?resume=false",
+            value = "Whether to resume after the last mailbox recorded by a previous interrupted re-indexing")
+    })
+    @ApiResponses({
+        @ApiResponse(code = HttpStatus.CREATED_201, message = "The taskId of the given scheduled task",
+            response = TaskIdDto.class, responseHeaders = {
+            @ResponseHeader(name = "Location", description = "URL of the resource associated with the scheduled task")
+        }),
+        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Bad request - unknown task or invalid parameter")
+    })
+    public Object reIndex(Request request, Response response) {
+        enforceTaskParameter(request);
+        ReIndexingTask task = new ReIndexingTask(reIndexingTaskRunner, toParameters(request));
+        TaskId taskId = taskManager.submit(task);
+        return TaskIdDto.respond(response, taskId);
+    }
+
+    private void enforceTaskParameter(Request request) {
+        if (!RE_INDEX.equals(request.queryParams(TASK_PARAMETER))) {
+            throw ErrorResponder.builder()
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorType.INVALID_ARGUMENT)
+                .message("task query parameter is mandatory. The only supported value is `" + RE_INDEX + "`")
+                .haltError();
+        }
+    }
+
+    private ReIndexingTask.Parameters toParameters(Request request) {
+        try {
+            ReIndexingTask.Parameters.Builder builder = ReIndexingTask.Parameters.builder();
+            parseInteger(request, PARALLELISM_PARAMETER).ifPresent(builder::parallelism);
+            parseInteger(request, BATCH_SIZE_PARAMETER).ifPresent(builder::batchSize);
+            parseInteger(request, MESSAGES_PER_SECOND_PARAMETER).ifPresent(builder::messagesPerSecond);
+            parseBoolean(request, RESUME_PARAMETER).ifPresent(builder::resume);
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw ErrorResponder.builder()
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorType.INVALID_ARGUMENT)
+                .cause(e)
+                .message(e.getMessage())
+                .haltError();
+        }
+    }
+
+    private Optional<Integer> parseInteger(Request request, String parameterName) {
+        try {
+            return queryParameter(request, parameterName).map(Integer::valueOf);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Can not parse " + parameterName, e);
+        }
+    }
+
+    private Optional<Boolean> parseBoolean(Request request, String parameterName) {
+        return queryParameter(request, parameterName).map(value -> {
+            if (value.equalsIgnoreCase(Boolean.TRUE.toString())) {
+                return true;
+            }
+            if (value.equalsIgnoreCase(Boolean.FALSE.toString())) {
+                return false;
+            }
+            throw new IllegalArgumentException("Can not parse " + parameterName + ", expecting `true` or `false`");
+        });
+    }
+
+    private Optional<String> queryParameter(Request request, String parameterName) {
+        return Optional.ofNullable(request.queryParams(parameterName))
+            .filter(value -> !Strings.isNullOrEmpty(value));
+    }
+}
@@ -0,0 +1,169 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static com.jayway.restassured.RestAssured.given;
+import static com.jayway.restassured.RestAssured.when;
+import static com.jayway.restassured.RestAssured.with;
+import static org.apache.james.webadmin.WebAdminServer.NO_CONFIGURATION;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.indexer.MemoryReIndexingCursorRepository;
+import org.apache.james.mailbox.indexer.ReIndexingTask;
+import org.apache.james.mailbox.indexer.ReIndexingTaskRunner;
+import org.apache.james.mailbox.mock.MockMailboxSession;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.metrics.logger.DefaultMetricFactory;
+import org.apache.james.task.MemoryTaskManager;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.jayway.restassured.RestAssured;
+
+class ReIndexingRoutesTest {
+
+    private WebAdminServer webAdminServer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MailboxManager mailboxManager = mock(MailboxManager.class);
+        MailboxSession mailboxSession = new MockMailboxSession("re-indexing");
+        Mockito.when(mailboxManager.createSystemSession(any(String.class))).thenReturn(mailboxSession);
+        Mockito.when(mailboxManager.list(mailboxSession)).thenReturn(ImmutableList.<MailboxPath>of());
+
+        ReIndexingTaskRunner reIndexingTaskRunner = new ReIndexingTaskRunner(mailboxManager,
+            mock(ListeningMessageSearchIndex.class),
+            mock(MailboxSessionMapperFactory.class),
+            new MemoryReIndexingCursorRepository());
+        MemoryTaskManager taskManager = new MemoryTaskManager();
+        JsonTransformer jsonTransformer = new JsonTransformer();
+
+        webAdminServer = WebAdminUtils.createWebAdminServer(
+            new DefaultMetricFactory(),
+            new ReIndexingRoutes(reIndexingTaskRunner, taskManager, jsonTransformer),
+            new TasksRoutes(taskManager, jsonTransformer));
+        webAdminServer.configure(NO_CONFIGURATION);
+        webAdminServer.await();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .build();
+    }
+
+    @AfterEach
+    void stop() {
+        webAdminServer.destroy();
+    }
+
+    @Test
+    void reIndexShouldRejectMissingTaskParameter() {
+        when()
+            .post("/mailboxes")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("type", is("InvalidArgument"));
+    }
+
+    @Test
+    void reIndexShouldRejectUnknownTask() {
+        when()
+            .post("/mailboxes?task=unknown")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void reIndexShouldRejectInvalidParallelism() {
+        when()
+            .post("/mailboxes?task=reIndex&parallelism=invalid")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void reIndexShouldRejectNonPositiveMessagesPerSecond() {
+        when()
+            .post("/mailboxes?task=reIndex&messagesPerSecond=0")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void reIndexShouldRejectInvalidResume() {
+        when()
+            .post("/mailboxes?task=reIndex&resume=ture")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("type", is("InvalidArgument"));
+    }
+
+    @Test
+    void reIndexShouldAcceptResumeWhateverItsCase() {
+        when()
+            .post("/mailboxes?task=reIndex&resume=FALSE")
+        .then()
+            .statusCode(HttpStatus.CREATED_201);
+    }
+
+    @Test
+    void reIndexShouldCreateATask() {
+        when()
+            .post("/mailboxes?task=reIndex")
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .header("Location", is(notNullValue()))
+            .body("taskId", is(notNullValue()));
+    }
+
+    @Test
+    void reIndexTaskShouldHaveDetails() {
+        String taskId = with()
+            .post("/mailboxes?task=reIndex&parallelism=2&messagesPerSecond=50")
+            .jsonPath()
+            .get("taskId");
+
+        given()
+            .basePath(TasksRoutes.BASE)
+        .when()
+            .get(taskId + "/await")
+        .then()
+            .body("status", is("completed"))
+            .body("type", is(ReIndexingTask.FULL_RE_INDEXING))
+            .body("additionalInformation.parallelism", is(2))
+            .body("additionalInformation.messagesPerSecond", is(50))
+            .body("additionalInformation.totalMailboxCount", is(0))
+            .body("additionalInformation.processedMailboxCount", is(0))
+            .body("additionalInformation.indexedMessageCount", is(0))
+            .body("additionalInformation.failedMessageCount", is(0));
+    }
+}
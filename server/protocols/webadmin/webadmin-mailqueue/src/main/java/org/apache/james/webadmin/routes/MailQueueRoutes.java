@@ -36,8 +36,8 @@ import org.apache.james.queue.api.MailQueue.MailQueueException;
 import org.apache.james.queue.api.MailQueueFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.api.ManageableMailQueue.Type;
-import org.apache.james.util.streams.Iterators;
 import org.apache.james.util.streams.Limit;
+import org.apache.james.util.streams.Offset;
 import org.apache.james.webadmin.Constants;
 import org.apache.james.webadmin.Routes;
 import org.apache.james.webadmin.dto.ForceDelivery;
@@ -79,6 +79,7 @@ public class MailQueueRoutes implements Routes {
     
     private static final String DELAYED_QUERY_PARAM = "delayed";
     private static final String LIMIT_QUERY_PARAM = "limit";
+    private static final String OFFSET_QUERY_PARAM = "offset";
     @VisibleForTesting static final int DEFAULT_LIMIT_VALUE = 100;
     private static final String SENDER_QUERY_PARAM = "sender";
     private static final String NAME_QUERY_PARAM = "name";
@@ -190,7 +191,15 @@ public class MailQueueRoutes implements Routes {
                 paramType = "query",
                 example = "?limit=100",
                 defaultValue = "100",
-                value = "Limits the maximum number of mails returned by this endpoint")
+                value = "Limits the maximum number of mails returned by this endpoint"),
+        @ApiImplicitParam(
+                required = false,
+                dataType = "int",
+                name = OFFSET_QUERY_PARAM,
+                paramType = "query",
+                example = "?offset=100",
+                defaultValue = "0",
+                value = "Skips the given number of mails of the MailQueue before listing them")
     })
     @ApiOperation(
         value = "List the mails of the MailQueue"
@@ -210,7 +219,10 @@ public class MailQueueRoutes implements Routes {
     private List<MailQueueItemDTO> listMails(Request request) {
         String mailQueueName = request.params(MAIL_QUEUE_NAME);
         return mailQueueFactory.getQueue(mailQueueName)
-                .map(name -> listMails(name, isDelayed(request.queryParams(DELAYED_QUERY_PARAM)), limit(request.queryParams(LIMIT_QUERY_PARAM))))
+                .map(name -> listMails(name,
+                    isDelayed(request.queryParams(DELAYED_QUERY_PARAM)),
+                    offset(request.queryParams(OFFSET_QUERY_PARAM)),
+                    limit(request.queryParams(LIMIT_QUERY_PARAM))))
                 .orElseThrow(
                     () -> ErrorResponder.builder()
                         .message(String.format("%s can not be found", mailQueueName))
@@ -239,9 +251,25 @@ public class MailQueueRoutes implements Routes {
         }
     }
 
-    private List<MailQueueItemDTO> listMails(ManageableMailQueue queue, Optional<Boolean> isDelayed, Limit limit) {
+    @VisibleForTesting Offset offset(String offsetAsString) throws HaltException {
         try {
-            return limit.applyOnStream(Iterators.toStream(queue.browse()))
+            return Optional.ofNullable(offsetAsString)
+                    .map(Integer::parseInt)
+                    .map(Offset::from)
+                    .orElseGet(Offset::none);
+        } catch (IllegalArgumentException e) {
+            throw ErrorResponder.builder()
+                .message("offset can't be less than zero")
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorType.INVALID_ARGUMENT)
+                .haltError();
+        }
+    }
+
+    private List<MailQueueItemDTO> listMails(ManageableMailQueue queue, Optional<Boolean> isDelayed, Offset offset, Limit limit) {
+        try {
+            return queue.browse(offset.getOffset(), limit.getLimit().orElse(DEFAULT_LIMIT_VALUE))
+                    .stream()
                     .map(Throwing.function(MailQueueItemDTO::from).sneakyThrow())
                     .filter(item -> filter(item, isDelayed))
                     .collect(Guavate.toImmutableList());
@@ -286,6 +286,49 @@ public class MailQueueRoutesTest {
             .body(".", hasSize(1));
     }
 
+    @Test
+    public void listMailsShouldSkipTheGivenOffset() throws Exception {
+        MemoryMailQueue queue = mailQueueFactory.createQueue(FIRST_QUEUE);
+        queue.enQueue(Mails.defaultMail().name("name1").build());
+        queue.enQueue(Mails.defaultMail().name("name2").build());
+        queue.enQueue(Mails.defaultMail().name("name3").build());
+
+        given()
+            .param("offset", "1")
+            .param("limit", "1")
+        .when()
+            .get(FIRST_QUEUE + "/mails")
+        .then()
+            .statusCode(HttpStatus.OK_200)
+            .contentType(ContentType.JSON)
+            .body(".", hasSize(1))
+            .body("[0].name", equalTo("name2"));
+    }
+
+    @Test
+    public void listMailsShouldReturnBadRequestWhenOffsetIsLessThanZero() throws Exception {
+        mailQueueFactory.createQueue(FIRST_QUEUE);
+
+        given()
+            .param("offset", "-1")
+        .when()
+            .get(FIRST_QUEUE + "/mails")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void listMailsShouldReturnBadRequestWhenOffsetIsInvalid() throws Exception {
+        mailQueueFactory.createQueue(FIRST_QUEUE);
+
+        given()
+            .param("offset", "abc")
+        .when()
+            .get(FIRST_QUEUE + "/mails")
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
     @Test
     public void listMailsShouldReturnBadRequestWhenLimitIsLessThanZero() throws Exception {
         mailQueueFactory.createQueue(FIRST_QUEUE);
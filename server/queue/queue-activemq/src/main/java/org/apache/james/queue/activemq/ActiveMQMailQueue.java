@@ -42,6 +42,7 @@ import org.apache.activemq.util.JMSExceptionSupport;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
+import org.apache.james.queue.jms.JMSDequeueTransaction;
 import org.apache.james.queue.jms.JMSMailQueue;
 import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.james.server.core.MimeMessageInputStream;
@@ -105,7 +106,20 @@ public class ActiveMQMailQueue extends JMSMailQueue implements ActiveMQSupport {
      * @param useBlob
      */
     public ActiveMQMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queuename, boolean useBlob, MetricFactory metricFactory) {
-        super(connectionFactory, mailQueueItemDecoratorFactory, queuename, metricFactory);
+        this(connectionFactory, mailQueueItemDecoratorFactory, queuename, useBlob, DEFAULT_CONSUMER_REFRESH_INTERVAL_MS, metricFactory);
+    }
+
+    /**
+     * Construct a new ActiveMQ based {@link MailQueue}.
+     *
+     * @param connectionFactory
+     * @param queuename
+     * @param useBlob
+     * @param consumerRefreshIntervalMs maximal age of a pooled consumer, which bounds the latency of delayed mails
+     */
+    public ActiveMQMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queuename, boolean useBlob,
+                             long consumerRefreshIntervalMs, MetricFactory metricFactory) {
+        super(connectionFactory, mailQueueItemDecoratorFactory, queuename, consumerRefreshIntervalMs, metricFactory);
         this.useBlob = useBlob;
     }
 
@@ -213,12 +227,20 @@ public class ActiveMQMailQueue extends JMSMailQueue implements ActiveMQSupport {
     }
 
     @Override
-    protected MailQueueItem createMailQueueItem(Session session, MessageConsumer consumer, Message message) throws JMSException, MessagingException {
+    protected MailQueueItem createMailQueueItem(JMSDequeueTransaction transaction, Message message) throws JMSException, MessagingException {
         Mail mail = createMail(message);
-        ActiveMQMailQueueItem activeMQMailQueueItem = new ActiveMQMailQueueItem(mail, session, consumer, message);
+        ActiveMQMailQueueItem activeMQMailQueueItem = new ActiveMQMailQueueItem(mail, transaction, message);
         return mailQueueItemDecoratorFactory.decorate(activeMQMailQueueItem);
     }
 
+    /**
+     * Disable prefetching so that pooled consumers waiting to be reused do not hold messages
+     */
+    @Override
+    protected Queue getConsumerQueue(Session session) throws JMSException {
+        return session.createQueue(queueName + "?consumer.prefetchSize=0");
+    }
+
     @Override
     public List<Message> removeWithSelector(String selector) throws MailQueueException {
         List<Message> mList = super.removeWithSelector(selector);
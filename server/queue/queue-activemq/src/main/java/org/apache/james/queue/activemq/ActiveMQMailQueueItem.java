@@ -23,12 +23,11 @@ import java.io.IOException;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
-import javax.jms.MessageConsumer;
-import javax.jms.Session;
 
 import org.apache.activemq.command.ActiveMQBlobMessage;
 import org.apache.james.queue.api.MailQueue.MailQueueException;
 import org.apache.james.queue.api.MailQueue.MailQueueItem;
+import org.apache.james.queue.jms.JMSDequeueTransaction;
 import org.apache.james.queue.jms.JMSMailQueueItem;
 import org.apache.mailet.Mail;
 import org.slf4j.Logger;
@@ -41,11 +40,8 @@ import org.slf4j.LoggerFactory;
 public class ActiveMQMailQueueItem extends JMSMailQueueItem implements ActiveMQSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(ActiveMQMailQueueItem.class);
 
-    private final Message message;
-
-    public ActiveMQMailQueueItem(Mail mail, Session session, MessageConsumer consumer, Message message) {
-        super(mail,  session, consumer);
-        this.message = message;
+    public ActiveMQMailQueueItem(Mail mail, JMSDequeueTransaction transaction, Message message) {
+        super(mail, transaction, message);
     }
 
     @Override
@@ -19,12 +19,15 @@
 
 package org.apache.james.queue.api;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import javax.mail.MessagingException;
 
 import org.apache.mailet.Mail;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * <p>
  * A Queue/Spool for Mails. How the Queue handles the ordering of the dequeuing
@@ -91,6 +94,18 @@ public interface MailQueue {
      */
     MailQueueItem deQueue() throws MailQueueException, InterruptedException;
 
+    /**
+     * Dequeue up to maxBatch ready-to-process Mails of the queue. This method will
+     * block until at least one Mail is ready, and then return the Mails available
+     * without waiting any further.
+     *
+     * Each returned {@link MailQueueItem} needs to be marked as done on its own.
+     * Implementations not able to dequeue several Mails at once return a single one.
+     */
+    default List<MailQueueItem> deQueue(int maxBatch) throws MailQueueException, InterruptedException {
+        return ImmutableList.of(deQueue());
+    }
+
     /**
      * Exception which will get thrown if any problems occur while working the
      * {@link MailQueue}
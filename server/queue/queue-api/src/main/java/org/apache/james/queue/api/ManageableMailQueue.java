@@ -20,10 +20,15 @@ package org.apache.james.queue.api;
 
 import java.time.ZonedDateTime;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.mailet.Mail;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
 /**
  * {@link MailQueue} which is manageable
  */
@@ -75,6 +80,29 @@ public interface ManageableMailQueue extends MailQueue {
      */
     MailQueueIterator browse() throws MailQueueException;
 
+    /**
+     * Browse a page of the queues content, following the {@link #browse()} order.
+     *
+     * Implementations should avoid reading the skipped mails, and may only load the
+     * envelope and attributes of the returned ones: their MimeMessage is not meant
+     * to be accessed.
+     *
+     * @param offset count of mails to skip
+     * @param limit maximum count of mails to return
+     * @return content
+     */
+    default List<MailQueueItemView> browse(int offset, int limit) throws MailQueueException {
+        Preconditions.checkArgument(offset >= 0, "'offset' should not be negative");
+        Preconditions.checkArgument(limit > 0, "'limit' should be strictly positive");
+        MailQueueIterator iterator = browse();
+        try {
+            Iterators.advance(iterator, offset);
+            return ImmutableList.copyOf(Iterators.limit(iterator, limit));
+        } finally {
+            iterator.close();
+        }
+    }
+
     /**
      * {@link Iterator} subclass which allows to browse the content of a queue.
      * The content is not meant to be modifiable, everything is just READ-ONLY!
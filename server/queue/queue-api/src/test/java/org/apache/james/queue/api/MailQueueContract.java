@@ -28,7 +28,9 @@ import static org.apache.mailet.base.MailAddressFixture.SENDER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +47,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 
 @ExtendWith(ExecutorExtension.class)
 public interface MailQueueContract {
@@ -305,4 +308,65 @@ public interface MailQueueContract {
         assertThat(tryDequeue.get().getMail().getName()).isEqualTo("name");
     }
 
+    @Test
+    default void deQueueBatchShouldNotReturnMoreMailsThanRequested() throws Exception {
+        getMailQueue().enQueue(defaultMail()
+            .name("name1")
+            .build());
+        getMailQueue().enQueue(defaultMail()
+            .name("name2")
+            .build());
+        getMailQueue().enQueue(defaultMail()
+            .name("name3")
+            .build());
+
+        List<MailQueue.MailQueueItem> mailQueueItems = getMailQueue().deQueue(2);
+
+        assertThat(mailQueueItems.size()).isBetween(1, 2);
+    }
+
+    @Test
+    default void deQueueBatchShouldEventuallyReturnAllMails() throws Exception {
+        getMailQueue().enQueue(defaultMail()
+            .name("name1")
+            .build());
+        getMailQueue().enQueue(defaultMail()
+            .name("name2")
+            .build());
+        getMailQueue().enQueue(defaultMail()
+            .name("name3")
+            .build());
+
+        List<String> names = new ArrayList<>();
+        while (names.size() < 3) {
+            for (MailQueue.MailQueueItem mailQueueItem : getMailQueue().deQueue(2)) {
+                names.add(mailQueueItem.getMail().getName());
+                mailQueueItem.done(true);
+            }
+        }
+
+        assertThat(names).containsExactly("name1", "name2", "name3");
+    }
+
+    @Test
+    default void deQueueBatchShouldAllowRetrieveFailItems() throws Exception {
+        getMailQueue().enQueue(defaultMail()
+            .name("name1")
+            .build());
+        getMailQueue().enQueue(defaultMail()
+            .name("name2")
+            .build());
+
+        for (MailQueue.MailQueueItem mailQueueItem : getMailQueue().deQueue(2)) {
+            mailQueueItem.done(false);
+        }
+
+        MailQueue.MailQueueItem mailQueueItem1 = getMailQueue().deQueue();
+        mailQueueItem1.done(true);
+        MailQueue.MailQueueItem mailQueueItem2 = getMailQueue().deQueue();
+        mailQueueItem2.done(true);
+        assertThat(ImmutableList.of(mailQueueItem1.getMail().getName(), mailQueueItem2.getMail().getName()))
+            .containsOnly("name1", "name2");
+    }
+
 }
@@ -28,6 +28,8 @@ import static org.apache.mailet.base.MailAddressFixture.RECIPIENT3;
 import static org.apache.mailet.base.MailAddressFixture.SENDER;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.apache.mailet.Mail;
 import org.apache.mailet.base.MailAddressFixture;
 import org.junit.jupiter.api.Test;
@@ -95,6 +97,19 @@ public interface ManageableMailQueueContract extends MailQueueContract {
         assertThat(size).isEqualTo(1L);
     }
 
+    @Test
+    default void getSizeShouldBeMaintainedAfterFirstCall() throws Exception {
+        getManageableMailQueue().getSize();
+
+        getManageableMailQueue().enQueue(defaultMail().build());
+        getManageableMailQueue().enQueue(defaultMail().build());
+        getManageableMailQueue().deQueue().done(true);
+
+        long size = getManageableMailQueue().getSize();
+
+        assertThat(size).isEqualTo(1L);
+    }
+
     @Test
     default void browseShouldReturnEmptyByDefault() throws Exception {
         ManageableMailQueue.MailQueueIterator items = getManageableMailQueue().browse();
@@ -135,6 +150,54 @@ public interface ManageableMailQueueContract extends MailQueueContract {
             .containsExactly("name1", "name2", "name3");
     }
 
+    @Test
+    default void browsePageShouldSkipOffsetAndApplyLimit() throws Exception {
+        getManageableMailQueue().enQueue(defaultMail()
+            .name("name1")
+            .build());
+        getManageableMailQueue().enQueue(defaultMail()
+            .name("name2")
+            .build());
+        getManageableMailQueue().enQueue(defaultMail()
+            .name("name3")
+            .build());
+
+        List<ManageableMailQueue.MailQueueItemView> items = getManageableMailQueue().browse(1, 1);
+
+        assertThat(items)
+            .extracting(ManageableMailQueue.MailQueueItemView::getMail)
+            .extracting(Mail::getName)
+            .containsExactly("name2");
+    }
+
+    @Test
+    default void browsePageShouldReturnEmptyWhenOffsetExceedsSize() throws Exception {
+        getManageableMailQueue().enQueue(defaultMail()
+            .name("name1")
+            .build());
+
+        List<ManageableMailQueue.MailQueueItemView> items = getManageableMailQueue().browse(1, 10);
+
+        assertThat(items).isEmpty();
+    }
+
+    @Test
+    default void browsePageShouldPreserveEnvelope() throws Exception {
+        getManageableMailQueue().enQueue(defaultMail()
+            .name("name1")
+            .sender(SENDER)
+            .recipients(RECIPIENT1, RECIPIENT2)
+            .build());
+
+        List<ManageableMailQueue.MailQueueItemView> items = getManageableMailQueue().browse(0, 10);
+
+        assertThat(items).hasSize(1);
+        Mail mail = items.get(0).getMail();
+        assertThat(mail.getName()).isEqualTo("name1");
+        assertThat(mail.getSender()).isEqualTo(SENDER);
+        assertThat(mail.getRecipients()).containsOnly(RECIPIENT1, RECIPIENT2);
+    }
+
     @Test
     default void concurrentDequeueShouldNotAlterBrowsing() throws Exception {
         getManageableMailQueue().enQueue(defaultMail()
@@ -0,0 +1,289 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import javax.mail.internet.AddressException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.server.core.MailImpl;
+import org.apache.mailet.Mail;
+import org.apache.mailet.PerRecipientHeaders.Header;
+
+/**
+ * Compact binary encoding of the envelope of a {@link Mail}, used by {@link SegmentedFileMailQueue} in place of Java
+ * serialization.
+ *
+ * Attributes of primitive types are encoded natively, other {@link Serializable} attributes fall back to Java
+ * serialization.
+ */
+class MailMetadataCodec {
+
+    private static final byte VERSION = 1;
+    private static final long ABSENT = -1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte SERIALIZED = 9;
+
+    byte[] encode(Mail mail) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(VERSION);
+        writeNullableString(out, mail.getName());
+        writeNullableString(out, Optional.ofNullable(mail.getSender()).map(MailAddress::asString).orElse(null));
+        writeAddresses(out, mail.getRecipients());
+        writeNullableString(out, mail.getState());
+        writeNullableString(out, mail.getErrorMessage());
+        out.writeLong(Optional.ofNullable(mail.getLastUpdated()).map(Date::getTime).orElse(ABSENT));
+        writeNullableString(out, mail.getRemoteHost());
+        writeNullableString(out, mail.getRemoteAddr());
+        writeAttributes(out, mail);
+        writePerRecipientHeaders(out, mail);
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    Mail decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported metadata version " + version);
+        }
+        MailImpl mail = new MailImpl();
+        mail.setName(readNullableString(in));
+        String sender = readNullableString(in);
+        if (sender != null) {
+            mail.setSender(toMailAddress(sender));
+        }
+        mail.setRecipients(readAddresses(in));
+        mail.setState(readNullableString(in));
+        mail.setErrorMessage(readNullableString(in));
+        long lastUpdated = in.readLong();
+        if (lastUpdated != ABSENT) {
+            mail.setLastUpdated(new Date(lastUpdated));
+        }
+        mail.setRemoteHost(readNullableString(in));
+        mail.setRemoteAddr(readNullableString(in));
+        readAttributes(in, mail);
+        readPerRecipientHeaders(in, mail);
+
+        return mail;
+    }
+
+    private void writeAddresses(DataOutputStream out, Collection<MailAddress> addresses) throws IOException {
+        out.writeInt(addresses.size());
+        for (MailAddress address : addresses) {
+            out.writeUTF(address.asString());
+        }
+    }
+
+    private List<MailAddress> readAddresses(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<MailAddress> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            addresses.add(toMailAddress(in.readUTF()));
+        }
+        return addresses;
+    }
+
+    private MailAddress toMailAddress(String address) throws IOException {
+        try {
+            return new MailAddress(address);
+        } catch (AddressException e) {
+            throw new IOException("Invalid mail address " + address, e);
+        }
+    }
+
+    private void writeAttributes(DataOutputStream out, Mail mail) throws IOException {
+        List<String> names = new ArrayList<>();
+        Iterator<String> attributeNames = mail.getAttributeNames();
+        while (attributeNames.hasNext()) {
+            names.add(attributeNames.next());
+        }
+        out.writeInt(names.size());
+        for (String name : names) {
+            out.writeUTF(name);
+            writeValue(out, mail.getAttribute(name));
+        }
+    }
+
+    private void readAttributes(DataInputStream in, Mail mail) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            mail.setAttribute(name, readValue(in));
+        }
+    }
+
+    private void writePerRecipientHeaders(DataOutputStream out, Mail mail) throws IOException {
+        Collection<MailAddress> recipients = mail.getPerRecipientSpecificHeaders().getRecipientsWithSpecificHeaders();
+        out.writeInt(recipients.size());
+        for (MailAddress recipient : recipients) {
+            out.writeUTF(recipient.asString());
+            Collection<Header> headers = mail.getPerRecipientSpecificHeaders().getHeadersForRecipient(recipient);
+            out.writeInt(headers.size());
+            for (Header header : headers) {
+                writeNullableString(out, header.getName());
+                writeNullableString(out, header.getValue());
+            }
+        }
+    }
+
+    private void readPerRecipientHeaders(DataInputStream in, Mail mail) throws IOException {
+        int recipientCount = in.readInt();
+        for (int i = 0; i < recipientCount; i++) {
+            MailAddress recipient = toMailAddress(in.readUTF());
+            int headerCount = in.readInt();
+            for (int j = 0; j < headerCount; j++) {
+                mail.addSpecificHeaderForRecipient(Header.builder()
+                    .name(readNullableString(in))
+                    .value(readNullableString(in))
+                    .build(), recipient);
+            }
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Serializable value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeLongString(out, (String) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else {
+            out.writeByte(SERIALIZED);
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+                objectOut.writeObject(value);
+            }
+            out.writeInt(serialized.size());
+            serialized.writeTo(out);
+        }
+    }
+
+    private Serializable readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readLongString(in);
+            case LONG:
+                return in.readLong();
+            case INTEGER:
+                return in.readInt();
+            case BOOLEAN:
+                return in.readBoolean();
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case SERIALIZED:
+                byte[] serialized = new byte[in.readInt()];
+                in.readFully(serialized);
+                try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                    return (Serializable) objectIn.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unable to read attribute", e);
+                }
+            default:
+                throw new IOException("Unknown attribute type " + type);
+        }
+    }
+
+    private void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeLongString(out, value);
+        }
+    }
+
+    private String readNullableString(DataInputStream in) throws IOException {
+        if (in.readBoolean()) {
+            return readLongString(in);
+        }
+        return null;
+    }
+
+    /**
+     * {@link DataOutputStream#writeUTF(String)} is limited to 64KB, which error messages or attributes can exceed
+     */
+    private void writeLongString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readLongString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,358 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.lifecycle.api.Disposable;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
+import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
+import org.apache.james.server.core.MimeMessageSource;
+import org.apache.mailet.Mail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link ManageableMailQueue} implementation storing {@link Mail}'s in a {@link SegmentedLog}.
+ * <p/>
+ * Unlike {@link FileMailQueue} which writes two files per mail, enqueuing a mail appends a single record to the
+ * current segment of the log, concurrent enqueues sharing the same <code>fsync</code>. Only the identifiers of the
+ * mails are kept in memory.
+ */
+public class SegmentedFileMailQueue implements ManageableMailQueue, Disposable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentedFileMailQueue.class);
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String LOG_DIRECTORY = "log";
+
+    private final BlockingQueue<Long> readyQueue = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Long, ScheduledFuture<?>> delayedMails = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final MailMetadataCodec codec = new MailMetadataCodec();
+    private final MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory;
+    private final String queueName;
+    private final SegmentedLog log;
+
+    public SegmentedFileMailQueue(MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, File parentDir, String queueName, boolean sync) throws IOException {
+        this(mailQueueItemDecoratorFactory, parentDir, queueName, sync, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SegmentedFileMailQueue(MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, File parentDir, String queueName, boolean sync, long segmentSize) throws IOException {
+        Preconditions.checkArgument(segmentSize > 0, "segmentSize should be strictly positive");
+        this.mailQueueItemDecoratorFactory = mailQueueItemDecoratorFactory;
+        this.queueName = queueName;
+        this.log = new SegmentedLog(new File(new File(parentDir, queueName), LOG_DIRECTORY), segmentSize, sync);
+        init();
+    }
+
+    private void init() {
+        long now = System.currentTimeMillis();
+        for (SegmentedLog.Entry entry : log.entries()) {
+            Optional<Long> nextDelivery = entry.getNextDelivery();
+            if (nextDelivery.isPresent() && nextDelivery.get() > now) {
+                schedule(entry.getId(), nextDelivery.get() - now);
+            } else {
+                readyQueue.add(entry.getId());
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return queueName;
+    }
+
+    @Override
+    public void enQueue(Mail mail, long delay, TimeUnit unit) throws MailQueueException {
+        try {
+            byte[] metadata = codec.encode(mail);
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            mail.getMessage().writeTo(content);
+
+            if (delay > 0) {
+                long delayInMillis = unit.toMillis(delay);
+                long id = log.append(metadata, content.toByteArray(), Optional.of(System.currentTimeMillis() + delayInMillis));
+                schedule(id, delayInMillis);
+            } else {
+                readyQueue.add(log.append(metadata, content.toByteArray(), Optional.empty()));
+            }
+        } catch (IOException | MessagingException e) {
+            throw new MailQueueException("Unable to enqueue mail", e);
+        }
+    }
+
+    @Override
+    public void enQueue(Mail mail) throws MailQueueException {
+        enQueue(mail, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private void schedule(long id, long delayInMillis) {
+        delayedMails.put(id, scheduler.schedule(() -> {
+            if (delayedMails.remove(id) != null) {
+                readyQueue.add(id);
+            }
+        }, delayInMillis, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public MailQueueItem deQueue() throws MailQueueException, InterruptedException {
+        while (true) {
+            Optional<MailQueueItem> item = load(readyQueue.take());
+            if (item.isPresent()) {
+                return item.get();
+            }
+        }
+    }
+
+    @Override
+    public List<MailQueueItem> deQueue(int maxBatch) throws MailQueueException, InterruptedException {
+        Preconditions.checkArgument(maxBatch > 0, "maxBatch should be strictly positive");
+        ImmutableList.Builder<MailQueueItem> items = ImmutableList.builder();
+        items.add(deQueue());
+        int count = 1;
+        Long id;
+        while (count < maxBatch && (id = readyQueue.poll()) != null) {
+            Optional<MailQueueItem> item = load(id);
+            if (item.isPresent()) {
+                items.add(item.get());
+                count++;
+            }
+        }
+        return items.build();
+    }
+
+    /**
+     * @return empty if the mail was removed from the queue since its identifier was made ready
+     */
+    private Optional<MailQueueItem> load(long id) throws MailQueueException {
+        try {
+            Optional<byte[]> metadata = log.readMetadata(id);
+            Optional<MimeMessageSource> content = log.openContent(id);
+            if (!metadata.isPresent() || !content.isPresent()) {
+                content.ifPresent(LifecycleUtil::dispose);
+                return Optional.empty();
+            }
+            Mail mail = codec.decode(metadata.get());
+            mail.setMessage(new MimeMessageCopyOnWriteProxy(content.get()));
+            return Optional.of(mailQueueItemDecoratorFactory.decorate(new SegmentedFileMailQueueItem(id, mail)));
+        } catch (IOException | MessagingException e) {
+            throw new MailQueueException("Unable to dequeue", e);
+        }
+    }
+
+    private class SegmentedFileMailQueueItem implements MailQueueItem {
+        private final long id;
+        private final Mail mail;
+
+        private SegmentedFileMailQueueItem(long id, Mail mail) {
+            this.id = id;
+            this.mail = mail;
+        }
+
+        @Override
+        public Mail getMail() {
+            return mail;
+        }
+
+        @Override
+        public void done(boolean success) throws MailQueueException {
+            try {
+                if (success) {
+                    log.acknowledge(id);
+                } else {
+                    readyQueue.add(id);
+                }
+            } catch (IOException e) {
+                throw new MailQueueException("Unable to acknowledge mail " + mail.getName(), e);
+            } finally {
+                LifecycleUtil.dispose(mail);
+            }
+        }
+    }
+
+    @Override
+    public long getSize() throws MailQueueException {
+        return log.size();
+    }
+
+    @Override
+    public long flush() throws MailQueueException {
+        long count = 0;
+        for (Long id : ImmutableList.copyOf(delayedMails.keySet())) {
+            ScheduledFuture<?> future = delayedMails.remove(id);
+            if (future != null) {
+                future.cancel(false);
+                readyQueue.add(id);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long clear() throws MailQueueException {
+        long count = 0;
+        for (SegmentedLog.Entry entry : log.entries()) {
+            if (discard(entry.getId())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long remove(Type type, String value) throws MailQueueException {
+        long count = 0;
+        for (SegmentedLog.Entry entry : log.entries()) {
+            try {
+                Optional<byte[]> metadata = log.readMetadata(entry.getId());
+                if (metadata.isPresent() && matches(codec.decode(metadata.get()), type, value) && discard(entry.getId())) {
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new MailQueueException("Unable to remove mails from " + queueName, e);
+            }
+        }
+        return count;
+    }
+
+    private boolean matches(Mail mail, Type type, String value) {
+        switch (type) {
+            case Name:
+                return value.equals(mail.getName());
+            case Sender:
+                return mail.getSender() != null && value.equals(mail.getSender().asString());
+            case Recipient:
+                return mail.getRecipients().stream()
+                    .anyMatch(recipient -> value.equals(recipient.asString()));
+            default:
+                return false;
+        }
+    }
+
+    private boolean discard(long id) throws MailQueueException {
+        try {
+            Optional.ofNullable(delayedMails.remove(id)).ifPresent(future -> future.cancel(false));
+            readyQueue.remove(id);
+            return log.acknowledge(id);
+        } catch (IOException e) {
+            throw new MailQueueException("Unable to remove mail from " + queueName, e);
+        }
+    }
+
+    @Override
+    public MailQueueIterator browse() throws MailQueueException {
+        return new SegmentedFileMailQueueIterator(log.entries().iterator());
+    }
+
+    @Override
+    public List<MailQueueItemView> browse(int offset, int limit) throws MailQueueException {
+        Preconditions.checkArgument(offset >= 0, "offset should be positive");
+        Preconditions.checkArgument(limit > 0, "limit should be strictly positive");
+        List<SegmentedLog.Entry> entries = log.entries();
+        if (offset >= entries.size()) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(new SegmentedFileMailQueueIterator(
+            entries.subList(offset, Math.min(entries.size(), offset + limit)).iterator()));
+    }
+
+    /**
+     * Decodes the mails of a snapshot of the log lazily. Mails removed since the snapshot are still returned, unless
+     * their segment was reclaimed in between.
+     */
+    private class SegmentedFileMailQueueIterator implements MailQueueIterator {
+        private final Iterator<SegmentedLog.Entry> entries;
+        private MailQueueItemView next;
+
+        private SegmentedFileMailQueueIterator(Iterator<SegmentedLog.Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && entries.hasNext()) {
+                SegmentedLog.Entry entry = entries.next();
+                try {
+                    Optional<byte[]> metadata = log.readMetadata(entry);
+                    if (metadata.isPresent()) {
+                        next = new MailQueueItemView(codec.decode(metadata.get()), entry.getNextDelivery()
+                            .map(nextDelivery -> Instant.ofEpochMilli(nextDelivery).atZone(ZoneId.systemDefault())));
+                    }
+                } catch (IOException e) {
+                    LOGGER.info("Unable to load mail", e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public MailQueueItemView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            MailQueueItemView item = next;
+            next = null;
+            return item;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Read-only");
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.shutdownNow();
+        try {
+            log.close();
+        } catch (IOException e) {
+            LOGGER.error("Unable to close the log of queue {}", queueName, e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.james.filesystem.api.FileSystem;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.queue.api.MailQueueFactory;
+import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
+import org.apache.james.queue.api.ManageableMailQueue;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * {@link MailQueueFactory} implementation which returns {@link SegmentedFileMailQueue} instances
+ */
+public class SegmentedFileMailQueueFactory implements MailQueueFactory<ManageableMailQueue> {
+
+    private final Map<String, ManageableMailQueue> queues = new HashMap<>();
+    private final MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory;
+    private final FileSystem fs;
+    private boolean sync = true;
+    private long segmentSize = SegmentedFileMailQueue.DEFAULT_SEGMENT_SIZE;
+
+    @Inject
+    public SegmentedFileMailQueueFactory(FileSystem fs, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory) {
+        this.fs = fs;
+        this.mailQueueItemDecoratorFactory = mailQueueItemDecoratorFactory;
+    }
+
+    @Override
+    public Set<ManageableMailQueue> listCreatedMailQueues() {
+        synchronized (queues) {
+            return ImmutableSet.copyOf(queues.values());
+        }
+    }
+
+    /**
+     * If <code>true</code> an enqueue returns once the mail is durably written. Concurrent enqueues share the same
+     * <code>fsync</code>.
+     * <p/>
+     * The default is <code>true</code>
+     *
+     * @param sync
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Size in bytes above which the log of the later created queues starts a new segment.
+     * <p/>
+     * The default is 64MB
+     *
+     * @param segmentSize
+     */
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public Optional<ManageableMailQueue> getQueue(String name) {
+        synchronized (queues) {
+            return Optional.ofNullable(queues.get(name));
+        }
+    }
+
+    @Override
+    public ManageableMailQueue createQueue(String name) {
+        synchronized (queues) {
+            return getQueue(name).orElseGet(() -> createAndRegisterQueue(name));
+        }
+    }
+
+    private ManageableMailQueue createAndRegisterQueue(String name) {
+        try {
+            SegmentedFileMailQueue queue = new SegmentedFileMailQueue(mailQueueItemDecoratorFactory, fs.getFile("file://var/store/queue"), name, sync, segmentSize);
+            queues.put(name, queue);
+            return queue;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to access queue " + name, e);
+        }
+    }
+
+    @PreDestroy
+    public void dispose() {
+        synchronized (queues) {
+            queues.values().forEach(LifecycleUtil::dispose);
+            queues.clear();
+        }
+    }
+
+}
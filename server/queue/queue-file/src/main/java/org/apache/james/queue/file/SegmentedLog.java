@@ -0,0 +1,617 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import javax.mail.util.SharedFileInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.james.lifecycle.api.Disposable;
+import org.apache.james.server.core.MimeMessageSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Append only storage of the mails of a {@link SegmentedFileMailQueue}.
+ * <p/>
+ * Each enqueued mail is appended as a single record holding its metadata and its content to the active segment, and
+ * acknowledged mails are recorded with a small tombstone record. Concurrent appends share their <code>fsync</code>
+ * (group commit) and acknowledgements are never synced: a crash can only lead to a mail being delivered again.
+ * <p/>
+ * Once the active segment is full a new one is started, and the index of the mails still in the queue is
+ * checkpointed, so that only the records written since then need to be read upon restart. Sealed segments are
+ * deleted once all their mails are acknowledged, mails left in sparse segments being moved to the active one.
+ */
+class SegmentedLog implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentedLog.class);
+
+    static class Entry {
+        private final long id;
+        private final Segment segment;
+        private final long offset;
+        private final long nextDelivery;
+        private final int metadataLength;
+        private final long contentLength;
+
+        private Entry(long id, Segment segment, long offset, long nextDelivery, int metadataLength, long contentLength) {
+            this.id = id;
+            this.segment = segment;
+            this.offset = offset;
+            this.nextDelivery = nextDelivery;
+            this.metadataLength = metadataLength;
+            this.contentLength = contentLength;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        Optional<Long> getNextDelivery() {
+            if (nextDelivery == NO_NEXT_DELIVERY) {
+                return Optional.empty();
+            }
+            return Optional.of(nextDelivery);
+        }
+
+        private long metadataPosition() {
+            return offset + HEADER_SIZE;
+        }
+
+        private long contentPosition() {
+            return metadataPosition() + metadataLength;
+        }
+
+        private long recordSize() {
+            return HEADER_SIZE + metadataLength + contentLength + CRC_SIZE;
+        }
+    }
+
+    private static class Segment {
+        private final long id;
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+        private long liveBytes;
+        private int liveEntries;
+
+        private Segment(long id, File file, FileChannel channel) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        private void delete() {
+            IOUtils.closeQuietly(channel);
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    /**
+     * Gives access to the content of a mail stored in a segment
+     */
+    private static class SegmentMimeMessageSource extends MimeMessageSource implements Disposable {
+        private final String sourceId;
+        private final SharedFileInputStream in;
+        private final long start;
+        private final long length;
+
+        private SegmentMimeMessageSource(String sourceId, SharedFileInputStream in, long start, long length) {
+            this.sourceId = sourceId;
+            this.in = in;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return in.newStream(start, start + length);
+        }
+
+        @Override
+        public long getMessageSize() throws IOException {
+            return length;
+        }
+
+        @Override
+        public void dispose() {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private static final byte ENQUEUE = 1;
+    private static final byte ACKNOWLEDGE = 2;
+    private static final long NO_NEXT_DELIVERY = -1;
+    private static final int HEADER_SIZE = Byte.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int CRC_SIZE = Integer.BYTES;
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_EXTENSION = ".log";
+    /**
+     * Sealed segments whose live records represent less than 1/SPARSE_RATIO of their size get compacted
+     */
+    private static final int SPARSE_RATIO = 4;
+
+    private final File directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final ConcurrentSkipListMap<Long, Entry> entries = new ConcurrentSkipListMap<>();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Object syncLock = new Object();
+
+    private Segment active;
+    private long nextId = 1;
+    private long checkpointSegmentId;
+    private long appendedBytes;
+    private volatile long syncedBytes;
+
+    SegmentedLog(File directory, long segmentSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        FileUtils.forceMkdir(directory);
+        recover();
+    }
+
+    /**
+     * Appends a mail to the log. When fsync is enabled, this returns once the record is durable.
+     *
+     * @return the identifier of the stored mail
+     */
+    long append(byte[] metadata, byte[] content, Optional<Long> nextDelivery) throws IOException {
+        long id;
+        long appended;
+        synchronized (this) {
+            id = nextId++;
+            rollIfNeeded(HEADER_SIZE + metadata.length + content.length + CRC_SIZE);
+            index(write(ENQUEUE, id, nextDelivery.orElse(NO_NEXT_DELIVERY), metadata, content));
+            appended = appendedBytes;
+        }
+        sync(appended);
+        return id;
+    }
+
+    /**
+     * Records that a mail does not need to be stored anymore.
+     *
+     * @return false if the mail was not part of the log
+     */
+    synchronized boolean acknowledge(long id) throws IOException {
+        if (!entries.containsKey(id)) {
+            return false;
+        }
+        rollIfNeeded(HEADER_SIZE + CRC_SIZE);
+        write(ACKNOWLEDGE, id, NO_NEXT_DELIVERY, EMPTY, EMPTY);
+        Entry entry = entries.get(id);
+        unindex(entry);
+        reclaim(entry.segment);
+        return true;
+    }
+
+    /**
+     * @return the mails of the log, by ascending identifier
+     */
+    List<Entry> entries() {
+        return ImmutableList.copyOf(entries.values());
+    }
+
+    Optional<Entry> entry(long id) {
+        return Optional.ofNullable(entries.get(id));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    synchronized Optional<byte[]> readMetadata(long id) throws IOException {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(read(entry.segment.channel, entry.metadataPosition(), entry.metadataLength));
+    }
+
+    /**
+     * Reads the metadata of a mail as it was when the entry was obtained, even if it was acknowledged since, as long as
+     * its segment was not reclaimed.
+     */
+    synchronized Optional<byte[]> readMetadata(Entry entry) throws IOException {
+        if (segments.get(entry.segment.id) != entry.segment) {
+            return Optional.empty();
+        }
+        return Optional.of(read(entry.segment.channel, entry.metadataPosition(), entry.metadataLength));
+    }
+
+    synchronized Optional<MimeMessageSource> openContent(long id) throws IOException {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new SegmentMimeMessageSource(
+            entry.segment.file.getAbsolutePath() + "#" + entry.offset,
+            new SharedFileInputStream(entry.segment.file),
+            entry.contentPosition(),
+            entry.contentLength));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (fsync) {
+                active.channel.force(false);
+            }
+            checkpoint();
+        } finally {
+            segments.values().forEach(segment -> IOUtils.closeQuietly(segment.channel));
+        }
+    }
+
+    private void sync(long appended) throws IOException {
+        if (!fsync || syncedBytes >= appended) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedBytes >= appended) {
+                return;
+            }
+            long target;
+            FileChannel channel;
+            synchronized (this) {
+                target = appendedBytes;
+                channel = active.channel;
+            }
+            channel.force(false);
+            syncedBytes = target;
+        }
+    }
+
+    private void rollIfNeeded(long recordSize) throws IOException {
+        if (active.size > 0 && active.size + recordSize > segmentSize) {
+            roll();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (fsync) {
+            active.channel.force(false);
+        }
+        active = openSegment(active.id + 1, true);
+        segments.put(active.id, active);
+        compactSparseSegments();
+        if (fsync) {
+            // Relocated records must be durable before the checkpoint allows reclaiming their former segments
+            active.channel.force(false);
+            syncedBytes = appendedBytes;
+        }
+        checkpoint();
+        ImmutableList.copyOf(segments.values()).forEach(this::reclaim);
+    }
+
+    private void compactSparseSegments() throws IOException {
+        for (Segment segment : ImmutableList.copyOf(segments.headMap(active.id).values())) {
+            if (segment.liveEntries > 0 && segment.liveBytes * SPARSE_RATIO < segment.size) {
+                for (Entry entry : ImmutableList.copyOf(entries.values())) {
+                    if (entry.segment == segment && active.size + entry.recordSize() <= segmentSize) {
+                        relocate(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private void relocate(Entry entry) throws IOException {
+        byte[] metadata = read(entry.segment.channel, entry.metadataPosition(), entry.metadataLength);
+        byte[] content = read(entry.segment.channel, entry.contentPosition(), Math.toIntExact(entry.contentLength));
+        Entry relocated = write(ENQUEUE, entry.id, entry.nextDelivery, metadata, content);
+        unindex(entry);
+        index(relocated);
+    }
+
+    private void reclaim(Segment segment) {
+        if (segment.liveEntries == 0 && segment.id < checkpointSegmentId && segment != active) {
+            segments.remove(segment.id);
+            segment.delete();
+        }
+    }
+
+    private Entry write(byte type, long id, long nextDelivery, byte[] metadata, byte[] content) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+            .put(type)
+            .putLong(id)
+            .putLong(nextDelivery)
+            .putInt(metadata.length)
+            .putLong(content.length);
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, HEADER_SIZE);
+        crc.update(metadata);
+        crc.update(content);
+        header.flip();
+        ByteBuffer trailer = ByteBuffer.allocate(CRC_SIZE).putInt((int) crc.getValue());
+        trailer.flip();
+
+        ByteBuffer[] buffers = {header, ByteBuffer.wrap(metadata), ByteBuffer.wrap(content), trailer};
+        long recordSize = HEADER_SIZE + metadata.length + content.length + CRC_SIZE;
+        long offset = active.size;
+        long written = 0;
+        while (written < recordSize) {
+            written += active.channel.write(buffers);
+        }
+        active.size += recordSize;
+        appendedBytes += recordSize;
+        return new Entry(id, active, offset, nextDelivery, metadata.length, content.length);
+    }
+
+    private void index(Entry entry) {
+        Entry previous = entries.put(entry.id, entry);
+        if (previous != null) {
+            unaccount(previous);
+        }
+        entry.segment.liveEntries++;
+        entry.segment.liveBytes += entry.recordSize();
+    }
+
+    private void unindex(Entry entry) {
+        entries.remove(entry.id, entry);
+        unaccount(entry);
+    }
+
+    private void unaccount(Entry entry) {
+        entry.segment.liveEntries--;
+        entry.segment.liveBytes -= entry.recordSize();
+    }
+
+    private byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of segment");
+            }
+        }
+        return buffer.array();
+    }
+
+    private Segment openSegment(long id, boolean writable) throws IOException {
+        File file = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_EXTENSION));
+        FileChannel channel = writable
+            ? FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            : FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        Segment segment = new Segment(id, file, channel);
+        if (writable) {
+            channel.position(segment.size);
+        }
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        List<Long> segmentIds = listSegmentIds();
+        long lastSegmentId = segmentIds.isEmpty() ? 1 : segmentIds.get(segmentIds.size() - 1);
+        for (long segmentId : segmentIds) {
+            if (segmentId != lastSegmentId) {
+                segments.put(segmentId, openSegment(segmentId, false));
+            }
+        }
+        active = openSegment(lastSegmentId, true);
+        segments.put(active.id, active);
+
+        long replayedSegmentId = segments.firstKey();
+        long replayedOffset = 0;
+        Optional<Checkpoint> checkpoint = readCheckpoint();
+        if (checkpoint.isPresent()) {
+            replayedSegmentId = checkpoint.get().segmentId;
+            replayedOffset = checkpoint.get().offset;
+            nextId = checkpoint.get().nextId;
+            checkpoint.get().restore(this);
+        }
+
+        for (Segment segment : ImmutableList.copyOf(segments.tailMap(replayedSegmentId).values())) {
+            long replayedUpTo = replay(segment, segment.id == replayedSegmentId ? replayedOffset : 0);
+            if (replayedUpTo < segment.size) {
+                LOGGER.warn("Truncating {} at offset {} out of {}: record is corrupted or incomplete", segment.file, replayedUpTo, segment.size);
+                if (segment == active) {
+                    active.channel.truncate(replayedUpTo);
+                    active.channel.position(replayedUpTo);
+                }
+                segment.size = replayedUpTo;
+            }
+        }
+
+        checkpoint();
+        ImmutableList.copyOf(segments.values()).forEach(this::reclaim);
+    }
+
+    private List<Long> listSegmentIds() {
+        String[] names = directory.list((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION));
+        List<Long> ids = new ArrayList<>();
+        for (String name : Optional.ofNullable(names).orElse(new String[0])) {
+            try {
+                ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length())));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Ignoring unexpected file {} in {}", name, directory);
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * @return the offset up to which records could be read
+     */
+    private long replay(Segment segment, long from) throws IOException {
+        long position = from;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file)))) {
+            IOUtils.skipFully(in, from);
+            while (position < segment.size) {
+                CRC32 crc = new CRC32();
+                DataInputStream record = new DataInputStream(new CheckedInputStream(in, crc));
+                byte type = record.readByte();
+                long id = record.readLong();
+                long nextDelivery = record.readLong();
+                int metadataLength = record.readInt();
+                long contentLength = record.readLong();
+                if (metadataLength < 0 || contentLength < 0 || position + HEADER_SIZE + metadataLength + contentLength + CRC_SIZE > segment.size) {
+                    return position;
+                }
+                IOUtils.skipFully(record, metadataLength + contentLength);
+                long expectedCrc = crc.getValue();
+                if ((int) expectedCrc != in.readInt()) {
+                    return position;
+                }
+
+                Entry entry = new Entry(id, segment, position, nextDelivery, metadataLength, contentLength);
+                if (type == ENQUEUE) {
+                    index(entry);
+                } else if (type == ACKNOWLEDGE) {
+                    Optional.ofNullable(entries.get(id)).ifPresent(this::unindex);
+                } else {
+                    return position;
+                }
+                nextId = Math.max(nextId, id + 1);
+                position += entry.recordSize();
+            }
+            return position;
+        } catch (EOFException e) {
+            return position;
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        File temporary = new File(directory, CHECKPOINT_FILE + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeLong(nextId);
+            out.writeLong(active.id);
+            out.writeLong(active.size);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                out.writeLong(entry.id);
+                out.writeLong(entry.segment.id);
+                out.writeLong(entry.offset);
+                out.writeLong(entry.nextDelivery);
+                out.writeInt(entry.metadataLength);
+                out.writeLong(entry.contentLength);
+            }
+            out.flush();
+            if (fsync) {
+                fileOut.getFD().sync();
+            }
+        }
+        Files.move(temporary.toPath(), new File(directory, CHECKPOINT_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (fsync) {
+            syncDirectory();
+        }
+        checkpointSegmentId = active.id;
+    }
+
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms, Windows amongst others, do not allow opening a directory
+            LOGGER.debug("Unable to sync directory {}", directory, e);
+        }
+    }
+
+    private Optional<Checkpoint> readCheckpoint() {
+        File file = new File(directory, CHECKPOINT_FILE);
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return Optional.of(Checkpoint.read(in));
+        } catch (IOException e) {
+            LOGGER.error("Unable to read checkpoint of {}, replaying all segments", directory, e);
+            return Optional.empty();
+        }
+    }
+
+    private static class Checkpoint {
+        private static Checkpoint read(DataInputStream in) throws IOException {
+            int version = in.readInt();
+            if (version != CHECKPOINT_VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            Checkpoint checkpoint = new Checkpoint(in.readLong(), in.readLong(), in.readLong());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                checkpoint.entries.put(in.readLong(), new long[] {in.readLong(), in.readLong(), in.readLong(), in.readInt(), in.readLong()});
+            }
+            return checkpoint;
+        }
+
+        private final long nextId;
+        private final long segmentId;
+        private final long offset;
+        private final Map<Long, long[]> entries = new TreeMap<>();
+
+        private Checkpoint(long nextId, long segmentId, long offset) {
+            this.nextId = nextId;
+            this.segmentId = segmentId;
+            this.offset = offset;
+        }
+
+        private void restore(SegmentedLog log) {
+            entries.forEach((id, fields) -> {
+                Segment segment = log.segments.get(fields[0]);
+                if (segment == null) {
+                    LOGGER.error("Segment {} of mail {} is missing from {}", fields[0], id, log.directory);
+                    return;
+                }
+                log.index(new Entry(id, segment, fields[1], fields[2], Math.toIntExact(fields[3]), fields[4]));
+            });
+        }
+    }
+}
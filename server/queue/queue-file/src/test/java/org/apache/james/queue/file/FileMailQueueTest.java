@@ -70,6 +70,13 @@ public class FileMailQueueTest implements DelayedManageableMailQueueContract {
 
     }
 
+    @Test
+    @Override
+    @Disabled("JAMES-2300 No Order")
+    public void browsePageShouldSkipOffsetAndApplyLimit() {
+
+    }
+
     @Test
     @Override
     @Disabled("JAMES-2299 No snapshot isolation")
@@ -0,0 +1,180 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.server.core.MailImpl;
+import org.apache.mailet.Mail;
+import org.apache.mailet.PerRecipientHeaders.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+
+public class MailMetadataCodecTest {
+
+    private MailMetadataCodec testee;
+    private MailAddress sender;
+    private MailAddress recipient1;
+    private MailAddress recipient2;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testee = new MailMetadataCodec();
+        sender = new MailAddress("sender@domain.com");
+        recipient1 = new MailAddress("rcpt1@domain.com");
+        recipient2 = new MailAddress("rcpt2@domain.com");
+    }
+
+    @Test
+    void decodeShouldRestoreEnvelope() throws Exception {
+        MailImpl mail = new MailImpl("name", sender, ImmutableList.of(recipient1, recipient2));
+        mail.setState(Mail.TRANSPORT);
+        mail.setErrorMessage("error");
+        mail.setLastUpdated(new Date(1508228132000L));
+        mail.setRemoteHost("remote.domain.com");
+        mail.setRemoteAddr("192.0.2.1");
+
+        Mail decoded = roundTrip(mail);
+
+        assertThat(decoded.getName()).isEqualTo("name");
+        assertThat(decoded.getSender()).isEqualTo(sender);
+        assertThat(decoded.getRecipients()).containsExactly(recipient1, recipient2);
+        assertThat(decoded.getState()).isEqualTo(Mail.TRANSPORT);
+        assertThat(decoded.getErrorMessage()).isEqualTo("error");
+        assertThat(decoded.getLastUpdated()).isEqualTo(new Date(1508228132000L));
+        assertThat(decoded.getRemoteHost()).isEqualTo("remote.domain.com");
+        assertThat(decoded.getRemoteAddr()).isEqualTo("192.0.2.1");
+    }
+
+    @Test
+    void decodeShouldRestoreAbsentValues() throws Exception {
+        MailImpl mail = new MailImpl(null, null, ImmutableList.of());
+        mail.setState(null);
+        mail.setLastUpdated(null);
+        mail.setRemoteHost(null);
+        mail.setRemoteAddr(null);
+
+        Mail decoded = roundTrip(mail);
+
+        assertThat(decoded.getName()).isNull();
+        assertThat(decoded.getSender()).isNull();
+        assertThat(decoded.getRecipients()).isEmpty();
+        assertThat(decoded.getState()).isNull();
+        assertThat(decoded.getErrorMessage()).isNull();
+        assertThat(decoded.getLastUpdated()).isNull();
+        assertThat(decoded.getRemoteHost()).isNull();
+        assertThat(decoded.getRemoteAddr()).isNull();
+    }
+
+    @Test
+    void decodeShouldRestorePrimitiveAttributes() throws Exception {
+        MailImpl mail = new MailImpl("name", sender, ImmutableList.of(recipient1));
+        mail.setAttribute("string", "value");
+        mail.setAttribute("long", 42L);
+        mail.setAttribute("integer", 42);
+        mail.setAttribute("boolean", true);
+        mail.setAttribute("short", (short) 42);
+        mail.setAttribute("byte", (byte) 42);
+        mail.setAttribute("float", 4.2f);
+        mail.setAttribute("double", 4.2d);
+
+        Mail decoded = roundTrip(mail);
+
+        assertThat(attributeNames(decoded))
+            .containsOnly("string", "long", "integer", "boolean", "short", "byte", "float", "double");
+        assertThat(decoded.getAttribute("string")).isEqualTo("value");
+        assertThat(decoded.getAttribute("long")).isEqualTo(42L);
+        assertThat(decoded.getAttribute("integer")).isEqualTo(42);
+        assertThat(decoded.getAttribute("boolean")).isEqualTo(true);
+        assertThat(decoded.getAttribute("short")).isEqualTo((short) 42);
+        assertThat(decoded.getAttribute("byte")).isEqualTo((byte) 42);
+        assertThat(decoded.getAttribute("float")).isEqualTo(4.2f);
+        assertThat(decoded.getAttribute("double")).isEqualTo(4.2d);
+    }
+
+    @Test
+    void decodeShouldRestoreSerializableAttributes() throws Exception {
+        ArrayList<String> value = new ArrayList<>(ImmutableList.of("a", "b"));
+        MailImpl mail = new MailImpl("name", sender, ImmutableList.of(recipient1));
+        mail.setAttribute("list", value);
+
+        Mail decoded = roundTrip(mail);
+
+        assertThat(decoded.getAttribute("list")).isEqualTo(value);
+    }
+
+    @Test
+    void decodeShouldRestoreStringsLongerThanSixtyFourKilobytes() throws Exception {
+        String longValue = Strings.repeat("é", 70 * 1024);
+        MailImpl mail = new MailImpl("name", sender, ImmutableList.of(recipient1));
+        mail.setErrorMessage(longValue);
+        mail.setAttribute("long-string", longValue);
+
+        Mail decoded = roundTrip(mail);
+
+        assertThat(decoded.getErrorMessage()).isEqualTo(longValue);
+        assertThat(decoded.getAttribute("long-string")).isEqualTo(longValue);
+    }
+
+    @Test
+    void decodeShouldRestorePerRecipientHeaders() throws Exception {
+        MailImpl mail = new MailImpl("name", sender, ImmutableList.of(recipient1, recipient2));
+        mail.addSpecificHeaderForRecipient(Header.builder().name("X-Header").value("value1").build(), recipient1);
+        mail.addSpecificHeaderForRecipient(Header.builder().name("X-Other").value("value2").build(), recipient1);
+        mail.addSpecificHeaderForRecipient(Header.builder().name("X-Header").value("value3").build(), recipient2);
+
+        Mail decoded = roundTrip(mail);
+
+        assertThat(decoded.getPerRecipientSpecificHeaders()).isEqualTo(mail.getPerRecipientSpecificHeaders());
+    }
+
+    @Test
+    void decodeShouldRejectUnknownVersion() throws Exception {
+        byte[] encoded = testee.encode(new MailImpl("name", sender, ImmutableList.of(recipient1)));
+        encoded[0] = 42;
+
+        assertThatThrownBy(() -> testee.decode(encoded))
+            .isInstanceOf(IOException.class);
+    }
+
+    private Mail roundTrip(Mail mail) throws IOException {
+        return testee.decode(testee.encode(mail));
+    }
+
+    private List<String> attributeNames(Mail mail) {
+        List<String> names = new ArrayList<>();
+        Iterator<String> iterator = mail.getAttributeNames();
+        while (iterator.hasNext()) {
+            names.add(iterator.next());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,185 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import static org.apache.james.queue.api.Mails.defaultMail;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.james.queue.api.DelayedManageableMailQueueContract;
+import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.queue.api.RawMailQueueItemDecoratorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentedFileMailQueueTest implements DelayedManageableMailQueueContract {
+    private static final boolean SYNC = true;
+    private static final long SMALL_SEGMENT_SIZE = 4096;
+    private static final String QUEUE_NAME = "test";
+
+    private TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private File queueDirectory;
+    private SegmentedFileMailQueue mailQueue;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        temporaryFolder.create();
+        queueDirectory = temporaryFolder.newFolder();
+        mailQueue = new SegmentedFileMailQueue(new RawMailQueueItemDecoratorFactory(), queueDirectory, QUEUE_NAME, SYNC);
+    }
+
+    @AfterEach
+    void teardown() {
+        mailQueue.dispose();
+        temporaryFolder.delete();
+    }
+
+    @Override
+    public MailQueue getMailQueue() {
+        return mailQueue;
+    }
+
+    @Override
+    public ManageableMailQueue getManageableMailQueue() {
+        return mailQueue;
+    }
+
+    @Test
+    void mailsShouldBeRecoveredAfterRestart() throws Exception {
+        mailQueue.enQueue(defaultMail().name("name1").build());
+        mailQueue.enQueue(defaultMail().name("name2").build());
+
+        restart(SegmentedFileMailQueue.DEFAULT_SEGMENT_SIZE);
+
+        assertThat(mailQueue.getSize()).isEqualTo(2);
+        assertThat(mailQueue.deQueue().getMail().getName()).isEqualTo("name1");
+        assertThat(mailQueue.deQueue().getMail().getName()).isEqualTo("name2");
+    }
+
+    @Test
+    void acknowledgedMailsShouldNotBeRecoveredAfterRestart() throws Exception {
+        mailQueue.enQueue(defaultMail().name("name1").build());
+        mailQueue.enQueue(defaultMail().name("name2").build());
+        mailQueue.deQueue().done(true);
+
+        restart(SegmentedFileMailQueue.DEFAULT_SEGMENT_SIZE);
+
+        assertThat(mailQueue.getSize()).isEqualTo(1);
+        assertThat(mailQueue.deQueue().getMail().getName()).isEqualTo("name2");
+    }
+
+    @Test
+    void mailsShouldBeRecoveredWhenCheckpointIsMissing() throws Exception {
+        mailQueue.enQueue(defaultMail().name("name1").build());
+        mailQueue.enQueue(defaultMail().name("name2").build());
+        mailQueue.deQueue().done(true);
+        mailQueue.dispose();
+
+        assertThat(new File(logDirectory(), "checkpoint").delete()).isTrue();
+        mailQueue = new SegmentedFileMailQueue(new RawMailQueueItemDecoratorFactory(), queueDirectory, QUEUE_NAME, SYNC);
+
+        assertThat(mailQueue.getSize()).isEqualTo(1);
+        assertThat(mailQueue.deQueue().getMail().getName()).isEqualTo("name2");
+    }
+
+    @Test
+    void delayedMailsShouldRemainDelayedAfterRestart() throws Exception {
+        mailQueue.enQueue(defaultMail().name("name1").build(), 1, TimeUnit.DAYS);
+
+        restart(SegmentedFileMailQueue.DEFAULT_SEGMENT_SIZE);
+
+        assertThat(mailQueue.browse().next().getNextDelivery()).isPresent();
+        assertThat(mailQueue.flush()).isEqualTo(1);
+        assertThat(mailQueue.deQueue().getMail().getName()).isEqualTo("name1");
+    }
+
+    @Test
+    void incompleteRecordShouldBeDiscardedUponRestart() throws Exception {
+        mailQueue.enQueue(defaultMail().name("name1").build());
+        mailQueue.dispose();
+
+        try (FileOutputStream out = new FileOutputStream(lastSegment(), true)) {
+            out.write(new byte[] {1, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0});
+        }
+        mailQueue = new SegmentedFileMailQueue(new RawMailQueueItemDecoratorFactory(), queueDirectory, QUEUE_NAME, SYNC);
+        mailQueue.enQueue(defaultMail().name("name2").build());
+
+        restart(SegmentedFileMailQueue.DEFAULT_SEGMENT_SIZE);
+
+        assertThat(mailQueue.getSize()).isEqualTo(2);
+        assertThat(mailQueue.deQueue().getMail().getName()).isEqualTo("name1");
+        assertThat(mailQueue.deQueue().getMail().getName()).isEqualTo("name2");
+    }
+
+    @Test
+    void acknowledgedSegmentsShouldBeReclaimed() throws Exception {
+        restart(SMALL_SEGMENT_SIZE);
+        for (int i = 0; i < 20; i++) {
+            mailQueue.enQueue(defaultMail().name("name" + i).build());
+            mailQueue.deQueue().done(true);
+        }
+
+        assertThat(logDirectory().list((dir, name) -> name.endsWith(".log"))).hasSize(1);
+    }
+
+    @Test
+    void mailsOfSparseSegmentsShouldBeRecoveredAfterRestart() throws Exception {
+        restart(SMALL_SEGMENT_SIZE);
+        mailQueue.enQueue(defaultMail().name("kept").build(), 1, TimeUnit.DAYS);
+        for (int i = 0; i < 40; i++) {
+            mailQueue.enQueue(defaultMail().name("name" + i).build());
+            mailQueue.deQueue().done(true);
+        }
+        mailQueue.enQueue(defaultMail().name("last").build(), 1, TimeUnit.DAYS);
+
+        restart(SMALL_SEGMENT_SIZE);
+
+        assertThat(mailQueue.browse())
+            .extracting(item -> item.getMail().getName())
+            .containsExactly("kept", "last");
+        assertThat(logDirectory().list((dir, name) -> name.endsWith(".log")).length).isLessThanOrEqualTo(2);
+    }
+
+    private void restart(long segmentSize) throws Exception {
+        mailQueue.dispose();
+        mailQueue = new SegmentedFileMailQueue(new RawMailQueueItemDecoratorFactory(), queueDirectory, QUEUE_NAME, SYNC, segmentSize);
+    }
+
+    private File logDirectory() {
+        return new File(new File(queueDirectory, QUEUE_NAME), "log");
+    }
+
+    private File lastSegment() {
+        File[] segments = logDirectory().listFiles((dir, name) -> name.endsWith(".log"));
+        File last = segments[0];
+        for (File segment : segments) {
+            if (segment.getName().compareTo(last.getName()) > 0) {
+                last = segment;
+            }
+        }
+        return last;
+    }
+}
@@ -0,0 +1,66 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.jms;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import org.apache.james.queue.api.MailQueue.MailQueueException;
+import org.apache.mailet.Mail;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Transaction of a mail returned by {@link JMSMailQueue#deQueue(int)}.
+ *
+ * The underlying session is committed once the mail is done, or rolled back when it failed, so that the broker
+ * redelivers the original message and accounts for its redelivery. Its consumer is then handed back to the queue for
+ * the next dequeue operations.
+ */
+public class JMSDequeueTransaction {
+
+    private final JMSMailQueue queue;
+    private final JMSMailQueue.PooledConsumer consumer;
+    private boolean done;
+
+    JMSDequeueTransaction(JMSMailQueue queue, JMSMailQueue.PooledConsumer consumer) {
+        this.queue = queue;
+        this.consumer = consumer;
+    }
+
+    synchronized void done(Mail mail, boolean success) throws MailQueueException {
+        Preconditions.checkState(!done, "Mail %s was already done", mail.getName());
+        done = true;
+        Session session = consumer.getSession();
+        try {
+            if (success) {
+                session.commit();
+                queue.sizeChanged(-1);
+            } else {
+                session.rollback();
+            }
+            queue.release(consumer);
+        } catch (JMSException ex) {
+            JMSMailQueue.rollback(session);
+            queue.discard(consumer);
+            throw new MailQueueException("Unable to commit dequeue operation for mail " + mail.getName(), ex);
+        }
+    }
+}
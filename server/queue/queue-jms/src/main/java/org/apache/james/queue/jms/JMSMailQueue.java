@@ -32,8 +32,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.StringTokenizer;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.jms.BytesMessage;
 import javax.jms.Connection;
@@ -67,7 +71,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.extra.Temporals;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 
 /**
@@ -133,9 +140,47 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
         }
     }
 
+    /**
+     * A transacted session and its consumer, kept open across dequeue operations.
+     */
+    static class PooledConsumer {
+        private final Session session;
+        private final MessageConsumer consumer;
+        private final long staleAt;
+
+        PooledConsumer(Session session, MessageConsumer consumer, long staleAt) {
+            this.session = session;
+            this.consumer = consumer;
+            this.staleAt = staleAt;
+        }
+
+        Session getSession() {
+            return session;
+        }
+
+        MessageConsumer getConsumer() {
+            return consumer;
+        }
+
+        boolean isStale() {
+            return remainingFreshness() <= 0;
+        }
+
+        long remainingFreshness() {
+            return staleAt - System.currentTimeMillis();
+        }
+
+        void close() {
+            closeConsumer(consumer);
+            closeSession(session);
+        }
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(JMSMailQueue.class);
 
     public static final String FORCE_DELIVERY = "FORCE_DELIVERY";
+    public static final long DEFAULT_CONSUMER_REFRESH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final int MAX_IDLE_CONSUMERS = 16;
 
     protected final String queueName;
     protected final Connection connection;
@@ -143,12 +188,25 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
     protected final Metric enqueuedMailsMetric;
     protected final Metric mailQueueSize;
     protected final MetricFactory metricFactory;
+    protected final long consumerRefreshIntervalMs;
 
     protected final Session session;
     protected final Queue queue;
     protected final MessageProducer producer;
 
+    private final BlockingDeque<PooledConsumer> idleConsumers = new LinkedBlockingDeque<>(MAX_IDLE_CONSUMERS);
+    private volatile AtomicLong size;
+
     public JMSMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queueName, MetricFactory metricFactory) {
+        this(connectionFactory, mailQueueItemDecoratorFactory, queueName, DEFAULT_CONSUMER_REFRESH_INTERVAL_MS, metricFactory);
+    }
+
+    /**
+     * @param consumerRefreshIntervalMs maximal age of a pooled consumer, which bounds the latency of delayed mails
+     */
+    public JMSMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queueName,
+                        long consumerRefreshIntervalMs, MetricFactory metricFactory) {
+        Preconditions.checkArgument(consumerRefreshIntervalMs > 0, "'consumerRefreshIntervalMs' should be strictly positive");
         try {
             connection = connectionFactory.createConnection();
             connection.start();
@@ -158,6 +216,7 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
         this.mailQueueItemDecoratorFactory = mailQueueItemDecoratorFactory;
         this.queueName = queueName;
         this.metricFactory = metricFactory;
+        this.consumerRefreshIntervalMs = consumerRefreshIntervalMs;
         this.enqueuedMailsMetric = metricFactory.generate("enqueuedMail:" + queueName);
         this.mailQueueSize = metricFactory.generate("mailQueueSize:" + queueName);
 
@@ -178,9 +237,7 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
     /**
      * <p>
      * Dequeues a mail when it is ready to process. As JMS does not support delay scheduling out-of-the box,
-     * we use a messageselector to check if a mail is ready. For this a
-     * {@link MessageConsumer#receive(long)} is used with a timeout of 10
-     * seconds.
+     * we use a messageselector to check if a mail is ready.
      * </p>
      * <p>
      * Many JMS implementations support better solutions for this, so this
@@ -189,38 +246,138 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
      */
     @Override
     public MailQueueItem deQueue() throws MailQueueException {
-        Session session = null;
-        MessageConsumer consumer = null;
+        return Iterables.getOnlyElement(deQueue(1));
+    }
 
-        while (true) {
-            TimeMetric timeMetric = metricFactory.timer("dequeueTime:" + queueName);
-            try {
-                session = connection.createSession(true, Session.SESSION_TRANSACTED);
-                Queue queue = session.createQueue(queueName);
-                consumer = session.createConsumer(queue, getMessageSelector());
+    /**
+     * <p>
+     * Dequeues up to maxBatch mails, blocking for the first one only. Each mail is received by its own transacted
+     * session, committed when the mail is done, or rolled back when it failed so that the broker redelivers it.
+     * </p>
+     * <p>
+     * Consumers are pooled and reused across dequeue operations rather than created for each mail. As the message
+     * selector embeds the current time, a consumer is recreated once it is older than the consumer refresh interval
+     * so that delayed mails get eventually selected.
+     * </p>
+     */
+    @Override
+    public List<MailQueueItem> deQueue(int maxBatch) throws MailQueueException {
+        Preconditions.checkArgument(maxBatch > 0, "'maxBatch' should be strictly positive");
+        ImmutableList.Builder<MailQueueItem> items = ImmutableList.builder();
 
-                Message message = consumer.receive(10000);
+        TimeMetric timeMetric = metricFactory.timer("dequeueTime:" + queueName);
+        try {
+            items.add(receive());
+            for (int i = 1; i < maxBatch; i++) {
+                Optional<MailQueueItem> item = receiveNoWait();
+                if (!item.isPresent()) {
+                    break;
+                }
+                items.add(item.get());
+            }
+            return items.build();
+        } catch (MailQueueException e) {
+            for (MailQueueItem item : items.build()) {
+                item.done(false);
+            }
+            throw e;
+        } finally {
+            timeMetric.stopAndPublish();
+        }
+    }
 
+    private MailQueueItem receive() throws MailQueueException {
+        PooledConsumer consumer = null;
+        try {
+            consumer = borrowConsumer();
+            while (true) {
+                if (consumer.isStale()) {
+                    consumer.close();
+                    consumer = null;
+                    consumer = createConsumer();
+                }
+                Message message = consumer.getConsumer().receive(Math.max(1, consumer.remainingFreshness()));
                 if (message != null) {
-                    mailQueueSize.decrement();
-                    return createMailQueueItem(session, consumer, message);
-                } else {
-                    session.commit();
-                    closeConsumer(consumer);
-                    closeSession(session);
+                    return newMailQueueItem(consumer, message);
                 }
+            }
+        } catch (Exception e) {
+            discardOnFailure(consumer);
+            throw new MailQueueException("Unable to dequeue next message", e);
+        }
+    }
 
-            } catch (Exception e) {
-                rollback(session);
-                closeConsumer(consumer);
-                closeSession(session);
-                throw new MailQueueException("Unable to dequeue next message", e);
-            } finally {
-                timeMetric.stopAndPublish();
+    private Optional<MailQueueItem> receiveNoWait() throws MailQueueException {
+        PooledConsumer consumer = null;
+        try {
+            consumer = borrowConsumer();
+            if (consumer.isStale()) {
+                consumer.close();
+                consumer = null;
+                consumer = createConsumer();
             }
+            Message message = consumer.getConsumer().receiveNoWait();
+            if (message == null) {
+                release(consumer);
+                return Optional.empty();
+            }
+            return Optional.of(newMailQueueItem(consumer, message));
+        } catch (Exception e) {
+            discardOnFailure(consumer);
+            throw new MailQueueException("Unable to dequeue next message", e);
+        }
+    }
+
+    private MailQueueItem newMailQueueItem(PooledConsumer consumer, Message message) throws JMSException, MessagingException {
+        mailQueueSize.decrement();
+        return createMailQueueItem(new JMSDequeueTransaction(this, consumer), message);
+    }
+
+    private void discardOnFailure(PooledConsumer consumer) {
+        if (consumer != null) {
+            rollback(consumer.getSession());
+            consumer.close();
+        }
+    }
+
+    /**
+     * Queue dequeue consumers subscribe to. As consumers are kept open between dequeue operations, implementations
+     * should avoid idle consumers holding messages that other consumers could process.
+     */
+    protected Queue getConsumerQueue(Session session) throws JMSException {
+        return session.createQueue(queueName);
+    }
+
+    private PooledConsumer borrowConsumer() throws JMSException {
+        PooledConsumer consumer = idleConsumers.pollFirst();
+        if (consumer != null) {
+            return consumer;
+        }
+        return createConsumer();
+    }
+
+    private PooledConsumer createConsumer() throws JMSException {
+        long createdAt = System.currentTimeMillis();
+        Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+        try {
+            return new PooledConsumer(session, session.createConsumer(getConsumerQueue(session), getMessageSelector(createdAt)),
+                createdAt + consumerRefreshIntervalMs);
+        } catch (JMSException e) {
+            closeSession(session);
+            throw e;
         }
     }
 
+    void release(PooledConsumer consumer) {
+        if (!idleConsumers.offerFirst(consumer)) {
+            consumer.close();
+        }
+    }
+
+    void discard(PooledConsumer consumer) {
+        consumer.close();
+    }
+
     @Override
     public void enQueue(Mail mail, long delay, TimeUnit unit) throws MailQueueException {
         TimeMetric timeMetric = metricFactory.timer("enqueueMailTime:" + queueName);
@@ -241,6 +398,7 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
 
             enqueuedMailsMetric.increment();
             mailQueueSize.increment();
+            sizeChanged(1);
         } catch (Exception e) {
             throw new MailQueueException("Unable to enqueue mail " + mail, e);
         } finally {
@@ -471,18 +629,38 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
      * @throws JMSException
      * @throws MessagingException
      */
-    protected MailQueueItem createMailQueueItem(Session session, MessageConsumer consumer, Message message) throws JMSException, MessagingException {
+    protected MailQueueItem createMailQueueItem(JMSDequeueTransaction transaction, Message message) throws JMSException, MessagingException {
         Mail mail = createMail(message);
-        JMSMailQueueItem jmsMailQueueItem = new JMSMailQueueItem(mail, session, consumer);
+        JMSMailQueueItem jmsMailQueueItem = new JMSMailQueueItem(mail, transaction, message);
         return mailQueueItemDecoratorFactory.decorate(jmsMailQueueItem);
     }
 
-    protected String getMessageSelector() {
-        return JAMES_NEXT_DELIVERY + " <= " + System.currentTimeMillis() + " OR " + FORCE_DELIVERY + " = true";
+    protected String getMessageSelector(long now) {
+        return JAMES_NEXT_DELIVERY + " <= " + now + " OR " + FORCE_DELIVERY + " = true";
     }
 
+    /**
+     * The queue is browsed once to know its initial size, which is then maintained by the operations performed
+     * through this instance. When the underlying JMS queue is shared, implementations able to query the broker
+     * should override this method.
+     */
     @Override
     public long getSize() throws MailQueueException {
+        AtomicLong counter = size;
+        if (counter == null) {
+            counter = initializeSize();
+        }
+        return Math.max(0, counter.get());
+    }
+
+    private synchronized AtomicLong initializeSize() throws MailQueueException {
+        if (size == null) {
+            size = new AtomicLong(browseSize());
+        }
+        return size;
+    }
+
+    private long browseSize() throws MailQueueException {
         QueueBrowser browser = null;
         try {
             browser = session.createBrowser(queue);
@@ -496,6 +674,13 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
         }
     }
 
+    void sizeChanged(long delta) {
+        AtomicLong counter = size;
+        if (counter != null) {
+            counter.addAndGet(delta);
+        }
+    }
+
     @Override
     public long flush() throws MailQueueException {
         Session session = null;
@@ -583,6 +768,7 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
                 }
             }
             session.commit();
+            sizeChanged(-messages.size());
             return messages;
         } catch (Exception e) {
             rollback(session);
@@ -663,11 +849,6 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
                     throw new NoSuchElementException();
                 }
 
-                private ZonedDateTime nextDeliveryDate(Message m) throws JMSException {
-                    long nextDeliveryTimestamp = m.getLongProperty(JAMES_NEXT_DELIVERY);
-                    return Instant.ofEpochMilli(nextDeliveryTimestamp).atZone(ZoneId.systemDefault());
-                }
-
                 @Override
                 public boolean hasNext() {
                     return messages.hasMoreElements();
@@ -687,8 +868,55 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
         }
     }
 
+    /**
+     * Skipped messages are not read, and only the envelope and the attributes of the returned mails are loaded.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<MailQueueItemView> browse(int offset, int limit) throws MailQueueException {
+        Preconditions.checkArgument(offset >= 0, "'offset' should not be negative");
+        Preconditions.checkArgument(limit > 0, "'limit' should be strictly positive");
+        QueueBrowser browser = null;
+        try {
+            browser = session.createBrowser(queue);
+            Enumeration<Message> messages = browser.getEnumeration();
+            for (int skipped = 0; skipped < offset && messages.hasMoreElements(); skipped++) {
+                messages.nextElement();
+            }
+
+            ImmutableList.Builder<MailQueueItemView> items = ImmutableList.builder();
+            int count = 0;
+            while (count < limit && messages.hasMoreElements()) {
+                Message message = messages.nextElement();
+                try {
+                    MailImpl mail = new MailImpl();
+                    populateMail(message, mail);
+                    items.add(new MailQueueItemView(mail, nextDeliveryDate(message)));
+                    count++;
+                } catch (JMSException e) {
+                    LOGGER.error("Unable to browse queue", e);
+                }
+            }
+            return items.build();
+        } catch (Exception e) {
+            LOGGER.error("Unable to browse queue {}", queueName, e);
+            throw new MailQueueException("Unable to browse queue " + queueName, e);
+        } finally {
+            closeBrowser(browser);
+        }
+    }
+
+    private static ZonedDateTime nextDeliveryDate(Message m) throws JMSException {
+        long nextDeliveryTimestamp = m.getLongProperty(JAMES_NEXT_DELIVERY);
+        return Instant.ofEpochMilli(nextDeliveryTimestamp).atZone(ZoneId.systemDefault());
+    }
+
     @Override
     public void dispose() {
+        PooledConsumer consumer;
+        while ((consumer = idleConsumers.pollFirst()) != null) {
+            consumer.close();
+        }
         try {
             closeProducer(producer);
             closeSession(session);
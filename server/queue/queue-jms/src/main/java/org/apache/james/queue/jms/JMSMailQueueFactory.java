@@ -27,6 +27,8 @@ import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.library.AbstractMailQueueFactory;
 
+import com.google.common.base.Preconditions;
+
 /**
  * {@link MailQueueFactory} implementation which use JMS
  */
@@ -35,7 +37,8 @@ public class JMSMailQueueFactory extends AbstractMailQueueFactory<ManageableMail
     protected final ConnectionFactory connectionFactory;
     protected final MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory;
     protected final MetricFactory metricFactory;
-    
+    protected long consumerRefreshIntervalMs = JMSMailQueue.DEFAULT_CONSUMER_REFRESH_INTERVAL_MS;
+
     @Inject
     public JMSMailQueueFactory(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, MetricFactory metricFactory) {
         this.connectionFactory = connectionFactory;
@@ -43,9 +46,17 @@ public class JMSMailQueueFactory extends AbstractMailQueueFactory<ManageableMail
         this.metricFactory = metricFactory;
     }
 
+    /**
+     * Maximal age of the pooled consumers of the created queues, which bounds the latency of delayed mails.
+     */
+    public void setConsumerRefreshIntervalMs(long consumerRefreshIntervalMs) {
+        Preconditions.checkArgument(consumerRefreshIntervalMs > 0, "'consumerRefreshIntervalMs' should be strictly positive");
+        this.consumerRefreshIntervalMs = consumerRefreshIntervalMs;
+    }
+
     @Override
     protected ManageableMailQueue createMailQueue(String name) {
-        return new JMSMailQueue(connectionFactory, mailQueueItemDecoratorFactory, name, metricFactory);
+        return new JMSMailQueue(connectionFactory, mailQueueItemDecoratorFactory, name, consumerRefreshIntervalMs, metricFactory);
     }
     
 }
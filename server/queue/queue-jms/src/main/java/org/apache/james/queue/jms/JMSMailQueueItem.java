@@ -19,9 +19,7 @@
 
 package org.apache.james.queue.jms;
 
-import javax.jms.JMSException;
-import javax.jms.MessageConsumer;
-import javax.jms.Session;
+import javax.jms.Message;
 
 import org.apache.james.queue.api.MailQueue.MailQueueException;
 import org.apache.james.queue.api.MailQueue.MailQueueItem;
@@ -33,29 +31,18 @@ import org.apache.mailet.Mail;
 public class JMSMailQueueItem implements MailQueueItem {
 
     protected final Mail mail;
-    protected final Session session;
-    protected final MessageConsumer consumer;
+    protected final JMSDequeueTransaction transaction;
+    protected final Message message;
 
-    public JMSMailQueueItem(Mail mail, Session session, MessageConsumer consumer) {
+    public JMSMailQueueItem(Mail mail, JMSDequeueTransaction transaction, Message message) {
         this.mail = mail;
-        this.session = session;
-        this.consumer = consumer;
+        this.transaction = transaction;
+        this.message = message;
     }
 
     @Override
     public void done(boolean success) throws MailQueueException {
-        try {
-            if (success) {
-                session.commit();
-            } else {
-                JMSMailQueue.rollback(session);
-            }
-        } catch (JMSException ex) {
-            throw new MailQueueException("Unable to commit dequeue operation for mail " + mail.getName(), ex);
-        } finally {
-            JMSMailQueue.closeConsumer(consumer);
-            JMSMailQueue.closeSession(session);
-        }
+        transaction.done(mail, success);
     }
 
     @Override